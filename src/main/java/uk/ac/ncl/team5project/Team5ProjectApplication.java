@@ -3,6 +3,7 @@ package uk.ac.ncl.team5project;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * @file Team5ProjectApplication.java
@@ -18,11 +19,12 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @reviewer: wensi huang
  * @review_date: 2025-04-18
  * @modification_date: 2025-04-18
- * @description: Starts the Spring Boot application and enables automatic component scanning.
+ * @description: Starts the Spring Boot application and enables automatic component scanning and scheduled tasks.
  */
 
 @SpringBootApplication
 @MapperScan("uk.ac.ncl.team5project.mapper")
+@EnableScheduling
 public class Team5ProjectApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,26 @@
+package uk.ac.ncl.team5project.config;
+
+/**
+ * @file BulkheadFullException.java
+ * @date 2026-10-19
+ * @function_description: Thrown for a request arriving while its controller's bulkhead is full.
+ * @interface_description: Constructor only.
+ * @calling_sequence: BulkheadInterceptor → GlobalExceptionHandler
+ * @arguments_description: String bulkhead (the controller's name)
+ * @list_of_subordinate_classes: None
+ * @discussion: Answered like an unavailable database: a stale response for @ServeStale reads, else 503.
+ * @development_history: Created on 2026-10-19 for bulkheads around the controllers.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Rejection by a full bulkhead.
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BulkheadFullException(String bulkhead) {
+        super("Too many requests in progress for " + bulkhead);
+    }
+}
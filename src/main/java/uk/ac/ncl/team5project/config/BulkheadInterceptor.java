@@ -0,0 +1,77 @@
+package uk.ac.ncl.team5project.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import uk.ac.ncl.team5project.util.Bulkhead;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * @file BulkheadInterceptor.java
+ * @date 2026-10-19
+ * @function_description: Caps the requests each controller has in progress at once.
+ * @interface_description: preHandle, afterConcurrentHandlingStarted, afterCompletion, bulkheads()
+ * @calling_sequence: DispatcherServlet → this interceptor → Bulkhead → controller
+ * @arguments_description: HttpServletRequest, handler (a HandlerMethod)
+ * @list_of_subordinate_classes: Bulkhead, BulkheadFullException
+ * @discussion: There is one bulkhead per controller class, holding at most
+ * team5.resilience.bulkhead-max-concurrent requests. When the database stalls, the requests of the
+ * controllers that reach it pile up; the cap keeps them from taking every servlet thread and connection,
+ * so the other controllers keep answering. A request over the cap is rejected with BulkheadFullException
+ * before the controller runs. The permit is kept as a request attribute and given back when the request
+ * completes or leaves its thread for asynchronous processing, whose dispatch back takes a new one.
+ * @development_history: Created on 2026-10-19 for bulkheads around the controllers.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Per-controller concurrency limits.
+ */
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+    private static final String PERMIT = BulkheadInterceptor.class.getName() + ".permit";
+
+    private final ConfigurationStore configurationStore;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentSkipListMap<>();
+
+    public BulkheadInterceptor(ConfigurationStore configurationStore) {
+        this.configurationStore = configurationStore;
+    }
+
+    public Collection<Bulkhead> bulkheads() {
+        return bulkheads.values();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(method.getBeanType().getSimpleName(), Bulkhead::new);
+        if (!bulkhead.tryAcquire(configurationStore.get(Settings.BULKHEAD_MAX_CONCURRENT))) {
+            throw new BulkheadFullException(bulkhead.getName());
+        }
+        request.setAttribute(PERMIT, bulkhead);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private static void release(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT) instanceof Bulkhead bulkhead) {
+            request.removeAttribute(PERMIT);
+            bulkhead.release();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package uk.ac.ncl.team5project.config;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.web.context.request.RequestContextHolder;
+import uk.ac.ncl.team5project.util.CircuitBreaker;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * @file CircuitBreakerInterceptor.java
+ * @date 2026-10-19
+ * @function_description: MyBatis plugin that runs every statement through its mapper's circuit breaker.
+ * @interface_description: intercept(invocation), breakers(), propagate(task)
+ * @calling_sequence: Mapper proxy → Executor (this plugin) → CircuitBreaker → data source;
+ * ShardRouter.scatter / FanOut → propagate(task)
+ * @arguments_description: Invocation of Executor.query / Executor.update
+ * @list_of_subordinate_classes: CircuitBreaker, CircuitOpenException
+ * @discussion: There is one breaker per mapper, and per shard for statements ShardRouter routes, so one
+ * unreachable shard does not stop the others. A statement counts as failed when it ends in a connection
+ * failure, a timeout or another transient SQLException (deadlock victims excepted), or when a request's
+ * statement takes longer than team5.resilience.breaker-slow-call-ms; constraint violations and the like
+ * come from a database that answered and count as successes. Only statements run for a request can be slow:
+ * on the request thread (DispatcherServlet, or BatchServiceImpl for a sub-request, has bound it to
+ * RequestContextHolder) or on a thread the request forked through ShardRouter.scatter or FanOut, which
+ * carry the mark along with propagate(task). Background work (index rebuilds and similarity scans,
+ * archiving, resharding copies, relays and pollers) reads in large batches whose duration says nothing
+ * about the database's health, so its slow statements count as successes; its failures still count. While a breaker is open its statements fail at once with
+ * CircuitOpenException instead of each holding a connection until the pool or the driver gives up.
+ * Settings are read from ConfigurationStore, which itself reads through the mappers, so statements pass
+ * unguarded until every singleton exists.
+ * @development_history: Created on 2026-10-19 for circuit breaking around the mappers.
+ * 2026-10-19 Slow statements of background work no longer count towards opening a breaker.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Per-mapper circuit breakers.
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class CircuitBreakerInterceptor implements Interceptor, SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakerInterceptor.class);
+    // Set on threads running work forked from a request
+    private static final ThreadLocal<Boolean> FORKED_FROM_REQUEST = new ThreadLocal<>();
+
+    private final ObjectProvider<ConfigurationStore> configurationStoreProvider;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentSkipListMap<>();
+    private volatile ConfigurationStore configurationStore;
+
+    public CircuitBreakerInterceptor(ObjectProvider<ConfigurationStore> configurationStoreProvider) {
+        this.configurationStoreProvider = configurationStoreProvider;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        configurationStore = configurationStoreProvider.getObject();
+    }
+
+    public Collection<CircuitBreaker> breakers() {
+        return breakers.values();
+    }
+
+    /**
+     * Wraps task so that its statements count as the current request's, if there is one.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        if (!forRequest()) {
+            return task;
+        }
+        return () -> {
+            Boolean previous = FORKED_FROM_REQUEST.get();
+            FORKED_FROM_REQUEST.set(Boolean.TRUE);
+            try {
+                return task.call();
+            } finally {
+                if (previous == null) {
+                    FORKED_FROM_REQUEST.remove();
+                }
+            }
+        };
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        ConfigurationStore settings = configurationStore;
+        if (settings == null) {
+            return invocation.proceed();
+        }
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        CircuitBreaker breaker = breakers.computeIfAbsent(breakerName(statement.getId()), CircuitBreaker::new);
+        long openMillis = settings.get(Settings.BREAKER_OPEN_MS);
+        long start = System.currentTimeMillis();
+        long permit = breaker.tryAcquire(start, openMillis);
+        if (permit < 0) {
+            throw new CircuitOpenException(breaker.getName(), breaker.remainingOpenMillis(start, openMillis));
+        }
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable t) {
+            if (isUnavailable(t)) {
+                failed(breaker, permit, settings);
+            } else {
+                breaker.onSuccess(permit);
+            }
+            throw t;
+        }
+        if (System.currentTimeMillis() - start > settings.get(Settings.BREAKER_SLOW_CALL_MS) && forRequest()) {
+            failed(breaker, permit, settings);
+        } else {
+            breaker.onSuccess(permit);
+        }
+        return result;
+    }
+
+    private static void failed(CircuitBreaker breaker, long permit, ConfigurationStore settings) {
+        CircuitBreaker.State before = breaker.getState();
+        breaker.onFailure(permit, System.currentTimeMillis(), settings.get(Settings.BREAKER_FAILURE_THRESHOLD));
+        if (before != CircuitBreaker.State.OPEN && breaker.getState() == CircuitBreaker.State.OPEN) {
+            log.warn("Circuit breaker {} opened for {} ms", breaker.getName(), settings.get(Settings.BREAKER_OPEN_MS));
+        }
+    }
+
+    private static boolean forRequest() {
+        return RequestContextHolder.getRequestAttributes() != null || FORKED_FROM_REQUEST.get() != null;
+    }
+
+    // The SQLException behind the failure, wherever MyBatis, Spring or reflection wrapped it
+    private static boolean isUnavailable(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql) {
+                return !(sql instanceof SQLTransactionRollbackException)
+                        && (sql instanceof SQLTransientException
+                        || sql instanceof SQLRecoverableException
+                        || sql instanceof SQLNonTransientConnectionException
+                        || (sql.getSQLState() != null && sql.getSQLState().startsWith("08")));
+            }
+        }
+        return false;
+    }
+
+    private static String breakerName(String statementId) {
+        int dot = statementId.lastIndexOf('.');
+        String namespace = dot < 0 ? statementId : statementId.substring(0, dot);
+        String mapper = namespace.substring(namespace.lastIndexOf('.') + 1);
+        Integer shard = ShardRouter.currentShard();
+        return shard == null ? mapper : mapper + "@shard-" + shard;
+    }
+}
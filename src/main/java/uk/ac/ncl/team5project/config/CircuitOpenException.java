@@ -0,0 +1,36 @@
+package uk.ac.ncl.team5project.config;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * @file CircuitOpenException.java
+ * @date 2026-10-19
+ * @function_description: Thrown in place of a statement whose mapper's circuit breaker is open.
+ * @interface_description: getRetryAfterMillis()
+ * @calling_sequence: CircuitBreakerInterceptor → MyBatis → Spring exception translation → GlobalExceptionHandler
+ * @arguments_description: String breaker (the breaker's name), long retryAfterMillis (until the next probe)
+ * @list_of_subordinate_classes: None
+ * @discussion: A SQLTransientConnectionException, so MyBatis-Spring translates it like a connection that
+ * could not be obtained (TransientDataAccessResourceException) and callers handle both the same way.
+ * @development_history: Created on 2026-10-19 for circuit breaking around the mappers.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Fast failure of a statement behind an open breaker.
+ */
+public class CircuitOpenException extends SQLTransientConnectionException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(String breaker, long retryAfterMillis) {
+        super("Circuit breaker " + breaker + " is open");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
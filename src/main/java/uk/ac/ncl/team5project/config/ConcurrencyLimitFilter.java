@@ -0,0 +1,237 @@
+package uk.ac.ncl.team5project.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import uk.ac.ncl.team5project.util.Bulkhead;
+import uk.ac.ncl.team5project.util.GradientLimit;
+import uk.ac.ncl.team5project.util.JwtUtil;
+import uk.ac.ncl.team5project.util.Result;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @file ConcurrencyLimitFilter.java
+ * @date 2026-10-19
+ * @function_description: Sheds requests beyond an adaptive concurrency limit before any work is done for them.
+ * @interface_description: doFilterInternal, tryAcquire, getLimit, getInFlight, getRttNanos, getNoLoadRttNanos,
+ * getShed
+ * @calling_sequence: HTTP request → this filter → Spring Security (JwtAuthenticationFilter) → controllers
+ * @arguments_description: HttpServletRequest, HttpServletResponse, FilterChain
+ * @list_of_subordinate_classes: GradientLimit, Bulkhead, Priority, Permit
+ * @discussion: Requests to /v1/** in progress on this instance are capped by a GradientLimit, which lowers
+ * the cap when response times climb over their no-load level and raises it while they hold, so queueing
+ * stays out of the service rather than slowing every request down. A request over the cap gets 503 with
+ * Retry-After at once. Priorities share the cap unevenly: anonymous reads may fill 70% of it and
+ * authenticated reads 90%, while login, registration and every write may fill all of it, so reads are
+ * shed first as the service nears saturation. The filter runs before Spring Security, so a read is first
+ * tried as anonymous; only one that would be shed has its bearer token verified, and is tried again as
+ * authenticated if the token is valid. A header alone never raises a read's share, and a read that fits
+ * the anonymous share is admitted without any token work. POST /v1/batch takes no permit of its own:
+ * BatchServiceImpl takes one per sub-request through tryAcquire, classed by that sub-request's method,
+ * so a batch of reads is shed like the reads it carries and a batch of twenty counts as twenty. Registered
+ * ahead of the Spring Security chain by ResilienceConfig; switched off with
+ * team5.resilience.limiter-enabled.
+ * @development_history: Created on 2026-10-19 for adaptive concurrency limiting at the controller edge.
+ * 2026-10-19 Batch sub-requests take a permit each; a read's token is verified before it is promoted.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Adaptive, prioritised load shedding at the edge.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String BATCH_PATH = "/v1/batch";
+    private static final String BEARER = "Bearer ";
+
+    private final ConfigurationStore configurationStore;
+    private final ObjectMapper objectMapper;
+    private final JwtUtil jwtUtil;
+    private final GradientLimit limit;
+    private final Bulkhead inFlight = new Bulkhead("edge");
+    private final Map<Priority, LongAdder> shed = new EnumMap<>(Priority.class);
+
+    public ConcurrencyLimitFilter(ConfigurationStore configurationStore, ObjectMapper objectMapper, JwtUtil jwtUtil) {
+        this.configurationStore = configurationStore;
+        this.objectMapper = objectMapper;
+        this.jwtUtil = jwtUtil;
+        this.limit = new GradientLimit(configurationStore.get(Settings.LIMITER_INITIAL_LIMIT));
+        for (Priority priority : Priority.values()) {
+            shed.put(priority, new LongAdder());
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!configurationStore.get(Settings.LIMITER_ENABLED) || HttpMethod.OPTIONS.matches(request.getMethod())
+                || isBatch(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Priority priority = Priority.of(request.getMethod(), false);
+        boolean admitted = admit(priority);
+        if (!admitted && priority == Priority.LOW && hasValidToken(request)) {
+            priority = Priority.NORMAL;
+            admitted = admit(priority);
+        }
+        if (!admitted) {
+            shed.get(priority).increment();
+            reject(response);
+            return;
+        }
+        Permit permit = new Permit(true);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        permit.close();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                permit.close();
+            }
+        }
+    }
+
+    /**
+     * Takes a permit for work that reaches the controllers without passing this filter, as batched
+     * sub-requests do.
+     * @param priority class of the work
+     * @return a permit to close when the work is done, or null if the work is to be shed
+     */
+    public Permit tryAcquire(Priority priority) {
+        if (!configurationStore.get(Settings.LIMITER_ENABLED)) {
+            return new Permit(false);
+        }
+        if (!admit(priority)) {
+            shed.get(priority).increment();
+            return null;
+        }
+        return new Permit(true);
+    }
+
+    public int getLimit() {
+        int min = configurationStore.get(Settings.LIMITER_MIN_LIMIT);
+        int max = configurationStore.get(Settings.LIMITER_MAX_LIMIT);
+        return Math.max(min, Math.min(max, limit.getLimit()));
+    }
+
+    public int getInFlight() {
+        return inFlight.getInFlight();
+    }
+
+    public long getRttNanos() {
+        return limit.getRttNanos();
+    }
+
+    public long getNoLoadRttNanos() {
+        return limit.getNoLoadRttNanos();
+    }
+
+    public Map<Priority, Long> getShed() {
+        Map<Priority, Long> counts = new EnumMap<>(Priority.class);
+        shed.forEach((priority, count) -> counts.put(priority, count.sum()));
+        return counts;
+    }
+
+    private boolean admit(Priority priority) {
+        return inFlight.tryAcquire(Math.max(1, (int) (getLimit() * priority.share)));
+    }
+
+    private boolean isBatch(HttpServletRequest request) {
+        return HttpMethod.POST.matches(request.getMethod())
+                && request.getRequestURI().substring(request.getContextPath().length()).equals(BATCH_PATH);
+    }
+
+    private boolean hasValidToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return header != null && header.startsWith(BEARER) && jwtUtil.validateJwtToken(header.substring(BEARER.length()));
+    }
+
+    private void finished(long start, int admittedWith) {
+        inFlight.release();
+        long now = System.nanoTime();
+        limit.onSample(now - start, admittedWith, now,
+                configurationStore.get(Settings.LIMITER_MIN_LIMIT), configurationStore.get(Settings.LIMITER_MAX_LIMIT));
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Result.error(503, "Server busy, please retry"));
+    }
+
+    /**
+     * One admitted request or sub-request; closing it releases its slot and feeds its latency to the limit.
+     */
+    public final class Permit implements AutoCloseable {
+        private final boolean limited;
+        private final int admittedWith = inFlight.getInFlight();
+        private final long start = System.nanoTime();
+
+        private Permit(boolean limited) {
+            this.limited = limited;
+        }
+
+        @Override
+        public void close() {
+            if (limited) {
+                finished(start, admittedWith);
+            }
+        }
+    }
+
+    /**
+     * Share of the limit a class of requests may fill.
+     */
+    public enum Priority {
+        // Login, registration and every write
+        CRITICAL(1.0),
+        // Reads carrying a valid token
+        NORMAL(0.9),
+        // Anonymous reads, such as browsing books and reviews
+        LOW(0.7);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+
+        public static Priority of(String method, boolean authenticated) {
+            if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+                return CRITICAL;
+            }
+            return authenticated ? NORMAL : LOW;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package uk.ac.ncl.team5project.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ncl.team5project.entity.Configuration;
+import uk.ac.ncl.team5project.mapper.ConfigurationMapper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * @file ConfigurationStore.java
+ * @date 2026-10-19
+ * @function_description: Runtime configuration loaded from the CONFIGURATION table and reloaded on change.
+ * @interface_description:
+ * - get(setting) / current(): read the current snapshot (a volatile read; no locking, no database access)
+ * - subscribe(setting, listener): called with the new value whenever a reload changes it
+ * - set(key, value): writes a setting and reloads; refuses a value the setting would ignore
+ * - poll(): compares the table's version stamp with the snapshot and reloads if it moved
+ * @calling_sequence: JwtUtil / services → ConfigurationStore.get(); scheduler → poll() → ConfigurationMapper
+ * @arguments_description: Setting setting, Consumer listener, String key, String value
+ * @list_of_subordinate_classes: RuntimeSettings, Setting, Settings, ConfigurationMapper
+ * @discussion: A poll is one aggregate query (MAX(version) and COUNT(*)); the table is only read in full
+ * when that stamp changes. Each reload builds a new immutable RuntimeSettings and publishes it through a
+ * volatile field, so readers see either the old or the new snapshot, never a mix. Listeners run on the
+ * polling thread after the swap; a failing listener is logged and does not stop the others. If the table
+ * cannot be read the previous snapshot (initially application properties and defaults) stays in effect.
+ * Writes take their version from the one-row CONFIGURATION_VERSION counter rather than MAX(version) + 1,
+ * which two instances writing at once could both compute.
+ * @development_history: Created on 2026-10-19 for hot-reloadable runtime configuration.
+ * 2026-10-19 set() refuses values the setting would ignore
+ * 2026-10-19 set() takes its version from the CONFIGURATION_VERSION counter
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Holds the current settings snapshot and keeps it in step with CONFIGURATION.
+ */
+@Component
+public class ConfigurationStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigurationStore.class);
+
+    @Autowired
+    private ConfigurationMapper configurationMapper;
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Setting<?>, List<Consumer<Object>>> listeners = new ConcurrentHashMap<>();
+
+    private volatile RuntimeSettings current;
+
+    @PostConstruct
+    public void init() {
+        Settings.load();
+        current = new RuntimeSettings("", Map.of(), environment);
+        poll();
+    }
+
+    public RuntimeSettings current() {
+        return current;
+    }
+
+    public <T> T get(Setting<T> setting) {
+        return current.get(setting);
+    }
+
+    /**
+     * Registers a listener for changes of one setting and returns the setting's current value.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T subscribe(Setting<T> setting, Consumer<? super T> listener) {
+        listeners.computeIfAbsent(setting, s -> new CopyOnWriteArrayList<>()).add((Consumer<Object>) listener);
+        return current.get(setting);
+    }
+
+    /**
+     * Inserts or updates a setting under a version taken from CONFIGURATION_VERSION in the same transaction,
+     * then reloads. The counter's row lock makes concurrent writers on other instances wait for the commit,
+     * so no two writes share a version and versions commit in order.
+     * @throws IllegalArgumentException if the value does not parse, is out of bounds or breaks an ordered pair
+     */
+    public synchronized void set(String key, String value) {
+        Map<String, String> candidate = new HashMap<>(current.stored());
+        candidate.put(key, value);
+        String problem = new RuntimeSettings(current.version(), candidate, environment).problem(key);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            configurationMapper.bumpVersion();
+            Long version = configurationMapper.selectBumpedVersion();
+            if (configurationMapper.updateValue(key, value, version) == 0) {
+                configurationMapper.insert(new Configuration().setConfigKey(key).setConfigValue(value).setVersion(version));
+            }
+        });
+        poll();
+    }
+
+    @Scheduled(fixedDelayString = "${team5.config.poll-interval-ms:5000}",
+            initialDelayString = "${team5.config.poll-interval-ms:5000}")
+    public synchronized void poll() {
+        try {
+            String stamp = configurationMapper.selectVersionStamp();
+            if (Objects.equals(stamp, current.version())) {
+                return;
+            }
+            Map<String, String> stored = new HashMap<>();
+            for (Configuration row : configurationMapper.selectList(null)) {
+                if (row.getConfigValue() != null) {
+                    stored.put(row.getConfigKey(), row.getConfigValue());
+                }
+            }
+            RuntimeSettings previous = current;
+            RuntimeSettings fresh = new RuntimeSettings(stamp, stored, environment);
+            current = fresh;
+            log.info("Runtime configuration loaded at version {} ({} stored settings)", stamp, stored.size());
+            notifyListeners(previous, fresh);
+        } catch (RuntimeException e) {
+            log.warn("Could not reload runtime configuration, keeping version {}", current.version(), e);
+        }
+    }
+
+    private void notifyListeners(RuntimeSettings previous, RuntimeSettings fresh) {
+        listeners.forEach((setting, registered) -> {
+            Object value = fresh.get(setting);
+            if (Objects.equals(previous.get(setting), value)) {
+                return;
+            }
+            for (Consumer<Object> listener : registered) {
+                try {
+                    listener.accept(value);
+                } catch (RuntimeException e) {
+                    log.warn("Listener for {} failed", setting.key(), e);
+                }
+            }
+        });
+    }
+}
@@ -1,5 +1,17 @@
 package uk.ac.ncl.team5project.config;
 
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.mybatis.spring.MyBatisSystemException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.method.HandlerMethod;
 import uk.ac.ncl.team5project.util.Result;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -12,17 +24,23 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
  * @interface_description: Exception handling methods with @ExceptionHandler annotation.
  * @calling_sequence: Controller → Exception thrown → Caught here → Return Result response
  * @arguments_description: Exception, MethodArgumentNotValidException
- * @list_of_subordinate_classes: Result
- * @discussion: Useful for unified error response formatting.
- * @development_history: Created on 2025-04-01 as part of global configuration module
+ * @list_of_subordinate_classes: Result, StaleResponseAdvice
+ * @discussion: Useful for unified error response formatting. An unavailable database is answered with 503
+ * and Retry-After, or with the last successful response for @ServeStale reads, rather than 500.
+ * @development_history: Created on 2025-04-01 as part of global configuration module;
+ * 2026-10-19 stale responses and 503 when the database is unavailable
  * @designer: wensi huang
  * @reviewer: wensi huang
  * @review_date: 2025-04-18
- * @modification_date: 2025-04-18
+ * @modification_date: 2026-10-19
  * @description: Provides centralized exception handling for REST controllers.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    @Autowired
+    private StaleResponseAdvice staleResponses;
 
     /**
      * Handles all unexpected exceptions.
@@ -36,6 +54,63 @@ public class GlobalExceptionHandler {
         return Result.error(500, e.getMessage());
     }
 
+    /**
+     * Handles a database that cannot be reached, times out or has its circuit breaker open, and requests
+     * rejected by a full bulkhead.
+     * A @ServeStale read gets its last successful response, marked with Warning and Age headers;
+     * anything else gets 503 with Retry-After.
+     * @param e the caught exception
+     * @param handler the controller method that failed
+     * @param request the failed request
+     * @return the stale response, or a 503 error result
+     */
+    @ExceptionHandler({TransientDataAccessException.class, DataAccessResourceFailureException.class,
+            CannotCreateTransactionException.class, BulkheadFullException.class})
+    public ResponseEntity<?> handleUnavailable(Exception e, HandlerMethod handler, HttpServletRequest request) {
+        if (handler.hasMethodAnnotation(ServeStale.class)) {
+            StaleResponseAdvice.StoredResponse stale = staleResponses.lookup(request);
+            if (stale != null) {
+                long ageSeconds = (System.currentTimeMillis() - stale.storedAt()) / 1000;
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.WARNING, "110 - \"Response is Stale\"")
+                        .header(HttpHeaders.AGE, String.valueOf(ageSeconds))
+                        .body(stale.body());
+            }
+        }
+        log.warn("{} {} unavailable: {}", request.getMethod(), request.getRequestURI(), e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(e)))
+                .body(Result.error(503, "Service temporarily unavailable, please retry"));
+    }
+
+    /**
+     * Handles MyBatis errors that Spring could not translate, among them a connection that could not be
+     * obtained, which is handled as an unavailable database; anything else as an unexpected exception.
+     * @param e the caught exception
+     * @param handler the controller method that failed
+     * @param request the failed request
+     * @return the stale response, a 503 error result, or a 500 error result
+     */
+    @ExceptionHandler(MyBatisSystemException.class)
+    public ResponseEntity<?> handleMyBatisException(MyBatisSystemException e, HandlerMethod handler, HttpServletRequest request) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataAccessResourceFailureException || cause instanceof TransientDataAccessException) {
+                return handleUnavailable(e, handler, request);
+            }
+        }
+        return ResponseEntity.ok(handleException(e));
+    }
+
+    // Until the open breaker lets a probe through, at least one second
+    private static long retryAfterSeconds(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CircuitOpenException open) {
+                return Math.max(1, (open.getRetryAfterMillis() + 999) / 1000);
+            }
+        }
+        return 1;
+    }
+
     /**
      * Handles validation exceptions triggered by @Valid annotations.
      * Extracts first field error and returns message.
@@ -0,0 +1,34 @@
+package uk.ac.ncl.team5project.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @file JacksonConfig.java
+ * @date 2026-10-19
+ * @function_description: Customizes the application ObjectMapper for sparse fieldsets.
+ * @interface_description: fieldSetFilters(): registers a filter provider that writes every property by default.
+ * @calling_sequence: Automatically invoked by Spring Boot when the ObjectMapper is built.
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: Review, Wishlist and UserInfoVO carry a @JsonFilter id so that FieldSet.filter can narrow a
+ * response to the requested fields. Jackson fails on a filter id it has no filter for, so the shared
+ * ObjectMapper gets a provider that ignores unknown ids: responses without ?fields=, the BOOK_DETAIL
+ * documents and batch sub-responses are written in full as before.
+ * @development_history: Created on 2026-10-19 for sparse fieldsets on list endpoints.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Default JSON filters for the application ObjectMapper.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSetFilters() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+}
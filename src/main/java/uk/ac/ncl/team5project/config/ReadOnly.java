@@ -0,0 +1,17 @@
+package uk.ac.ncl.team5project.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a mapper method (or every method of a mapper) as safe to run against a read replica.
+ * Only takes effect when replicas are configured (team5.datasource.replicas); see ReplicaRoutingConfig.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ReadOnly {
+}
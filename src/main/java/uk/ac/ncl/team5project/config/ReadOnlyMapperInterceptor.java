@@ -0,0 +1,92 @@
+package uk.ac.ncl.team5project.config;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @file ReadOnlyMapperInterceptor.java
+ * @date 2026-10-19
+ * @function_description: MyBatis plugin that flags @ReadOnly mapper queries for replica routing and records writes.
+ * @interface_description: intercept(invocation)
+ * @calling_sequence: Mapper proxy → Executor (this plugin) → ReplicaRoutingDataSource
+ * @arguments_description: Invocation of Executor.query / Executor.update
+ * @list_of_subordinate_classes: ReadOnly, ReadYourWrites, ReplicaRoutingDataSource
+ * @discussion: Whether a statement id (namespace.method) is @ReadOnly is resolved by reflection once and
+ * cached. Every update, insert or delete marks the current request as having written, for read-your-writes.
+ * @development_history: Created on 2026-10-19 for read-replica routing.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Connects mapper annotations to the routing data source.
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class ReadOnlyMapperInterceptor implements Interceptor {
+
+    private final Map<String, Boolean> readOnlyById = new ConcurrentHashMap<>();
+    private final ReadYourWrites readYourWrites;
+
+    public ReadOnlyMapperInterceptor(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if ("update".equals(invocation.getMethod().getName())) {
+            Object result = invocation.proceed();
+            readYourWrites.recordWrite();
+            return result;
+        }
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        if (!readOnlyById.computeIfAbsent(statement.getId(), ReadOnlyMapperInterceptor::isReadOnly)) {
+            return invocation.proceed();
+        }
+        Boolean previous = ReplicaRoutingDataSource.readOnlyStatement(Boolean.TRUE);
+        try {
+            return invocation.proceed();
+        } finally {
+            ReplicaRoutingDataSource.readOnlyStatement(previous);
+        }
+    }
+
+    private static boolean isReadOnly(String statementId) {
+        int dot = statementId.lastIndexOf('.');
+        if (dot < 0) {
+            return false;
+        }
+        try {
+            Class<?> mapper = ClassUtils.forName(statementId.substring(0, dot), ReadOnlyMapperInterceptor.class.getClassLoader());
+            if (mapper.isAnnotationPresent(ReadOnly.class)) {
+                return true;
+            }
+            String name = statementId.substring(dot + 1);
+            for (Method method : mapper.getMethods()) {
+                if (method.getName().equals(name) && method.isAnnotationPresent(ReadOnly.class)) {
+                    return true;
+                }
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            // Statements without a mapper interface (XML-only namespaces) stay on the primary
+        }
+        return false;
+    }
+}
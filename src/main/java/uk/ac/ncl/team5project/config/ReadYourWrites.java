@@ -0,0 +1,180 @@
+package uk.ac.ncl.team5project.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.function.LongSupplier;
+
+/**
+ * @file ReadYourWrites.java
+ * @date 2026-10-19
+ * @function_description: Sends a caller's reads to the primary for a window after that caller wrote.
+ * @interface_description: doFilterInternal (servlet filter), recordWrite(), mustReadPrimary(), propagate(task)
+ * @calling_sequence: HTTP request → this filter → ... → ReadOnlyMapperInterceptor → recordWrite();
+ * ReplicaRoutingDataSource → mustReadPrimary(); FanOut / BatchServiceImpl → propagate(task)
+ * @arguments_description: LongSupplier windowMs (current value of team5.datasource.read-your-writes-ms);
+ * cookie team5_last_write (epoch milliseconds)
+ * @list_of_subordinate_classes: Session
+ * @discussion: The window travels with the client rather than living in one instance's memory, so it holds
+ * whichever instance the load balancer picks next. A response to a request that wrote sets the cookie
+ * team5_last_write to the time the response was committed, which is after the write's transaction
+ * committed. Browsers send the cookie back on their own, so clients need no changes: later requests read
+ * from the primary until the window has passed, and the cookie expires with it. Within the request that
+ * wrote, every later read goes to the primary too. Times are compared in both directions so a small clock
+ * difference between instances does not cut the window short; a value further off than the window is
+ * ignored. A client can only pin its own reads to the primary with the cookie. The session is
+ * thread-bound: work forked onto other threads takes it along through propagate(task). The window should
+ * exceed the usual replica lag.
+ * @development_history: Created on 2026-10-19 for read-replica routing.
+ * 2026-10-19 client-carried last-write time instead of per-instance windows
+ * 2026-10-19 last-write time carried in a cookie instead of the X-Last-Write header
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Read-your-writes session tracking for replica routing.
+ */
+public class ReadYourWrites extends OncePerRequestFilter {
+
+    // Cookie with the time of the caller's last write; browsers send it back unchanged
+    public static final String COOKIE = "team5_last_write";
+
+    private static final ThreadLocal<Session> SESSION = new ThreadLocal<>();
+
+    private final LongSupplier windowMs;
+
+    public ReadYourWrites(LongSupplier windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Session session = new Session(parseTime(lastWriteCookie(request)));
+        Session previous = SESSION.get();
+        SESSION.set(session);
+        try {
+            filterChain.doFilter(request, new OnCommittedResponseWrapper(response) {
+                @Override
+                protected void onResponseCommitted() {
+                    stampIfWritten(session, request, response);
+                }
+            });
+            // no body, so nothing has committed the response yet
+            if (!response.isCommitted()) {
+                stampIfWritten(session, request, response);
+            }
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Marks the current request as having written.
+     */
+    public void recordWrite() {
+        Session session = SESSION.get();
+        if (session != null) {
+            session.wrote = true;
+        }
+    }
+
+    /**
+     * True if the current request wrote, or its caller wrote within the window.
+     */
+    public boolean mustReadPrimary() {
+        Session session = SESSION.get();
+        if (session == null) {
+            return false;
+        }
+        if (session.wrote) {
+            return true;
+        }
+        return session.clientLastWrite > 0
+                && Math.abs(System.currentTimeMillis() - session.clientLastWrite) < windowMs.getAsLong();
+    }
+
+    /**
+     * Wraps task so that it runs with the current thread's session.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Session session = SESSION.get();
+        if (session == null) {
+            return task;
+        }
+        return () -> {
+            Session previous = SESSION.get();
+            SESSION.set(session);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private void stampIfWritten(Session session, HttpServletRequest request, HttpServletResponse response) {
+        if (session.wrote && !session.stamped) {
+            session.stamped = true;
+            Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setSecure(request.isSecure());
+            cookie.setAttribute("SameSite", "Lax");
+            // expires with the window, rounded up to whole seconds
+            cookie.setMaxAge((int) Math.max(1, (windowMs.getAsLong() + 999) / 1000));
+            response.addCookie(cookie);
+        }
+    }
+
+    private static String lastWriteCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static long parseTime(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void restore(Session previous) {
+        if (previous == null) {
+            SESSION.remove();
+        } else {
+            SESSION.set(previous);
+        }
+    }
+
+    // Shared by the request thread and the threads it forks work onto
+    private static final class Session {
+        private final long clientLastWrite;
+        private volatile boolean wrote;
+        // only touched by the thread committing the response
+        private boolean stamped;
+
+        private Session(long clientLastWrite) {
+            this.clientLastWrite = clientLastWrite;
+        }
+    }
+}
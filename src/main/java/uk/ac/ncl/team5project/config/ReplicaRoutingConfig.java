@@ -0,0 +1,105 @@
+package uk.ac.ncl.team5project.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Data;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @file ReplicaRoutingConfig.java
+ * @date 2026-10-19
+ * @function_description: Wires read-replica routing when team5.datasource.replicas is configured.
+ * @interface_description: Defines the routing DataSource, the MyBatis plugin and the read-your-writes filter,
+ * and registers the filter.
+ * @calling_sequence: Spring Boot → this config → LazyConnectionDataSourceProxy → ReplicaRoutingDataSource
+ * @arguments_description: spring.datasource.* (primary), team5.datasource.replicas[n].url/username/password/driver-class-name
+ * @list_of_subordinate_classes: ReplicaRoutingDataSource, ReadOnlyMapperInterceptor, ReadYourWrites
+ * @discussion: Without replicas this class is skipped and Spring Boot's single data source is used as
+ * before. Replica credentials default to the primary's, and SchemaMigrationConfig applies the Flyway
+ * migrations to each replica at startup. The read-your-writes window is the runtime
+ * setting team5.datasource.read-your-writes-ms, so it can be widened live if replicas fall behind. The
+ * read-your-writes filter only needs to cover the API, where every write happens.
+ * @development_history: Created on 2026-10-19 for read-replica routing.
+ * 2026-10-19 read-your-writes registered as a filter
+ * 2026-10-19 replicas migrated at startup
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Registers the primary/replica routing data source.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "team5.datasource.replicas[0]", name = "url")
+@EnableConfigurationProperties(ReplicaRoutingConfig.ReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+    // ConfigurationStore reads through this data source, so it is resolved lazily on first use
+    @Bean
+    public ReadYourWrites readYourWrites(@Lazy ConfigurationStore configurationStore) {
+        return new ReadYourWrites(() -> configurationStore.get(Settings.READ_YOUR_WRITES_MS));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWrites> readYourWritesRegistration(ReadYourWrites filter) {
+        FilterRegistrationBean<ReadYourWrites> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/v1/*");
+        return registration;
+    }
+
+    @Bean
+    public ReadOnlyMapperInterceptor readOnlyMapperInterceptor(ReadYourWrites readYourWrites) {
+        return new ReadOnlyMapperInterceptor(readYourWrites);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties primaryProperties, ReplicaProperties replicaProperties,
+                                 ReadYourWrites readYourWrites) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.getReplicas().size(); i++) {
+            Replica replica = replicaProperties.getReplicas().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + i);
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername() != null ? replica.getUsername() : primaryProperties.determineUsername());
+            pool.setPassword(replica.getPassword() != null ? replica.getPassword() : primaryProperties.determinePassword());
+            pool.setDriverClassName(replica.getDriverClassName() != null
+                    ? replica.getDriverClassName() : primaryProperties.determineDriverClassName());
+            pool.setReadOnly(true);
+            replicas.add(pool);
+        }
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replicas, readYourWrites));
+        // Avoid opening a connection at startup just to read the defaults
+        proxy.setDefaultAutoCommit(true);
+        return proxy;
+    }
+
+    @Data
+    @ConfigurationProperties(prefix = "team5.datasource")
+    public static class ReplicaProperties {
+        private List<Replica> replicas = new ArrayList<>();
+    }
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+    }
+}
@@ -0,0 +1,80 @@
+package uk.ac.ncl.team5project.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @file ReplicaRoutingDataSource.java
+ * @date 2026-10-19
+ * @function_description: Routes each new connection to the primary or, for reads, to a replica.
+ * @interface_description: readOnlyStatement(flag) marks the statement about to run; determineCurrentLookupKey()
+ * @calling_sequence: LazyConnectionDataSourceProxy → ReplicaRoutingDataSource → primary / replica pool
+ * @arguments_description: DataSource primary, List replicas, ReadYourWrites readYourWrites
+ * @list_of_subordinate_classes: ReadYourWrites
+ * @discussion: A connection goes to a replica when it is opened inside a read-only transaction, or
+ * outside any transaction for a statement marked @ReadOnly, and ReadYourWrites does not pin the request.
+ * Everything else, including @ReadOnly statements inside a read-write transaction, uses the primary.
+ * Replicas are picked round-robin. The decision is made when the connection is opened, so this data
+ * source must sit behind a LazyConnectionDataSourceProxy for transactions to be routed by their flag.
+ * @development_history: Created on 2026-10-19 for read-replica routing.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Primary/replica routing data source.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> READ_ONLY_STATEMENT = new ThreadLocal<>();
+
+    private final String[] replicaKeys;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ReadYourWrites readYourWrites;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicaKeys = new String[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaKeys[i] = "replica-" + i;
+            targets.put(replicaKeys[i], replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Marks whether the statement about to run on this thread may use a replica.
+     * @return the previous mark, to be restored afterwards
+     */
+    static Boolean readOnlyStatement(Boolean readOnly) {
+        Boolean previous = READ_ONLY_STATEMENT.get();
+        if (readOnly == null) {
+            READ_ONLY_STATEMENT.remove();
+        } else {
+            READ_ONLY_STATEMENT.set(readOnly);
+        }
+        return previous;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+                ? TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                : Boolean.TRUE.equals(READ_ONLY_STATEMENT.get());
+        if (!readOnly || replicaKeys.length == 0 || readYourWrites.mustReadPrimary()) {
+            return PRIMARY;
+        }
+        return replicaKeys[Math.floorMod(next.getAndIncrement(), replicaKeys.length)];
+    }
+}
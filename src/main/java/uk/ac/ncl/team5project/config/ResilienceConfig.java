@@ -0,0 +1,73 @@
+package uk.ac.ncl.team5project.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import uk.ac.ncl.team5project.util.JwtUtil;
+
+/**
+ * @file ResilienceConfig.java
+ * @date 2026-10-19
+ * @function_description: Wires the circuit breakers around the mappers, the bulkheads around the controllers
+ * and the concurrency limit at the edge.
+ * @interface_description: Defines the MyBatis plugin, the MVC interceptor and the servlet filter, and registers
+ * the latter two.
+ * @calling_sequence: Spring Boot → this config → CircuitBreakerInterceptor (MyBatis), BulkheadInterceptor (MVC),
+ * ConcurrencyLimitFilter (servlet filter)
+ * @arguments_description: team5.resilience.* runtime settings
+ * @list_of_subordinate_classes: CircuitBreakerInterceptor, BulkheadInterceptor, ConcurrencyLimitFilter,
+ * StaleResponseAdvice
+ * @discussion: The bulkheads cap requests per controller rather than statements per call site: statements
+ * run on ShardRouter and FanOut threads as well as the request's, and a request stuck on its first
+ * statement is what holds the servlet thread. Rejected and failed reads are answered by
+ * GlobalExceptionHandler. The concurrency limit is a filter ordered ahead of the Spring Security chain, so a
+ * shed request costs no more than one token check, and a read admitted as anonymous none.
+ * @development_history: Created on 2026-10-19 for serving reads while the database is degraded;
+ * the edge concurrency limit added on 2026-10-19.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Registers circuit breakers, bulkheads and the edge concurrency limit.
+ */
+@Configuration
+public class ResilienceConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ConfigurationStore configurationStore;
+
+    // Static: the SQL session factory needs the plugin before this configuration can be created
+    @Bean
+    public static CircuitBreakerInterceptor circuitBreakerInterceptor(ObjectProvider<ConfigurationStore> configurationStore) {
+        return new CircuitBreakerInterceptor(configurationStore);
+    }
+
+    @Bean
+    public BulkheadInterceptor bulkheadInterceptor() {
+        return new BulkheadInterceptor(configurationStore);
+    }
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(ObjectMapper objectMapper, JwtUtil jwtUtil) {
+        return new ConcurrencyLimitFilter(configurationStore, objectMapper, jwtUtil);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(ConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/v1/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(bulkheadInterceptor());
+    }
+}
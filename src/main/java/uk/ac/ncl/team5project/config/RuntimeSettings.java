@@ -0,0 +1,136 @@
+package uk.ac.ncl.team5project.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.PropertyResolver;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file RuntimeSettings.java
+ * @date 2026-10-19
+ * @function_description: Immutable snapshot of all runtime settings at one CONFIGURATION version.
+ * @interface_description: get(setting), raw(key), version(), problem(key)
+ * @calling_sequence: ConfigurationStore → RuntimeSettings
+ * @arguments_description: Setting setting, String key
+ * @list_of_subordinate_classes: Setting
+ * @discussion: Values of every registered setting are parsed once when the snapshot is built and kept in
+ * an array indexed by the setting's ordinal. A value that fails to parse is logged and replaced by the
+ * next source in line, so a typo in CONFIGURATION never takes a setting away. The same goes for a value
+ * outside the setting's bounds, and for a pair declared with Setting.requireOrdered whose values are the
+ * wrong way round: both then fall back to application properties, or to their defaults if those are
+ * inverted too. Rejected CONFIGURATION values are kept by key so ConfigurationStore.set can report them.
+ * @development_history: Created on 2026-10-19 for hot-reloadable runtime configuration.
+ * 2026-10-19 bounds and ordered pairs
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Parsed, read-only view of CONFIGURATION layered over application properties.
+ */
+public final class RuntimeSettings {
+
+    private static final Logger log = LoggerFactory.getLogger(RuntimeSettings.class);
+
+    private final String version;
+    private final Map<String, String> stored;
+    private final PropertyResolver properties;
+    private final Object[] values;
+    // CONFIGURATION key → why its value was not used
+    private final Map<String, String> problems = new HashMap<>();
+
+    RuntimeSettings(String version, Map<String, String> stored, PropertyResolver properties) {
+        this.version = version;
+        this.stored = Map.copyOf(stored);
+        this.properties = properties;
+        List<Setting<?>> settings = Setting.registered();
+        this.values = new Object[settings.size()];
+        for (Setting<?> setting : settings) {
+            values[setting.ordinal()] = resolve(setting, true);
+        }
+        for (Setting.Ordered<?> pair : Setting.ordered()) {
+            checkOrder(pair);
+        }
+    }
+
+    /**
+     * Value of a setting: CONFIGURATION first, then application properties, then the default.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Setting<T> setting) {
+        int ordinal = setting.ordinal();
+        // Settings created after this snapshot was built are resolved on each call until the next reload
+        return ordinal < values.length ? (T) values[ordinal] : resolve(setting, true);
+    }
+
+    /**
+     * Why the CONFIGURATION value of a key was not used, or null if it was (or there is none).
+     */
+    public String problem(String key) {
+        return problems.get(key);
+    }
+
+    /**
+     * Raw CONFIGURATION value of a key, or null if the table has no row for it.
+     */
+    public String raw(String key) {
+        return stored.get(key);
+    }
+
+    public Map<String, String> stored() {
+        return stored;
+    }
+
+    /**
+     * Version stamp of the CONFIGURATION table this snapshot was read at.
+     */
+    public String version() {
+        return version;
+    }
+
+    private <T> T resolve(Setting<T> setting, boolean useStored) {
+        T value = useStored ? parse(setting, stored.get(setting.key()), "CONFIGURATION") : null;
+        if (value == null && properties != null) {
+            value = parse(setting, properties.getProperty(setting.key()), "application properties");
+        }
+        return value != null ? value : setting.defaultValue();
+    }
+
+    private <T> T parse(Setting<T> setting, String raw, String source) {
+        if (raw == null) {
+            return null;
+        }
+        try {
+            return setting.parse(raw);
+        } catch (RuntimeException e) {
+            log.warn("Ignoring invalid value '{}' for {} in {}", raw, setting.key(), source);
+            if (source.equals("CONFIGURATION")) {
+                problems.put(setting.key(), "Invalid value '" + raw + "' for " + setting.key()
+                        + (e instanceof NumberFormatException ? "" : ": " + e.getMessage()));
+            }
+            return null;
+        }
+    }
+
+    private <T extends Comparable<T>> void checkOrder(Setting.Ordered<T> pair) {
+        T lower = get(pair.lower());
+        T upper = get(pair.upper());
+        if (lower.compareTo(upper) <= 0) {
+            return;
+        }
+        String message = pair.lower().key() + " (" + lower + ") may not exceed " + pair.upper().key() + " (" + upper + ")";
+        log.warn("Ignoring {} and {}: {}", pair.lower().key(), pair.upper().key(), message);
+        problems.put(pair.lower().key(), message);
+        problems.put(pair.upper().key(), message);
+        lower = resolve(pair.lower(), false);
+        upper = resolve(pair.upper(), false);
+        if (lower.compareTo(upper) > 0) {
+            lower = pair.lower().defaultValue();
+            upper = pair.upper().defaultValue();
+        }
+        values[pair.lower().ordinal()] = lower;
+        values[pair.upper().ordinal()] = upper;
+    }
+}
@@ -0,0 +1,67 @@
+package uk.ac.ncl.team5project.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+/**
+ * @file SchemaMigrationConfig.java
+ * @date 2026-10-19
+ * @function_description: Applies the Flyway migrations to every shard and replica as well as the main database.
+ * @interface_description: Defines the FlywayMigrationStrategy Spring Boot runs at startup.
+ * @calling_sequence: Spring Boot → FlywayMigrationInitializer → this strategy → Flyway.migrate per database
+ * @arguments_description: spring.datasource.*, team5.sharding.shards[n].*, team5.datasource.replicas[n].*
+ * @list_of_subordinate_classes: ShardingConfig.Shard, ReplicaRoutingConfig.Replica
+ * @discussion: Spring Boot migrates only the application DataSource, which reaches the main database (or
+ * the primary). Each shard and replica is migrated with the same Flyway configuration through a connection
+ * of its own, opened with the credentials its pool uses: replica pools hand out read-only connections, and
+ * the shard pools sit inside ShardRoutingDataSource. The main database goes first, then the shards and
+ * replicas in the order configured, all at the point where Spring Boot would have migrated the main
+ * database alone, so beans that wait for the schema wait for every database. A replica fed by
+ * database replication already has the primary's schema history, so migrating it changes nothing.
+ * @development_history: Created on 2026-10-19 for migrating every shard and replica at startup.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Startup schema migration of every database the application uses.
+ */
+@Configuration
+public class SchemaMigrationConfig {
+
+    @Bean
+    public FlywayMigrationStrategy migrateEveryDatabase(Environment environment) {
+        return flyway -> {
+            flyway.migrate();
+            Binder binder = Binder.get(environment);
+            String username = environment.getProperty("spring.datasource.username");
+            String password = environment.getProperty("spring.datasource.password");
+            for (ShardingConfig.Shard shard : binder.bind("team5.sharding.shards",
+                    Bindable.listOf(ShardingConfig.Shard.class)).orElse(List.of())) {
+                migrate(flyway, shard.getUrl(),
+                        shard.getUsername() != null ? shard.getUsername() : username,
+                        shard.getPassword() != null ? shard.getPassword() : password);
+            }
+            for (ReplicaRoutingConfig.Replica replica : binder.bind("team5.datasource.replicas",
+                    Bindable.listOf(ReplicaRoutingConfig.Replica.class)).orElse(List.of())) {
+                migrate(flyway, replica.getUrl(),
+                        replica.getUsername() != null ? replica.getUsername() : username,
+                        replica.getPassword() != null ? replica.getPassword() : password);
+            }
+        };
+    }
+
+    private static void migrate(Flyway main, String url, String username, String password) {
+        Flyway.configure()
+                .configuration(main.getConfiguration())
+                .dataSource(url, username, password)
+                .load()
+                .migrate();
+    }
+}
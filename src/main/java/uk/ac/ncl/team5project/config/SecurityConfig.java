@@ -1,13 +1,25 @@
 package uk.ac.ncl.team5project.config;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import uk.ac.ncl.team5project.util.Constants;
 
 /**
  * Security configuration class for JWT authentication
@@ -22,8 +34,35 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    /**
+     * Which callers may reach each path. Shared by the filter chain and by BatchServiceImpl, which checks
+     * every batched call against it since those calls do not pass the filter chain themselves. The operational
+     * endpoints describe this instance's internals and are for admins only.
+     */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public AuthorizationManager<HttpServletRequest> requestAuthorization() {
+        AuthorizationManager<RequestAuthorizationContext> permitAll = (authentication, context) -> new AuthorizationDecision(true);
+        return RequestMatcherDelegatingAuthorizationManager.builder()
+                .add(new OrRequestMatcher(
+                        AntPathRequestMatcher.antMatcher("/v1/books/detail/lag"),
+                        AntPathRequestMatcher.antMatcher("/v1/books/detail/rebuild"),
+                        AntPathRequestMatcher.antMatcher("/v1/events/lag"),
+                        AntPathRequestMatcher.antMatcher("/v1/caches/**"),
+                        AntPathRequestMatcher.antMatcher("/v1/resilience/**")
+                ), AuthorityAuthorizationManager.hasAuthority(Constants.ADMIN_ROLE))
+                .add(new OrRequestMatcher(
+                        AntPathRequestMatcher.antMatcher("/v1/users/register"),
+                        AntPathRequestMatcher.antMatcher("/v1/users/admin/login"),
+                        AntPathRequestMatcher.antMatcher("/v1/users/login"),
+                        AntPathRequestMatcher.antMatcher("/v1/books/**")
+                ), permitAll)
+                .add(AnyRequestMatcher.INSTANCE, AuthenticatedAuthorizationManager.authenticated())
+                .build();
+    }
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   AuthorizationManager<HttpServletRequest> requestAuthorization) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .exceptionHandling(exception -> exception
@@ -33,14 +72,10 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers(
-                                "/v1/users/register",
-                                "/v1/users/admin/login",
-                                "/v1/users/login",
-                                "/v1/books/**",
-                                "/v1/books/*/reviews"
-                        ).permitAll()
-                        .anyRequest().authenticated()
+                        .anyRequest().access((authentication, context) -> {
+                            AuthorizationResult result = requestAuthorization.authorize(authentication, context.getRequest());
+                            return result == null ? null : new AuthorizationDecision(result.isGranted());
+                        })
                 );
 
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,18 @@
+package uk.ac.ncl.team5project.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET handler whose last successful response may be served again, marked stale, while the database
+ * is unavailable or the controller's bulkhead is full. Only for responses that are the same for every
+ * caller, since they are kept by path and query string; see StaleResponseAdvice.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ServeStale {
+}
@@ -0,0 +1,110 @@
+package uk.ac.ncl.team5project.config;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * @file Setting.java
+ * @date 2026-10-19
+ * @function_description: Typed key of a runtime setting.
+ * @interface_description: ofInt / ofLong / ofBoolean / ofString create and register a setting;
+ * requireOrdered(lower, upper) declares that one setting may not exceed another.
+ * @calling_sequence: Settings → Setting; ConfigurationStore → RuntimeSettings.get(Setting)
+ * @arguments_description: String key (CONFIGURATION.config_key and application.yml property name), T defaultValue,
+ * min / max (inclusive bounds of numeric settings)
+ * @list_of_subordinate_classes: None
+ * @discussion: Every setting gets a dense ordinal when it is created, so a snapshot can hold the parsed
+ * values in an array and a read is an array index rather than a map lookup and a parse. Numeric settings
+ * carry bounds, checked when the value is parsed, so a value outside them is treated like one that does
+ * not parse. Ordered pairs are checked by RuntimeSettings once every value of a snapshot is known.
+ * @development_history: Created on 2026-10-19 for hot-reloadable runtime configuration.
+ * 2026-10-19 bounds and ordered pairs
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Name, parser and default of one tunable.
+ */
+public final class Setting<T> {
+
+    private static final List<Setting<?>> REGISTERED = new CopyOnWriteArrayList<>();
+    private static final List<Ordered<?>> ORDERED = new CopyOnWriteArrayList<>();
+
+    private final String key;
+    private final Function<String, T> parser;
+    private final T defaultValue;
+    private final int ordinal;
+
+    private Setting(String key, Function<String, T> parser, T defaultValue) {
+        this.key = key;
+        this.parser = parser;
+        this.defaultValue = defaultValue;
+        synchronized (REGISTERED) {
+            this.ordinal = REGISTERED.size();
+            REGISTERED.add(this);
+        }
+    }
+
+    public static Setting<Integer> ofInt(String key, int defaultValue, int min, int max) {
+        return new Setting<>(key, value -> inRange(key, Integer.valueOf(value.trim()), min, max), defaultValue);
+    }
+
+    public static Setting<Long> ofLong(String key, long defaultValue, long min, long max) {
+        return new Setting<>(key, value -> inRange(key, Long.valueOf(value.trim()), min, max), defaultValue);
+    }
+
+    public static Setting<Boolean> ofBoolean(String key, boolean defaultValue) {
+        return new Setting<>(key, value -> Boolean.valueOf(value.trim()), defaultValue);
+    }
+
+    public static Setting<String> ofString(String key, String defaultValue) {
+        return new Setting<>(key, Function.identity(), defaultValue);
+    }
+
+    /**
+     * Declares that lower may not be set above upper; a snapshot breaking this falls back for both.
+     */
+    public static <T extends Comparable<T>> void requireOrdered(Setting<T> lower, Setting<T> upper) {
+        ORDERED.add(new Ordered<>(lower, upper));
+    }
+
+    static List<Setting<?>> registered() {
+        return REGISTERED;
+    }
+
+    static List<Ordered<?>> ordered() {
+        return ORDERED;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public T defaultValue() {
+        return defaultValue;
+    }
+
+    int ordinal() {
+        return ordinal;
+    }
+
+    T parse(String value) {
+        return parser.apply(value);
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+
+    private static <T extends Comparable<T>> T inRange(String key, T value, T min, T max) {
+        if (value.compareTo(min) < 0 || value.compareTo(max) > 0) {
+            throw new IllegalArgumentException(key + " must be between " + min + " and " + max + ", was " + value);
+        }
+        return value;
+    }
+
+    record Ordered<T extends Comparable<T>>(Setting<T> lower, Setting<T> upper) {
+    }
+}
@@ -0,0 +1,143 @@
+package uk.ac.ncl.team5project.config;
+
+/**
+ * @file Settings.java
+ * @date 2026-10-19
+ * @function_description: Catalogue of the settings that can be changed at runtime.
+ * @interface_description: Public constants, read with ConfigurationStore.get(setting).
+ * @calling_sequence: Services → ConfigurationStore.get(Settings.X)
+ * @arguments_description: None
+ * @list_of_subordinate_classes: Setting
+ * @discussion: A value in CONFIGURATION overrides the application.yml property of the same name, which
+ * overrides the default given here. Add new tunables here rather than creating settings ad hoc, so they
+ * are parsed when each snapshot is built. Every numeric setting carries the range it accepts; a value
+ * outside it is ignored like one that does not parse, and ConfigurationStore.set refuses it.
+ * @development_history: Created on 2026-10-19 for hot-reloadable runtime configuration.
+ * 2026-10-19 bounds for every numeric setting
+ * 2026-10-19 deepest review search page
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Well-known runtime settings.
+ */
+public final class Settings {
+
+    // Lifetime of newly issued JWTs in milliseconds
+    public static final Setting<Long> JWT_EXPIRATION_MS = Setting.ofLong("jwt.expiration", 86_400_000L, 60_000L, 2_592_000_000L);
+    // Largest page accepted by /v1/books/browse
+    public static final Setting<Integer> BROWSE_MAX_PAGE_SIZE = Setting.ofInt("team5.browse.max-page-size", 100, 1, 1_000);
+    // Largest page accepted by /v1/reviews/search
+    public static final Setting<Integer> SEARCH_MAX_PAGE_SIZE = Setting.ofInt("team5.search.max-page-size", 50, 1, 1_000);
+    // Deepest page number accepted by /v1/reviews/search; each page ranks every hit before it
+    public static final Setting<Integer> SEARCH_MAX_PAGE = Setting.ofInt("team5.search.max-page", 100, 1, 10_000);
+    // How long a user's reads stay on the primary after they write, when read replicas are configured
+    public static final Setting<Long> READ_YOUR_WRITES_MS = Setting.ofLong("team5.datasource.read-your-writes-ms", 5_000L, 0L, 600_000L);
+
+    // Number of shards the consistent-hash ring places users on; 0 means every configured shard
+    public static final Setting<Integer> SHARD_RING_SIZE = Setting.ofInt("team5.sharding.ring-size", 0, 0, 1_024);
+
+    // Reviews last written more than this many days ago move to REVIEWS_ARCHIVE; 0 moves deleted reviews only
+    public static final Setting<Integer> REVIEW_ARCHIVE_AFTER_DAYS = Setting.ofInt("team5.reviews.archive-after-days", 365, 0, 36_500);
+    // Reviews moved per archive transaction
+    public static final Setting<Integer> REVIEW_ARCHIVE_BATCH_SIZE = Setting.ofInt("team5.reviews.archive-batch-size", 500, 1, 10_000);
+    // Pause between archive transactions, leaving the table to the application
+    public static final Setting<Long> REVIEW_ARCHIVE_PAUSE_MS = Setting.ofLong("team5.reviews.archive-pause-ms", 200L, 0L, 60_000L);
+    // Newest reviews of a book kept in memory for /v1/reviews/by-books, and the most it returns per book
+    public static final Setting<Integer> REVIEW_SNIPPETS_PER_BOOK = Setting.ofInt("team5.reviews.snippets-per-book", 5, 1, 100);
+    // Books whose newest reviews are kept in memory
+    public static final Setting<Integer> REVIEW_SNIPPET_CACHE_SIZE = Setting.ofInt("team5.reviews.snippet-cache-size", 10_000, 1, 1_000_000);
+    // Age after which a book's cached newest reviews are reloaded
+    public static final Setting<Long> REVIEW_SNIPPET_TTL_MS = Setting.ofLong("team5.reviews.snippet-ttl-ms", 30_000L, 0L, 86_400_000L);
+    // Largest batch of book ids accepted by /v1/reviews/by-books
+    public static final Setting<Integer> REVIEW_SNIPPET_MAX_BOOKS = Setting.ofInt("team5.reviews.snippet-max-books", 100, 1, 1_000);
+
+    // Users whose wishlist membership bitmap is kept in memory
+    public static final Setting<Integer> WISHLIST_MEMBERSHIP_CACHE_SIZE = Setting.ofInt("team5.wishlist.membership-cache-size", 10_000, 1, 1_000_000);
+    // Age after which a cached membership bitmap is reloaded, bounding staleness from other instances' writes
+    public static final Setting<Long> WISHLIST_MEMBERSHIP_TTL_MS = Setting.ofLong("team5.wishlist.membership-ttl-ms", 30_000L, 0L, 86_400_000L);
+    // Largest batch of book ids accepted by /v1/wishlist/contains
+    public static final Setting<Integer> WISHLIST_CONTAINS_MAX_IDS = Setting.ofInt("team5.wishlist.contains-max-ids", 500, 1, 10_000);
+    // How long removed wishlist books stay in the change log; clients that last synced earlier get a full snapshot
+    public static final Setting<Integer> WISHLIST_TOMBSTONE_RETENTION_DAYS = Setting.ofInt("team5.wishlist.tombstone-retention-days", 30, 1, 3_650);
+
+    // Largest number of sub-requests accepted by /v1/batch
+    public static final Setting<Integer> BATCH_MAX_REQUESTS = Setting.ofInt("team5.batch.max-requests", 20, 1, 100);
+    // Time a whole batch may take; sub-requests still running then are reported as 504
+    public static final Setting<Long> BATCH_TIMEOUT_MS = Setting.ofLong("team5.batch.timeout-ms", 5_000L, 100L, 60_000L);
+
+    // Users whose /v1/users/me profile is kept in memory
+    public static final Setting<Integer> PROFILE_CACHE_SIZE = Setting.ofInt("team5.profile.cache-size", 10_000, 1, 1_000_000);
+    // Age after which a cached profile is rebuilt, also the bound for a write whose near-cache invalidation was lost
+    public static final Setting<Long> PROFILE_CACHE_TTL_MS = Setting.ofLong("team5.profile.cache-ttl-ms", 60_000L, 0L, 86_400_000L);
+    // Time the parallel sub-queries of a profile may take together
+    public static final Setting<Long> PROFILE_TIMEOUT_MS = Setting.ofLong("team5.profile.timeout-ms", 2_000L, 100L, 60_000L);
+
+    // Books whose rating summary is kept in memory
+    public static final Setting<Integer> RATING_CACHE_SIZE = Setting.ofInt("team5.ratings.cache-size", 50_000, 1, 1_000_000);
+    // Age after which a cached rating summary is reloaded, also the bound for a write whose near-cache invalidation was lost
+    public static final Setting<Long> RATING_CACHE_TTL_MS = Setting.ofLong("team5.ratings.cache-ttl-ms", 30_000L, 0L, 86_400_000L);
+    // Largest batch of book ids accepted by /v1/books/ratings
+    public static final Setting<Integer> RATINGS_MAX_IDS = Setting.ofInt("team5.ratings.max-ids", 200, 1, 10_000);
+    // Books recounted from their reviews by each periodic reconciliation run
+    public static final Setting<Integer> RATING_RECONCILE_BATCH_SIZE = Setting.ofInt("team5.ratings.reconcile-batch-size", 200, 1, 10_000);
+    // Age after which a review write's announcement no longer holds back recounts of its book
+    public static final Setting<Long> RATING_PENDING_LEASE_MS = Setting.ofLong("team5.ratings.pending-lease-ms", 60_000L, 1_000L, 3_600_000L);
+
+    // Newest reviews kept in a book's detail document
+    public static final Setting<Integer> BOOK_DETAIL_LATEST_REVIEWS = Setting.ofInt("team5.book-detail.latest-reviews", 5, 0, 100);
+    // Related books kept in a book's detail document
+    public static final Setting<Integer> BOOK_DETAIL_RELATED_BOOKS = Setting.ofInt("team5.book-detail.related-books", 10, 0, 100);
+    // Age after which a detail document is rebuilt when read, for changes no event reports
+    public static final Setting<Long> BOOK_DETAIL_MAX_AGE_MS = Setting.ofLong("team5.book-detail.max-age-ms", 3_600_000L, 1_000L, 604_800_000L);
+
+    // Longest wait before other instances' domain events are read from the outboxes
+    public static final Setting<Long> EVENTS_POLL_INTERVAL_MS = Setting.ofLong("team5.events.poll-interval-ms", 1_000L, 10L, 60_000L);
+    // Longest a write transaction is expected to stay open; newer outbox rows are reread in case an earlier id commits late
+    public static final Setting<Long> EVENTS_SETTLE_MS = Setting.ofLong("team5.events.settle-ms", 10_000L, 0L, 600_000L);
+    // Attempts a subscriber gets at one event before the event is logged and skipped
+    public static final Setting<Integer> EVENTS_MAX_ATTEMPTS = Setting.ofInt("team5.events.max-attempts", 5, 1, 100);
+    // Age after which outbox rows are pruned
+    public static final Setting<Integer> EVENTS_RETENTION_HOURS = Setting.ofInt("team5.events.retention-hours", 24, 1, 720);
+
+    // Longest wait before other instances' near-cache invalidations are read
+    public static final Setting<Long> CACHE_POLL_INTERVAL_MS = Setting.ofLong("team5.cache.poll-interval-ms", 500L, 10L, 60_000L);
+    // Longest a write transaction is expected to stay open; newer invalidation records are reread in case an earlier id commits late
+    public static final Setting<Long> CACHE_SETTLE_MS = Setting.ofLong("team5.cache.settle-ms", 10_000L, 0L, 600_000L);
+    // Near caches stop serving when the invalidation log was last read longer ago than this; -1 stops them serving at all
+    public static final Setting<Long> CACHE_MAX_STALENESS_MS = Setting.ofLong("team5.cache.max-staleness-ms", 5_000L, -1L, 3_600_000L);
+    // Age after which invalidation records are pruned
+    public static final Setting<Integer> CACHE_INVALIDATION_RETENTION_MINUTES = Setting.ofInt("team5.cache.invalidation-retention-minutes", 60, 1, 10_080);
+
+    // Failed or slow statements in a row that open a mapper's circuit breaker
+    public static final Setting<Integer> BREAKER_FAILURE_THRESHOLD = Setting.ofInt("team5.resilience.breaker-failure-threshold", 5, 1, 1_000);
+    // Statements of a request taking longer than this count as failures towards opening the breaker, though their
+    // result is used; background work's slow statements do not count
+    public static final Setting<Long> BREAKER_SLOW_CALL_MS = Setting.ofLong("team5.resilience.breaker-slow-call-ms", 2_000L, 1L, 600_000L);
+    // How long an open breaker fails statements at once before letting one through as a probe
+    public static final Setting<Long> BREAKER_OPEN_MS = Setting.ofLong("team5.resilience.breaker-open-ms", 5_000L, 100L, 600_000L);
+    // Requests one controller may have in progress at once; further ones get 503 or a stale response
+    public static final Setting<Integer> BULKHEAD_MAX_CONCURRENT = Setting.ofInt("team5.resilience.bulkhead-max-concurrent", 40, 0, 10_000);
+    // Last successful responses of @ServeStale reads kept for when the database is unavailable
+    public static final Setting<Integer> STALE_RESPONSE_CACHE_SIZE = Setting.ofInt("team5.resilience.stale-cache-size", 10_000, 1, 1_000_000);
+    // Age after which a kept response is no longer served, stale or not
+    public static final Setting<Long> STALE_RESPONSE_MAX_AGE_MS = Setting.ofLong("team5.resilience.stale-max-age-ms", 3_600_000L, 0L, 604_800_000L);
+    // Whether requests beyond the adaptive concurrency limit are shed at the edge
+    public static final Setting<Boolean> LIMITER_ENABLED = Setting.ofBoolean("team5.resilience.limiter-enabled", true);
+    // Concurrency limit the edge limiter starts from before it has measured any latency
+    public static final Setting<Integer> LIMITER_INITIAL_LIMIT = Setting.ofInt("team5.resilience.limiter-initial-limit", 50, 1, 10_000);
+    // Lowest and highest the edge limiter may set its limit to
+    public static final Setting<Integer> LIMITER_MIN_LIMIT = Setting.ofInt("team5.resilience.limiter-min-limit", 10, 1, 10_000);
+    public static final Setting<Integer> LIMITER_MAX_LIMIT = Setting.ofInt("team5.resilience.limiter-max-limit", 400, 1, 10_000);
+
+    static {
+        Setting.requireOrdered(LIMITER_MIN_LIMIT, LIMITER_MAX_LIMIT);
+    }
+
+    private Settings() {
+    }
+
+    // Forces class initialisation so every constant above is registered
+    static void load() {
+    }
+}
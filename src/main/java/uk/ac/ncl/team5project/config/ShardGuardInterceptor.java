@@ -0,0 +1,68 @@
+package uk.ac.ncl.team5project.config;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @file ShardGuardInterceptor.java
+ * @date 2026-10-19
+ * @function_description: MyBatis plugin that rejects statements of @Sharded mappers issued outside ShardRouter.
+ * @interface_description: intercept(invocation)
+ * @calling_sequence: Mapper proxy → Executor (this plugin) → ShardRoutingDataSource
+ * @arguments_description: Invocation of Executor.query / Executor.update
+ * @list_of_subordinate_classes: Sharded, ShardRouter
+ * @discussion: Without a shard on the thread the statement would silently run against the main database,
+ * which no longer holds the sharded tables. Whether a namespace is @Sharded is resolved once and cached.
+ * @development_history: Created on 2026-10-19 for sharding WISHLIST and REVIEWS by user.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Catches unrouted access to sharded tables.
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class ShardGuardInterceptor implements Interceptor {
+
+    private final Map<String, Boolean> shardedByNamespace = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        if (ShardRouter.currentShard() == null
+                && shardedByNamespace.computeIfAbsent(namespace(statement.getId()), ShardGuardInterceptor::isSharded)) {
+            throw new IllegalStateException(statement.getId() + " reads a sharded table and must run through ShardRouter");
+        }
+        return invocation.proceed();
+    }
+
+    private static String namespace(String statementId) {
+        int dot = statementId.lastIndexOf('.');
+        return dot < 0 ? statementId : statementId.substring(0, dot);
+    }
+
+    private static boolean isSharded(String namespace) {
+        try {
+            return ClassUtils.forName(namespace, ShardGuardInterceptor.class.getClassLoader()).isAnnotationPresent(Sharded.class);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package uk.ac.ncl.team5project.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.ac.ncl.team5project.entity.ShardOverride;
+import uk.ac.ncl.team5project.entity.ShardPlacementAck;
+import uk.ac.ncl.team5project.mapper.ShardOverrideMapper;
+import uk.ac.ncl.team5project.mapper.ShardPlacementAckMapper;
+import uk.ac.ncl.team5project.util.ConsistentHashRing;
+import uk.ac.ncl.team5project.util.IntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * @file ShardRouter.java
+ * @date 2026-10-19
+ * @function_description: Chooses the shard that WISHLIST and REVIEWS statements run on.
+ * @interface_description:
+ * - onUser(userId, work) / onUserForWrite(userId, work): run work on the shard holding the user's rows
+ * - onShard(shard, work): run work on one shard (scans, resharding)
+ * - scatter(work) / gather(work): run work on every shard in parallel; results in shard order / concatenated
+ * - shardOf(userId), shardCount(), ringSize(), ringShardOf(userId), ringOf(shards), reloadOverrides()
+ * - placementVersion(), awaitPlacement(version, timeoutMs): the resharding fence
+ * @calling_sequence: Services → ShardRouter → (thread-local shard) → ShardRoutingDataSource → shard pool
+ * @arguments_description: Integer userId, int shard, Supplier work
+ * @list_of_subordinate_classes: ConsistentHashRing, ShardOverrideMapper, ShardPlacementAckMapper, ShardRoutingDataSource
+ * @discussion: A user's shard is their SHARD_OVERRIDE row if they have one, otherwise the consistent-hash
+ * ring's choice among the first team5.sharding.ring-size shards (runtime setting; 0 means all). The ring and
+ * the overrides are swapped together through one volatile field. Writes for a user whose override is
+ * MOVING wait until the move finishes. Each placement counts the writes it let through; on every refresh
+ * the instance records in SHARD_PLACEMENT_ACK the newest placement whose predecessors have no writes left in
+ * flight, with a heartbeat, so ReshardingService can wait until every live instance has both seen a change
+ * and finished the writes routed without it. An instance whose refresh keeps failing cannot acknowledge
+ * anything, so it refuses writes once its placement is two refresh intervals old and a refresh attempted
+ * by the write itself fails too; it stops heartbeating at
+ * the same time and is no longer waited for after three. This assumes instance clocks agree to within a
+ * refresh interval. Scatter tasks run on virtual threads, since each mostly waits on
+ * its database. Without team5.sharding.shards there is a single shard and every method runs the work
+ * directly on the calling thread, so services call the router unconditionally. A transaction is pinned to
+ * the first shard it touches; work for another shard inside it fails instead of silently using the wrong
+ * connection.
+ * @development_history: Created on 2026-10-19 for sharding WISHLIST and REVIEWS by user.
+ * 2026-10-19 placement acknowledgements and stale-placement write refusal
+ * 2026-10-19 scatter carries the request mark of CircuitBreakerInterceptor
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Thread-local shard selection, consistent hashing and scatter-gather.
+ */
+@Component
+public class ShardRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRouter.class);
+    private static final int VIRTUAL_NODES = 160;
+    private static final long MOVE_POLL_MS = 20;
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+    private static final Object TRANSACTION_KEY = new Object();
+
+    @Autowired(required = false)
+    private ShardingConfig.ShardingProperties properties;
+    @Autowired
+    private ShardOverrideMapper shardOverrideMapper;
+    @Autowired
+    private ShardPlacementAckMapper shardPlacementAckMapper;
+    @Autowired
+    private ConfigurationStore configurationStore;
+
+    @Value("${team5.sharding.move-wait-ms:10000}")
+    private long moveWaitMs;
+    @Value("${team5.sharding.override-refresh-ms:5000}")
+    private long overrideRefreshMs;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private ExecutorService executor;
+    private volatile Placement placement = new Placement(new ConsistentHashRing(1, 1), null, null, "", new AtomicInteger());
+    // When the placement was last confirmed against SHARD_OVERRIDE and acknowledged
+    private volatile long checkedAt;
+    // Replaced placements that may still have writes in flight; guarded by this
+    private final List<Placement> retired = new ArrayList<>();
+    // guarded by this
+    private String acknowledged = "";
+
+    @PostConstruct
+    public void init() {
+        if (!isSharded()) {
+            return;
+        }
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-", 0).factory());
+        configurationStore.subscribe(Settings.SHARD_RING_SIZE, size -> reloadOverrides());
+        reloadOverrides();
+        log.info("Sharding WISHLIST and REVIEWS over {} shards (ring size {})", shardCount(), ringSize());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                shardPlacementAckMapper.deleteById(instanceId);
+            } catch (RuntimeException e) {
+                log.warn("Could not remove this instance's placement acknowledgement", e);
+            }
+        }
+    }
+
+    /**
+     * Shard the calling thread's mapper statements currently run on, or null outside the router.
+     */
+    static Integer currentShard() {
+        return CURRENT.get();
+    }
+
+    public boolean isSharded() {
+        return properties != null && !properties.getShards().isEmpty();
+    }
+
+    public int shardCount() {
+        return isSharded() ? properties.getShards().size() : 1;
+    }
+
+    /**
+     * Number of shards new users are spread over; the remaining configured shards only hold moved users.
+     */
+    public int ringSize() {
+        return placement.ring.shards();
+    }
+
+    /**
+     * The ring ShardRouter builds for the given number of shards.
+     */
+    public ConsistentHashRing ringOf(int shards) {
+        return new ConsistentHashRing(shards, VIRTUAL_NODES);
+    }
+
+    public int shardOf(Integer userId) {
+        return shardOf(placement, userId);
+    }
+
+    private static int shardOf(Placement current, Integer userId) {
+        int shard = current.shards == null ? -1 : current.shards.get(userId);
+        return shard >= 0 ? shard : current.ring.shardFor(userId);
+    }
+
+    /**
+     * Shard the ring alone would place the user on, ignoring overrides.
+     */
+    public int ringShardOf(Integer userId) {
+        return placement.ring.shardFor(userId);
+    }
+
+    public boolean isMoving(Integer userId) {
+        Placement current = placement;
+        return current.moving != null && current.moving.containsKey(userId);
+    }
+
+    public <T> T onUser(Integer userId, Supplier<T> work) {
+        Objects.requireNonNull(userId, "userId");
+        return onShard(shardOf(userId), work);
+    }
+
+    /**
+     * Like onUser, but first waits (up to team5.sharding.move-wait-ms) while the user is being moved, and
+     * counts the write against the placement that routed it until work returns. A transaction must
+     * therefore begin and end inside work.
+     */
+    public <T> T onUserForWrite(Integer userId, Supplier<T> work) {
+        Objects.requireNonNull(userId, "userId");
+        if (isSharded() && isStale()) {
+            // the scheduled refresh is late or failing: try once here before refusing the write
+            refreshOverrides();
+            if (isStale()) {
+                throw new IllegalStateException("Shard placement could not be refreshed, writes are paused");
+            }
+        }
+        long deadline = System.currentTimeMillis() + moveWaitMs;
+        while (true) {
+            Placement current = placement;
+            if (current.moving != null && current.moving.containsKey(userId)) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("User " + userId + " is being moved between shards, try again later");
+                }
+                try {
+                    Thread.sleep(MOVE_POLL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a shard move", e);
+                }
+                continue;
+            }
+            current.writers.incrementAndGet();
+            try {
+                // replaced since it was read: route again, since the user may be MOVING now
+                if (placement == current) {
+                    return onShard(shardOf(current, userId), work);
+                }
+            } finally {
+                current.writers.decrementAndGet();
+            }
+        }
+    }
+
+    public <T> T onShard(int shard, Supplier<T> work) {
+        if (shard < 0 || shard >= shardCount()) {
+            throw new IllegalArgumentException("No shard " + shard);
+        }
+        pinTransaction(shard);
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs work once per shard, in parallel, and returns the results in shard order. Statements run for a request
+     * still count as the request's towards the circuit breakers (CircuitBreakerInterceptor.propagate).
+     */
+    public <T> List<T> scatter(Supplier<T> work) {
+        int shards = shardCount();
+        if (shards == 1) {
+            return Collections.singletonList(onShard(0, work));
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cross-shard queries cannot run inside a transaction");
+        }
+        List<Future<T>> futures = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            int target = shard;
+            futures.add(executor.submit(CircuitBreakerInterceptor.propagate(() -> onShard(target, work))));
+        }
+        List<T> results = new ArrayList<>(shards);
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during a cross-shard query", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new CompletionException(e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Runs a list query on every shard in parallel and concatenates the rows in shard order.
+     */
+    public <T> List<T> gather(Supplier<List<T>> work) {
+        List<List<T>> perShard = scatter(work);
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+        List<T> rows = new ArrayList<>(perShard.stream().mapToInt(List::size).sum());
+        perShard.forEach(rows::addAll);
+        return rows;
+    }
+
+    /**
+     * Rereads SHARD_OVERRIDE and the ring size if either changed.
+     */
+    @Scheduled(fixedDelayString = "${team5.sharding.override-refresh-ms:5000}",
+            initialDelayString = "${team5.sharding.override-refresh-ms:5000}")
+    public synchronized void refreshOverrides() {
+        if (!isSharded()) {
+            return;
+        }
+        try {
+            Placement current = placement;
+            String stamp = shardOverrideMapper.selectVersionStamp();
+            if (!stamp.equals(current.stamp) || current.ring.shards() != configuredRingSize()) {
+                load(stamp);
+            }
+            acknowledge();
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh shard overrides; writes pause if this persists past {} ms", 2 * overrideRefreshMs, e);
+        }
+    }
+
+    public synchronized void reloadOverrides() {
+        if (isSharded()) {
+            load(shardOverrideMapper.selectVersionStamp());
+            acknowledge();
+        }
+    }
+
+    /**
+     * The override stamp and ring size this instance currently routes by.
+     */
+    public String placementVersion() {
+        return placement.version();
+    }
+
+    /**
+     * Waits until every instance that has refreshed within the last three refresh intervals acknowledges the
+     * given placement version, refreshing this instance's own acknowledgement meanwhile.
+     * @throws IllegalStateException if some instance has not acknowledged it within timeoutMs
+     */
+    public void awaitPlacement(String version, long timeoutMs) {
+        if (!isSharded()) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (true) {
+            refreshOverrides();
+            List<String> behind = shardPlacementAckMapper.selectLive(System.currentTimeMillis() - 3 * overrideRefreshMs).stream()
+                    .filter(ack -> !version.equals(ack.getPlacement()))
+                    .map(ShardPlacementAck::getInstanceId)
+                    .toList();
+            if (behind.isEmpty()) {
+                return;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Instances " + behind + " have not acknowledged shard placement " + version);
+            }
+            try {
+                Thread.sleep(MOVE_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for other instances", e);
+            }
+        }
+    }
+
+    private void load(String stamp) {
+        List<ShardOverride> rows = shardOverrideMapper.selectList(null);
+        IntIntHashMap shards = new IntIntHashMap(Math.max(16, rows.size()), -1);
+        IntIntHashMap moving = new IntIntHashMap(16, -1);
+        for (ShardOverride row : rows) {
+            shards.put(row.getUserId(), row.getShard());
+            if (ShardOverride.MOVING.equals(row.getState())) {
+                moving.put(row.getUserId(), row.getShard());
+            }
+        }
+        int ringSize = configuredRingSize();
+        ConsistentHashRing ring = placement.ring.shards() == ringSize
+                ? placement.ring : ringOf(ringSize);
+        retired.add(placement);
+        placement = new Placement(ring, shards, moving, stamp, new AtomicInteger());
+    }
+
+    private boolean isStale() {
+        return System.currentTimeMillis() - checkedAt > 2 * overrideRefreshMs;
+    }
+
+    // Caller holds the monitor. Acknowledges the current placement once no write routed by an older one is
+    // left, and records the heartbeat either way
+    private void acknowledge() {
+        retired.removeIf(old -> old.writers.get() == 0);
+        if (retired.isEmpty()) {
+            acknowledged = placement.version();
+        }
+        long now = System.currentTimeMillis();
+        ShardPlacementAck row = new ShardPlacementAck().setInstanceId(instanceId).setPlacement(acknowledged).setHeartbeatTime(now);
+        if (shardPlacementAckMapper.updateById(row) == 0) {
+            shardPlacementAckMapper.insert(row);
+        }
+        checkedAt = now;
+    }
+
+    private int configuredRingSize() {
+        int size = configurationStore.get(Settings.SHARD_RING_SIZE);
+        return size <= 0 ? shardCount() : Math.min(size, shardCount());
+    }
+
+    // Binds the shard to the surrounding transaction, if any, and rejects a second shard in the same one
+    private void pinTransaction(int shard) {
+        if (!isSharded() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.getResource(TRANSACTION_KEY) instanceof Integer pinned) {
+            if (pinned != shard) {
+                throw new IllegalStateException("A transaction cannot span shards " + pinned + " and " + shard);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+            }
+        });
+    }
+
+    private record Placement(ConsistentHashRing ring, IntIntHashMap shards, IntIntHashMap moving, String stamp,
+                             AtomicInteger writers) {
+        String version() {
+            return stamp + "@" + ring.shards();
+        }
+    }
+}
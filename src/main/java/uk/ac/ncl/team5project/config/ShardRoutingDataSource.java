@@ -0,0 +1,66 @@
+package uk.ac.ncl.team5project.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file ShardRoutingDataSource.java
+ * @date 2026-10-19
+ * @function_description: Routes each new connection to the current thread's shard or to the main database.
+ * @interface_description: determineCurrentLookupKey(), close()
+ * @calling_sequence: MyBatis / JdbcTemplate → ShardRoutingDataSource → shard pool / main data source
+ * @arguments_description: DataSource main, List shards
+ * @list_of_subordinate_classes: ShardRouter
+ * @discussion: Inside ShardRouter.onShard the connection comes from that shard's pool; everywhere else it
+ * comes from the main data source, which may itself be the primary/replica router. Spring opens a
+ * transaction's connection when the transaction begins, so a transaction on sharded tables has to be
+ * started inside ShardRouter.onUser. Closing this data source closes the shard pools and the main one.
+ * @development_history: Created on 2026-10-19 for sharding WISHLIST and REVIEWS by user.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Main/shard routing data source.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final String MAIN = "main";
+
+    private final DataSource main;
+    private final List<HikariDataSource> shards;
+    private final String[] shardKeys;
+
+    public ShardRoutingDataSource(DataSource main, List<HikariDataSource> shards) {
+        this.main = main;
+        this.shards = shards;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(MAIN, main);
+        shardKeys = new String[shards.size()];
+        for (int i = 0; i < shards.size(); i++) {
+            shardKeys[i] = "shard-" + i;
+            targets.put(shardKeys[i], shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(main);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardRouter.currentShard();
+        return shard == null ? MAIN : shardKeys[shard];
+    }
+
+    @Override
+    public void close() throws Exception {
+        shards.forEach(HikariDataSource::close);
+        if (main instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package uk.ac.ncl.team5project.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a mapper whose table is split across shards by user_id. Its statements must run inside
+ * ShardRouter.onUser / onShard / scatter; when sharding is configured (team5.sharding.shards) a call
+ * outside the router fails rather than reaching the main database. See ShardingConfig.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Sharded {
+}
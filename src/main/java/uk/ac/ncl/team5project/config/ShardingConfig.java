@@ -0,0 +1,99 @@
+package uk.ac.ncl.team5project.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Data;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @file ShardingConfig.java
+ * @date 2026-10-19
+ * @function_description: Wires shard routing for WISHLIST and REVIEWS when team5.sharding.shards is configured.
+ * @interface_description: Wraps the application DataSource in a ShardRoutingDataSource and registers the guard plugin.
+ * @calling_sequence: Spring Boot → this config → ShardRoutingDataSource → shard pools / main data source
+ * @arguments_description: team5.sharding.shards[n].url/username/password/driver-class-name
+ * @list_of_subordinate_classes: ShardRoutingDataSource, ShardGuardInterceptor, ShardRouter
+ * @discussion: The existing "dataSource" bean (Spring Boot's pool, or the primary/replica router) is
+ * wrapped rather than replaced, so every other table keeps its routing. Shard credentials default to the
+ * main database's. Each shard must hand out auto-increment ids from its own range (for MySQL,
+ * auto_increment_offset/auto_increment_increment), because rows keep their ids when users are moved and
+ * review ids are global keys in the search index. SchemaMigrationConfig applies the Flyway migrations to
+ * every shard at startup. Without shards this class is skipped and ShardRouter runs everything on the main
+ * database.
+ * @development_history: Created on 2026-10-19 for sharding WISHLIST and REVIEWS by user.
+ * 2026-10-19 shards migrated at startup
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Registers the shard routing data source.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "team5.sharding.shards[0]", name = "url")
+@EnableConfigurationProperties(ShardingConfig.ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardGuardInterceptor shardGuardInterceptor() {
+        return new ShardGuardInterceptor();
+    }
+
+    // Static and bound straight from the Environment: post-processors are created before other beans
+    @Bean
+    public static BeanPostProcessor shardRoutingDataSourceWrapper(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource main)) {
+                    return bean;
+                }
+                ShardingProperties properties = Binder.get(environment)
+                        .bindOrCreate("team5.sharding", ShardingProperties.class);
+                return new ShardRoutingDataSource(main, shardPools(properties, environment));
+            }
+        };
+    }
+
+    private static List<HikariDataSource> shardPools(ShardingProperties properties, Environment environment) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            Shard shard = properties.getShards().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("shard-" + i);
+            pool.setJdbcUrl(shard.getUrl());
+            pool.setUsername(shard.getUsername() != null ? shard.getUsername() : environment.getProperty("spring.datasource.username"));
+            pool.setPassword(shard.getPassword() != null ? shard.getPassword() : environment.getProperty("spring.datasource.password"));
+            String driver = shard.getDriverClassName() != null
+                    ? shard.getDriverClassName() : environment.getProperty("spring.datasource.driver-class-name");
+            if (driver != null) {
+                pool.setDriverClassName(driver);
+            }
+            pools.add(pool);
+        }
+        return pools;
+    }
+
+    @Data
+    @ConfigurationProperties(prefix = "team5.sharding")
+    public static class ShardingProperties {
+        private List<Shard> shards = new ArrayList<>();
+    }
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+    }
+}
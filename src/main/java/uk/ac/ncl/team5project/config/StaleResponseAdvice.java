@@ -0,0 +1,93 @@
+package uk.ac.ncl.team5project.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import uk.ac.ncl.team5project.util.ExpiringCache;
+
+/**
+ * @file StaleResponseAdvice.java
+ * @date 2026-10-19
+ * @function_description: Keeps the last successful response of each @ServeStale read for when the database is down.
+ * @interface_description:
+ * - beforeBodyWrite: keeps a successful response of a @ServeStale handler under its path and query string
+ * - lookup(request): the response kept for the request, or null
+ * @calling_sequence: @ServeStale controller → this advice → ExpiringCache; GlobalExceptionHandler → lookup
+ * @arguments_description: HttpServletRequest request
+ * @list_of_subordinate_classes: StoredResponse
+ * @discussion: Every successful response (a Result with code 200) replaces the one kept, so what is served
+ * when a read fails is the newest the instance has seen. Responses are kept as the objects the handler
+ * returned, field filters included, and written again as they were; a response served stale comes from
+ * GlobalExceptionHandler and is not kept again. At most team5.resilience.stale-cache-size are held, the
+ * least recently used dropped first, and none is served once older than team5.resilience.stale-max-age-ms.
+ * Each instance keeps its own.
+ * @development_history: Created on 2026-10-19 for serving stale reads while the database is degraded.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Last-known-good response store for public reads.
+ */
+@RestControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Autowired
+    private ConfigurationStore configurationStore;
+
+    private ExpiringCache<String, StoredResponse> responses;
+
+    @PostConstruct
+    public void init() {
+        responses = new ExpiringCache<>(() -> configurationStore.get(Settings.STALE_RESPONSE_CACHE_SIZE),
+                () -> configurationStore.get(Settings.STALE_RESPONSE_MAX_AGE_MS));
+        configurationStore.subscribe(Settings.STALE_RESPONSE_CACHE_SIZE, size -> responses.trimToCapacity());
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(ServeStale.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (succeeded(body) && request instanceof ServletServerHttpRequest servletRequest) {
+            String key = key(servletRequest.getServletRequest());
+            responses.putIfUnchanged(key, responses.stamp(key), new StoredResponse(body, System.currentTimeMillis()));
+        }
+        return body;
+    }
+
+    public StoredResponse lookup(HttpServletRequest request) {
+        return responses.get(key(request));
+    }
+
+    private static String key(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return query == null ? request.getRequestURI() : request.getRequestURI() + "?" + query;
+    }
+
+    private static boolean succeeded(Object body) {
+        Object value = body instanceof MappingJacksonValue wrapped ? wrapped.getValue() : body;
+        if (value instanceof uk.ac.ncl.team5project.util.Result<?> result) {
+            return Integer.valueOf(200).equals(result.getCode());
+        }
+        return value instanceof Result result && Integer.valueOf(200).equals(result.getCode());
+    }
+
+    /**
+     * A response body as the handler returned it, and when.
+     */
+    public record StoredResponse(Object body, long storedAt) {
+    }
+}
@@ -0,0 +1,49 @@
+package uk.ac.ncl.team5project.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import uk.ac.ncl.team5project.model.dto.BatchDTO;
+import uk.ac.ncl.team5project.service.BatchService;
+import uk.ac.ncl.team5project.util.Result;
+
+/**
+ * @file BatchController.java
+ * @date 2026-10-19
+ * @function_description: Controller for running several API calls in one HTTP request.
+ * @interface_description:
+ * POST /v1/batch - Run a list of API calls concurrently and return all of their responses
+ * @calling_sequence: Controller → BatchService → (per call) Controller → Service
+ * @arguments_description:
+ * - BatchDTO: {"requests": [{"id": "me", "method": "GET", "path": "/v1/users/me"}, ...]}
+ * @list_of_subordinate_classes:
+ * BatchService, BatchDTO, BatchResponseVO, Result
+ * @discussion:
+ * Requires authentication via JWT token; the token is checked once for the whole batch.
+ * Saves a mobile client the round trips of the calls it makes on startup.
+ * @development_history:
+ * Created on 2026-10-19 for request batching
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: REST controller for batched API calls
+ */
+@RestController
+@RequestMapping("/v1/batch")
+public class BatchController {
+    @Autowired
+    private BatchService batchService;
+
+    /**
+     * Runs up to team5.batch.max-requests calls in parallel under one deadline.
+     * Returns one {id, status, body} entry per call, in the order given.
+     * Requires JWT authentication.
+     */
+    @PostMapping
+    public Result<?> batch(@RequestBody BatchDTO batch, HttpServletRequest request, HttpServletResponse response) {
+        return batchService.execute(batch, request, response);
+    }
+}
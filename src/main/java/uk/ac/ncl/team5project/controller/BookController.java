@@ -0,0 +1,191 @@
+package uk.ac.ncl.team5project.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.ServeStale;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.model.vo.BookDetailVO;
+import uk.ac.ncl.team5project.service.BookBrowseService;
+import uk.ac.ncl.team5project.service.BookDetailService;
+import uk.ac.ncl.team5project.service.BookRatingService;
+import uk.ac.ncl.team5project.service.BookRecommendationService;
+import uk.ac.ncl.team5project.service.BookSimilarityService;
+import uk.ac.ncl.team5project.service.BookSuggestService;
+import uk.ac.ncl.team5project.util.Result;
+
+/**
+ * @file BookController.java
+ * @date 2026-10-19
+ * @function_description: Controller for public book catalog endpoints.
+ * @interface_description:
+ * GET /v1/books/suggest?q= - Title autocomplete ranked by wishlist popularity
+ * GET /v1/books/browse - Catalog filtered by categories, authors and publishing houses, with facet counts
+ * GET /v1/books/{id}/related - Books most often wishlisted together with this one
+ * GET /v1/books/{id}/similar - Books whose reviews read most like this one's
+ * GET /v1/books/{id}/rating - Average rating and star histogram of a book
+ * GET /v1/books/ratings?ids= - Rating summaries of several books, for catalog pages
+ * GET /v1/books/{id}/detail - Everything on a book's page, from its precomputed document
+ * GET /v1/books/detail/lag - How far the detail documents trail the writes on this instance
+ * POST /v1/books/detail/rebuild - Queue every book's detail document for rebuilding
+ * @calling_sequence: Controller → BookSuggestService → PrefixIndex
+ * @arguments_description:
+ * - q: Title prefix typed so far
+ * - limit: Maximum number of suggestions (default 10, at most 20) or related/similar books (default 10/20, at most 50)
+ * - id: Book ID
+ * - ids: Repeatable book IDs (at most team5.ratings.max-ids)
+ * - categoryId / authorId / publisher: Repeatable filters; values of one filter are OR-ed, different filters AND-ed
+ * - pageNum / pageSize: Browse pagination (default 1 / 20, at most team5.browse.max-page-size per page)
+ * @list_of_subordinate_classes:
+ * BookSuggestService, BookBrowseService, BookRecommendationService, BookSimilarityService, BookRatingService,
+ * BookDetailService, Result
+ * @discussion:
+ * All /v1/books/** endpoints except /v1/books/detail/lag and /v1/books/detail/rebuild (admin only) are
+ * publicly accessible (see SecurityConfig). The rating, ratings and detail reads are @ServeStale: while the
+ * database is unavailable they answer with their last successful response.
+ * @development_history:
+ * Created on 2026-10-19 for book title autocomplete
+ * 2026-10-19 admin endpoint rebuilding every detail document
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: REST controller for book catalog queries
+ */
+@RestController
+@RequestMapping("/v1/books")
+public class BookController {
+    @Autowired
+    private BookSuggestService bookSuggestService;
+    @Autowired
+    private BookBrowseService bookBrowseService;
+    @Autowired
+    private BookRecommendationService bookRecommendationService;
+    @Autowired
+    private BookSimilarityService bookSimilarityService;
+    @Autowired
+    private BookRatingService bookRatingService;
+    @Autowired
+    private BookDetailService bookDetailService;
+    @Autowired
+    private ConfigurationStore configurationStore;
+
+    /**
+     * Suggests book titles starting with the given prefix, most wishlisted first.
+     * Called on every keystroke, so it is served entirely from memory.
+     * Publicly accessible.
+     */
+    @GetMapping("/suggest")
+    public Result<?> suggest(
+            @RequestParam String q,
+            @RequestParam(required = false, defaultValue = "10") Integer limit
+    ) {
+        return Result.success(bookSuggestService.suggest(q, limit));
+    }
+
+    /**
+     * Browses the catalog by category, author and publishing house.
+     * Filtering and facet counts come from the in-memory bitmap index; only the page of books is read from the database.
+     * Publicly accessible.
+     */
+    @GetMapping("/browse")
+    public Result<?> browse(
+            @RequestParam(required = false) List<Integer> categoryId,
+            @RequestParam(required = false) List<Integer> authorId,
+            @RequestParam(required = false) List<String> publisher,
+            @RequestParam(required = false, defaultValue = "1") Integer pageNum,
+            @RequestParam(required = false, defaultValue = "20") Integer pageSize
+    ) {
+        return Result.success(bookBrowseService.browse(categoryId, authorId, publisher, pageNum, pageSize));
+    }
+
+    /**
+     * Lists books that readers who wishlisted this book also wishlisted.
+     * Served from the in-memory co-occurrence matrix.
+     * Publicly accessible.
+     */
+    @GetMapping("/{id}/related")
+    public Result<?> related(
+            @PathVariable Integer id,
+            @RequestParam(required = false, defaultValue = "10") Integer limit
+    ) {
+        return Result.success(bookRecommendationService.related(id, limit));
+    }
+
+    /**
+     * Lists books whose reviews are most similar in content to this book's reviews.
+     * Served from the in-memory nearest-neighbour index; empty until the book has reviews and the index was rebuilt.
+     * Publicly accessible.
+     */
+    @GetMapping("/{id}/similar")
+    public Result<?> similar(
+            @PathVariable Integer id,
+            @RequestParam(required = false, defaultValue = "20") Integer limit
+    ) {
+        return Result.success(bookSimilarityService.similar(id, limit));
+    }
+
+    /**
+     * Returns the number of ratings, the average and the 1-5 star histogram of a book.
+     * Served from the BOOK_RATING aggregate (kept in memory), never from the reviews themselves.
+     * Publicly accessible.
+     */
+    @GetMapping("/{id}/rating")
+    @ServeStale
+    public Result<?> rating(@PathVariable Integer id) {
+        return Result.success(bookRatingService.getRating(id));
+    }
+
+    /**
+     * Returns the rating summaries of several books in the order requested, e.g. for a page of the catalog.
+     * Books not in memory are read with one query.
+     * Publicly accessible.
+     */
+    @GetMapping("/ratings")
+    @ServeStale
+    public Result<?> ratings(@RequestParam List<Integer> ids) {
+        int max = configurationStore.get(Settings.RATINGS_MAX_IDS);
+        if (ids.size() > max) {
+            return Result.error(400, "At most " + max + " ids per request");
+        }
+        return Result.success(bookRatingService.getRatings(ids));
+    }
+
+    /**
+     * Returns the book, its review and wishlist counts, latest reviews, rating and related books.
+     * One key lookup of the book's precomputed document, which is rebuilt in the background after writes.
+     * Publicly accessible.
+     */
+    @GetMapping("/{id}/detail")
+    @ServeStale
+    public Result<?> detail(@PathVariable Integer id) {
+        BookDetailVO detail = bookDetailService.getDetail(id);
+        if (detail == null) {
+            return Result.error(404, "Book not found");
+        }
+        return Result.success(detail);
+    }
+
+    /**
+     * Reports the pending rebuilds and lag of the book detail documents on this instance.
+     * Admin only.
+     */
+    @GetMapping("/detail/lag")
+    public Result<?> detailLag() {
+        return Result.success(bookDetailService.lag());
+    }
+
+    /**
+     * Queues every book's detail document for rebuilding, for after a deploy that changes the document.
+     * Returns the number of books queued; the rebuilds run in the background, and detail/lag shows their progress.
+     * Admin only.
+     */
+    @PostMapping("/detail/rebuild")
+    public Result<?> rebuildDetails() {
+        return Result.success(bookDetailService.rebuild());
+    }
+
+}
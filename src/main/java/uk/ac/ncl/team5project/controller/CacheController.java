@@ -0,0 +1,45 @@
+package uk.ac.ncl.team5project.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import uk.ac.ncl.team5project.service.NearCacheService;
+import uk.ac.ncl.team5project.util.Result;
+
+/**
+ * @file CacheController.java
+ * @date 2026-10-19
+ * @function_description: Controller for inspecting the near caches of this instance.
+ * @interface_description:
+ * GET /v1/caches - Staleness of this instance's near caches and the counters of each
+ * @calling_sequence: Controller → NearCacheService
+ * @arguments_description: None
+ * @list_of_subordinate_classes:
+ * NearCacheService, NearCacheStatusVO, Result
+ * @discussion:
+ * Admin only (JWT with the admin role, see SecurityConfig). Each instance holds its own caches, so the figures describe only
+ * the instance that answers.
+ * @development_history:
+ * Created on 2026-10-19 for cluster-coherent near caches
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: REST controller for near cache status
+ */
+@RestController
+@RequestMapping("/v1/caches")
+public class CacheController {
+    @Autowired
+    private NearCacheService nearCacheService;
+
+    /**
+     * Reports how long ago the invalidation log was read, the staleness bound, and each cache's size,
+     * hits, misses and evictions caused by other instances.
+     * Admin only.
+     */
+    @GetMapping
+    public Result<?> status() {
+        return Result.success(nearCacheService.status());
+    }
+}
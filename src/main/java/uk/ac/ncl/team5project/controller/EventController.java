@@ -0,0 +1,44 @@
+package uk.ac.ncl.team5project.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import uk.ac.ncl.team5project.service.DomainEventService;
+import uk.ac.ncl.team5project.util.Result;
+
+/**
+ * @file EventController.java
+ * @date 2026-10-19
+ * @function_description: Controller for inspecting domain event delivery on this instance.
+ * @interface_description:
+ * GET /v1/events/lag - Pending events, lag and delivery counts of each in-process subscriber
+ * @calling_sequence: Controller → DomainEventService
+ * @arguments_description: None
+ * @list_of_subordinate_classes:
+ * DomainEventService, EventSubscriberLagVO, Result
+ * @discussion:
+ * Admin only (JWT with the admin role, see SecurityConfig). Each instance delivers events to its own subscribers, so the
+ * figures describe only the instance that answers.
+ * @development_history:
+ * Created on 2026-10-19 for the domain event outbox
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: REST controller for domain event delivery status
+ */
+@RestController
+@RequestMapping("/v1/events")
+public class EventController {
+    @Autowired
+    private DomainEventService domainEventService;
+
+    /**
+     * Reports, per subscriber, the events not yet handled and how long the last one waited.
+     * Admin only.
+     */
+    @GetMapping("/lag")
+    public Result<?> lag() {
+        return Result.success(domainEventService.lag());
+    }
+}
@@ -0,0 +1,91 @@
+package uk.ac.ncl.team5project.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import uk.ac.ncl.team5project.config.BulkheadInterceptor;
+import uk.ac.ncl.team5project.config.CircuitBreakerInterceptor;
+import uk.ac.ncl.team5project.config.ConcurrencyLimitFilter;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.model.vo.BulkheadStatsVO;
+import uk.ac.ncl.team5project.model.vo.CircuitBreakerStatsVO;
+import uk.ac.ncl.team5project.model.vo.ConcurrencyLimitStatsVO;
+import uk.ac.ncl.team5project.model.vo.ResilienceStatusVO;
+import uk.ac.ncl.team5project.util.Result;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @file ResilienceController.java
+ * @date 2026-10-19
+ * @function_description: Controller for inspecting the circuit breakers, bulkheads and edge limit of this instance.
+ * @interface_description:
+ * GET /v1/resilience - State and counters of each mapper's circuit breaker, each controller's bulkhead and
+ * the adaptive concurrency limit
+ * @calling_sequence: Controller → CircuitBreakerInterceptor, BulkheadInterceptor, ConcurrencyLimitFilter
+ * @arguments_description: None
+ * @list_of_subordinate_classes:
+ * ResilienceStatusVO, CircuitBreakerStatsVO, BulkheadStatsVO, ConcurrencyLimitStatsVO, Result
+ * @discussion:
+ * Admin only (JWT with the admin role, see SecurityConfig). Each instance has its own breakers and bulkheads, so the figures
+ * describe only the instance that answers.
+ * @development_history:
+ * Created on 2026-10-19 for serving reads while the database is degraded
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: REST controller for circuit breaker and bulkhead status
+ */
+@RestController
+@RequestMapping("/v1/resilience")
+public class ResilienceController {
+    @Autowired
+    private CircuitBreakerInterceptor circuitBreakerInterceptor;
+    @Autowired
+    private BulkheadInterceptor bulkheadInterceptor;
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+    @Autowired
+    private ConfigurationStore configurationStore;
+
+    /**
+     * Reports each circuit breaker's state, failures in a row, openings and rejected statements, and each
+     * bulkhead's requests in progress and rejections, and the edge limit with its latencies and shed requests.
+     * Admin only.
+     */
+    @GetMapping
+    public Result<?> status() {
+        ResilienceStatusVO status = new ResilienceStatusVO();
+        status.setBulkheadLimit(configurationStore.get(Settings.BULKHEAD_MAX_CONCURRENT));
+        status.setBreakers(circuitBreakerInterceptor.breakers().stream().map(breaker -> {
+            CircuitBreakerStatsVO vo = new CircuitBreakerStatsVO();
+            vo.setName(breaker.getName());
+            vo.setState(breaker.getState().name());
+            vo.setConsecutiveFailures(breaker.getConsecutiveFailures());
+            vo.setTimesOpened(breaker.getTimesOpened());
+            vo.setRejected(breaker.getRejected());
+            return vo;
+        }).toList());
+        status.setBulkheads(bulkheadInterceptor.bulkheads().stream().map(bulkhead -> {
+            BulkheadStatsVO vo = new BulkheadStatsVO();
+            vo.setName(bulkhead.getName());
+            vo.setInFlight(bulkhead.getInFlight());
+            vo.setRejected(bulkhead.getRejected());
+            return vo;
+        }).toList());
+        ConcurrencyLimitStatsVO limit = new ConcurrencyLimitStatsVO();
+        limit.setEnabled(configurationStore.get(Settings.LIMITER_ENABLED));
+        limit.setLimit(concurrencyLimitFilter.getLimit());
+        limit.setInFlight(concurrencyLimitFilter.getInFlight());
+        limit.setRttMs(concurrencyLimitFilter.getRttNanos() / 1e6);
+        limit.setNoLoadRttMs(concurrencyLimitFilter.getNoLoadRttNanos() / 1e6);
+        Map<String, Long> shed = new LinkedHashMap<>();
+        concurrencyLimitFilter.getShed().forEach((priority, count) -> shed.put(priority.name(), count));
+        limit.setShed(shed);
+        status.setConcurrencyLimit(limit);
+        return Result.success(status);
+    }
+}
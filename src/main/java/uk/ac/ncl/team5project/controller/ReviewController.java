@@ -3,10 +3,16 @@ package uk.ac.ncl.team5project.controller;
 import com.github.pagehelper.PageInfo;
 import com.github.pagehelper.page.PageMethod;
 import jakarta.annotation.Resource;
+import org.springframework.dao.DataAccessException;
 import org.springframework.web.bind.annotation.*;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
 import uk.ac.ncl.team5project.config.Result;
+import uk.ac.ncl.team5project.config.ServeStale;
+import uk.ac.ncl.team5project.config.Settings;
 import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.service.ReviewSearchService;
 import uk.ac.ncl.team5project.service.ReviewService;
+import uk.ac.ncl.team5project.util.FieldSet;
 
 import java.util.List;
 
@@ -26,13 +32,20 @@ import java.util.List;
  *                          selectReviewByUserId: Fetch all reviews associated with a user by their ID.
  *                          updateReviewByBookIdUserId: Create a new review or update an existing review for a specific book by a specific user.
  *                          deleteReviewByBookIdUserId: Delete a review for a specific book by a specific user.
+ *                          searchReviews: Full-text search over review content, ranked and highlighted.
+ *                          selectReviewByBookIds: Newest reviews of several books in one call, for catalog grids.
  *         - Argument Description:
  *                          id (Integer): Book or User ID used for fetching or managing reviews.
  *                          bookId (Integer): The ID of the book.
  *                          userId (Integer): The ID of the user.
  *                          content (String): The content of the review.
+ *                          rating (Integer): Optional 1-5 stars; omitted keeps the review's current rating.
  *                          pageNum (Integer): The page number for pagination (optional, defaults to 1).
  *                          pageSize (Integer): The number of reviews per page (optional, defaults to 3).
+ *                          q (String): Free-text search query.
+ *                          ids (List): Book IDs; perBook (Integer): reviews returned per book (optional, defaults to 3).
+ *                          fields (String): Optional comma-separated review fields to return, e.g. reviewId,rating,createdTime
+ *                                           (see Review.FIELDS); an unknown field is a 400.
  *         - List of Subordinate Classes:
  * </pre>
  *
@@ -41,8 +54,11 @@ import java.util.List;
  *     Designer: menghui yao
  *     Reviewer: menghui yao
  *     Review Date: 2025/4/25
- *     Modification Date: 2025/4/25
- *     Modification Description: none
+ *     Modification Date: 2026/10/19
+ *     Modification Description: 2026/10/19 full-text search over review content; optional 1-5 star ratings;
+ *                               newest reviews of several books in one call; ?fields= sparse fieldsets;
+ *                               stale pages served while the database is unavailable;
+ *                               search pages past team5.search.max-page rejected
  * </pre>
  */
 @RestController
@@ -52,33 +68,51 @@ public class ReviewController {
     @Resource
     private ReviewService reviewService;
 
+    @Resource
+    private ReviewSearchService reviewSearchService;
+
+    @Resource
+    private ConfigurationStore configurationStore;
+
     /**
      * Fetches all reviews associated with a specific book by its ID.
      * This endpoint returns a paginated list of reviews for a book.
      * @param id The ID of the book whose reviews are to be fetched.
      * @param pageNum The page number for pagination. Defaults to 1 if not provided.
      * @param pageSize The number of reviews per page. Defaults to 3 if not provided.
-     * @return A Result containing a PageInfo object that contains the list of reviews for the book.
+     * @param fields The review fields to return, comma-separated. All fields if not provided.
+     * @return A Result containing a PageInfo object that contains the list of reviews for the book; while the
+     *         database is unavailable, the last successful page, marked stale.
      * @throws Result.error() If the book ID is null or if an error occurs while fetching reviews.
      */
 
     @GetMapping("selectReviewByBookId")
-    //through http://localhost:8080/v1/reviews/selectReviewByBookId?id=123[&pageNum=1&pageSize=3] query
-    public Result selectReviewByBookId(
+    @ServeStale
+    //through http://localhost:8080/v1/reviews/selectReviewByBookId?id=123[&pageNum=1&pageSize=3&fields=reviewId,rating] query
+    public Object selectReviewByBookId(
                                      @RequestParam Integer id,
                                      @RequestParam(defaultValue = "1") Integer pageNum,   // default is 1st page
-                                     @RequestParam(defaultValue = "3") Integer pageSize) { // default is 3 per page
+                                     @RequestParam(defaultValue = "3") Integer pageSize,  // default is 3 per page
+                                     @RequestParam(required = false) String fields) {
+        FieldSet fieldSet;
+        try {
+            fieldSet = Review.FIELDS.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
         try {
             if (id == null) {
                 return Result.error("id is null");
             }
             // PageHelper
             PageMethod.startPage(pageNum, pageSize);
-            List<Review> review = reviewService.selectReviewByBookId(id); // query result of all reviews
+            List<Review> review = reviewService.selectReviewByBookId(id, fieldSet); // query result of all reviews
             // put page info and reviews together
             PageInfo<Review> pageInfo = new PageInfo<>(review);
-            // return above information
-            return Result.success(pageInfo);
+            // return above information, written with the requested fields only
+            return fieldSet.filter(Result.success(pageInfo));
+        } catch (DataAccessException e) {
+            throw e;  // GlobalExceptionHandler serves the last page, or 503, while the database is unavailable
         } catch (Exception e) { return Result.error("error：" + e.getMessage());}
     }
 
@@ -90,23 +124,31 @@ public class ReviewController {
      * @param id The ID of the user whose reviews are to be fetched.
      * @param pageNum The page number for pagination. Defaults to 1 if not provided.
      * @param pageSize The number of reviews per page. Defaults to 3 if not provided.
+     * @param fields The review fields to return, comma-separated. All fields if not provided.
      * @return A Result containing a PageInfo object that contains the list of reviews for the user.
      * @throws Result.error() If the user ID is null or if an error occurs while fetching reviews.
      */
     @GetMapping("selectReviewByUserId")
-    public Result selectReviewByUserId(
+    public Object selectReviewByUserId(
             @RequestParam Integer id,
             @RequestParam(defaultValue = "1") Integer pageNum,
-            @RequestParam(defaultValue = "3") Integer pageSize) {
+            @RequestParam(defaultValue = "3") Integer pageSize,
+            @RequestParam(required = false) String fields) {
         if (id == null) {
             return Result.error();
         }
+        FieldSet fieldSet;
+        try {
+            fieldSet = Review.FIELDS.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
         //  PageHelper
         PageMethod.startPage(pageNum, pageSize);
-        List<Review> review = reviewService.selectReviewByUserId(id);
+        List<Review> review = reviewService.selectReviewByUserId(id, fieldSet);
         // put page info and reviews together
         PageInfo<Review> pageInfo = new PageInfo<>(review);
-        return Result.success(pageInfo);
+        return fieldSet.filter(Result.success(pageInfo));
     }
 
     /**
@@ -125,9 +167,13 @@ public class ReviewController {
     @PostMapping("updateReviewByBookIdUserId")
     public Result updateReviewByBookIdUserId(@RequestParam Integer bookId,
                               @RequestParam Integer userId,
+                              @RequestParam(required = false) Integer rating,
                               @RequestBody String content) {
+        if (rating != null && (rating < 1 || rating > 5)) {
+            return Result.error(400, "rating must be between 1 and 5");
+        }
         try {
-            reviewService.updateReviewByBookIdUserId(userId, bookId, content);
+            reviewService.updateReviewByBookIdUserId(userId, bookId, content, rating);
             return Result.success();
         } catch (Exception e) {
             return Result.error("error：" + e.getMessage());
@@ -157,4 +203,58 @@ public class ReviewController {
         }
     }
 
+    /**
+     * Searches review content.
+     * http://localhost:8080/v1/reviews/search?q=great+plot[&pageNum=1&pageSize=10]
+     * @param q The free-text query; reviews matching any term are returned, best match first.
+     * @param pageNum The page number for pagination. Defaults to 1 if not provided, at most team5.search.max-page.
+     * @param pageSize The number of hits per page. Defaults to 10 if not provided.
+     * @return A Result containing a PageInfo of ReviewSearchVO hits with highlighted excerpts; 400 past the last page allowed.
+     */
+    @GetMapping("search")
+    public Result searchReviews(@RequestParam String q,
+                                @RequestParam(defaultValue = "1") Integer pageNum,
+                                @RequestParam(defaultValue = "10") Integer pageSize) {
+        if (q.isBlank() || pageNum < 1 || pageSize < 1) {
+            return Result.error("invalid search parameters");
+        }
+        int maxPage = configurationStore.get(Settings.SEARCH_MAX_PAGE);
+        if (pageNum > maxPage) {
+            return Result.error(400, "pageNum must be at most " + maxPage);
+        }
+        return Result.success(reviewSearchService.search(q, pageNum, pageSize));
+    }
+
+    /**
+     * Fetches the newest reviews of several books at once, for catalog grids.
+     * http://localhost:8080/v1/reviews/by-books?ids=1&ids=2[&perBook=3]
+     * @param ids The book IDs (repeatable, at most team5.reviews.snippet-max-books).
+     * @param perBook Reviews per book, newest first. Defaults to 3, at most team5.reviews.snippets-per-book.
+     * @param fields The review fields to return, comma-separated. Snippets are served from memory, so this
+     *               narrows the response only.
+     * @return A Result containing a map from book ID to its reviews, in the order requested; books without
+     *         reviews map to an empty list. No page counts are run. Served stale while the database is unavailable.
+     */
+    @GetMapping("by-books")
+    @ServeStale
+    public Object selectReviewByBookIds(@RequestParam List<Integer> ids,
+                                        @RequestParam(defaultValue = "3") Integer perBook,
+                                        @RequestParam(required = false) String fields) {
+        FieldSet fieldSet;
+        try {
+            fieldSet = Review.FIELDS.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
+        int maxBooks = configurationStore.get(Settings.REVIEW_SNIPPET_MAX_BOOKS);
+        int maxPerBook = configurationStore.get(Settings.REVIEW_SNIPPETS_PER_BOOK);
+        if (ids.isEmpty() || ids.size() > maxBooks || ids.contains(null)) {
+            return Result.error(400, "between 1 and " + maxBooks + " ids are required");
+        }
+        if (perBook < 1 || perBook > maxPerBook) {
+            return Result.error(400, "perBook must be between 1 and " + maxPerBook);
+        }
+        return fieldSet.filter(Result.success(reviewService.selectLatestReviewByBookIds(ids, perBook)));
+    }
+
 }
@@ -7,7 +7,9 @@ import org.springframework.web.bind.annotation.*;
 
 import uk.ac.ncl.team5project.model.dto.LoginDTO;
 import uk.ac.ncl.team5project.model.dto.RegisterDTO;
+import uk.ac.ncl.team5project.model.vo.UserInfoVO;
 import uk.ac.ncl.team5project.service.UserService;
+import uk.ac.ncl.team5project.util.FieldSet;
 import uk.ac.ncl.team5project.util.Result;
 
 import java.util.Random;
@@ -22,7 +24,7 @@ import java.util.Random;
  * POST /v1/users/login - User login
  * POST /v1/users/admin/login - Admin login
  * PUT /v1/users/me - Update current user's info
- * GET /v1/users/me - Get current user's info
+ * GET /v1/users/me - Get current user's info (optionally only ?fields=userId,reviewCount,...)
  * @calling_sequence:
  * Controller → UserService → UserMapper → Database
  * @arguments_description:
@@ -93,11 +95,18 @@ public class UserController {
 
     /**
      * Retrieves the current authenticated user's profile.
+     * Parameter: fields (optional, comma-separated; only the sub-queries these need are run)
      * Requires JWT authentication.
      */
     @GetMapping("/me")
-    public Result<?> getInfo() {
-        return userService.getInfo();
+    public Object getInfo(@RequestParam(required = false) String fields) {
+        FieldSet fieldSet;
+        try {
+            fieldSet = UserInfoVO.FIELDS.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
+        return fieldSet.filter(userService.getInfo(fieldSet));
     }
 
 }
@@ -5,12 +5,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import uk.ac.ncl.team5project.config.ServeStale;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.Wishlist;
 import uk.ac.ncl.team5project.mapper.WishlistMapper;
+import uk.ac.ncl.team5project.model.vo.BookCount;
 import uk.ac.ncl.team5project.model.dto.WishlistAddDTO;
+import uk.ac.ncl.team5project.model.dto.WishlistContainsDTO;
 import uk.ac.ncl.team5project.model.vo.WishlistStatVO;
 import uk.ac.ncl.team5project.service.WishlistService;
+import uk.ac.ncl.team5project.util.FieldSet;
 import uk.ac.ncl.team5project.util.Result;
 
+import java.util.Map;
+import java.util.TreeMap;
+
 /**
  * @file WishlistController.java
  * @date 2025-04-01
@@ -19,12 +28,17 @@ import uk.ac.ncl.team5project.util.Result;
  * POST /v1/wishlist - Add a book to the wishlist
  * GET /v1/wishlist - Get current user's wishlist (supports pagination)
  * DELETE /v1/wishlist/{wishlist_id} - Delete a specific wishlist item
+ * POST /v1/wishlist/contains - Check which of a batch of books are on the wishlist
+ * GET /v1/wishlist/changes - Get adds and removes since a change version (delta sync)
  * GET /v1/wishlist/stat - Get wishlist statistics (total entries, unique books)
  * @calling_sequence: Controller → WishlistService → WishlistMapper → Database
  * @arguments_description:
  * -WishlistAddDTO: DTO used for adding, includes user_id and book_id
  * -page, size: Optional pagination parameters
+ * -fields: Optional comma-separated fields of each entry to return (id, userId, bookId)
  * -wishlist_id: ID of the wishlist entry to be deleted
+ * -WishlistContainsDTO: DTO carrying the book_ids to check
+ * -since: Change version returned by the previous sync
  * @list_of_subordinate_classes:
  * WishlistService, WishlistAddDTO, WishlistStatVO, Result
  * @discussion:
@@ -55,15 +69,22 @@ public class WishlistController {
 
     /**
      * Retrieves the current user's wishlist with pagination support.
-     * Parameters: page (default 1), size (default 10)
+     * Parameters: page (default 1), size (default 10), fields (default all; an unknown field is a 400)
      * Requires JWT authentication.
      */
     @GetMapping
-    public Result<?> getWishlist(
+    public Object getWishlist(
             @RequestParam(required = false, defaultValue = "1") Integer page,
-            @RequestParam(required = false, defaultValue = "10") Integer size
+            @RequestParam(required = false, defaultValue = "10") Integer size,
+            @RequestParam(required = false) String fields
     ) {
-        return wishlistService.getWishlist(page, size);
+        FieldSet fieldSet;
+        try {
+            fieldSet = Wishlist.FIELDS.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
+        return fieldSet.filter(wishlistService.getWishlist(page, size, fieldSet));
     }
 
     /**
@@ -76,19 +97,53 @@ public class WishlistController {
         return wishlistService.deleteBookFromWishlist(wishlist_id);
     }
 
+    /**
+     * Checks which books are on the current user's wishlist, e.g. for the heart icons of a catalog page.
+     * Body: {"book_ids": [1, 2, 3]}; returns {"1": true, "2": false, "3": false}.
+     * Requires JWT authentication.
+     */
+    @PostMapping("/contains")
+    public Result<?> containsBooks(@RequestBody WishlistContainsDTO books) {
+        return wishlistService.containsBooks(books);
+    }
+
+    /**
+     * Returns the adds and removes since the version of the client's last sync.
+     * Parameter: since (optional; omitted or too old gives the whole wishlist with reset = true)
+     * Requires JWT authentication.
+     */
+    @GetMapping("/changes")
+    public Result<?> getWishlistChanges(@RequestParam(required = false) Long since) {
+        return wishlistService.getWishlistChanges(since);
+    }
+
     /**
      * Provides overall statistics for the wishlist system.
      * Returns: number of wishlist entries and how many distinct books are included.
+     * While the database is unavailable the last successful statistics are served, marked stale.
      * Requires JWT authentication.
      */
     @Autowired
     private WishlistMapper wishlistMapper;
+    @Autowired
+    private ShardRouter shardRouter;
     @GetMapping("/stat")
+    @ServeStale
     public Result<?> getWishlistStat() {
         WishlistStatVO wishlistStatVO = new WishlistStatVO();
-        wishlistStatVO.setBookCounts(wishlistMapper.getBookCounts());
+        // WISHLIST is sharded by user: per-book counts and the row count are summed over the shards
+        Map<Integer, Integer> counts = new TreeMap<>();
+        for (BookCount bookCount : shardRouter.gather(wishlistMapper::getBookCounts)) {
+            counts.merge(bookCount.getBookId(), bookCount.getCount(), Integer::sum);
+        }
+        wishlistStatVO.setBookCounts(counts.entrySet().stream().map(entry -> {
+            BookCount bookCount = new BookCount();
+            bookCount.setBookId(entry.getKey());
+            bookCount.setCount(entry.getValue());
+            return bookCount;
+        }).toList());
         wishlistStatVO.setWishlistCount(
-                wishlistMapper.selectCount(null));
+                shardRouter.scatter(() -> wishlistMapper.selectCount(null)).stream().mapToLong(Long::longValue).sum());
         return Result.success(wishlistStatVO);
     }
 
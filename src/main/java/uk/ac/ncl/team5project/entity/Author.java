@@ -0,0 +1,41 @@
+package uk.ac.ncl.team5project.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import java.io.Serializable;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file Author.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing the AUTHOR table in the database.
+ * @interface_description: Includes author ID and author name.
+ * @calling_sequence: MyBatis-Plus → AuthorMapper → AUTHOR table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: Book authors used for browsing and facet filtering.
+ * @development_history: Created on 2026-10-19 for faceted catalog browsing.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Maps author fields to the AUTHOR database table.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("AUTHOR")
+public class Author implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "author_id", type = IdType.AUTO)
+    private Integer authorId;
+
+    private String authorName;
+
+}
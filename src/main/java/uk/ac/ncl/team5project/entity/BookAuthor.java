@@ -0,0 +1,38 @@
+package uk.ac.ncl.team5project.entity;
+
+import java.io.Serializable;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file BookAuthor.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing one row of the BOOK_AUTHOR link table.
+ * @interface_description: Maps a book ID to a author ID.
+ * @calling_sequence: MyBatis-Plus → BookAuthorMapper → BOOK_AUTHOR table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: The table has a composite key (book_id, author_id), so there is no @TableId.
+ * @development_history: Created on 2026-10-19 for faceted catalog browsing.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Links books to their authors.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("BOOK_AUTHOR")
+public class BookAuthor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Integer bookId;
+
+    private Integer authorId;
+
+}
@@ -0,0 +1,38 @@
+package uk.ac.ncl.team5project.entity;
+
+import java.io.Serializable;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file BookCategory.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing one row of the BOOK_CATEGORY link table.
+ * @interface_description: Maps a book ID to a category ID.
+ * @calling_sequence: MyBatis-Plus → BookCategoryMapper → BOOK_CATEGORY table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: The table has a composite key (book_id, category_id), so there is no @TableId.
+ * @development_history: Created on 2026-10-19 for faceted catalog browsing.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Links books to their categorys.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("BOOK_CATEGORY")
+public class BookCategory implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Integer bookId;
+
+    private Integer categoryId;
+
+}
@@ -0,0 +1,43 @@
+package uk.ac.ncl.team5project.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import java.io.Serializable;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file BookDetail.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing the precomputed detail document of a book.
+ * @interface_description: Includes the book ID, the document as JSON and the time its data was read.
+ * @calling_sequence: BookDetailMapper → BOOK_DETAIL table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: document is a serialized BookDetailVO; sourceTime is in epoch milliseconds.
+ * @development_history: Created on 2026-10-19 for the book detail read model.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Maps book detail documents to the BOOK_DETAIL database table.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("BOOK_DETAIL")
+public class BookDetail implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "book_id", type = IdType.INPUT)
+    private Integer bookId;
+
+    private String document;
+
+    private Long sourceTime;
+
+}
@@ -0,0 +1,62 @@
+package uk.ac.ncl.team5project.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import java.io.Serializable;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file BookRating.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing the rating aggregate of a book.
+ * @interface_description: Includes the book ID, the number and sum of ratings and the count of each star value.
+ * @calling_sequence: BookRatingMapper → BOOK_RATING table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: Also used as the change applied to a row by BookRatingMapper.addDelta, where every count
+ * may be negative. A book without a row has no ratings. version, pending and pendingTime coordinate recounts
+ * with review writes whose delta has not been applied yet (see V11__rating_reconcile.sql).
+ * @development_history: Created on 2026-10-19 for review ratings.
+ * 2026-10-19 Added version, pending and pendingTime.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Maps per-book rating counts to the BOOK_RATING database table.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("BOOK_RATING")
+public class BookRating implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "book_id", type = IdType.INPUT)
+    private Integer bookId;
+
+    private Integer ratingCount;
+
+    private Long ratingSum;
+
+    private Integer stars1;
+
+    private Integer stars2;
+
+    private Integer stars3;
+
+    private Integer stars4;
+
+    private Integer stars5;
+
+    private Long version;
+
+    private Integer pending;
+
+    private Long pendingTime;
+
+}
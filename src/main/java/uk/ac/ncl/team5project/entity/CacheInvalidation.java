@@ -0,0 +1,49 @@
+package uk.ac.ncl.team5project.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import java.io.Serializable;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file CacheInvalidation.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing one record of the CACHE_INVALIDATION log.
+ * @interface_description: Includes the record ID, the near cache and key it evicts, the instance that wrote
+ * it and when.
+ * @calling_sequence: NearCacheService → CacheInvalidationMapper → CACHE_INVALIDATION table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: cacheKey is the key's toString(), turned back into a key by the near cache that owns it;
+ * createdTime is in epoch milliseconds.
+ * @development_history: Created on 2026-10-19 for cluster-coherent near caches.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Maps invalidation records to the CACHE_INVALIDATION database table.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("CACHE_INVALIDATION")
+public class CacheInvalidation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "invalidation_id", type = IdType.AUTO)
+    private Long invalidationId;
+
+    private String cacheName;
+
+    private String cacheKey;
+
+    private String origin;
+
+    private Long createdTime;
+
+}
@@ -0,0 +1,41 @@
+package uk.ac.ncl.team5project.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import java.io.Serializable;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file Category.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing the CATEGORY table in the database.
+ * @interface_description: Includes category ID and category name.
+ * @calling_sequence: MyBatis-Plus → CategoryMapper → CATEGORY table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: Catalog categories used for browsing and facet filtering.
+ * @development_history: Created on 2026-10-19 for faceted catalog browsing.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Maps category fields to the CATEGORY database table.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("CATEGORY")
+public class Category implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "category_id", type = IdType.AUTO)
+    private Integer categoryId;
+
+    private String categoryName;
+
+}
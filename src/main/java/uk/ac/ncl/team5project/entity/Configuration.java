@@ -0,0 +1,47 @@
+package uk.ac.ncl.team5project.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file Configuration.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing one runtime setting in the CONFIGURATION table.
+ * @interface_description: Includes the setting key, its raw string value, a version number and the update time.
+ * @calling_sequence: MyBatis-Plus → ConfigurationMapper → CONFIGURATION table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: Every write sets version to one more than the current maximum, so MAX(version) changes
+ * whenever any setting does and pollers can detect changes without reading the values.
+ * @development_history: Created on 2026-10-19 for hot-reloadable runtime configuration.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Maps runtime setting fields to the CONFIGURATION database table.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("CONFIGURATION")
+public class Configuration implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "config_key", type = IdType.INPUT)
+    private String configKey;
+
+    private String configValue;
+
+    private Long version;
+
+    private LocalDateTime updateTime;
+
+}
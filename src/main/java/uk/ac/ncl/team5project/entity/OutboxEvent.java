@@ -0,0 +1,46 @@
+package uk.ac.ncl.team5project.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import java.io.Serializable;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file OutboxEvent.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing one domain event in the DOMAIN_EVENT outbox.
+ * @interface_description: Includes the event ID, the event's type and JSON payload and when it was written.
+ * @calling_sequence: DomainEventService → OutboxEventMapper → DOMAIN_EVENT table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: eventType is the simple class name of a DomainEvent record; eventTime is in epoch milliseconds.
+ * Event ids increase per database, not across databases.
+ * @development_history: Created on 2026-10-19 for the domain event outbox.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Maps outbox rows to the DOMAIN_EVENT database table.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("DOMAIN_EVENT")
+public class OutboxEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "event_id", type = IdType.AUTO)
+    private Long eventId;
+
+    private String eventType;
+
+    private String payload;
+
+    private Long eventTime;
+
+}
@@ -1,7 +1,10 @@
 package uk.ac.ncl.team5project.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import uk.ac.ncl.team5project.util.FieldSet;
 
 import java.util.Date;
 
@@ -19,10 +22,13 @@ import java.util.Date;
  *         - reviewId (Integer): The unique identifier of the review.
  *         - bookId (Integer): The ID of the book being reviewed.
  *         - reviewContent (String): The content of the review.
+ *         - rating (Integer): Stars from 1 to 5, or null if the reviewer gave none.
  *         - createdTime (Date): The timestamp when the review was created or last updated.
  *         - userId (Integer): The ID of the user who submitted the review.
  *         - userName (String): The name of the user who submitted the review.
  *         - name (String): The name of the book being reviewed.
+ *         - deleted (Integer): 1 once the review is deleted, until ReviewArchiveService moves it to REVIEWS_ARCHIVE.
+ *         - FIELDS: The fields a review list can be narrowed to with ?fields=, and their columns.
  *     Calling Sequence:
  *         - This class is used by the Review service to represent the review entity in database interactions
  *           and transfer the data between layers in the application.
@@ -43,18 +49,35 @@ import java.util.Date;
  *     Reviewer: menghui yao
  *     Review Date: 2025/4/25
  *     Modification Date: 2025/4/25
- *     Modification Description: 2025/4/25
+ *     Modification Description: 2025/4/25; 2026/10/19 deleted flag filtered in the mappers' own SQL
  * </pre>
  */
 @Data
+@JsonFilter("review")
 public class Review {
+    // reviewId, bookId and userId are always read: pages are merged by them and names looked up by them
+    public static final FieldSet.Schema FIELDS = new FieldSet.Schema("review", "reviewId", "bookId", "userId")
+            .column("reviewId", "review_id")
+            .column("bookId", "book_id")
+            .column("reviewContent", "review_content")
+            .column("rating", "rating")
+            .column("createdTime", "created_time")
+            .column("userId", "user_id")
+            .derived("userName")
+            .derived("name");
+
     private Integer reviewId;
     private Integer bookId;
     private String reviewContent;
+    private Integer rating;
     // created_time will change when update or created because the formation is DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP shown in database
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")  // formatted yyyy-MM-dd'T'HH:mm:ss
     private Date createdTime;
     private Integer userId;
     private String userName;//user name
     private String name;// book name
+    // soft-delete flag, never sent to clients; every ReviewMapper read filters deleted rows in its own SQL,
+    // since ReviewMapper is not a MyBatis-Plus BaseMapper
+    @JsonIgnore
+    private Integer deleted;
 }
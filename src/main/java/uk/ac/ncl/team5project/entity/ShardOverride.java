@@ -0,0 +1,51 @@
+package uk.ac.ncl.team5project.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file ShardOverride.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing a user pinned to a shard other than the hash ring's choice.
+ * @interface_description: Includes the user ID, the shard holding the user's rows, the move state and the update time.
+ * @calling_sequence: MyBatis-Plus → ShardOverrideMapper → SHARD_OVERRIDE table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: The table lives on the main database and stays small: rows exist only while a user is
+ * being moved or is waiting to be moved after the ring changed. State MOVING means reads still use the
+ * shard column but writes must wait.
+ * @development_history: Created on 2026-10-19 for sharding WISHLIST and REVIEWS by user.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Maps shard placement exceptions to the SHARD_OVERRIDE database table.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("SHARD_OVERRIDE")
+public class ShardOverride implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String ACTIVE = "ACTIVE";
+    public static final String MOVING = "MOVING";
+
+    @TableId(value = "user_id", type = IdType.INPUT)
+    private Integer userId;
+
+    private Integer shard;
+
+    private String state;
+
+    private LocalDateTime updateTime;
+
+}
@@ -0,0 +1,44 @@
+package uk.ac.ncl.team5project.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import java.io.Serializable;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file ShardPlacementAck.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing one instance's row in SHARD_PLACEMENT_ACK.
+ * @interface_description: Includes the instance ID, the shard placement it has acknowledged and its last heartbeat.
+ * @calling_sequence: ShardRouter / ReshardingService → ShardPlacementAckMapper → SHARD_PLACEMENT_ACK table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: placement is ShardRouter.placementVersion() at the time of acknowledgement; heartbeatTime is
+ * in epoch milliseconds.
+ * @development_history: Created on 2026-10-19 for the resharding fence.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Maps placement acknowledgements to the SHARD_PLACEMENT_ACK database table.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("SHARD_PLACEMENT_ACK")
+public class ShardPlacementAck implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "instance_id", type = IdType.INPUT)
+    private String instanceId;
+
+    private String placement;
+
+    private Long heartbeatTime;
+
+}
@@ -5,9 +5,11 @@ import com.baomidou.mybatisplus.annotation.TableId;
 import java.io.Serializable;
 
 import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
+import uk.ac.ncl.team5project.util.FieldSet;
 
 /**
  * @file Wishlist.java
@@ -18,6 +20,7 @@ import lombok.experimental.Accessors;
  * @arguments_description: None
  * @list_of_subordinate_classes: None
  * @discussion: Used to track books favorited by users for future borrowing or interest.
+ * FIELDS lists the fields GET /v1/wishlist can be narrowed to with ?fields=.
  * @development_history: Created on 2025-04-01 as part of wishlist feature module.
  * @designer: wensi huang
  * @reviewer: wensi huang
@@ -29,10 +32,16 @@ import lombok.experimental.Accessors;
 @EqualsAndHashCode(callSuper = false)
 @Accessors(chain = true)
 @TableName("WISHLIST")
+@JsonFilter("wishlist")
 public class Wishlist implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    public static final FieldSet.Schema FIELDS = new FieldSet.Schema("wishlist")
+            .column("id", "id")
+            .column("userId", "user_id")
+            .column("bookId", "book_id");
+
     @TableId(value = "id", type = IdType.AUTO)
     private Integer id;
 
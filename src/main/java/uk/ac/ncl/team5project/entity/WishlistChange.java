@@ -0,0 +1,48 @@
+package uk.ac.ncl.team5project.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file WishlistChange.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing the latest change to one book on a user's wishlist.
+ * @interface_description: Includes the user and book IDs, the wishlist row ID, the change version, the tombstone flag and the change time.
+ * @calling_sequence: WishlistChangeMapper → WISHLIST_CHANGE table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: Keyed by (user_id, book_id): adding a book again after removing it overwrites the
+ * tombstone. deleted = 1 marks a removal, kept until the retention window has passed.
+ * @development_history: Created on 2026-10-19 for wishlist delta sync.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Maps wishlist change log entries to the WISHLIST_CHANGE database table.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("WISHLIST_CHANGE")
+public class WishlistChange implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Integer userId;
+
+    private Integer bookId;
+
+    private Integer wishlistId;
+
+    private Long version;
+
+    private Integer deleted;
+
+    private LocalDateTime changeTime;
+
+}
@@ -0,0 +1,41 @@
+package uk.ac.ncl.team5project.entity;
+
+import java.io.Serializable;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * @file WishlistVersion.java
+ * @date 2026-10-19
+ * @function_description: Entity class representing the change version of a user's wishlist.
+ * @interface_description: Includes the user ID, the current version and the highest pruned tombstone version.
+ * @calling_sequence: WishlistChangeMapper → WISHLIST_VERSION table
+ * @arguments_description: None
+ * @list_of_subordinate_classes: None
+ * @discussion: version only grows, also across pruning and shard moves; a user without a row has never
+ * changed their wishlist (version 0).
+ * @development_history: Created on 2026-10-19 for wishlist delta sync.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Maps per-user wishlist versions to the WISHLIST_VERSION database table.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("WISHLIST_VERSION")
+public class WishlistVersion implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Integer userId;
+
+    private Long version;
+
+    private Long prunedVersion;
+
+}
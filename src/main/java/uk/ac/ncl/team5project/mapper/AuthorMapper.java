@@ -0,0 +1,9 @@
+package uk.ac.ncl.team5project.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import uk.ac.ncl.team5project.entity.Author;
+
+@Mapper
+public interface AuthorMapper extends BaseMapper<Author> {
+}
@@ -0,0 +1,17 @@
+package uk.ac.ncl.team5project.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import uk.ac.ncl.team5project.config.ReadOnly;
+import uk.ac.ncl.team5project.entity.BookAuthor;
+
+import java.util.List;
+
+@Mapper
+public interface BookAuthorMapper extends BaseMapper<BookAuthor> {
+    // Keyset-paged scan ordered by (book_id, author_id), used to build the facet index
+    @ReadOnly
+    List<BookAuthor> selectAfter(Integer afterBookId, Integer afterAuthorId, Integer limit);
+    // Author IDs of one book
+    List<Integer> selectAuthorIdsByBookId(Integer bookId);
+}
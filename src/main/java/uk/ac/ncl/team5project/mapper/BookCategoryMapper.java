@@ -0,0 +1,17 @@
+package uk.ac.ncl.team5project.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import uk.ac.ncl.team5project.config.ReadOnly;
+import uk.ac.ncl.team5project.entity.BookCategory;
+
+import java.util.List;
+
+@Mapper
+public interface BookCategoryMapper extends BaseMapper<BookCategory> {
+    // Keyset-paged scan ordered by (book_id, category_id), used to build the facet index
+    @ReadOnly
+    List<BookCategory> selectAfter(Integer afterBookId, Integer afterCategoryId, Integer limit);
+    // Category IDs of one book
+    List<Integer> selectCategoryIdsByBookId(Integer bookId);
+}
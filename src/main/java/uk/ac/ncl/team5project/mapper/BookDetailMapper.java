@@ -0,0 +1,21 @@
+package uk.ac.ncl.team5project.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import uk.ac.ncl.team5project.config.ReadOnly;
+import uk.ac.ncl.team5project.entity.BookDetail;
+
+@Mapper
+public interface BookDetailMapper extends BaseMapper<BookDetail> {
+    // The whole page of a book in one primary-key lookup
+    @ReadOnly
+    @Select("SELECT book_id, document, source_time FROM BOOK_DETAIL WHERE book_id = #{bookId}")
+    BookDetail selectDocument(Integer bookId);
+
+    // Replaces the document unless the stored one was built from newer data; 0 if none was replaced
+    @Update("UPDATE BOOK_DETAIL SET document = #{document}, source_time = #{sourceTime}, updated_time = CURRENT_TIMESTAMP "
+            + "WHERE book_id = #{bookId} AND source_time <= #{sourceTime}")
+    int updateIfNewer(BookDetail detail);
+}
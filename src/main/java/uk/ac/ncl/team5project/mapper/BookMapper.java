@@ -0,0 +1,21 @@
+package uk.ac.ncl.team5project.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import uk.ac.ncl.team5project.config.ReadOnly;
+import uk.ac.ncl.team5project.entity.Book;
+
+import java.util.List;
+
+@Mapper
+public interface BookMapper extends BaseMapper<Book> {
+    // Keyset-paged scan of (book_id, name), used to build the title index
+    @ReadOnly
+    List<Book> selectBookNamesAfterId(Integer afterId, Integer limit);
+    // Keyset-paged scan of (book_id, publishing_house), used to build the facet index
+    @ReadOnly
+    List<Book> selectBookPublishersAfterId(Integer afterId, Integer limit);
+    // (book_id, name) of the given books, for naming the books on a page of reviews
+    @ReadOnly
+    List<Book> selectBookNamesByIds(List<Integer> bookIds);
+}
@@ -0,0 +1,51 @@
+package uk.ac.ncl.team5project.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import uk.ac.ncl.team5project.config.ReadOnly;
+import uk.ac.ncl.team5project.entity.BookRating;
+
+import java.util.List;
+
+@Mapper
+public interface BookRatingMapper extends BaseMapper<BookRating> {
+    // Announces a review write of the book that has yet to apply its delta; 0 if the book has no row yet
+    @Update("UPDATE BOOK_RATING SET pending = pending + 1, pending_time = #{now}, version = version + 1 "
+            + "WHERE book_id = #{bookId}")
+    int announce(Integer bookId, Long now);
+
+    // Withdraws an announcement whose write failed before its delta
+    @Update("UPDATE BOOK_RATING SET pending = GREATEST(pending - 1, 0), version = version + 1 WHERE book_id = #{bookId}")
+    int withdraw(Integer bookId);
+
+    // Adds the delta's counts to the book's row in one statement and clears the write's announcement
+    @Update("UPDATE BOOK_RATING SET rating_count = rating_count + #{ratingCount}, rating_sum = rating_sum + #{ratingSum}, "
+            + "stars1 = stars1 + #{stars1}, stars2 = stars2 + #{stars2}, stars3 = stars3 + #{stars3}, "
+            + "stars4 = stars4 + #{stars4}, stars5 = stars5 + #{stars5}, pending = GREATEST(pending - 1, 0), "
+            + "version = version + 1, updated_time = CURRENT_TIMESTAMP WHERE book_id = #{bookId}")
+    int addDelta(BookRating delta);
+
+    // Overwrites the book's row with counts taken from the reviews themselves, unless a write changed or
+    // announced itself since the row was read at version; announcements from before staleBefore are dropped
+    @Update("UPDATE BOOK_RATING SET rating_count = #{rating.ratingCount}, rating_sum = #{rating.ratingSum}, "
+            + "stars1 = #{rating.stars1}, stars2 = #{rating.stars2}, stars3 = #{rating.stars3}, stars4 = #{rating.stars4}, "
+            + "stars5 = #{rating.stars5}, pending = 0, version = version + 1, updated_time = CURRENT_TIMESTAMP "
+            + "WHERE book_id = #{rating.bookId} AND version = #{version} AND (pending = 0 OR pending_time < #{staleBefore})")
+    int replace(BookRating rating, Long version, Long staleBefore);
+
+    // Read from the primary: the version a recount checks against
+    @Select("SELECT * FROM BOOK_RATING WHERE book_id = #{bookId}")
+    BookRating selectForRecount(Integer bookId);
+
+    // Books with an aggregate, in id order, for the periodic recount
+    @ReadOnly
+    @Select("SELECT book_id FROM BOOK_RATING WHERE book_id > #{afterId} ORDER BY book_id LIMIT #{limit}")
+    List<Integer> selectBookIdsAfter(Integer afterId, Integer limit);
+
+    @ReadOnly
+    @Select("<script>SELECT * FROM BOOK_RATING WHERE book_id IN "
+            + "<foreach collection='bookIds' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    List<BookRating> selectByBookIds(List<Integer> bookIds);
+}
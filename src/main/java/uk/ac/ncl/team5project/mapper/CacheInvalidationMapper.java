@@ -0,0 +1,30 @@
+package uk.ac.ncl.team5project.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import uk.ac.ncl.team5project.entity.CacheInvalidation;
+
+import java.util.List;
+
+// CACHE_INVALIDATION exists on the main database and on every shard; records are inserted (BaseMapper.insert)
+// in the writer's transaction, and read on a shard through ShardRouter.onShard
+@Mapper
+public interface CacheInvalidationMapper extends BaseMapper<CacheInvalidation> {
+    // Keyset scan of the log in id order
+    @Select("SELECT invalidation_id, cache_name, cache_key, origin, created_time FROM CACHE_INVALIDATION "
+            + "WHERE invalidation_id > #{afterId} ORDER BY invalidation_id LIMIT #{limit}")
+    List<CacheInvalidation> selectAfter(Long afterId, Integer limit);
+
+    // Newest record id, or null for an empty log; where a starting instance begins
+    @Select("SELECT MAX(invalidation_id) FROM CACHE_INVALIDATION")
+    Long selectMaxId();
+
+    @Select("SELECT invalidation_id FROM CACHE_INVALIDATION WHERE created_time < #{cutoff} LIMIT #{limit}")
+    List<Long> selectExpiredIds(Long cutoff, Integer limit);
+
+    @Delete("<script>DELETE FROM CACHE_INVALIDATION WHERE invalidation_id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int deleteInvalidations(List<Long> ids);
+}
@@ -0,0 +1,17 @@
+package uk.ac.ncl.team5project.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import uk.ac.ncl.team5project.entity.Configuration;
+
+@Mapper
+public interface ConfigurationMapper extends BaseMapper<Configuration> {
+    // "maxVersion/rowCount"; changes whenever a setting is written or deleted
+    String selectVersionStamp();
+    // Move the version counter past itself and every stored row; holds its row lock until the commit
+    int bumpVersion();
+    // The counter's value, read after bumpVersion in the same transaction
+    Long selectBumpedVersion();
+    // Update one setting's value and version; returns the number of rows changed
+    int updateValue(String configKey, String configValue, Long version);
+}
@@ -0,0 +1,29 @@
+package uk.ac.ncl.team5project.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import uk.ac.ncl.team5project.entity.OutboxEvent;
+
+import java.util.List;
+
+// DOMAIN_EVENT exists on the main database and on every shard; run on a shard through ShardRouter.onShard
+@Mapper
+public interface OutboxEventMapper extends BaseMapper<OutboxEvent> {
+    // Keyset scan of the outbox in event order
+    @Select("SELECT event_id, event_type, payload, event_time FROM DOMAIN_EVENT WHERE event_id > #{afterId} "
+            + "ORDER BY event_id LIMIT #{limit}")
+    List<OutboxEvent> selectAfter(Long afterId, Integer limit);
+
+    // Newest event id, or null for an empty outbox; where a starting relay begins
+    @Select("SELECT MAX(event_id) FROM DOMAIN_EVENT")
+    Long selectMaxId();
+
+    @Select("SELECT event_id FROM DOMAIN_EVENT WHERE event_time < #{cutoff} LIMIT #{limit}")
+    List<Long> selectExpiredIds(Long cutoff, Integer limit);
+
+    @Delete("<script>DELETE FROM DOMAIN_EVENT WHERE event_id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int deleteEvents(List<Long> ids);
+}
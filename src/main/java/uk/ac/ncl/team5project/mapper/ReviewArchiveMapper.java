@@ -0,0 +1,139 @@
+package uk.ac.ncl.team5project.mapper;
+
+import org.apache.ibatis.annotations.*;
+import uk.ac.ncl.team5project.config.ReadOnly;
+import uk.ac.ncl.team5project.config.Sharded;
+import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.util.FieldSet;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Class: ReviewArchiveMapper
+ * File: ReviewArchiveMapper.java
+ * Created on: 2026/10/19
+ * Author: agent
+ *
+ * Description:
+ * <pre>
+ *     Function: Database access for REVIEWS_ARCHIVE, the cold tier of REVIEWS.
+ *     Interface Description:
+ *         - archiveReviews: Copy the given reviews from REVIEWS, if they still qualify; ReviewMapper.deleteArchivedReviews
+ *           removes the originals in the same transaction.
+ *         - selectByBookIdFirst / countByBookId / selectByBookId / selectLatestByBookId: Archived reviews of a book.
+ *         - selectLatestByBookIds: Newest archived reviews of each of several books.
+ *         - selectByUserIdFirst / countByUserId / selectByUserId: Archived reviews of a user.
+ *         - selectByUserIdAndBookId: A user's live archived review of a book, whose rating a new review replaces.
+ *         - deleteByUserIdAndBookId: Flag a user's archived review of a book as deleted.
+ *         - selectRowsByUserIdAndBookId: A user's archived rows for a book, deleted or not, to re-index after a review event.
+ *         - selectRowsByUserId / insertWithId / deleteByUserId: Copy and remove a user's archived rows when moving
+ *           them between shards.
+ *         - selectDeletedIds: Which of the reviews just archived were deleted ones, to drop from the search index.
+ *         - selectContentAfterId / selectByIds: Keyset scan of live archived content and lookup by ID, so archived
+ *           reviews stay searchable.
+ *     Calling Sequence:
+ *         - ReviewService reads the archive once a page reaches past the user's or book's reviews in REVIEWS.
+ *         - ReviewArchiveService moves reviews into the archive; ReshardingServiceImpl moves it with the user.
+ *         - ReviewSearchServiceImpl indexes live archived reviews and reads them back for highlighting.
+ *     Argument Description:
+ *         - ids (List): Review IDs selected by ReviewMapper.selectArchivableReviewIds, or search hits.
+ *         - afterId (Integer): Exclusive lower bound of review_id for the keyset scan.
+ *         - cutoff (LocalDateTime): Reviews last written before this time are archived; null archives deleted reviews only.
+ *         - bookId, userId (Integer): The book or user whose archived reviews are read.
+ *         - limit (Integer): Maximum number of rows returned.
+ *         - fields (FieldSet): Columns a list read returns (requested fields and keys); null reads every column.
+ *         - review (Review): A row copied with its review_id, created_time and deleted flag unchanged.
+ *     REVIEWS_ARCHIVE lives next to REVIEWS on each shard: every call must go through ShardRouter (see @Sharded).
+ *     List of Subordinate Classes: None.
+ * </pre>
+ * Development History:
+ * <pre>
+ *     Designer: agent
+ *     Reviewer:
+ *     Review Date:
+ *     Modification Date: 2026/10/19
+ *     Modification Description: 2026/10/19 deleted ids and live archived rows for the search index; a user's rows
+ *                               for a book read back for re-indexing
+ * </pre>
+ */
+@Mapper
+@Sharded
+public interface ReviewArchiveMapper {
+
+    @Insert("<script>INSERT INTO REVIEWS_ARCHIVE (review_id, book_id, user_id, review_content, rating, created_time, deleted) "
+            + "SELECT review_id, book_id, user_id, review_content, rating, created_time, deleted FROM REVIEWS WHERE review_id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "AND (deleted = 1 OR created_time &lt; #{cutoff})</script>")
+    int archiveReviews(List<Integer> ids, LocalDateTime cutoff);
+
+    @ReadOnly
+    @Select("<script>SELECT " + FieldSet.COLUMNS + " FROM REVIEWS_ARCHIVE WHERE book_id = #{bookId} AND deleted = 0 "
+            + "ORDER BY book_id, deleted, review_id LIMIT #{limit}</script>")
+    List<Review> selectByBookIdFirst(Integer bookId, Integer limit, FieldSet fields);
+
+    @ReadOnly
+    @Select("SELECT * FROM REVIEWS_ARCHIVE WHERE book_id = #{bookId} AND deleted = 0 "
+            + "ORDER BY book_id DESC, deleted DESC, review_id DESC LIMIT #{limit}")
+    List<Review> selectLatestByBookId(Integer bookId, Integer limit);
+
+    @ReadOnly
+    @Select("<script><foreach collection='bookIds' item='id' separator=' UNION ALL '>"
+            + "(SELECT * FROM REVIEWS_ARCHIVE WHERE book_id = #{id} AND deleted = 0 "
+            + "ORDER BY book_id DESC, deleted DESC, review_id DESC LIMIT #{limit})"
+            + "</foreach></script>")
+    List<Review> selectLatestByBookIds(List<Integer> bookIds, Integer limit);
+
+    @ReadOnly
+    @Select("SELECT COUNT(*) FROM REVIEWS_ARCHIVE WHERE book_id = #{bookId} AND deleted = 0")
+    long countByBookId(Integer bookId);
+
+    @ReadOnly
+    @Select("<script>SELECT " + FieldSet.COLUMNS + " FROM REVIEWS_ARCHIVE WHERE book_id = #{bookId} AND deleted = 0</script>")
+    List<Review> selectByBookId(Integer bookId, FieldSet fields);
+
+    @Select("<script>SELECT " + FieldSet.COLUMNS + " FROM REVIEWS_ARCHIVE WHERE user_id = #{userId} AND deleted = 0 "
+            + "ORDER BY user_id, deleted, book_id LIMIT #{limit}</script>")
+    List<Review> selectByUserIdFirst(Integer userId, Integer limit, FieldSet fields);
+
+    @Select("SELECT COUNT(*) FROM REVIEWS_ARCHIVE WHERE user_id = #{userId} AND deleted = 0")
+    long countByUserId(Integer userId);
+
+    @Select("<script>SELECT " + FieldSet.COLUMNS + " FROM REVIEWS_ARCHIVE WHERE user_id = #{userId} AND deleted = 0</script>")
+    List<Review> selectByUserId(Integer userId, FieldSet fields);
+
+    @Select("SELECT * FROM REVIEWS_ARCHIVE WHERE user_id = #{userId} AND book_id = #{bookId} AND deleted = 0")
+    List<Review> selectByUserIdAndBookId(Integer userId, Integer bookId);
+
+    @Select("SELECT review_id, review_content, deleted FROM REVIEWS_ARCHIVE WHERE user_id = #{userId} AND book_id = #{bookId}")
+    List<Review> selectRowsByUserIdAndBookId(Integer userId, Integer bookId);
+
+    @Update("UPDATE REVIEWS_ARCHIVE SET deleted = 1 WHERE user_id = #{userId} AND book_id = #{bookId} AND deleted = 0")
+    int deleteByUserIdAndBookId(Integer userId, Integer bookId);
+
+    @Select("SELECT * FROM REVIEWS_ARCHIVE WHERE user_id = #{userId}")
+    List<Review> selectRowsByUserId(Integer userId);
+
+    @Insert("INSERT INTO REVIEWS_ARCHIVE (review_id, user_id, book_id, review_content, rating, created_time, deleted) "
+            + "VALUES (#{reviewId}, #{userId}, #{bookId}, #{reviewContent}, #{rating}, #{createdTime}, #{deleted})")
+    void insertWithId(Review review);
+
+    @Delete("DELETE FROM REVIEWS_ARCHIVE WHERE user_id = #{userId}")
+    int deleteByUserId(Integer userId);
+
+    @Select("<script>SELECT review_id FROM REVIEWS_ARCHIVE WHERE review_id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "AND deleted = 1</script>")
+    List<Integer> selectDeletedIds(List<Integer> ids);
+
+    @ReadOnly
+    @Select("SELECT review_id, review_content FROM REVIEWS_ARCHIVE WHERE review_id > #{afterId} AND deleted = 0 "
+            + "ORDER BY review_id LIMIT #{limit}")
+    List<Review> selectContentAfterId(Integer afterId, Integer limit);
+
+    @ReadOnly
+    @Select("<script>SELECT * FROM REVIEWS_ARCHIVE WHERE review_id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "AND deleted = 0</script>")
+    List<Review> selectByIds(List<Integer> ids);
+}
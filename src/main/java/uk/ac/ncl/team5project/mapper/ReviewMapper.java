@@ -1,8 +1,12 @@
 package uk.ac.ncl.team5project.mapper;
 
 import org.apache.ibatis.annotations.*;
+import uk.ac.ncl.team5project.config.ReadOnly;
+import uk.ac.ncl.team5project.config.Sharded;
 import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.util.FieldSet;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -18,9 +22,25 @@ import java.util.List;
  *         - selectReviewByBookId: Fetch all reviews for a specific book using its ID.
  *         - selectReviewByUserId: Fetch all reviews posted by a specific user using their ID.
  *         - selectReviewByUserIdAndBookId: Fetch a review posted by a specific user for a specific book.
- *         - updateReviewByBookIdUserId: Update the content of an existing review for a specific book and user.
+ *         - updateReviewByBookIdUserId: Update the content and rating of an existing review for a specific book and user.
+ *         - selectReviewRowForUpdate: Lock a user's review row for a book, so its old rating can be read before a write.
+ *         - selectReviewRowsByUserIdAndBookId: A user's review row for a book, deleted or not, to re-index after a review event.
  *         - deleteReviewByBookIdUserId: Delete an existing review for a specific book and user.
  *         - insertReviewByBookIdUserId: Insert a new review for a specific book and user.
+ *         - selectReviewContentAfterId: Keyset-paged scan of review ids and content, used to rebuild the search index.
+ *         - selectReviewByIds: Fetch the reviews with the given IDs in one query.
+ *         - selectReviewContentAfterBook: Keyset-paged scan ordered by (book_id, review_id), used to build per-book text vectors.
+ *         - selectReviewByBookIdFirst / countReviewByBookId: First rows and row count of a book's reviews on one shard,
+ *           merged across shards into one page.
+ *         - selectRatingsByBookId: The reviewers and ratings of a book's reviews on one shard, archived ones
+ *           included, for recounting its BOOK_RATING row.
+ *         - selectLatestReviewByBookId: Newest rows of a book's reviews on one shard, for its detail page.
+ *         - selectLatestReviewByBookIds: Newest rows of each of several books' reviews on one shard, for catalog grids.
+ *         - selectReviewByUserIdFirst / countReviewByUserId: First rows and row count of a user's reviews, for paging.
+ *         - selectReviewRowsByUserId / insertReviewWithId / deleteReviewByUserId: Copy and remove a user's reviews,
+ *           deleted ones included, when moving them between shards.
+ *         - selectArchivableReviewIds / deleteArchivedReviews: Find and remove the reviews ReviewArchiveService moves
+ *           to REVIEWS_ARCHIVE.
  *     Calling Sequence:
  *         - These methods are called by the service layer to interact with the database for managing reviews.
  *     Argument Description:
@@ -28,6 +48,19 @@ import java.util.List;
  *         - userId (Integer): The ID of the user who posted the review.
  *         - bookId (Integer): The ID of the book being reviewed.
  *         - content (String): The content of the review.
+ *         - rating (Integer): Stars from 1 to 5, or null for a review without a rating.
+ *         - afterId (Integer): Exclusive lower bound of review_id for the keyset scan.
+ *         - afterBookId, afterReviewId (Integer): Exclusive (book_id, review_id) lower bound for the per-book scan.
+ *         - limit (Integer): Maximum number of rows returned by the keyset scan.
+ *         - ids (List): Review IDs to fetch.
+ *         - bookIds (List): Book IDs whose reviews are fetched.
+ *         - fields (FieldSet): Columns a list read returns (requested fields and keys); null reads every column.
+ *         - review (Review): A row copied with its review_id and created_time unchanged.
+ *         - cutoff (LocalDateTime): Reviews last written before this time are archived; null archives deleted reviews only.
+ *     Deleting a review only sets deleted = 1; every read skips deleted rows, and saving the review again
+ *     restores the row until it has been archived.
+ *     Methods marked @ReadOnly may be served by a read replica when replicas are configured.
+ *     REVIEWS is sharded by user_id: every call must go through ShardRouter (see @Sharded).
  *     List of Subordinate Classes: None.
  * </pre>
  * Development History:
@@ -36,27 +69,114 @@ import java.util.List;
  *     Reviewer: menghui yao
  *     Review Date: 2025/4/25
  *     Modification Date: 2025/4/25
- *     Modification Description: none
+ *     Modification Description: 2026/10/19 rating recount reads both tiers in one statement; a user's rows for a
+ *                               book read back for re-indexing
  * </pre>
  */
 
 @Mapper
+@Sharded
 public interface ReviewMapper {
-    @Select("select * from REVIEWS where book_id =#{id}")
-    List<Review> selectReviewByBookId(Integer id);
+    @ReadOnly
+    @Select("<script>select " + FieldSet.COLUMNS + " from REVIEWS where book_id =#{id} and deleted = 0</script>")
+    List<Review> selectReviewByBookId(Integer id, FieldSet fields);
 
-    @Select("select * from REVIEWS where user_id=#{id}")
-    List<Review> selectReviewByUserId(Integer id);
+    @Select("<script>select " + FieldSet.COLUMNS + " from REVIEWS where user_id=#{id} and deleted = 0</script>")
+    List<Review> selectReviewByUserId(Integer id, FieldSet fields);
 
-    @Select("SELECT * FROM REVIEWS WHERE user_id = #{userId} AND book_id = #{bookId}")
+    @Select("SELECT * FROM REVIEWS WHERE user_id = #{userId} AND book_id = #{bookId} AND deleted = 0")
     List<Review> selectReviewByUserIdAndBookId(Integer userId, Integer bookId);
 
-    @Update("UPDATE REVIEWS SET review_content = #{content} WHERE user_id = #{userId} AND book_id = #{bookId}")
-    void updateReviewByBookIdUserId(Integer userId, Integer bookId, String content);
+    // A null rating keeps the review's current one
+    @Update("UPDATE REVIEWS SET review_content = #{content}, rating = COALESCE(#{rating}, rating), deleted = 0 "
+            + "WHERE user_id = #{userId} AND book_id = #{bookId}")
+    void updateReviewByBookIdUserId(Integer userId, Integer bookId, String content, Integer rating);
 
-    @Delete("DELETE FROM REVIEWS WHERE user_id = #{userId} AND book_id = #{bookId}")
+    // The user's row for the book, deleted or not, locked until the surrounding transaction ends
+    @Select("SELECT * FROM REVIEWS WHERE user_id = #{userId} AND book_id = #{bookId} FOR UPDATE")
+    List<Review> selectReviewRowForUpdate(Integer userId, Integer bookId);
+
+    // The user's row for the book, deleted or not, without locking it
+    @Select("SELECT review_id, review_content, deleted FROM REVIEWS WHERE user_id = #{userId} AND book_id = #{bookId}")
+    List<Review> selectReviewRowsByUserIdAndBookId(Integer userId, Integer bookId);
+
+    // Soft delete. REVIEWS.created_time is declared ON UPDATE CURRENT_TIMESTAMP, which the database applies to
+    // every UPDATE that does not assign the column; assigning it to itself keeps the time of the last real
+    // write, so a deletion does not make the row look new to ReviewArchiveService's archive-after-days check
+    @Update("UPDATE REVIEWS SET deleted = 1, created_time = created_time "
+            + "WHERE user_id = #{userId} AND book_id = #{bookId} AND deleted = 0")
     void deleteReviewByBookIdUserId(Integer userId, Integer bookId);
 
-    @Insert("INSERT INTO REVIEWS (user_id, book_id, review_content) VALUES (#{userId}, #{bookId}, #{content})")
-    void insertReviewByBookIdUserId(Integer userId, Integer bookId, String content);
+    @Insert("INSERT INTO REVIEWS (user_id, book_id, review_content, rating) VALUES (#{userId}, #{bookId}, #{content}, #{rating})")
+    void insertReviewByBookIdUserId(Integer userId, Integer bookId, String content, Integer rating);
+
+    @ReadOnly
+    @Select("SELECT review_id, review_content FROM REVIEWS WHERE review_id > #{afterId} AND deleted = 0 "
+            + "ORDER BY review_id LIMIT #{limit}")
+    List<Review> selectReviewContentAfterId(Integer afterId, Integer limit);
+
+    @ReadOnly
+    @Select("<script>SELECT * FROM REVIEWS WHERE review_id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "AND deleted = 0</script>")
+    List<Review> selectReviewByIds(List<Integer> ids);
+
+    @ReadOnly
+    @Select("SELECT review_id, book_id, review_content FROM REVIEWS "
+            + "WHERE book_id >= #{afterBookId} AND (book_id > #{afterBookId} OR review_id > #{afterReviewId}) AND deleted = 0 "
+            + "ORDER BY book_id, review_id LIMIT #{limit}")
+    List<Review> selectReviewContentAfterBook(Integer afterBookId, Integer afterReviewId, Integer limit);
+
+    @ReadOnly
+    @Select("<script>SELECT " + FieldSet.COLUMNS + " FROM REVIEWS WHERE book_id = #{bookId} AND deleted = 0 "
+            + "ORDER BY book_id, review_id LIMIT #{limit}</script>")
+    List<Review> selectReviewByBookIdFirst(Integer bookId, Integer limit, FieldSet fields);
+
+    @ReadOnly
+    @Select("SELECT * FROM REVIEWS WHERE book_id = #{bookId} AND deleted = 0 ORDER BY book_id DESC, review_id DESC LIMIT #{limit}")
+    List<Review> selectLatestReviewByBookId(Integer bookId, Integer limit);
+
+    // Each book's newest rows in one statement: a limited index range per book, joined with UNION ALL
+    @ReadOnly
+    @Select("<script><foreach collection='bookIds' item='id' separator=' UNION ALL '>"
+            + "(SELECT * FROM REVIEWS WHERE book_id = #{id} AND deleted = 0 ORDER BY book_id DESC, review_id DESC LIMIT #{limit})"
+            + "</foreach></script>")
+    List<Review> selectLatestReviewByBookIds(List<Integer> bookIds, Integer limit);
+
+    @ReadOnly
+    @Select("SELECT COUNT(*) FROM REVIEWS WHERE book_id = #{bookId} AND deleted = 0")
+    long countReviewByBookId(Integer bookId);
+
+    // Read from the primary: used to correct BOOK_RATING. One statement reads both tables from the same
+    // snapshot, so a review the archive is moving at that moment is counted exactly once
+    @Select("SELECT user_id, rating FROM REVIEWS WHERE book_id = #{bookId} AND deleted = 0 AND rating IS NOT NULL "
+            + "UNION ALL SELECT user_id, rating FROM REVIEWS_ARCHIVE WHERE book_id = #{bookId} AND deleted = 0 AND rating IS NOT NULL")
+    List<Review> selectRatingsByBookId(Integer bookId);
+
+    @Select("<script>SELECT " + FieldSet.COLUMNS + " FROM REVIEWS WHERE user_id = #{userId} AND deleted = 0 "
+            + "ORDER BY user_id, book_id LIMIT #{limit}</script>")
+    List<Review> selectReviewByUserIdFirst(Integer userId, Integer limit, FieldSet fields);
+
+    @Select("SELECT COUNT(*) FROM REVIEWS WHERE user_id = #{userId} AND deleted = 0")
+    long countReviewByUserId(Integer userId);
+
+    @Select("SELECT * FROM REVIEWS WHERE user_id = #{userId}")
+    List<Review> selectReviewRowsByUserId(Integer userId);
+
+    @Insert("INSERT INTO REVIEWS (review_id, user_id, book_id, review_content, rating, created_time, deleted) "
+            + "VALUES (#{reviewId}, #{userId}, #{bookId}, #{reviewContent}, #{rating}, #{createdTime}, #{deleted})")
+    void insertReviewWithId(Review review);
+
+    @Delete("DELETE FROM REVIEWS WHERE user_id = #{userId}")
+    int deleteReviewByUserId(Integer userId);
+
+    @Select("SELECT review_id FROM REVIEWS WHERE review_id > #{afterId} AND (deleted = 1 OR created_time < #{cutoff}) "
+            + "ORDER BY review_id LIMIT #{limit}")
+    List<Integer> selectArchivableReviewIds(Integer afterId, LocalDateTime cutoff, Integer limit);
+
+    // Rechecks the condition: a review saved again since it was selected stays in REVIEWS
+    @Delete("<script>DELETE FROM REVIEWS WHERE review_id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "AND (deleted = 1 OR created_time &lt; #{cutoff})</script>")
+    int deleteArchivedReviews(List<Integer> ids, LocalDateTime cutoff);
 }
@@ -0,0 +1,11 @@
+package uk.ac.ncl.team5project.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import uk.ac.ncl.team5project.entity.ShardOverride;
+
+@Mapper
+public interface ShardOverrideMapper extends BaseMapper<ShardOverride> {
+    // "maxUpdateTime/rowCount"; changes whenever an override is written or deleted
+    String selectVersionStamp();
+}
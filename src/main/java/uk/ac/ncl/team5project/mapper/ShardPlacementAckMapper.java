@@ -0,0 +1,16 @@
+package uk.ac.ncl.team5project.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import uk.ac.ncl.team5project.entity.ShardPlacementAck;
+
+import java.util.List;
+
+// SHARD_PLACEMENT_ACK lives on the main database only
+@Mapper
+public interface ShardPlacementAckMapper extends BaseMapper<ShardPlacementAck> {
+    // Instances that have refreshed since the cutoff, i.e. the ones still routing writes
+    @Select("SELECT instance_id, placement, heartbeat_time FROM SHARD_PLACEMENT_ACK WHERE heartbeat_time >= #{since}")
+    List<ShardPlacementAck> selectLive(Long since);
+}
@@ -1,11 +1,24 @@
 package uk.ac.ncl.team5project.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import uk.ac.ncl.team5project.config.ReadOnly;
 import uk.ac.ncl.team5project.entity.User;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 
+import java.util.List;
+
 
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
+    // User ids in order, for walking every user in batches
+    @Select("SELECT user_id FROM USER WHERE user_id > #{afterUserId} ORDER BY user_id LIMIT #{limit}")
+    List<Integer> selectUserIdsAfter(Integer afterUserId, Integer limit);
+
+    // (user_id, user_name) of the given users, for naming the reviewers on a page of reviews
+    @ReadOnly
+    @Select("<script>SELECT user_id, user_name FROM USER WHERE user_id IN "
+            + "<foreach collection='userIds' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    List<User> selectUserNamesByIds(List<Integer> userIds);
 
 }
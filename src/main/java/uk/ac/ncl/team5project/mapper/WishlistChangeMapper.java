@@ -0,0 +1,66 @@
+package uk.ac.ncl.team5project.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import uk.ac.ncl.team5project.config.Sharded;
+import uk.ac.ncl.team5project.entity.WishlistChange;
+import uk.ac.ncl.team5project.entity.WishlistVersion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+// Stored next to WISHLIST on the user's shard: every call must go through ShardRouter
+@Sharded
+public interface WishlistChangeMapper {
+    // Locks the user's version row until the surrounding transaction ends, serialising their changes
+    @Update("UPDATE WISHLIST_VERSION SET version = version + 1 WHERE user_id = #{userId}")
+    int incrementVersion(Integer userId);
+
+    @Insert("INSERT INTO WISHLIST_VERSION (user_id, version, pruned_version) VALUES (#{userId}, #{version}, #{prunedVersion})")
+    void insertVersion(WishlistVersion version);
+
+    @Select("SELECT * FROM WISHLIST_VERSION WHERE user_id = #{userId}")
+    WishlistVersion selectVersion(Integer userId);
+
+    @Update("UPDATE WISHLIST_CHANGE SET wishlist_id = #{wishlistId}, version = #{version}, deleted = #{deleted}, "
+            + "change_time = #{changeTime} WHERE user_id = #{userId} AND book_id = #{bookId}")
+    int updateChange(WishlistChange change);
+
+    @Insert("INSERT INTO WISHLIST_CHANGE (user_id, book_id, wishlist_id, version, deleted, change_time) "
+            + "VALUES (#{userId}, #{bookId}, #{wishlistId}, #{version}, #{deleted}, #{changeTime})")
+    void insertChange(WishlistChange change);
+
+    // Adds and tombstones with since < version <= upTo, oldest first
+    @Select("SELECT * FROM WISHLIST_CHANGE WHERE user_id = #{userId} AND version > #{since} AND version <= #{upTo} "
+            + "ORDER BY user_id, version")
+    List<WishlistChange> selectChangesSince(Integer userId, Long since, Long upTo);
+
+    // The user's current wishlist as change rows, for clients that must start again
+    @Select("SELECT * FROM WISHLIST_CHANGE WHERE user_id = #{userId} AND deleted = 0 AND version <= #{upTo} "
+            + "ORDER BY user_id, book_id")
+    List<WishlistChange> selectLiveChanges(Integer userId, Long upTo);
+
+    @Select("SELECT user_id, book_id, version FROM WISHLIST_CHANGE WHERE deleted = 1 AND change_time < #{cutoff} LIMIT #{limit}")
+    List<WishlistChange> selectExpiredTombstones(LocalDateTime cutoff, Integer limit);
+
+    @Update("UPDATE WISHLIST_VERSION SET pruned_version = #{version} WHERE user_id = #{userId} AND pruned_version < #{version}")
+    int raisePrunedVersion(Integer userId, Long version);
+
+    // Skips a tombstone replaced by a new add since it was selected
+    @Delete("DELETE FROM WISHLIST_CHANGE WHERE user_id = #{userId} AND book_id = #{bookId} AND deleted = 1 AND version = #{version}")
+    int deleteTombstone(WishlistChange change);
+
+    // Copy and remove a user's log when moving them between shards
+    @Select("SELECT * FROM WISHLIST_CHANGE WHERE user_id = #{userId}")
+    List<WishlistChange> selectChangesByUserId(Integer userId);
+
+    @Delete("DELETE FROM WISHLIST_CHANGE WHERE user_id = #{userId}")
+    int deleteChangesByUserId(Integer userId);
+
+    @Delete("DELETE FROM WISHLIST_VERSION WHERE user_id = #{userId}")
+    int deleteVersionByUserId(Integer userId);
+}
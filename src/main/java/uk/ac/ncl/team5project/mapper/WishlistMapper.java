@@ -1,7 +1,10 @@
 package uk.ac.ncl.team5project.mapper;
 
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Select;
+import uk.ac.ncl.team5project.config.ReadOnly;
+import uk.ac.ncl.team5project.config.Sharded;
 import uk.ac.ncl.team5project.entity.Wishlist;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import uk.ac.ncl.team5project.model.vo.BookCount;
@@ -9,8 +12,31 @@ import uk.ac.ncl.team5project.model.vo.BookCount;
 import java.util.List;
 
 @Mapper
-
+// Sharded by user_id: every call must go through ShardRouter
+@Sharded
 public interface WishlistMapper extends BaseMapper<Wishlist> {
+    @ReadOnly
     @Select("SELECT book_id AS bookId, COUNT(*) AS count FROM WISHLIST GROUP BY book_id;")
     List<BookCount> getBookCounts();
+
+    // Wishlist rows ordered by user, for building per-user baskets in batches
+    @ReadOnly
+    @Select("SELECT user_id, book_id FROM WISHLIST WHERE user_id > #{afterUserId} ORDER BY user_id, book_id LIMIT #{limit}")
+    List<Wishlist> selectBasketRowsAfterUser(Integer afterUserId, Integer limit);
+
+    // Wishlist entries of one book on this shard
+    @ReadOnly
+    @Select("SELECT COUNT(*) FROM WISHLIST WHERE book_id = #{bookId}")
+    long countByBookId(Integer bookId);
+
+    @Select("SELECT book_id FROM WISHLIST WHERE user_id = #{userId} ORDER BY user_id, book_id")
+    List<Integer> selectBookIdsByUserId(Integer userId);
+
+    // Books the user added before the given row, which is what a wishlist add pairs with
+    @Select("SELECT book_id FROM WISHLIST WHERE user_id = #{userId} AND id < #{id}")
+    List<Integer> selectBookIdsByUserIdBefore(Integer userId, Integer id);
+
+    // Copy a row with its id unchanged, when moving a user between shards
+    @Insert("INSERT INTO WISHLIST (id, user_id, book_id) VALUES (#{id}, #{userId}, #{bookId})")
+    void insertWithId(Wishlist wishlist);
 }
@@ -0,0 +1,26 @@
+package uk.ac.ncl.team5project.model.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @file BatchDTO.java
+ * @date 2026-10-19
+ * @function_description: Data Transfer Object for running several API calls in one request.
+ * @interface_description: Carries the sub-requests of a batch.
+ * @calling_sequence: Frontend → BatchController → BatchService
+ * @arguments_description: List requests
+ * @list_of_subordinate_classes: BatchRequestDTO
+ * @discussion: At most team5.batch.max-requests sub-requests are accepted per batch.
+ * @development_history: Created on 2026-10-19 for request batching.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: DTO used to encapsulate a batch of API calls.
+ */
+@Data
+public class BatchDTO {
+    private List<BatchRequestDTO> requests;
+}
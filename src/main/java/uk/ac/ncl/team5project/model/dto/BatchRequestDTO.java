@@ -0,0 +1,30 @@
+package uk.ac.ncl.team5project.model.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+
+/**
+ * @file BatchRequestDTO.java
+ * @date 2026-10-19
+ * @function_description: Data Transfer Object for one API call inside a batch.
+ * @interface_description: Includes the caller's id for the call, the HTTP method, the path and an optional JSON body.
+ * @calling_sequence: Frontend → BatchController → BatchService
+ * @arguments_description: String id, String method, String path, JsonNode body
+ * @list_of_subordinate_classes: None
+ * @discussion: path is relative to the server root and may carry a query string, e.g.
+ * "/v1/reviews/selectReviewByBookId?id=7". id is echoed back in the matching response and defaults to
+ * the call's position in the batch.
+ * @development_history: Created on 2026-10-19 for request batching.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: DTO used to encapsulate a single batched API call.
+ */
+@Data
+public class BatchRequestDTO {
+    private String id;
+    private String method;
+    private String path;
+    private JsonNode body;
+}
@@ -0,0 +1,26 @@
+package uk.ac.ncl.team5project.model.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @file WishlistContainsDTO.java
+ * @date 2026-10-19
+ * @function_description: Data Transfer Object for checking which books are on the user's wishlist.
+ * @interface_description: Carries the book IDs to check.
+ * @calling_sequence: Frontend → Controller → Service
+ * @arguments_description: List book_ids
+ * @list_of_subordinate_classes: None
+ * @discussion: Lets a catalog page ask about all of its books in one request.
+ * @development_history: Created on 2026-10-19 for bulk wishlist membership checks.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: DTO used to encapsulate the book IDs of a membership check.
+ */
+@Data
+public class WishlistContainsDTO {
+    private List<Integer> book_ids;
+}
@@ -0,0 +1,27 @@
+package uk.ac.ncl.team5project.model.event;
+
+/**
+ * @file DomainEvent.java
+ * @date 2026-10-19
+ * @function_description: A committed change to WISHLIST, REVIEWS or USER, delivered through the outbox.
+ * @interface_description: userId(): the user whose data changed
+ * @calling_sequence: WishlistServiceImpl, ReviewService, UserServiceImpl → DomainEventService.append →
+ * DOMAIN_EVENT → DomainEventService relay → subscribers
+ * @arguments_description: None
+ * @list_of_subordinate_classes: WishlistItemAdded, WishlistItemRemoved, ReviewUpserted, ReviewDeleted, UserRenamed
+ * @discussion: Events are delivered at least once and may arrive late or twice, also for writes made by
+ * this instance, so subscribers should only drop or reload what the event touches. Events of one user
+ * arrive in the order they were written, since a user's writes go to one database. The set of events is
+ * closed: a new kind of change gets a new record here, which the outbox stores under its class name.
+ * @development_history: Created on 2026-10-19 for the domain event outbox.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Typed domain events for cache and read-model invalidation.
+ */
+public sealed interface DomainEvent
+        permits WishlistItemAdded, WishlistItemRemoved, ReviewUpserted, ReviewDeleted, UserRenamed {
+
+    Integer userId();
+}
@@ -0,0 +1,20 @@
+package uk.ac.ncl.team5project.model.event;
+
+/**
+ * @file ReviewDeleted.java
+ * @date 2026-10-19
+ * @function_description: A user's review of a book was deleted.
+ * @interface_description: userId, bookId
+ * @calling_sequence: ReviewService.deleteReviewByBookIdUserId → DomainEventService.append
+ * @arguments_description: Integer userId, Integer bookId
+ * @list_of_subordinate_classes: None
+ * @discussion: Appended in the shard transaction that flags the review, whether it was in REVIEWS or REVIEWS_ARCHIVE.
+ * @development_history: Created on 2026-10-19 for the domain event outbox.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Domain event for review deletes.
+ */
+public record ReviewDeleted(Integer userId, Integer bookId) implements DomainEvent {
+}
@@ -0,0 +1,20 @@
+package uk.ac.ncl.team5project.model.event;
+
+/**
+ * @file ReviewUpserted.java
+ * @date 2026-10-19
+ * @function_description: A user's review of a book was created, edited or restored.
+ * @interface_description: userId, bookId, reviewId, rating (1-5, or null)
+ * @calling_sequence: ReviewService.updateReviewByBookIdUserId → DomainEventService.append
+ * @arguments_description: Integer userId, Integer bookId, Integer reviewId, Integer rating
+ * @list_of_subordinate_classes: None
+ * @discussion: Appended in the shard transaction that writes the review, with the review as it was committed.
+ * @development_history: Created on 2026-10-19 for the domain event outbox.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Domain event for review writes.
+ */
+public record ReviewUpserted(Integer userId, Integer bookId, Integer reviewId, Integer rating) implements DomainEvent {
+}
@@ -0,0 +1,20 @@
+package uk.ac.ncl.team5project.model.event;
+
+/**
+ * @file UserRenamed.java
+ * @date 2026-10-19
+ * @function_description: A user changed their name.
+ * @interface_description: userId, userName (the new name)
+ * @calling_sequence: UserServiceImpl.update → DomainEventService.append
+ * @arguments_description: Integer userId, String userName
+ * @list_of_subordinate_classes: None
+ * @discussion: Appended in the main database transaction that updates the USER row. Password changes publish nothing.
+ * @development_history: Created on 2026-10-19 for the domain event outbox.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Domain event for user renames.
+ */
+public record UserRenamed(Integer userId, String userName) implements DomainEvent {
+}
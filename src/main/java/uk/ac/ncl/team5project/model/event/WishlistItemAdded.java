@@ -0,0 +1,20 @@
+package uk.ac.ncl.team5project.model.event;
+
+/**
+ * @file WishlistItemAdded.java
+ * @date 2026-10-19
+ * @function_description: A book was added to a user's wishlist.
+ * @interface_description: userId, bookId, wishlistId (the new WISHLIST row)
+ * @calling_sequence: WishlistServiceImpl.addBookToWishlist → DomainEventService.append
+ * @arguments_description: Integer userId, Integer bookId, Integer wishlistId
+ * @list_of_subordinate_classes: None
+ * @discussion: Appended in the transaction that inserts the row.
+ * @development_history: Created on 2026-10-19 for the domain event outbox.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Domain event for wishlist adds.
+ */
+public record WishlistItemAdded(Integer userId, Integer bookId, Integer wishlistId) implements DomainEvent {
+}
@@ -0,0 +1,20 @@
+package uk.ac.ncl.team5project.model.event;
+
+/**
+ * @file WishlistItemRemoved.java
+ * @date 2026-10-19
+ * @function_description: A book was removed from a user's wishlist.
+ * @interface_description: userId, bookId, wishlistId (the deleted WISHLIST row)
+ * @calling_sequence: WishlistServiceImpl.deleteBookFromWishlist → DomainEventService.append
+ * @arguments_description: Integer userId, Integer bookId, Integer wishlistId
+ * @list_of_subordinate_classes: None
+ * @discussion: Appended in the transaction that deletes the row.
+ * @development_history: Created on 2026-10-19 for the domain event outbox.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Domain event for wishlist removes.
+ */
+public record WishlistItemRemoved(Integer userId, Integer bookId, Integer wishlistId) implements DomainEvent {
+}
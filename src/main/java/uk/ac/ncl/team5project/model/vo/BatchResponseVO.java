@@ -0,0 +1,28 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+
+/**
+ * @file BatchResponseVO.java
+ * @date 2026-10-19
+ * @function_description: View Object holding the outcome of one API call inside a batch.
+ * @interface_description: Includes the call's id, its HTTP status and its response body.
+ * @calling_sequence: BatchServiceImpl → BatchResponseVO → Controller → Frontend
+ * @arguments_description: String id, Integer status, JsonNode body
+ * @list_of_subordinate_classes: None
+ * @discussion: status is what the call would have returned on its own (usually 200 with a Result body), or
+ * 400 for a call the batch refuses, 404 for an unknown path and 504 for a call cut off by the deadline.
+ * @development_history: Created on 2026-10-19 for request batching.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Response object for one entry of POST /v1/batch.
+ */
+@Data
+public class BatchResponseVO {
+    private String id;
+    private Integer status;
+    private JsonNode body;
+}
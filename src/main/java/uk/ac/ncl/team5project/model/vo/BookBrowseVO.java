@@ -0,0 +1,35 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+import uk.ac.ncl.team5project.entity.Book;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file BookBrowseVO.java
+ * @date 2026-10-19
+ * @function_description: View Object for one page of filtered catalog results with facet counts.
+ * @interface_description: Total matches, page position, the books on the page and facet counts per dimension.
+ * @calling_sequence: BookBrowseService → BookController → Frontend
+ * @arguments_description:
+ * - total: Number of books matching all filters
+ * - books: Books on the requested page, ordered by book ID
+ * - facets: "category", "author" and "publisher" → most frequent values, highest count first
+ * @list_of_subordinate_classes: Book, FacetValueVO
+ * @discussion: Facet counts of a dimension ignore that dimension's own filter, so selected values still list siblings.
+ * @development_history: Created on 2026-10-19 for faceted catalog browsing.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Result of a faceted catalog browse.
+ */
+@Data
+public class BookBrowseVO {
+    private Long total;
+    private Integer pageNum;
+    private Integer pageSize;
+    private List<Book> books;
+    private Map<String, List<FacetValueVO>> facets;
+}
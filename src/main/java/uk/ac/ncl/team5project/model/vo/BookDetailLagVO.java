@@ -0,0 +1,33 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+/**
+ * @file BookDetailLagVO.java
+ * @date 2026-10-19
+ * @function_description: View Object reporting how far the book detail documents trail the writes.
+ * @interface_description: Contains queue length, the age of the oldest unapplied change, the last observed
+ * lag and counters of rebuilt and failed documents.
+ * @calling_sequence: BookDetailService → BookDetailLagVO → Controller → Monitoring
+ * @arguments_description:
+ * - pending: Books waiting for their document to be rebuilt
+ * - oldestPendingMs: Age of the oldest change not yet in a document; 0 when nothing is pending
+ * - lastLagMs: Time from a change to its document being stored, for the last document rebuilt
+ * - rebuilt / failed: Documents rebuilt, and rebuilds that failed, since the instance started
+ * @list_of_subordinate_classes: None
+ * @discussion: Figures are per instance: each one rebuilds the documents for the writes it handled.
+ * @development_history: Created on 2026-10-19 for the book detail read model.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Read model lag metrics.
+ */
+@Data
+public class BookDetailLagVO {
+    private Integer pending;
+    private Long oldestPendingMs;
+    private Long lastLagMs;
+    private Long rebuilt;
+    private Long failed;
+}
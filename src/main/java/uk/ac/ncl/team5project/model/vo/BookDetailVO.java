@@ -0,0 +1,46 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+import uk.ac.ncl.team5project.entity.Review;
+
+import java.util.List;
+
+/**
+ * @file BookDetailVO.java
+ * @date 2026-10-19
+ * @function_description: View Object holding everything shown on a book's page.
+ * @interface_description: Contains the book's fields, its review and wishlist counts, latest reviews, rating
+ * and related books, and the time the data was read.
+ * @calling_sequence: BookDetailService → BOOK_DETAIL → BookDetailVO → Controller → Frontend
+ * @arguments_description:
+ * - bookId, name, publishingHouse, description, bookCover: The book itself
+ * - reviewCount: Reviews of the book, archived ones included
+ * - latestReviews: The newest reviews, with reviewer and book names (at most team5.book-detail.latest-reviews)
+ * - wishlistCount: Users with the book on their wishlist
+ * - rating: Rating summary, as from /v1/books/{id}/rating
+ * - related: Books most often wishlisted together with this one (at most team5.book-detail.related-books)
+ * - asOf: Epoch milliseconds at which the data was read
+ * @list_of_subordinate_classes: Review, BookRatingVO, RelatedBookVO
+ * @discussion: Stored as JSON in BOOK_DETAIL and returned as stored, so it can lag writes slightly; asOf tells
+ * the client how old it is.
+ * @development_history: Created on 2026-10-19 for the book detail read model.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Denormalized book page document.
+ */
+@Data
+public class BookDetailVO {
+    private Integer bookId;
+    private String name;
+    private String publishingHouse;
+    private String description;
+    private String bookCover;
+    private Long reviewCount;
+    private List<Review> latestReviews;
+    private Long wishlistCount;
+    private BookRatingVO rating;
+    private List<RelatedBookVO> related;
+    private Long asOf;
+}
@@ -0,0 +1,33 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @file BookRatingVO.java
+ * @date 2026-10-19
+ * @function_description: View Object for the rating summary of a book.
+ * @interface_description: Contains the book ID, the number of ratings, their average and the star histogram.
+ * @calling_sequence: BookRatingService → BookRatingVO → Controller → Frontend
+ * @arguments_description:
+ * - bookId: ID of the book
+ * - count: Number of reviews of the book that carry a rating
+ * - average: Mean rating, rounded to two decimals; null while the book has no ratings
+ * - histogram: Five counts, of 1-star up to 5-star ratings
+ * @list_of_subordinate_classes: None
+ * @discussion: Returned by /v1/books/{id}/rating and /v1/books/ratings.
+ * @development_history: Created on 2026-10-19 for review ratings.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Per-book rating average and distribution.
+ */
+@Data
+public class BookRatingVO {
+    private Integer bookId;
+    private Integer count;
+    private Double average;
+    private List<Integer> histogram;
+}
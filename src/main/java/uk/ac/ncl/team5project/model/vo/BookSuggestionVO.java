@@ -0,0 +1,26 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+/**
+ * @file BookSuggestionVO.java
+ * @date 2026-10-19
+ * @function_description: View Object for one title suggestion returned by the autocomplete endpoint.
+ * @interface_description: Book ID, title, and the number of wishlists the book appears on.
+ * @calling_sequence: BookSuggestService → BookController → Frontend
+ * @arguments_description: Integer bookId, String name, Integer popularity
+ * @list_of_subordinate_classes: None
+ * @discussion: Suggestions are ordered by popularity, most wishlisted first.
+ * @development_history: Created on 2026-10-19 for book title autocomplete.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: A single ranked autocomplete suggestion.
+ */
+@Data
+public class BookSuggestionVO {
+    private Integer bookId;
+    private String name;
+    private Integer popularity;
+}
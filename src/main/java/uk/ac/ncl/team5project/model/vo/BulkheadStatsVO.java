@@ -0,0 +1,29 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+/**
+ * @file BulkheadStatsVO.java
+ * @date 2026-10-19
+ * @function_description: View Object reporting the use of one controller's bulkhead on this instance.
+ * @interface_description: Contains the controller's name, its requests in progress and rejections.
+ * @calling_sequence: BulkheadInterceptor → ResilienceController → BulkheadStatsVO → Monitoring
+ * @arguments_description:
+ * - name: Controller simple name
+ * - inFlight: Requests in progress
+ * - rejected: Requests turned away because the bulkhead was full
+ * @list_of_subordinate_classes: None
+ * @discussion: Counters are per instance and never reset.
+ * @development_history: Created on 2026-10-19 for bulkheads around the controllers.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Per-controller bulkhead metrics.
+ */
+@Data
+public class BulkheadStatsVO {
+    private String name;
+    private Integer inFlight;
+    private Long rejected;
+}
@@ -0,0 +1,33 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+/**
+ * @file CircuitBreakerStatsVO.java
+ * @date 2026-10-19
+ * @function_description: View Object reporting the state of one mapper's circuit breaker on this instance.
+ * @interface_description: Contains the breaker's name, state and counters.
+ * @calling_sequence: CircuitBreakerInterceptor → ResilienceController → CircuitBreakerStatsVO → Monitoring
+ * @arguments_description:
+ * - name: Mapper simple name, with @shard-n for statements routed to a shard
+ * - state: CLOSED, OPEN or HALF_OPEN (a probe statement is running)
+ * - consecutiveFailures: Failed or slow statements since the last success
+ * - timesOpened: How often the breaker has opened
+ * - rejected: Statements failed at once because the breaker was open
+ * @list_of_subordinate_classes: None
+ * @discussion: Counters are per instance and never reset.
+ * @development_history: Created on 2026-10-19 for circuit breaking around the mappers.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Per-mapper circuit breaker metrics.
+ */
+@Data
+public class CircuitBreakerStatsVO {
+    private String name;
+    private String state;
+    private Integer consecutiveFailures;
+    private Long timesOpened;
+    private Long rejected;
+}
@@ -0,0 +1,37 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * @file ConcurrencyLimitStatsVO.java
+ * @date 2026-10-19
+ * @function_description: View Object reporting the adaptive concurrency limit at this instance's edge.
+ * @interface_description: Contains the current limit, the requests in progress, the latencies it follows and
+ * the requests shed per priority.
+ * @calling_sequence: ConcurrencyLimitFilter → ResilienceController → ConcurrencyLimitStatsVO → Monitoring
+ * @arguments_description:
+ * - enabled: team5.resilience.limiter-enabled
+ * - limit: Requests the filter admits at once; lower priorities may fill only part of it
+ * - inFlight: Requests in progress
+ * - rttMs / noLoadRttMs: Latest average response time and the long-term baseline it is compared with
+ * - shed: Requests turned away per priority (CRITICAL, NORMAL, LOW)
+ * @list_of_subordinate_classes: None
+ * @discussion: Counters are per instance and never reset.
+ * @development_history: Created on 2026-10-19 for adaptive concurrency limiting at the controller edge.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Edge concurrency limit metrics.
+ */
+@Data
+public class ConcurrencyLimitStatsVO {
+    private Boolean enabled;
+    private Integer limit;
+    private Integer inFlight;
+    private Double rttMs;
+    private Double noLoadRttMs;
+    private Map<String, Long> shed;
+}
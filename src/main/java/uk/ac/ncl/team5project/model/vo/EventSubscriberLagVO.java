@@ -0,0 +1,36 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+/**
+ * @file EventSubscriberLagVO.java
+ * @date 2026-10-19
+ * @function_description: View Object reporting how far one in-process domain event subscriber trails the outbox.
+ * @interface_description: Contains the subscriber's name, its backlog, the last observed lag and delivery counters.
+ * @calling_sequence: DomainEventService → EventSubscriberLagVO → Controller → Monitoring
+ * @arguments_description:
+ * - name: Name the subscriber registered under
+ * - pending: Events read from the outboxes but not yet handled by this subscriber
+ * - lastLagMs: Time from an event being written to this subscriber handling it, for the last event handled
+ * - delivered: Events handled since the instance started
+ * - failed: Attempts that threw; each is retried up to team5.events.max-attempts times
+ * - dropped: Events skipped after their last attempt failed
+ * @list_of_subordinate_classes: None
+ * @discussion: Figures are per instance. pending near the ring size means the subscriber is holding back
+ * delivery to every other subscriber.
+ * @development_history: Created on 2026-10-19 for the domain event outbox.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Per-subscriber event delivery lag metrics.
+ */
+@Data
+public class EventSubscriberLagVO {
+    private String name;
+    private Long pending;
+    private Long lastLagMs;
+    private Long delivered;
+    private Long failed;
+    private Long dropped;
+}
@@ -0,0 +1,26 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+/**
+ * @file FacetValueVO.java
+ * @date 2026-10-19
+ * @function_description: View Object for one facet value and its book count.
+ * @interface_description: Value ID (category or author ID; null for publishing houses), display name and count.
+ * @calling_sequence: BookBrowseService → BookBrowseVO → BookController → Frontend
+ * @arguments_description: Integer id, String name, Integer count
+ * @list_of_subordinate_classes: None
+ * @discussion: count is the number of books the value would match combined with the other active filters.
+ * @development_history: Created on 2026-10-19 for faceted catalog browsing.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: A facet value with its filtered count.
+ */
+@Data
+public class FacetValueVO {
+    private Integer id;
+    private String name;
+    private Integer count;
+}
@@ -0,0 +1,32 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+/**
+ * @file NearCacheStatsVO.java
+ * @date 2026-10-19
+ * @function_description: View Object reporting the use of one near cache on this instance.
+ * @interface_description: Contains the cache's name, its size and its hit, miss and remote eviction counters.
+ * @calling_sequence: NearCacheService → NearCacheStatsVO → NearCacheStatusVO → Controller → Monitoring
+ * @arguments_description:
+ * - name: Name the cache was created under, also its name in CACHE_INVALIDATION
+ * - size: Entries held
+ * - hits / misses: Reads since the instance started; reads while the instance is stale count as misses
+ * - remoteEvictions: Keys evicted because another instance changed them
+ * @list_of_subordinate_classes: None
+ * @discussion: Counters are per instance and never reset.
+ * @development_history: Created on 2026-10-19 for cluster-coherent near caches.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Per-cache near cache metrics.
+ */
+@Data
+public class NearCacheStatsVO {
+    private String name;
+    private Integer size;
+    private Long hits;
+    private Long misses;
+    private Long remoteEvictions;
+}
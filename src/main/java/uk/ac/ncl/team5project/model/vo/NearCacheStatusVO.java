@@ -0,0 +1,43 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @file NearCacheStatusVO.java
+ * @date 2026-10-19
+ * @function_description: View Object reporting how stale this instance's near caches may be.
+ * @interface_description: Contains the instance id, the age of the last read of the invalidation log, the
+ * staleness bound and the state of each cache.
+ * @calling_sequence: NearCacheService → NearCacheStatusVO → Controller → Monitoring
+ * @arguments_description:
+ * - instanceId: Origin written on this instance's invalidation records
+ * - fresh: Whether the caches are serving; false once lastPollAgeMs exceeds maxStalenessMs
+ * - lastPollAgeMs: Time since the last successful read of CACHE_INVALIDATION began; the caches may miss
+ *   writes made through other instances since then
+ * - maxStalenessMs: team5.cache.max-staleness-ms
+ * - lastApplyLagMs: Time from another instance writing an invalidation to this instance applying it, for the last one applied
+ * - unsettled: Records read but still reread in case a lower id commits late
+ * - caches: One NearCacheStatsVO per cache
+ * @list_of_subordinate_classes: NearCacheStatsVO
+ * @discussion: A value served by this instance reflects every write made through another instance until
+ * lastPollAgeMs ago; invalidation records are written in the write's own transaction.
+ * @development_history: Created on 2026-10-19 for cluster-coherent near caches.
+ * 2026-10-19 unflushed removed, records are no longer queued.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Near cache staleness metrics of one instance.
+ */
+@Data
+public class NearCacheStatusVO {
+    private String instanceId;
+    private Boolean fresh;
+    private Long lastPollAgeMs;
+    private Long maxStalenessMs;
+    private Long lastApplyLagMs;
+    private Integer unsettled;
+    private List<NearCacheStatsVO> caches;
+}
@@ -0,0 +1,26 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+/**
+ * @file RelatedBookVO.java
+ * @date 2026-10-19
+ * @function_description: View Object for one "readers also wishlisted" recommendation.
+ * @interface_description: Related book ID, the number of users who wishlisted both books, and the similarity score.
+ * @calling_sequence: BookRecommendationService → BookController → Frontend
+ * @arguments_description: Integer bookId, Integer coCount, Double score
+ * @list_of_subordinate_classes: None
+ * @discussion: score is the cosine similarity of the two books' wishlist audiences (0..1).
+ * @development_history: Created on 2026-10-19 for item-to-item recommendations.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: A related book with its co-occurrence statistics.
+ */
+@Data
+public class RelatedBookVO {
+    private Integer bookId;
+    private Integer coCount;
+    private Double score;
+}
@@ -0,0 +1,33 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @file ResilienceStatusVO.java
+ * @date 2026-10-19
+ * @function_description: View Object reporting this instance's circuit breakers, bulkheads and edge limit.
+ * @interface_description: Contains the bulkhead limit, the breakers and bulkheads used so far and the edge limit.
+ * @calling_sequence: ResilienceController → ResilienceStatusVO → Monitoring
+ * @arguments_description:
+ * - bulkheadLimit: Requests each controller may have in progress (team5.resilience.bulkhead-max-concurrent)
+ * - breakers: One per mapper (and shard) that has run a statement
+ * - bulkheads: One per controller that has received a request
+ * - concurrencyLimit: The adaptive limit on requests in progress at the edge
+ * @list_of_subordinate_classes: CircuitBreakerStatsVO, BulkheadStatsVO, ConcurrencyLimitStatsVO
+ * @discussion: Breakers and bulkheads are created on first use, so an idle mapper or controller is absent.
+ * @development_history: Created on 2026-10-19 for serving reads while the database is degraded.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Resilience status of one instance.
+ */
+@Data
+public class ResilienceStatusVO {
+    private Integer bulkheadLimit;
+    private List<CircuitBreakerStatsVO> breakers;
+    private List<BulkheadStatsVO> bulkheads;
+    private ConcurrencyLimitStatsVO concurrencyLimit;
+}
@@ -0,0 +1,42 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * Class: ReviewSearchVO
+ * File: ReviewSearchVO.java
+ * Created on: 2026/10/19
+ * Author: agent
+ *
+ * Description:
+ * <pre>
+ *     Function: One ranked hit of a full-text review search.
+ *     Interface Description:
+ *         - reviewId, bookId, userId, createdTime: copied from the matching review.
+ *         - score (Float): BM25 relevance score, higher is better.
+ *         - highlight (String): HTML-escaped excerpt of review_content with matched terms wrapped in &lt;em&gt;.
+ *     List of Subordinate Classes: None.
+ * </pre>
+ *
+ * Development History:
+ * <pre>
+ *     Designer: agent
+ *     Reviewer:
+ *     Review Date:
+ *     Modification Date: 2026/10/19
+ *     Modification Description: none
+ * </pre>
+ */
+@Data
+public class ReviewSearchVO {
+    private Integer reviewId;
+    private Integer bookId;
+    private Integer userId;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date createdTime;
+    private Float score;
+    private String highlight;
+}
@@ -0,0 +1,25 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+/**
+ * @file SimilarBookVO.java
+ * @date 2026-10-19
+ * @function_description: View Object for one content-similar book.
+ * @interface_description: Similar book ID and its similarity to the queried book.
+ * @calling_sequence: BookSimilarityService → BookController → Frontend
+ * @arguments_description: Integer bookId, Double similarity
+ * @list_of_subordinate_classes: None
+ * @discussion: similarity is the cosine similarity of the two books' review-text vectors (-1..1, higher is closer).
+ * @development_history: Created on 2026-10-19 for similar-books search.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: A book whose reviews read like the queried book's reviews.
+ */
+@Data
+public class SimilarBookVO {
+    private Integer bookId;
+    private Double similarity;
+}
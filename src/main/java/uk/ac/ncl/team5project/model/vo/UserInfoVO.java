@@ -1,7 +1,9 @@
 package uk.ac.ncl.team5project.model.vo;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Data;
 import uk.ac.ncl.team5project.entity.Book;
+import uk.ac.ncl.team5project.util.FieldSet;
 
 import java.util.List;
 
@@ -9,25 +11,35 @@ import java.util.List;
  * @file UserInfoVO.java
  * @date 2025-04-01
  * @function_description: View Object representing a summary of user profile and activity data.
- * @interface_description: Includes basic user info, borrowing stats, and wishlist content.
+ * @interface_description: Includes basic user info, wishlist content and review count.
  * @calling_sequence: Service → Controller → Frontend
- * @arguments_description: Integer userId, String userName, String userEmail, Integer borrowedCount, List<Book> borrowedBooks, List<Book> wishlist
+ * @arguments_description: Integer userId, String userName, String userEmail, List<Book> wishlist, Long reviewCount
  * @list_of_subordinate_classes: Book
  * @discussion: Combines multiple data sources to build a comprehensive user profile overview.
+ * FIELDS lists the fields /v1/users/me can be narrowed to with ?fields=; the derived ones each need a sub-query.
  * @development_history: Created on 2025-04-01 as part of user info response structure.
+ * 2026-10-19 borrowing fields removed: borrowing is not recorded in this system
  * @designer: wensi huang
  * @reviewer: wensi huang
  * @review_date: 2025-04-18
  * @modification_date: 2025-04-18
- * @description: Contains all relevant user information including borrowed books and wishlist.
+ * @description: Contains all relevant user information including the wishlist.
  */
 @Data
+@JsonFilter("userInfo")
 public class UserInfoVO {
+    public static final FieldSet.Schema FIELDS = new FieldSet.Schema("userInfo", "userId")
+            .column("userId", "user_id")
+            .column("userName", "user_name")
+            .column("userEmail", "user_email")
+            .derived("wishlist")
+            .derived("reviewCount");
+
     private Integer userId;
     private String userName;
     private String userEmail;
-    private Integer borrowedCount;
-    private List<Book> borrowedBooks;
     // List of books in the user's wishlist
     private List<Book> wishlist;
+    // Reviews written by the user, archived ones included
+    private Long reviewCount;
 }
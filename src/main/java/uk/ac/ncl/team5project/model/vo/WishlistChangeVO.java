@@ -0,0 +1,30 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+/**
+ * @file WishlistChangeVO.java
+ * @date 2026-10-19
+ * @function_description: View Object for one add or remove in a wishlist delta sync.
+ * @interface_description: Includes the book ID, the wishlist entry ID, the operation and its version.
+ * @calling_sequence: WishlistSyncServiceImpl → WishlistChangesVO → Controller → Frontend
+ * @arguments_description: Integer book_id, Integer wishlist_id, String op ("ADD" or "REMOVE"), Long version
+ * @list_of_subordinate_classes: None
+ * @discussion: Only the latest change per book is sent.
+ * @development_history: Created on 2026-10-19 for wishlist delta sync.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Encapsulates one wishlist change.
+ */
+@Data
+public class WishlistChangeVO {
+    public static final String ADD = "ADD";
+    public static final String REMOVE = "REMOVE";
+
+    private Integer book_id;
+    private Integer wishlist_id;
+    private String op;
+    private Long version;
+}
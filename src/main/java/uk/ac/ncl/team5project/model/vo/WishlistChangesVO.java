@@ -0,0 +1,30 @@
+package uk.ac.ncl.team5project.model.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @file WishlistChangesVO.java
+ * @date 2026-10-19
+ * @function_description: View Object returned by the wishlist delta sync endpoint.
+ * @interface_description: Includes the version to sync from next time, the reset flag and the changes.
+ * @calling_sequence: WishlistSyncServiceImpl → WishlistChangesVO → Controller → Frontend
+ * @arguments_description: Long version, Boolean reset, List changes
+ * @list_of_subordinate_classes: WishlistChangeVO
+ * @discussion: When reset is true the client's copy is too old (or absent) to patch: changes then hold
+ * the whole current wishlist as adds, and the client replaces its copy.
+ * @development_history: Created on 2026-10-19 for wishlist delta sync.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Response object for GET /v1/wishlist/changes.
+ */
+@Data
+public class WishlistChangesVO {
+    // Pass as since on the next sync
+    private Long version;
+    private Boolean reset;
+    private List<WishlistChangeVO> changes;
+}
@@ -0,0 +1,28 @@
+package uk.ac.ncl.team5project.service;
+
+import uk.ac.ncl.team5project.model.dto.BatchDTO;
+import uk.ac.ncl.team5project.util.Result;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * @file BatchService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for running several API calls in one request.
+ * @interface_description: Includes a method for executing a batch.
+ * @calling_sequence: BatchController → BatchService → Spring MVC handlers
+ * @arguments_description: BatchDTO batch, HttpServletRequest request, HttpServletResponse response
+ * @list_of_subordinate_classes: BatchDTO, BatchResponseVO
+ * @discussion: Sub-requests run concurrently and share the batch's authentication and deadline.
+ * @development_history: Created on 2026-10-19 for request batching.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the batch operation.
+ */
+public interface BatchService {
+    // Run every sub-request and return their responses in the order given
+    Result<?> execute(BatchDTO batch, HttpServletRequest request, HttpServletResponse response);
+}
@@ -0,0 +1,28 @@
+package uk.ac.ncl.team5project.service;
+
+import uk.ac.ncl.team5project.model.vo.BookBrowseVO;
+
+import java.util.List;
+
+/**
+ * @file BookBrowseService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for faceted catalog browsing.
+ * @interface_description: Includes methods for filtered browsing and index rebuilds.
+ * @calling_sequence: BookController → BookBrowseService → FacetIndex
+ * @arguments_description: List categoryIds, List authorIds, List publishers, int pageNum, int pageSize, Integer bookId
+ * @list_of_subordinate_classes: BookBrowseVO
+ * @discussion: Filters and facet counts are computed in memory from per-value bitmaps of book IDs.
+ * @development_history: Created on 2026-10-19 for faceted catalog browsing.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the catalog browse operations.
+ */
+public interface BookBrowseService {
+    // Books matching any of the given values in each dimension and all given dimensions, with facet counts
+    BookBrowseVO browse(List<Integer> categoryIds, List<Integer> authorIds, List<String> publishers, int pageNum, int pageSize);
+    // Reload the whole index from BOOK, BOOK_CATEGORY and BOOK_AUTHOR
+    void rebuild();
+}
@@ -0,0 +1,31 @@
+package uk.ac.ncl.team5project.service;
+
+import uk.ac.ncl.team5project.model.vo.BookDetailLagVO;
+import uk.ac.ncl.team5project.model.vo.BookDetailVO;
+
+/**
+ * @file BookDetailService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for the denormalized book detail read model.
+ * @interface_description: Includes methods for reading a book's document, rebuilding every document and
+ * reporting the lag.
+ * @calling_sequence: BookController → BookDetailService → BOOK_DETAIL; DomainEventService → implementation
+ * @arguments_description: Integer bookId
+ * @list_of_subordinate_classes: BookDetailVO, BookDetailLagVO
+ * @discussion: Reads are a single key lookup; documents are rebuilt in the background from the domain events.
+ * @development_history: Created on 2026-10-19 for the book detail read model.
+ * 2026-10-19 Write events come from the domain event outbox; onBookChanged removed.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the book detail read model operations.
+ */
+public interface BookDetailService {
+    // The book's document, built on the spot the first time; null if there is no such book
+    BookDetailVO getDetail(Integer bookId);
+    // Queue every book's document for rebuilding; returns the number of books queued
+    int rebuild();
+    // How far the documents trail the writes on this instance
+    BookDetailLagVO lag();
+}
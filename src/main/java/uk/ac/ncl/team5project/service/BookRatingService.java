@@ -0,0 +1,43 @@
+package uk.ac.ncl.team5project.service;
+
+import uk.ac.ncl.team5project.model.vo.BookRatingVO;
+
+import java.util.List;
+
+/**
+ * @file BookRatingService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for the per-book rating aggregates.
+ * @interface_description: Includes methods for reading one or many books' ratings, applying a review's
+ * rating change and recounting a book from its reviews.
+ * @calling_sequence: BookController → BookRatingService → BOOK_RATING; ReviewService → announceChange → applyChange
+ * @arguments_description: Integer bookId, List bookIds, Integer before / after (old and new rating, null for none)
+ * @list_of_subordinate_classes: BookRatingVO
+ * @discussion: Reads never touch REVIEWS; every review write must announce itself before its shard transaction
+ * and then report its rating change through applyChange (or withdrawChange if the transaction failed).
+ * @development_history: Created on 2026-10-19 for review ratings.
+ * 2026-10-19 getSettledRating for readers that follow review events.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the rating summary operations.
+ */
+public interface BookRatingService {
+    // Rating summary of a book; count 0 if it has no ratings
+    BookRatingVO getRating(Integer bookId);
+    // Summaries of several books in the order given, with one query for those not in memory
+    List<BookRatingVO> getRatings(List<Integer> bookIds);
+    // The book's summary read from the database, or null while an announced write has yet to apply its delta
+    BookRatingVO getSettledRating(Integer bookId);
+    // A review write of the book is about to commit; follow it with applyChange, or withdrawChange if it fails
+    void announceChange(Integer bookId);
+    // The announced write failed before changing any review
+    void withdrawChange(Integer bookId);
+    // A review of the book went from rating before to rating after; either may be null
+    void applyChange(Integer bookId, Integer before, Integer after);
+    // Rebuild the book's aggregate from its reviews on every shard; IllegalStateException while writes are pending
+    BookRatingVO recount(Integer bookId);
+    // Recount the next batch of books, returning how many were skipped because they were being written
+    int reconcile();
+}
@@ -0,0 +1,30 @@
+package uk.ac.ncl.team5project.service;
+
+import uk.ac.ncl.team5project.model.vo.RelatedBookVO;
+
+import java.util.List;
+
+/**
+ * @file BookRecommendationService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for "readers also wishlisted" recommendations.
+ * @interface_description: Includes methods for related-book queries and rebuilds.
+ * @calling_sequence: BookController → BookRecommendationService → CooccurrenceMatrix
+ * @arguments_description: Integer bookId, int limit, Integer userId
+ * @list_of_subordinate_classes: RelatedBookVO
+ * @discussion: Recommendations are computed from wishlist co-occurrence and served from memory; wishlist
+ * changes reach the counts through the WishlistItemAdded and WishlistItemRemoved domain events.
+ * @development_history: Created on 2026-10-19 for item-to-item recommendations.
+ * 2026-10-19 wishlist changes received as domain events instead of calls
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the item-to-item recommendation operations.
+ */
+public interface BookRecommendationService {
+    // Books most often wishlisted together with the given book
+    List<RelatedBookVO> related(Integer bookId, int limit);
+    // Recompute all co-occurrence counts from WISHLIST
+    void rebuild();
+}
@@ -0,0 +1,28 @@
+package uk.ac.ncl.team5project.service;
+
+import uk.ac.ncl.team5project.model.vo.SimilarBookVO;
+
+import java.util.List;
+
+/**
+ * @file BookSimilarityService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for content-based similar-book queries.
+ * @interface_description: Includes methods for nearest-neighbour queries and index rebuilds.
+ * @calling_sequence: BookController → BookSimilarityService → HnswIndex
+ * @arguments_description: Integer bookId, int limit
+ * @list_of_subordinate_classes: SimilarBookVO
+ * @discussion: Similarity is computed from the text of each book's reviews and served from memory.
+ * @development_history: Created on 2026-10-19 for similar-books search.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the similar-books operations.
+ */
+public interface BookSimilarityService {
+    // Books whose reviews are most similar to the given book's reviews
+    List<SimilarBookVO> similar(Integer bookId, int limit);
+    // Start rebuilding the index from REVIEWS in the background; no-op if one is already running
+    void rebuildAsync();
+}
@@ -0,0 +1,30 @@
+package uk.ac.ncl.team5project.service;
+
+import uk.ac.ncl.team5project.model.vo.BookSuggestionVO;
+
+import java.util.List;
+
+/**
+ * @file BookSuggestService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for book title autocomplete.
+ * @interface_description: Includes methods for prefix suggestions and index rebuilds.
+ * @calling_sequence: BookController → BookSuggestService → PrefixIndex
+ * @arguments_description: String prefix, int limit, Integer bookId, int delta
+ * @list_of_subordinate_classes: BookSuggestionVO
+ * @discussion: Suggestions are served from memory; the database is only read when the index is (re)built.
+ * Wishlist changes reach the popularity ranking through the WishlistItemAdded and WishlistItemRemoved events.
+ * @development_history: Created on 2026-10-19 for book title autocomplete.
+ * 2026-10-19 popularity changes received as domain events instead of calls
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the autocomplete operations over the book catalog.
+ */
+public interface BookSuggestService {
+    // Most wishlisted titles starting with the prefix
+    List<BookSuggestionVO> suggest(String prefix, int limit);
+    // Reload the whole index from BOOK and WISHLIST
+    void rebuild();
+}
@@ -0,0 +1,38 @@
+package uk.ac.ncl.team5project.service;
+
+import uk.ac.ncl.team5project.model.event.DomainEvent;
+import uk.ac.ncl.team5project.model.vo.EventSubscriberLagVO;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * @file DomainEventService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for the domain event outbox and its in-process subscribers.
+ * @interface_description: Includes methods for appending an event to the outbox, subscribing to events,
+ * pruning the outbox and reporting each subscriber's lag.
+ * @calling_sequence: WishlistServiceImpl, ReviewService, UserServiceImpl → append → DOMAIN_EVENT;
+ * DOMAIN_EVENT → relay → subscribers registered with subscribe
+ * @arguments_description: DomainEvent event, String name, Consumer handler
+ * @list_of_subordinate_classes: DomainEvent, EventSubscriberLagVO
+ * @discussion: append must be called inside the transaction of the write it describes, on the database
+ * that write goes to; the event is delivered only if that transaction commits. Subscribers receive the
+ * events of every instance, at least once, on a thread of their own.
+ * @development_history: Created on 2026-10-19 for the domain event outbox.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the domain event bus operations.
+ */
+public interface DomainEventService {
+    // Write the event to the outbox of the database the calling transaction runs on
+    void append(DomainEvent event);
+    // Deliver every event read from now on to handler; name identifies the subscriber in logs and lag()
+    void subscribe(String name, Consumer<DomainEvent> handler);
+    // Delete outbox rows older than team5.events.retention-hours; returns the number deleted
+    int prune();
+    // Backlog and delivery counters of each subscriber on this instance
+    List<EventSubscriberLagVO> lag();
+}
@@ -0,0 +1,36 @@
+package uk.ac.ncl.team5project.service;
+
+import uk.ac.ncl.team5project.model.vo.NearCacheStatusVO;
+import uk.ac.ncl.team5project.util.NearCache;
+
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * @file NearCacheService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for local caches kept coherent across instances.
+ * @interface_description: Includes methods for creating a near cache, pruning the invalidation log and
+ * reporting this instance's staleness.
+ * @calling_sequence: ReviewService, BookRatingServiceImpl, UserProfileServiceImpl → create → NearCache;
+ * NearCache.evict → CACHE_INVALIDATION → every instance → NearCache.applyInvalidation
+ * @arguments_description: String name, IntSupplier capacity, LongSupplier ttlMillis, Function keyParser
+ * @list_of_subordinate_classes: NearCache, NearCacheStatusVO
+ * @discussion: Caches are created once, at startup, under a name unique to the instance and the same on
+ * every instance; the name is how an invalidation finds its cache elsewhere.
+ * @development_history: Created on 2026-10-19 for cluster-coherent near caches.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the near cache operations.
+ */
+public interface NearCacheService {
+    // A new cache whose keys print with toString() and parse back with keyParser
+    <K, V> NearCache<K, V> create(String name, IntSupplier capacity, LongSupplier ttlMillis, Function<String, K> keyParser);
+    // Delete invalidation records older than team5.cache.invalidation-retention-minutes; returns the number deleted
+    int prune();
+    // Staleness and counters of this instance's caches
+    NearCacheStatusVO status();
+}
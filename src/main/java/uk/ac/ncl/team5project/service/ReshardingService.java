@@ -0,0 +1,29 @@
+package uk.ac.ncl.team5project.service;
+
+import java.util.Collection;
+
+/**
+ * @file ReshardingService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for moving users' WISHLIST and REVIEWS rows between shards online.
+ * @interface_description: Includes methods to move chosen users, grow the hash ring and finish pending moves.
+ * @calling_sequence: Operator → ReshardingService → ShardRouter / ShardOverrideMapper / WishlistMapper / ReviewMapper
+ * @arguments_description: Collection userIds, int targetShard, int ringSize
+ * @list_of_subordinate_classes: None
+ * @discussion: The application keeps serving while users are moved; each moved user's writes pause until
+ * every instance has acknowledged the move, usually within one override refresh interval.
+ * @development_history: Created on 2026-10-19 for sharding WISHLIST and REVIEWS by user.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the resharding operations.
+ */
+public interface ReshardingService {
+    // Move the users' rows to the target shard; returns how many users actually changed shard
+    int moveUsers(Collection<Integer> userIds, int targetShard);
+    // Spread users over the first ringSize shards, moving those whose placement changes; returns users moved
+    int expand(int ringSize);
+    // Move every user with a SHARD_OVERRIDE row back to the ring's placement; returns users moved
+    int rebalance();
+}
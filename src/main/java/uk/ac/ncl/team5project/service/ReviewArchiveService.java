@@ -0,0 +1,163 @@
+package uk.ac.ncl.team5project.service;
+
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.mapper.ReviewArchiveMapper;
+import uk.ac.ncl.team5project.mapper.ReviewMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Class: ReviewArchiveService
+ * File: ReviewArchiveService.java
+ * Created on: 2026/10/19
+ * Author: agent
+ *
+ * Description:
+ * <pre>
+ *     Function: Moves deleted reviews, and reviews not written for team5.reviews.archive-after-days, from
+ *               REVIEWS to REVIEWS_ARCHIVE in the background.
+ *     Interface Description:
+ *         - archive: One pass over every shard; returns the number of reviews moved. Runs every
+ *           team5.reviews.archive-interval-ms (default one hour).
+ *     Calling Sequence:
+ *         - Scheduler → ReviewArchiveService.archive → ReviewMapper / ReviewArchiveMapper (per shard, via ShardRouter)
+ *     Argument Description: None; the age, batch size and pause are runtime settings (see Settings).
+ *     List of Subordinate Classes: ReviewMapper, ReviewArchiveMapper, ShardRouter, ReviewSearchService.
+ * </pre>
+ * Candidates are found with a plain keyset read over the primary key, so the scan takes no locks. Each
+ * batch is then copied and deleted in its own short transaction, which rechecks the condition row by row,
+ * and the next batch waits team5.reviews.archive-pause-ms. A batch whose copy and delete disagree (a review
+ * saved again in between) is rolled back and picked up by a later pass. Live reviews stay searchable from
+ * the archive; only the deleted ones among a batch leave this instance's search index, and other instances
+ * drop those from search results when the rows are not found.
+ *
+ * Development History:
+ * <pre>
+ *     Designer: agent
+ *     Reviewer:
+ *     Review Date:
+ *     Modification Date: 2026/10/19
+ *     Modification Description: 2026/10/19 archived live reviews stay in the search index
+ * </pre>
+ */
+@Service
+public class ReviewArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewArchiveService.class);
+
+    @Resource
+    private ReviewMapper reviewMapper;
+
+    @Resource
+    private ReviewArchiveMapper reviewArchiveMapper;
+
+    @Resource
+    private ReviewSearchService reviewSearchService;
+
+    @Resource
+    private ShardRouter shardRouter;
+
+    @Resource
+    private ConfigurationStore configurationStore;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(fixedDelayString = "${team5.reviews.archive-interval-ms:3600000}",
+            initialDelayString = "${team5.reviews.archive-interval-ms:3600000}")
+    public void archiveOnSchedule() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.warn("Review archiving failed, retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Moves every review that qualifies now; returns 0 at once if a pass is already running.
+     */
+    public int archive() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            int days = configurationStore.get(Settings.REVIEW_ARCHIVE_AFTER_DAYS);
+            LocalDateTime cutoff = days > 0 ? LocalDateTime.now().minusDays(days) : null;
+            int moved = 0;
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                moved += archiveShard(shard, cutoff);
+            }
+            if (moved > 0) {
+                log.info("Archived {} reviews in {} ms", moved, System.currentTimeMillis() - started);
+            }
+            return moved;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveShard(int shard, LocalDateTime cutoff) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int moved = 0;
+        int afterId = 0;
+        while (true) {
+            int after = afterId;
+            int batchSize = configurationStore.get(Settings.REVIEW_ARCHIVE_BATCH_SIZE);
+            List<Integer> ids = shardRouter.onShard(shard, () -> reviewMapper.selectArchivableReviewIds(after, cutoff, batchSize));
+            if (ids.isEmpty()) {
+                return moved;
+            }
+            afterId = ids.get(ids.size() - 1);
+            ArchivedBatch batch;
+            try {
+                // The transaction's connection is taken when it begins, so it must begin on the shard
+                batch = shardRouter.onShard(shard, () -> transaction.execute(status -> {
+                    int copied = reviewArchiveMapper.archiveReviews(ids, cutoff);
+                    int removed = reviewMapper.deleteArchivedReviews(ids, cutoff);
+                    if (copied != removed) {
+                        status.setRollbackOnly();
+                        return ArchivedBatch.NONE;
+                    }
+                    return new ArchivedBatch(removed, reviewArchiveMapper.selectDeletedIds(ids));
+                }));
+            } catch (DuplicateKeyException e) {
+                // Another instance archived the same rows first
+                batch = ArchivedBatch.NONE;
+            }
+            batch.deletedIds().forEach(reviewSearchService::removeReview);
+            moved += batch.count();
+            if (ids.size() < batchSize) {
+                return moved;
+            }
+            pause();
+        }
+    }
+
+    private record ArchivedBatch(int count, List<Integer> deletedIds) {
+        static final ArchivedBatch NONE = new ArchivedBatch(0, List.of());
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(configurationStore.get(Settings.REVIEW_ARCHIVE_PAUSE_MS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while archiving reviews", e);
+        }
+    }
+}
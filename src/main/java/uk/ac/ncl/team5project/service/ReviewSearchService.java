@@ -0,0 +1,32 @@
+package uk.ac.ncl.team5project.service;
+
+import com.github.pagehelper.PageInfo;
+import uk.ac.ncl.team5project.model.vo.ReviewSearchVO;
+
+/**
+ * @file ReviewSearchService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for full-text search over review content.
+ * @interface_description: Includes methods for ranked search, incremental index updates and rebuilds.
+ * @calling_sequence: ReviewController → ReviewSearchService → InvertedIndex → ReviewMapper
+ * @arguments_description: String query, int pageNum, int pageSize, Integer reviewId, String content
+ * @list_of_subordinate_classes: ReviewSearchVO
+ * @discussion: The index is held in memory by each instance and kept current from the review domain events.
+ * @development_history: Created on 2026-10-19 for review full-text search.
+ * 2026-10-19 Kept current from the review domain events instead of by the writer.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the review search operations.
+ */
+public interface ReviewSearchService {
+    // Ranked, paginated hits with highlighted excerpts
+    PageInfo<ReviewSearchVO> search(String query, int pageNum, int pageSize);
+    // Make a review searchable, replacing its earlier text
+    void indexReview(Integer reviewId, String content);
+    // Stop a review from being found
+    void removeReview(Integer reviewId);
+    // Start rebuilding the index from the database in the background; no-op if one is already running
+    void rebuildAsync();
+}
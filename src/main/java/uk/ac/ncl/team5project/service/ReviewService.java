@@ -1,11 +1,38 @@
 package uk.ac.ncl.team5project.service;
 
+import com.github.pagehelper.Page;
+import com.github.pagehelper.page.PageMethod;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.Book;
+import uk.ac.ncl.team5project.entity.User;
+import uk.ac.ncl.team5project.mapper.BookMapper;
+import uk.ac.ncl.team5project.mapper.ReviewArchiveMapper;
 import uk.ac.ncl.team5project.mapper.ReviewMapper;
 import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.mapper.UserMapper;
+import uk.ac.ncl.team5project.model.event.ReviewDeleted;
+import uk.ac.ncl.team5project.model.event.ReviewUpserted;
+import uk.ac.ncl.team5project.util.NearCache;
+import uk.ac.ncl.team5project.util.SingleFlight;
+import uk.ac.ncl.team5project.util.FieldSet;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 /**
  * Class: ReviewService
@@ -20,8 +47,11 @@ import java.util.List;
  *     Interface Description:
  *         - selectReviewByBookId: Retrieves all reviews for a specified book using its ID.
  *         - selectReviewByUserId: Retrieves all reviews posted by a specified user using their ID.
+ *         - selectLatestReviewByBookId / countReviewByBookId: Newest reviews and review count of a book,
+ *           for its detail page.
+ *         - selectLatestReviewByBookIds: Newest few reviews of each of several books, for catalog grids.
  *         - updateReviewByBookIdUserId: Updates an existing review or creates a new one based on
- *           the user ID and book ID.
+ *           the user ID and book ID, optionally with a rating.
  *         - deleteReviewByBookIdUserId: Deletes a review specified by user ID and book ID.
  *     Calling Sequence:
  *         - This service layer is called by the controller layer to manage reviews for books and users.
@@ -30,31 +60,243 @@ import java.util.List;
  *         - userId (Integer): The ID of the user who posted the review.
  *         - bookId (Integer): The ID of the book being reviewed.
  *         - content (String): The content of the review.
- *     List of Subordinate Classes: ReviewMapper.
+ *         - rating (Integer): Stars from 1 to 5, or null to keep the current rating.
+ *         - fields (FieldSet): The review fields a list read returns (see Review.FIELDS). Only their columns are
+ *           read, and the USER / BOOK name lookups run only when userName / name were requested.
+ *     REVIEWS is sharded by user_id: by-user reads and writes run on the user's shard through ShardRouter,
+ *     and by-book reads query every shard in parallel and merge the results by review_id.
+ *     Old and deleted reviews are moved to REVIEWS_ARCHIVE by ReviewArchiveService. Reads list the reviews
+ *     still in REVIEWS first, then the archived ones; the archive rows are only read for a page that reaches
+ *     past the REVIEWS rows (the archive counts are always read, for the page total).
+ *     Writes drop the user's cached profile, which shows their review count, and pass the change of the
+ *     review's rating to BookRatingService once the shard transaction has committed. Each write appends a
+ *     ReviewUpserted or ReviewDeleted domain event in its shard transaction, which keeps the search index and
+ *     the book's detail document current on every instance (see ReviewSearchServiceImpl and
+ *     BookDetailServiceImpl), and evicts the book's cached snippets on every instance through
+ *     the "review-snippets" near cache.
+ *     Concurrent identical by-book reads (same book, page and fields) share one computation, so a featured
+ *     book's first page is read once however many clients ask for it at the same moment.
+ *     Every page of reviews returned carries the reviewer's userName and the book's name, looked up for the
+ *     whole page with one USER and one BOOK query (both tables live on the main database).
+ *     List of Subordinate Classes: ReviewMapper, ReviewArchiveMapper, UserMapper, BookMapper, UserProfileService,
+ *     BookRatingService, DomainEventService, NearCacheService, ShardRouter, NearCache,
+ *     SingleFlight.
  * </pre>
  * Development History:
  * <pre>
  *     Designer: menghui yao
  *     Reviewer: menghui yao
  *     Review Date: 2025/4/25
- *     Modification Date: 2025/4/25
- *     Modification Description: none
+ *     Modification Date: 2026/10/19
+ *     Modification Description: 2026/10/19 writes kept in the search index; reviews sharded by user_id;
+ *                               soft deletes and reads that continue into REVIEWS_ARCHIVE; writes drop the
+ *                               user's cached profile; reviewer and book names on listings; star ratings
+ *                               with per-book aggregates; newest reviews and review count of a book for its
+ *                               detail page, and of several books at once; ?fields= sparse fieldsets; writes
+ *                               announced on the domain event outbox; near-cached reads coalesced and
+ *                               invalidated across instances
  * </pre>
  */
 
 @Service
 public class ReviewService {
 
+    private static final Comparator<Review> BY_REVIEW_ID = Comparator.comparing(Review::getReviewId);
+    private static final Comparator<Review> BY_BOOK_ID = Comparator.comparing(Review::getBookId);
+
     @Resource
     private ReviewMapper ReviewMapper;
 
+    @Resource
+    private ReviewArchiveMapper reviewArchiveMapper;
+
+    @Resource
+    private ShardRouter shardRouter;
+
+    @Resource
+    private UserProfileService userProfileService;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private BookMapper bookMapper;
+
+    @Resource
+    private BookRatingService bookRatingService;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    @Resource
+    private ConfigurationStore configurationStore;
+
+    @Resource
+    private DomainEventService domainEventService;
+
+    @Resource
+    private NearCacheService nearCacheService;
+
+    // Newest reviews of each book, for selectLatestReviewByBookIds
+    private NearCache<Integer, List<Review>> snippets;
+    // By-book pages and snippet loads in flight; their results are shared between callers, not modified
+    private final SingleFlight<BookPageKey, List<Review>> bookPages = new SingleFlight<>();
+    private final SingleFlight<List<Integer>, Map<Integer, List<Review>>> snippetLoads = new SingleFlight<>();
+
+    @PostConstruct
+    public void init() {
+        snippets = nearCacheService.create("review-snippets",
+                () -> configurationStore.get(Settings.REVIEW_SNIPPET_CACHE_SIZE),
+                () -> configurationStore.get(Settings.REVIEW_SNIPPET_TTL_MS), Integer::valueOf);
+        configurationStore.subscribe(Settings.REVIEW_SNIPPET_CACHE_SIZE, size -> snippets.trimToCapacity());
+    }
+
+    /**
+     * Reviews of a book, oldest first within each tier. The book's reviews are spread over every shard, so a
+     * page started with PageMethod.startPage is applied here: each shard returns its first pageNum * pageSize
+     * rows and its count, and the merged rows are cut to the requested page.
+     */
     public List<Review> selectReviewByBookId(Integer id) {
-        return ReviewMapper.selectReviewByBookId(id);
+        return selectReviewByBookId(id, Review.FIELDS.all());
+    }
+
+    public List<Review> selectReviewByBookId(Integer id, FieldSet fields) {
+        // every caller takes its own page off the thread, whether or not it runs the read
+        Page<Review> page = PageMethod.getLocalPage();
+        PageMethod.clearPage();
+        BookPageKey key = page == null ? new BookPageKey(id, 0, 0, fields)
+                : new BookPageKey(id, page.getPageNum(), page.getPageSize(), fields);
+        return bookPages.run(key, () -> withNames(reviewsOfBook(id, page, fields), fields));
+    }
+
+    private List<Review> reviewsOfBook(Integer id, Page<Review> page, FieldSet fields) {
+        if (page == null || page.getPageSize() <= 0) {
+            List<Review> all = sorted(shardRouter.gather(() -> ReviewMapper.selectReviewByBookId(id, fields)), BY_REVIEW_ID);
+            all.addAll(sorted(shardRouter.gather(() -> reviewArchiveMapper.selectByBookId(id, fields)), BY_REVIEW_ID));
+            return all;
+        }
+        return tieredPage(page, BY_REVIEW_ID,
+                limit -> shardRouter.scatter(() -> new ShardPage(ReviewMapper.countReviewByBookId(id),
+                        reviewArchiveMapper.countByBookId(id), ReviewMapper.selectReviewByBookIdFirst(id, limit, fields))),
+                limit -> shardRouter.gather(() -> reviewArchiveMapper.selectByBookIdFirst(id, limit, fields)));
+    }
+
+    /**
+     * The newest reviews of a book, newest first, with names. Archived reviews are older than those still in
+     * REVIEWS, so the archive is only read when REVIEWS holds fewer than limit of the book's reviews.
+     */
+    public List<Review> selectLatestReviewByBookId(Integer id, int limit) {
+        Comparator<Review> newestFirst = BY_REVIEW_ID.reversed();
+        List<Review> latest = sorted(shardRouter.gather(() -> ReviewMapper.selectLatestReviewByBookId(id, limit)), newestFirst);
+        if (latest.size() < limit) {
+            latest.addAll(sorted(shardRouter.gather(() -> reviewArchiveMapper.selectLatestByBookId(id, limit)), newestFirst));
+        }
+        return withNames(new ArrayList<>(latest.subList(0, Math.min(limit, latest.size()))));
+    }
+
+    /**
+     * The newest perBook reviews of each book, keyed by book id in the order given, for catalog grids.
+     * Each book's newest reviews (up to team5.reviews.snippets-per-book) are kept in memory; the books not
+     * in memory are read with one query per shard, and the archive is only read for books that had fewer
+     * reviews than that in REVIEWS. A review write drops its book's entry on every instance; changed names
+     * show once the entry expires.
+     */
+    public Map<Integer, List<Review>> selectLatestReviewByBookIds(List<Integer> bookIds, int perBook) {
+        int cached = configurationStore.get(Settings.REVIEW_SNIPPETS_PER_BOOK);
+        Map<Integer, List<Review>> latest = new LinkedHashMap<>();
+        Map<Integer, Long> stamps = new LinkedHashMap<>();
+        for (Integer bookId : bookIds) {
+            List<Review> hit = snippets.get(bookId);
+            if (hit != null) {
+                latest.put(bookId, hit);
+            } else if (!stamps.containsKey(bookId)) {
+                stamps.put(bookId, snippets.stamp(bookId));
+            }
+        }
+        if (!stamps.isEmpty()) {
+            List<Integer> missing = List.copyOf(stamps.keySet());
+            long started = System.currentTimeMillis();
+            Map<Integer, List<Review>> loaded = snippetLoads.run(missing, () -> loadSnippets(missing, cached));
+            long computeMillis = System.currentTimeMillis() - started;
+            for (Integer bookId : missing) {
+                List<Review> reviews = loaded.get(bookId);
+                snippets.putIfUnchanged(bookId, stamps.get(bookId), reviews, computeMillis);
+                latest.put(bookId, reviews);
+            }
+        }
+        Map<Integer, List<Review>> result = new LinkedHashMap<>();
+        for (Integer bookId : bookIds) {
+            List<Review> reviews = latest.get(bookId);
+            result.put(bookId, reviews.subList(0, Math.min(perBook, reviews.size())));
+        }
+        return result;
+    }
+
+    // The newest cached reviews of each book, with names, as immutable lists
+    private Map<Integer, List<Review>> loadSnippets(List<Integer> bookIds, int cached) {
+        Map<Integer, List<Review>> loaded = newestByBook(shardRouter.gather(
+                () -> ReviewMapper.selectLatestReviewByBookIds(bookIds, cached)), bookIds);
+        List<Integer> underfilled = bookIds.stream().filter(bookId -> loaded.get(bookId).size() < cached).toList();
+        if (!underfilled.isEmpty()) {
+            newestByBook(shardRouter.gather(() -> reviewArchiveMapper.selectLatestByBookIds(underfilled, cached)), underfilled)
+                    .forEach((bookId, archived) -> loaded.get(bookId).addAll(archived));
+        }
+        List<Review> all = new ArrayList<>();
+        for (Integer bookId : bookIds) {
+            List<Review> reviews = loaded.get(bookId);
+            reviews.subList(Math.min(cached, reviews.size()), reviews.size()).clear();
+            all.addAll(reviews);
+        }
+        withNames(all);
+        loaded.replaceAll((bookId, reviews) -> List.copyOf(reviews));
+        return loaded;
+    }
 
+    // Rows from every shard grouped by book, newest first within each book
+    private static Map<Integer, List<Review>> newestByBook(List<Review> rows, List<Integer> bookIds) {
+        Map<Integer, List<Review>> byBook = new HashMap<>();
+        for (Integer bookId : bookIds) {
+            byBook.put(bookId, new ArrayList<>());
+        }
+        for (Review row : sorted(rows, BY_REVIEW_ID.reversed())) {
+            byBook.get(row.getBookId()).add(row);
+        }
+        return byBook;
+    }
+
+    /**
+     * Number of reviews of a book on every shard, archived ones included.
+     */
+    public long countReviewByBookId(Integer id) {
+        return shardRouter.scatter(() -> ReviewMapper.countReviewByBookId(id) + reviewArchiveMapper.countByBookId(id))
+                .stream().mapToLong(Long::longValue).sum();
     }
 
+    /**
+     * Reviews by a user, in book order within each tier; honours PageMethod.startPage like selectReviewByBookId.
+     */
     public List<Review> selectReviewByUserId(Integer id) {
-        return ReviewMapper.selectReviewByUserId(id);
+        return selectReviewByUserId(id, Review.FIELDS.all());
+    }
+
+    public List<Review> selectReviewByUserId(Integer id, FieldSet fields) {
+        return withNames(reviewsOfUser(id, fields), fields);
+    }
+
+    private List<Review> reviewsOfUser(Integer id, FieldSet fields) {
+        Page<Review> page = PageMethod.getLocalPage();
+        PageMethod.clearPage();
+        if (page == null || page.getPageSize() <= 0) {
+            return shardRouter.onUser(id, () -> {
+                List<Review> all = sorted(ReviewMapper.selectReviewByUserId(id, fields), BY_BOOK_ID);
+                all.addAll(sorted(reviewArchiveMapper.selectByUserId(id, fields), BY_BOOK_ID));
+                return all;
+            });
+        }
+        return tieredPage(page, BY_BOOK_ID,
+                limit -> List.of(shardRouter.onUser(id, () -> new ShardPage(ReviewMapper.countReviewByUserId(id),
+                        reviewArchiveMapper.countByUserId(id), ReviewMapper.selectReviewByUserIdFirst(id, limit, fields)))),
+                limit -> shardRouter.onUser(id, () -> reviewArchiveMapper.selectByUserIdFirst(id, limit, fields)));
     }
 
     /**
@@ -63,21 +305,177 @@ public class ReviewService {
      * if existing, use update mapper method, else use insert new one.
      */
     public void updateReviewByBookIdUserId(Integer userId, Integer bookId, String content) {
-        ReviewMapper.updateReviewByBookIdUserId(userId, bookId, content);
-
-        // searching in table to find whether exist
-        List<Review> existingReview = ReviewMapper.selectReviewByUserIdAndBookId(userId, bookId);
+        updateReviewByBookIdUserId(userId, bookId, content, null);
+    }
 
-        if (existingReview != null && !existingReview.isEmpty()) {
-            // true，update
-            ReviewMapper.updateReviewByBookIdUserId(userId, bookId, content);
-        } else {
-            // false, insert
-            ReviewMapper.insertReviewByBookIdUserId(userId, bookId, content);
+    /**
+     * Saves the review with a rating from 1 to 5. A null rating keeps the review's current one, or the rating
+     * of the archived review a new review replaces. The book's rating aggregate is adjusted by the difference.
+     */
+    public void updateReviewByBookIdUserId(Integer userId, Integer bookId, String content, Integer rating) {
+        if (rating != null && (rating < 1 || rating > 5)) {
+            throw new IllegalArgumentException("rating must be between 1 and 5");
         }
+        // all of a user's reviews live on one shard; the old rating is read in the transaction that replaces it
+        RatedWrite write = rated(bookId, () -> shardRouter.onUserForWrite(userId, () -> new TransactionTemplate(transactionManager).execute(status -> {
+            // searching in table to find whether exist; the row is locked, so a concurrent save waits here
+            List<Review> existingReview = ReviewMapper.selectReviewRowForUpdate(userId, bookId);
+            Integer before;
+            if (!existingReview.isEmpty()) {
+                // true，update; also restores the review if it was deleted but not yet archived
+                before = liveRating(existingReview.get(0));
+                ReviewMapper.updateReviewByBookIdUserId(userId, bookId, content, rating);
+            } else {
+                // false, insert; the new review replaces an archived one for the same book
+                List<Review> archived = reviewArchiveMapper.selectByUserIdAndBookId(userId, bookId);
+                before = archived.isEmpty() ? null : archived.get(0).getRating();
+                reviewArchiveMapper.deleteByUserIdAndBookId(userId, bookId);
+                // a concurrent insert for the same user and book hits the unique key
+                try {
+                    ReviewMapper.insertReviewByBookIdUserId(userId, bookId, content, rating != null ? rating : before);
+                } catch (DuplicateKeyException e) {
+                    // the other insert already replaced the archived review: its row is the one updated now
+                    before = liveRating(ReviewMapper.selectReviewRowForUpdate(userId, bookId).get(0));
+                    ReviewMapper.updateReviewByBookIdUserId(userId, bookId, content, rating);
+                }
+            }
+            List<Review> rows = ReviewMapper.selectReviewByUserIdAndBookId(userId, bookId);
+            if (rows.isEmpty()) {
+                return new RatedWrite(before, null);
+            }
+            // the search index and the book's detail document follow this event on every instance
+            domainEventService.append(new ReviewUpserted(userId, bookId, rows.get(0).getReviewId(), rows.get(0).getRating()));
+            return new RatedWrite(before, rows.get(0).getRating());
+        })));
+        bookRatingService.applyChange(bookId, write.before(), write.after());
+        snippets.evict(bookId);
+        // the profile shows the user's review count
+        userProfileService.invalidate(userId);
     }
     public void deleteReviewByBookIdUserId(Integer userId, Integer bookId) {
-        ReviewMapper.deleteReviewByBookIdUserId(userId,bookId);
+        RatedWrite removed = rated(bookId, () -> shardRouter.onUserForWrite(userId, () -> new TransactionTemplate(transactionManager).execute(status -> {
+            List<Review> rows = ReviewMapper.selectReviewByUserIdAndBookId(userId, bookId);
+            List<Review> archived = reviewArchiveMapper.selectByUserIdAndBookId(userId, bookId);
+            // soft delete; ReviewArchiveService moves the row to the archive later
+            ReviewMapper.deleteReviewByBookIdUserId(userId,bookId);
+            reviewArchiveMapper.deleteByUserIdAndBookId(userId, bookId);
+            Integer before = rows.isEmpty() ? null : rows.get(0).getRating();
+            if (before == null && !archived.isEmpty()) {
+                before = archived.get(0).getRating();
+            }
+            if (!rows.isEmpty() || !archived.isEmpty()) {
+                domainEventService.append(new ReviewDeleted(userId, bookId));
+            }
+            return new RatedWrite(before, null);
+        })));
+        bookRatingService.applyChange(bookId, removed.before(), removed.after());
+        snippets.evict(bookId);
+        userProfileService.invalidate(userId);
+    }
+
+    // Runs a review write announced on the book's rating aggregate, so that a recount cannot overtake its
+    // delta; the announcement is withdrawn if the write fails
+    private RatedWrite rated(Integer bookId, Supplier<RatedWrite> write) {
+        bookRatingService.announceChange(bookId);
+        try {
+            return write.get();
+        } catch (RuntimeException e) {
+            bookRatingService.withdrawChange(bookId);
+            throw e;
+        }
+    }
+
+    // A deleted review's rating was taken off the book when it was deleted
+    private static Integer liveRating(Review row) {
+        return Integer.valueOf(0).equals(row.getDeleted()) ? row.getRating() : null;
+    }
+
+    private List<Review> withNames(List<Review> reviews) {
+        return withNames(reviews, Review.FIELDS.all());
+    }
+
+    /**
+     * Sets userName and name (the book title) on a page of reviews with one IN lookup on USER and one on BOOK,
+     * whatever the page size. Names are read fresh for every page, so a rename shows on the next read.
+     * A lookup is skipped when its name is not among the requested fields.
+     */
+    private List<Review> withNames(List<Review> reviews, FieldSet fields) {
+        if (reviews.isEmpty()) {
+            return reviews;
+        }
+        List<Integer> userIds = fields.includes("userName")
+                ? reviews.stream().map(Review::getUserId).filter(Objects::nonNull).distinct().toList()
+                : List.of();
+        List<Integer> bookIds = fields.includes("name")
+                ? reviews.stream().map(Review::getBookId).filter(Objects::nonNull).distinct().toList()
+                : List.of();
+        Map<Integer, String> userNames = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            for (User user : userMapper.selectUserNamesByIds(userIds)) {
+                userNames.put(user.getUserId(), user.getUserName());
+            }
+        }
+        Map<Integer, String> bookNames = new HashMap<>();
+        if (!bookIds.isEmpty()) {
+            for (Book book : bookMapper.selectBookNamesByIds(bookIds)) {
+                bookNames.put(book.getBookId(), book.getName());
+            }
+        }
+        for (Review review : reviews) {
+            review.setUserName(userNames.get(review.getUserId()));
+            review.setName(bookNames.get(review.getBookId()));
+        }
+        return reviews;
+    }
+
+    /**
+     * Fills the page from REVIEWS, then REVIEWS_ARCHIVE. hot(limit) returns each shard's counts and first
+     * limit REVIEWS rows; archived(limit) the first limit archive rows of every shard, and is only called
+     * when the page reaches past the REVIEWS rows.
+     */
+    private List<Review> tieredPage(Page<Review> page, Comparator<Review> order,
+                                    IntFunction<List<ShardPage>> hot, IntFunction<List<Review>> archived) {
+        long offset = (long) (Math.max(1, page.getPageNum()) - 1) * page.getPageSize();
+        int limit = (int) Math.min(Integer.MAX_VALUE, offset + page.getPageSize());
+        List<Review> merged = new ArrayList<>();
+        long hotTotal = 0;
+        long archivedTotal = 0;
+        for (ShardPage shard : hot.apply(limit)) {
+            hotTotal += shard.total();
+            archivedTotal += shard.archived();
+            merged.addAll(shard.first());
+        }
+        merged.sort(order);
+        page.setTotal(hotTotal + archivedTotal);
+        if (offset < merged.size()) {
+            page.addAll(merged.subList((int) offset, Math.min(merged.size(), limit)));
+        }
+        if (limit > hotTotal && archivedTotal > 0) {
+            long archivedOffset = Math.max(0, offset - hotTotal);
+            int archivedLimit = (int) (limit - hotTotal);
+            List<Review> rows = sorted(archived.apply(archivedLimit), order);
+            if (archivedOffset < rows.size()) {
+                page.addAll(rows.subList((int) archivedOffset, Math.min(rows.size(), archivedLimit)));
+            }
+        }
+        return page;
+    }
+
+    private static List<Review> sorted(List<Review> rows, Comparator<Review> order) {
+        List<Review> copy = new ArrayList<>(rows);
+        copy.sort(order);
+        return copy;
     }
-}
 
+    // The rating the book had from the user's review before a write, and the one it has after
+    private record RatedWrite(Integer before, Integer after) {
+    }
+
+    // Everything a by-book read depends on; page number and size are 0 for an unpaged read
+    private record BookPageKey(Integer bookId, int pageNum, int pageSize, FieldSet fields) {
+    }
+
+    // One shard's share of a page: REVIEWS and archive counts, and the first REVIEWS rows
+    private record ShardPage(long total, long archived, List<Review> first) {
+    }
+}
@@ -0,0 +1,27 @@
+package uk.ac.ncl.team5project.service;
+
+import uk.ac.ncl.team5project.model.vo.UserInfoVO;
+import uk.ac.ncl.team5project.util.FieldSet;
+
+/**
+ * @file UserProfileService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for assembling and caching the /v1/users/me profile.
+ * @interface_description: Includes a method for reading a profile and one for dropping a cached profile after a write.
+ * @calling_sequence: UserServiceImpl → UserProfileService → UserMapper, WishlistMapper, ReviewMapper
+ * @arguments_description: String email, FieldSet fields, Integer userId
+ * @list_of_subordinate_classes: UserInfoVO
+ * @discussion: Profile, wishlist and review writes must call invalidate for the user they changed.
+ * @development_history: Created on 2026-10-19 for the concurrent /v1/users/me profile.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the profile read and invalidation operations.
+ */
+public interface UserProfileService {
+    // Profile of the user with this email, or null if there is no such user; fields not requested may be left unset
+    UserInfoVO getProfile(String email, FieldSet fields);
+    // Called after the user's profile, wishlist or reviews changed
+    void invalidate(Integer userId);
+}
@@ -5,6 +5,7 @@ import uk.ac.ncl.team5project.entity.User;
 import com.baomidou.mybatisplus.extension.service.IService;
 import uk.ac.ncl.team5project.model.dto.LoginDTO;
 import uk.ac.ncl.team5project.model.dto.RegisterDTO;
+import uk.ac.ncl.team5project.util.FieldSet;
 import uk.ac.ncl.team5project.util.Result;
 
 /**
@@ -13,7 +14,7 @@ import uk.ac.ncl.team5project.util.Result;
  * @function_description: Service interface defining user-related operations.
  * @interface_description: Includes methods for registration, login, profile update, and info retrieval.
  * @calling_sequence: Controller → UserService → UserMapper
- * @arguments_description: LoginDTO, RegisterDTO, String userName, String password
+ * @arguments_description: LoginDTO, RegisterDTO, String userName, String password, FieldSet fields
  * @list_of_subordinate_classes: LoginDTO, RegisterDTO, User
  * @discussion: Forms the business logic layer for managing user accounts and authentication.
  * @development_history: Created on 2025-04-01 as part of user service module.
@@ -30,8 +31,8 @@ public interface UserService extends IService<User> {
     Result<?> login(LoginDTO user);
     // Update user info
     Result<?> update(String userName,String password);
-    // Retrieve current user info
-    Result<?> getInfo();
+    // Retrieve current user info, loading only what the requested fields need
+    Result<?> getInfo(FieldSet fields);
     // Admin login handler
     Result<?> adminLogin(LoginDTO user);
 }
@@ -0,0 +1,31 @@
+package uk.ac.ncl.team5project.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file WishlistMembershipService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for "is this book on the user's wishlist" checks.
+ * @interface_description: Includes methods for single and bulk membership checks and for keeping the cache current.
+ * @calling_sequence: WishlistServiceImpl → WishlistMembershipService → MembershipCache → WishlistMapper
+ * @arguments_description: Integer userId, Integer bookId, List bookIds
+ * @list_of_subordinate_classes: None
+ * @discussion: Answers from a per-user bitmap of wishlisted book ids, loaded on first use.
+ * @development_history: Created on 2026-10-19 for bulk wishlist membership checks.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the wishlist membership operations.
+ */
+public interface WishlistMembershipService {
+    // Whether the book is on the user's wishlist
+    boolean contains(Integer userId, Integer bookId);
+    // Book id → on the user's wishlist, in the order given
+    Map<Integer, Boolean> containsAll(Integer userId, List<Integer> bookIds);
+    // Called after a wishlist row was inserted
+    void onWishlistAdded(Integer userId, Integer bookId);
+    // Called after a wishlist row was deleted
+    void onWishlistRemoved(Integer userId, Integer bookId);
+}
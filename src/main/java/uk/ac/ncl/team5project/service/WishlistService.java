@@ -4,15 +4,17 @@ import org.springframework.http.ResponseEntity;
 import uk.ac.ncl.team5project.entity.Wishlist;
 import com.baomidou.mybatisplus.extension.service.IService;
 import uk.ac.ncl.team5project.model.dto.WishlistAddDTO;
+import uk.ac.ncl.team5project.model.dto.WishlistContainsDTO;
+import uk.ac.ncl.team5project.util.FieldSet;
 import uk.ac.ncl.team5project.util.Result;
 
 /**
  * @file WishlistService.java
  * @date 2025-04-01
  * @function_description: Service interface for managing wishlist operations.
- * @interface_description: Includes methods for adding, retrieving (with pagination), and deleting wishlist items.
+ * @interface_description: Includes methods for adding, retrieving (with pagination), deleting, checking and syncing wishlist items.
  * @calling_sequence: Controller → WishlistService → WishlistMapper
- * @arguments_description: WishlistAddDTO wishlist, Integer page, Integer size, Integer wishlistId
+ * @arguments_description: WishlistAddDTO wishlist, Integer page, Integer size, FieldSet fields, Integer wishlistId
  * @list_of_subordinate_classes: WishlistAddDTO, Wishlist
  * @discussion: Provides core logic for the user's personal book wishlist management.
  * @development_history: Created on 2025-04-01 as part of wishlist feature module.
@@ -25,9 +27,13 @@ import uk.ac.ncl.team5project.util.Result;
 public interface WishlistService extends IService<Wishlist> {
     // Add a book to wishlist
     Result<?> addBookToWishlist(WishlistAddDTO wishlist);
-    // Get wishlist with pagination
-    Result<?> getWishlist(Integer page, Integer size);
+    // Get wishlist with pagination, reading only the columns of the requested fields
+    Result<?> getWishlist(Integer page, Integer size, FieldSet fields);
     // Delete a book from wishlist
     Result<?> deleteBookFromWishlist(Integer wishlistId);
+    // Check which of the given books are on the wishlist
+    Result<?> containsBooks(WishlistContainsDTO books);
+    // Get adds and removes since a change version
+    Result<?> getWishlistChanges(Long since);
 
 }
@@ -0,0 +1,28 @@
+package uk.ac.ncl.team5project.service;
+
+import uk.ac.ncl.team5project.model.vo.WishlistChangesVO;
+
+/**
+ * @file WishlistSyncService.java
+ * @date 2026-10-19
+ * @function_description: Service interface for wishlist change versions and delta sync.
+ * @interface_description: Includes methods for recording changes, reading changes since a version and pruning tombstones.
+ * @calling_sequence: WishlistServiceImpl → WishlistSyncService → WishlistChangeMapper
+ * @arguments_description: Integer userId, Integer bookId, Integer wishlistId, boolean removed, Long since
+ * @list_of_subordinate_classes: WishlistChangesVO
+ * @discussion: Lets returning clients download only what changed since their last sync.
+ * @development_history: Created on 2026-10-19 for wishlist delta sync.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Defines the wishlist change log operations.
+ */
+public interface WishlistSyncService {
+    // Record an add or remove; must run in the same transaction as the WISHLIST write, on the user's shard
+    long recordChange(Integer userId, Integer bookId, Integer wishlistId, boolean removed);
+    // Adds and removes after version since, or the whole wishlist if since is too old
+    WishlistChangesVO changesSince(Integer userId, Long since);
+    // Delete tombstones older than the retention window; returns the number deleted
+    int pruneTombstones();
+}
@@ -0,0 +1,292 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import uk.ac.ncl.team5project.config.CircuitBreakerInterceptor;
+import uk.ac.ncl.team5project.config.ConcurrencyLimitFilter;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.ReadYourWrites;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.model.dto.BatchDTO;
+import uk.ac.ncl.team5project.model.dto.BatchRequestDTO;
+import uk.ac.ncl.team5project.model.vo.BatchResponseVO;
+import uk.ac.ncl.team5project.service.BatchService;
+import uk.ac.ncl.team5project.util.BatchSubRequest;
+import uk.ac.ncl.team5project.util.BatchSubResponse;
+import uk.ac.ncl.team5project.util.Result;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @file BatchServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: Runs the sub-requests of POST /v1/batch concurrently and collects their responses.
+ * @interface_description:
+ * - execute(batch, request, response): dispatch every sub-request, wait up to the shared deadline, return
+ *   one BatchResponseVO per sub-request in the order given
+ * @calling_sequence: BatchController → BatchServiceImpl → RequestMappingHandlerMapping → RequestMappingHandlerAdapter
+ * → Controller → Service
+ * @arguments_description: BatchDTO batch, HttpServletRequest request, HttpServletResponse response
+ * @list_of_subordinate_classes: BatchSubRequest, BatchSubResponse, BatchResponseVO
+ * @discussion: The batch itself passes JwtAuthenticationFilter once; each sub-request runs on its own virtual
+ * thread with a copy of that authentication and goes straight to the controller method, the way
+ * DispatcherServlet would call it, so handler interceptors and @RestControllerAdvice still apply. The
+ * security filter chain is not run again, so each sub-request is first checked against the same
+ * AuthorizationManager the chain uses (SecurityConfig.requestAuthorization) and answered 401 or 403 as the
+ * chain would. The batch takes no slot under the edge concurrency limit; each sub-request takes its own
+ * from ConcurrencyLimitFilter, classed by its method and the batch's authentication, and is answered 503
+ * in its place when shed. Like FanOut forks, sub-requests carry the batch's read-your-writes stamp and
+ * count as request work towards the circuit breakers. Sub-requests must be under /v1/ and cannot be batches themselves. All of
+ * them share one deadline of team5.batch.timeout-ms from the start of the batch; a call still running
+ * then is interrupted and reported as 504 while the others keep their results. Sub-requests are
+ * independent: they are not ordered and do not share a transaction.
+ * @development_history: Created on 2026-10-19 for request batching.
+ * 2026-10-19 Sub-requests authorized against the security configuration's rules.
+ * 2026-10-19 Sub-requests take a slot each under the edge concurrency limit.
+ * 2026-10-19 Sub-requests count as request work towards the circuit breakers.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Request multiplexing over Spring MVC on virtual threads.
+ */
+@Service
+public class BatchServiceImpl implements BatchService {
+    private static final Logger log = LoggerFactory.getLogger(BatchServiceImpl.class);
+    private static final String PREFIX = "/v1/";
+    private static final String BATCH_PATH = "/v1/batch";
+    private static final Set<HttpMethod> METHODS = Set.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE);
+
+    @Autowired
+    private RequestMappingHandlerMapping handlerMapping;
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+    @Autowired
+    @Qualifier("handlerExceptionResolver")
+    private HandlerExceptionResolver exceptionResolver;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ConfigurationStore configurationStore;
+    @Autowired
+    private AuthorizationManager<HttpServletRequest> requestAuthorization;
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-", 0).factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Result<?> execute(BatchDTO batch, HttpServletRequest request, HttpServletResponse response) {
+        if (batch == null || batch.getRequests() == null || batch.getRequests().isEmpty()) {
+            return Result.error(400, "requests is required");
+        }
+        int max = configurationStore.get(Settings.BATCH_MAX_REQUESTS);
+        if (batch.getRequests().size() > max) {
+            return Result.error(400, "At most " + max + " requests per batch");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(configurationStore.get(Settings.BATCH_TIMEOUT_MS));
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        List<String> ids = new ArrayList<>(batch.getRequests().size());
+        List<BatchResponseVO> responses = new ArrayList<>(batch.getRequests().size());
+        List<Future<BatchResponseVO>> futures = new ArrayList<>(batch.getRequests().size());
+        for (int i = 0; i < batch.getRequests().size(); i++) {
+            BatchRequestDTO call = batch.getRequests().get(i);
+            String id = call == null || call.getId() == null ? String.valueOf(i) : call.getId();
+            ids.add(id);
+            BatchSubRequest subRequest;
+            try {
+                subRequest = toSubRequest(call, request, authentication);
+            } catch (IllegalArgumentException e) {
+                responses.add(failed(id, 400, e.getMessage()));
+                futures.add(null);
+                continue;
+            }
+            // everything is copied on this thread: the container's request and response are never touched
+            // from the sub-request threads, which may outlive the batch after a 504
+            BatchSubResponse subResponse = new BatchSubResponse();
+            responses.add(null);
+            futures.add(executor.submit(CircuitBreakerInterceptor.propagate(ReadYourWrites.propagate(
+                    () -> dispatch(id, subRequest, subResponse, authentication)))));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            Future<BatchResponseVO> future = futures.get(i);
+            if (future == null) {
+                continue;
+            }
+            String id = ids.get(i);
+            try {
+                responses.set(i, future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                responses.set(i, failed(id, 504, "Request did not finish within the batch deadline"));
+            } catch (InterruptedException e) {
+                futures.stream().filter(Objects::nonNull).forEach(pending -> pending.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a batch", e);
+            } catch (ExecutionException e) {
+                log.warn("Batched request {} failed", id, e.getCause());
+                responses.set(i, failed(id, 500, String.valueOf(e.getCause().getMessage())));
+            }
+        }
+        return Result.success(responses);
+    }
+
+    private BatchSubRequest toSubRequest(BatchRequestDTO call, HttpServletRequest batch, Authentication authentication) {
+        if (call == null || call.getPath() == null || call.getMethod() == null) {
+            throw new IllegalArgumentException("method and path are required");
+        }
+        HttpMethod method = HttpMethod.valueOf(call.getMethod().trim().toUpperCase());
+        if (!METHODS.contains(method)) {
+            throw new IllegalArgumentException("Unsupported method " + call.getMethod());
+        }
+        UriComponents uri = UriComponentsBuilder.fromUriString(call.getPath()).build();
+        String path = uri.getPath();
+        if (path == null || !path.startsWith(PREFIX) || path.contains("..") || path.startsWith(BATCH_PATH)) {
+            throw new IllegalArgumentException("Path must be an API path under " + PREFIX + " other than " + BATCH_PATH);
+        }
+        byte[] body;
+        try {
+            body = call.getBody() == null || call.getBody().isNull() ? new byte[0] : objectMapper.writeValueAsBytes(call.getBody());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Unreadable body");
+        }
+        return new BatchSubRequest(batch, method.name(), uri, body, authentication);
+    }
+
+    // Runs on a virtual thread; mirrors DispatcherServlet.doDispatch for a single handler call
+    private BatchResponseVO dispatch(String id, BatchSubRequest request, BatchSubResponse response, Authentication authentication) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        HandlerExecutionChain chain = null;
+        List<HandlerInterceptor> entered = new ArrayList<>();
+        ConcurrencyLimitFilter.Permit permit = null;
+        Exception failure = null;
+        try {
+            boolean anonymous = authentication == null || trustResolver.isAnonymous(authentication);
+            AuthorizationResult access = requestAuthorization.authorize(() -> authentication, request);
+            if (access != null && !access.isGranted()) {
+                return anonymous ? failed(id, 401, "Unauthorized") : failed(id, 403, "Forbidden");
+            }
+            permit = concurrencyLimitFilter.tryAcquire(ConcurrencyLimitFilter.Priority.of(request.getMethod(), !anonymous));
+            if (permit == null) {
+                return failed(id, 503, "Server busy, please retry");
+            }
+            ServletRequestPathUtils.parseAndCache(request);
+            chain = handlerMapping.getHandler(request);
+            if (chain == null) {
+                return failed(id, 404, "No endpoint " + request.getMethod() + " " + request.getServletPath());
+            }
+            for (HandlerInterceptor interceptor : chain.getInterceptorList()) {
+                if (!interceptor.preHandle(request, response, chain.getHandler())) {
+                    return toResponse(id, response);
+                }
+                entered.add(interceptor);
+            }
+            handlerAdapter.handle(request, response, chain.getHandler());
+            for (int i = entered.size() - 1; i >= 0; i--) {
+                entered.get(i).postHandle(request, response, chain.getHandler(), null);
+            }
+        } catch (Exception e) {
+            failure = e;
+            response.resetBuffer();
+            if (exceptionResolver.resolveException(request, response, chain == null ? null : chain.getHandler(), e) == null) {
+                log.warn("Batched request {} {} failed", request.getMethod(), request.getServletPath(), e);
+                return failed(id, 500, String.valueOf(e.getMessage()));
+            }
+        } finally {
+            for (int i = entered.size() - 1; i >= 0; i--) {
+                try {
+                    entered.get(i).afterCompletion(request, response, chain.getHandler(), failure);
+                } catch (Exception e) {
+                    log.warn("Interceptor afterCompletion failed for a batched request", e);
+                }
+            }
+            if (permit != null) {
+                permit.close();
+            }
+            RequestContextHolder.resetRequestAttributes();
+            SecurityContextHolder.clearContext();
+        }
+        return toResponse(id, response);
+    }
+
+    private BatchResponseVO toResponse(String id, BatchSubResponse response) {
+        BatchResponseVO vo = new BatchResponseVO();
+        vo.setId(id);
+        vo.setStatus(response.getStatus());
+        byte[] body = response.getBody();
+        if (body.length > 0) {
+            String contentType = response.getContentType();
+            try {
+                vo.setBody(contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON)
+                        ? objectMapper.readTree(body)
+                        : TextNode.valueOf(new String(body, response.getCharacterEncoding())));
+            } catch (Exception e) {
+                vo.setBody(TextNode.valueOf(new String(body, StandardCharsets.UTF_8)));
+            }
+        }
+        return vo;
+    }
+
+    private BatchResponseVO failed(String id, int status, String message) {
+        BatchResponseVO vo = new BatchResponseVO();
+        vo.setId(id);
+        vo.setStatus(status);
+        vo.setBody(objectMapper.valueToTree(Result.error(status, message)));
+        return vo;
+    }
+}
@@ -0,0 +1,297 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.entity.Author;
+import uk.ac.ncl.team5project.entity.Book;
+import uk.ac.ncl.team5project.entity.BookAuthor;
+import uk.ac.ncl.team5project.entity.BookCategory;
+import uk.ac.ncl.team5project.entity.Category;
+import uk.ac.ncl.team5project.mapper.AuthorMapper;
+import uk.ac.ncl.team5project.mapper.BookAuthorMapper;
+import uk.ac.ncl.team5project.mapper.BookCategoryMapper;
+import uk.ac.ncl.team5project.mapper.BookMapper;
+import uk.ac.ncl.team5project.mapper.CategoryMapper;
+import uk.ac.ncl.team5project.model.vo.BookBrowseVO;
+import uk.ac.ncl.team5project.model.vo.FacetValueVO;
+import uk.ac.ncl.team5project.service.BookBrowseService;
+import uk.ac.ncl.team5project.util.FacetIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * @file BookBrowseServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: Faceted catalog browsing by category, author and publishing house.
+ * @interface_description: browse, rebuild, rebuildOnStartup, refreshNewBooks
+ * @calling_sequence: BookController → browse() → FacetIndex.query() → BookMapper.selectByIds()
+ * @arguments_description: List categoryIds, List authorIds, List publishers, int pageNum, int pageSize, Integer bookId
+ * @list_of_subordinate_classes: FacetIndex, BookMapper, BookCategoryMapper, BookAuthorMapper, CategoryMapper, AuthorMapper
+ * @discussion: The index is built on a background thread once the application is ready, by keyset scans
+ * of BOOK, BOOK_CATEGORY and BOOK_AUTHOR; browsing finds no books until the build completes. Publishing
+ * houses are free text, so they are given dense ids by a dictionary that is swapped together with the index. Only the page of books and the names of the facet values shown
+ * are read from the database per request, both by primary key. Nothing in the application writes the
+ * catalog tables, so edits and deletions are picked up by a full rebuild every
+ * team5.browse.rebuild-interval-ms, and new books sooner by polling for new book_id values.
+ * @development_history: Created on 2026-10-19 for faceted catalog browsing.
+ * 2026-10-19 periodic full rebuild in place of the uncalled change hooks
+ * 2026-10-19 startup build moved off the startup thread
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Keeps the bitmap facet index current and serves filtered pages and counts from it.
+ */
+@Service
+public class BookBrowseServiceImpl implements BookBrowseService {
+    private static final Logger log = LoggerFactory.getLogger(BookBrowseServiceImpl.class);
+    private static final String CATEGORY = "category";
+    private static final String AUTHOR = "author";
+    private static final String PUBLISHER = "publisher";
+    private static final int SCAN_BATCH_SIZE = 10_000;
+    private static final int FACET_LIMIT = 20;
+
+    @Autowired
+    private BookMapper bookMapper;
+    @Autowired
+    private BookCategoryMapper bookCategoryMapper;
+    @Autowired
+    private BookAuthorMapper bookAuthorMapper;
+    @Autowired
+    private CategoryMapper categoryMapper;
+    @Autowired
+    private AuthorMapper authorMapper;
+    @Autowired
+    private ConfigurationStore configurationStore;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-browse-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Catalog catalog = new Catalog();
+    private int maxIndexedBookId;
+
+    @Override
+    public BookBrowseVO browse(List<Integer> categoryIds, List<Integer> authorIds, List<String> publishers,
+                               int pageNum, int pageSize) {
+        int size = Math.max(1, Math.min(pageSize, configurationStore.get(Settings.BROWSE_MAX_PAGE_SIZE)));
+        int page = Math.max(1, pageNum);
+        Catalog current = catalog;
+        Map<String, int[]> selected = new HashMap<>();
+        selected.put(CATEGORY, toArray(categoryIds));
+        selected.put(AUTHOR, toArray(authorIds));
+        if (publishers != null) {
+            selected.put(PUBLISHER, publishers.stream().mapToInt(current::publisherId).toArray());
+        }
+        FacetIndex.QueryResult result = current.index.query(selected, (page - 1) * size, size, FACET_LIMIT);
+
+        BookBrowseVO vo = new BookBrowseVO();
+        vo.setTotal(result.total());
+        vo.setPageNum(page);
+        vo.setPageSize(size);
+        vo.setBooks(loadBooks(result.bookIds()));
+        Map<String, List<FacetValueVO>> facets = new LinkedHashMap<>();
+        facets.put(CATEGORY, facetValues(result.facets().get(CATEGORY), ids -> categoryMapper.selectByIds(ids)
+                .stream().collect(Collectors.toMap(Category::getCategoryId, Category::getCategoryName)), true));
+        facets.put(AUTHOR, facetValues(result.facets().get(AUTHOR), ids -> authorMapper.selectByIds(ids)
+                .stream().collect(Collectors.toMap(Author::getAuthorId, Author::getAuthorName)), true));
+        facets.put(PUBLISHER, facetValues(result.facets().get(PUBLISHER), ids -> ids.stream()
+                .collect(Collectors.toMap(Function.identity(), current::publisherName)), false));
+        vo.setFacets(facets);
+        return vo;
+    }
+
+    /**
+     * Builds the facet index in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        executor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Facet index build failed, retrying at the next scheduled rebuild", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${team5.browse.rebuild-interval-ms:600000}",
+            initialDelayString = "${team5.browse.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        Catalog fresh = new Catalog();
+        int afterId = 0;
+        List<Book> books;
+        do {
+            books = bookMapper.selectBookPublishersAfterId(afterId, SCAN_BATCH_SIZE);
+            for (Book book : books) {
+                fresh.index.addBook(book.getBookId());
+                fresh.index.setValues(PUBLISHER, book.getBookId(), publisherValues(fresh, book.getPublishingHouse()));
+                afterId = book.getBookId();
+            }
+        } while (books.size() == SCAN_BATCH_SIZE);
+        loadLinks(fresh.index, CATEGORY, bookCategoryMapper::selectAfter, BookCategory::getBookId, BookCategory::getCategoryId);
+        loadLinks(fresh.index, AUTHOR, bookAuthorMapper::selectAfter, BookAuthor::getBookId, BookAuthor::getAuthorId);
+        fresh.index.optimize();
+        catalog = fresh;
+        maxIndexedBookId = afterId;
+        log.info("Catalog facet index rebuilt: {} books in {} ms ({} bytes)",
+                fresh.index.size(), System.currentTimeMillis() - started, fresh.index.sizeInBytes());
+    }
+
+    /**
+     * Picks up books inserted since the last build or refresh.
+     */
+    @Scheduled(fixedDelayString = "${team5.browse.refresh-interval-ms:30000}",
+            initialDelayString = "${team5.browse.refresh-interval-ms:30000}")
+    public synchronized void refreshNewBooks() {
+        List<Book> books;
+        do {
+            books = bookMapper.selectBookNamesAfterId(maxIndexedBookId, SCAN_BATCH_SIZE);
+            for (Book book : books) {
+                indexBook(book.getBookId());
+                maxIndexedBookId = book.getBookId();
+            }
+        } while (books.size() == SCAN_BATCH_SIZE);
+    }
+
+    // Reads one new book's publisher, categories and authors into the current index; caller holds the monitor
+    private void indexBook(Integer bookId) {
+        Book book = bookMapper.selectById(bookId);
+        if (book == null) {
+            return;
+        }
+        Catalog current = catalog;
+        current.index.addBook(bookId);
+        current.index.setValues(PUBLISHER, bookId, publisherValues(current, book.getPublishingHouse()));
+        current.index.setValues(CATEGORY, bookId, toArray(bookCategoryMapper.selectCategoryIdsByBookId(bookId)));
+        current.index.setValues(AUTHOR, bookId, toArray(bookAuthorMapper.selectAuthorIdsByBookId(bookId)));
+    }
+
+    // Streams a (book_id, value_id) link table in key order and sets each book's values in one call
+    private static <T> void loadLinks(FacetIndex index, String dimension, LinkScan<T> scan,
+                                      ToIntFunction<T> bookId, ToIntFunction<T> valueId) {
+        int afterBookId = 0;
+        int afterValueId = 0;
+        int currentBook = -1;
+        int[] values = new int[8];
+        int count = 0;
+        List<T> batch;
+        do {
+            batch = scan.selectAfter(afterBookId, afterValueId, SCAN_BATCH_SIZE);
+            for (T row : batch) {
+                int book = bookId.applyAsInt(row);
+                if (book != currentBook && count > 0) {
+                    index.setValues(dimension, currentBook, Arrays.copyOf(values, count));
+                    count = 0;
+                }
+                currentBook = book;
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count++] = valueId.applyAsInt(row);
+                afterBookId = book;
+                afterValueId = values[count - 1];
+            }
+        } while (batch.size() == SCAN_BATCH_SIZE);
+        if (count > 0) {
+            index.setValues(dimension, currentBook, Arrays.copyOf(values, count));
+        }
+    }
+
+    private List<Book> loadBooks(int[] bookIds) {
+        if (bookIds.length == 0) {
+            return List.of();
+        }
+        List<Integer> ids = Arrays.stream(bookIds).boxed().toList();
+        Map<Integer, Book> rows = bookMapper.selectByIds(ids).stream()
+                .collect(Collectors.toMap(Book::getBookId, Function.identity()));
+        // Keep index order; a book deleted since the query is skipped
+        return ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+    }
+
+    private static List<FacetValueVO> facetValues(List<FacetIndex.FacetCount> counts,
+                                                  Function<List<Integer>, Map<Integer, String>> names,
+                                                  boolean exposeId) {
+        if (counts == null || counts.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, String> labels = names.apply(counts.stream().map(FacetIndex.FacetCount::value).toList());
+        List<FacetValueVO> values = new ArrayList<>(counts.size());
+        for (FacetIndex.FacetCount count : counts) {
+            FacetValueVO vo = new FacetValueVO();
+            vo.setId(exposeId ? count.value() : null);
+            vo.setName(labels.get(count.value()));
+            vo.setCount(count.count());
+            values.add(vo);
+        }
+        return values;
+    }
+
+    private static int[] publisherValues(Catalog catalog, String publishingHouse) {
+        return publishingHouse == null || publishingHouse.isBlank()
+                ? new int[0] : new int[]{catalog.internPublisher(publishingHouse)};
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        return ids == null ? new int[0] : ids.stream().filter(Objects::nonNull).mapToInt(Integer::intValue).toArray();
+    }
+
+    @FunctionalInterface
+    private interface LinkScan<T> {
+        List<T> selectAfter(Integer afterBookId, Integer afterValueId, Integer limit);
+    }
+
+    /**
+     * The facet index together with the publishing-house dictionary its ids refer to.
+     */
+    private static final class Catalog {
+        private final FacetIndex index = new FacetIndex(CATEGORY, AUTHOR, PUBLISHER);
+        private final Map<String, Integer> publisherIds = new HashMap<>();
+        private final List<String> publisherNames = new ArrayList<>();
+
+        private synchronized int internPublisher(String name) {
+            String key = name.trim();
+            return publisherIds.computeIfAbsent(key, k -> {
+                publisherNames.add(k);
+                return publisherNames.size() - 1;
+            });
+        }
+
+        // -1 (matches nothing) for an unknown publishing house
+        private synchronized int publisherId(String name) {
+            return name == null ? -1 : publisherIds.getOrDefault(name.trim(), -1);
+        }
+
+        private synchronized String publisherName(int id) {
+            return id >= 0 && id < publisherNames.size() ? publisherNames.get(id) : null;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.Book;
+import uk.ac.ncl.team5project.entity.BookDetail;
+import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.mapper.BookDetailMapper;
+import uk.ac.ncl.team5project.mapper.BookMapper;
+import uk.ac.ncl.team5project.mapper.WishlistMapper;
+import uk.ac.ncl.team5project.model.event.DomainEvent;
+import uk.ac.ncl.team5project.model.event.ReviewDeleted;
+import uk.ac.ncl.team5project.model.event.ReviewUpserted;
+import uk.ac.ncl.team5project.model.event.UserRenamed;
+import uk.ac.ncl.team5project.model.event.WishlistItemAdded;
+import uk.ac.ncl.team5project.model.event.WishlistItemRemoved;
+import uk.ac.ncl.team5project.model.vo.BookDetailLagVO;
+import uk.ac.ncl.team5project.model.vo.BookDetailVO;
+import uk.ac.ncl.team5project.model.vo.BookRatingVO;
+import uk.ac.ncl.team5project.service.BookDetailService;
+import uk.ac.ncl.team5project.service.BookRatingService;
+import uk.ac.ncl.team5project.service.BookRecommendationService;
+import uk.ac.ncl.team5project.service.DomainEventService;
+import uk.ac.ncl.team5project.service.ReviewService;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @file BookDetailServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: Maintains one precomputed BOOK_DETAIL document per book and serves it by key.
+ * @interface_description: getDetail, rebuild, lag
+ * @calling_sequence: BookController → BookDetailServiceImpl → BookDetailMapper.selectDocument;
+ * ReviewService / WishlistServiceImpl / UserServiceImpl → DomainEventService → onEvent → worker thread →
+ * refresh → BookMapper, ReviewService, WishlistMapper, BookRatingService, BookRecommendationService → BOOK_DETAIL
+ * @arguments_description: Integer bookId, DomainEvent event
+ * @list_of_subordinate_classes: BookDetailMapper, BookDetailVO, BookDetailLagVO, DomainEventService
+ * @discussion: The write side only appends a domain event naming the book that changed, in the write's own
+ * transaction, so a change is not lost if the instance stops before the document is rebuilt: the
+ * "book-detail" subscriber of every instance queues the book. A rename queues every book the user
+ * reviewed, since the latest reviews on a page show the reviewer's name. A background worker rebuilds the book's
+ * whole document from the source tables and stores it, so it does not matter in which order events
+ * arrive or how many there were: changes to a book that queue up while its document is waiting are
+ * applied by one rebuild. An event that arrives while its book is being rebuilt queues the book again.
+ * Documents are stored in the main database, so every instance serves what any instance built; each
+ * instance also rebuilds every changed book itself, and storing keeps whichever document was read last. The
+ * lag is counted from when the event reached the instance (GET /v1/events/lag shows the delivery delay).
+ * The rating is read past its cache; while a review write's rating delta is still pending nothing is
+ * stored and the book is rebuilt again shortly after (a first read is answered with the cached summary).
+ * A document older than team5.book-detail.max-age-ms
+ * is still served but queued for a rebuild, which picks up what no event reports (related books are
+ * recomputed nightly, books edited directly in the database). A book read before it ever had a document
+ * is built on the spot; an unknown book is answered with null and nothing is written. A failed rebuild is logged and counted; the next event, read of a stale document
+ * or rebuild() retries it. rebuild() queues every book, for after a deploy that changes the document.
+ * @development_history: Created on 2026-10-19 for the book detail read model.
+ * 2026-10-19 Reads of unknown books no longer delete anything.
+ * 2026-10-19 Changes arrive through the domain event outbox instead of in-process events.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Event-driven denormalized read model of book pages.
+ */
+@Service
+public class BookDetailServiceImpl implements BookDetailService {
+    private static final Logger log = LoggerFactory.getLogger(BookDetailServiceImpl.class);
+    private static final int SCAN_BATCH_SIZE = 10_000;
+    // Wait before rebuilding again a document that was built while a review write's rating delta was pending
+    private static final long UNSETTLED_RETRY_MS = 200;
+
+    @Autowired
+    private BookDetailMapper bookDetailMapper;
+    @Autowired
+    private BookMapper bookMapper;
+    @Autowired
+    private WishlistMapper wishlistMapper;
+    @Autowired
+    private ReviewService reviewService;
+    @Autowired
+    private BookRatingService bookRatingService;
+    @Autowired
+    private BookRecommendationService bookRecommendationService;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private ConfigurationStore configurationStore;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private DomainEventService domainEventService;
+
+    // Books waiting for a rebuild, with the time of the oldest change their document lacks
+    private final ConcurrentHashMap<Integer, Long> pending = new ConcurrentHashMap<>();
+    private final BlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong rebuilt = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long lastLagMs;
+    private Thread worker;
+
+    @PostConstruct
+    public void init() {
+        worker = Thread.ofVirtual().name("book-detail").start(this::drain);
+        domainEventService.subscribe("book-detail", this::onEvent);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.interrupt();
+    }
+
+    @Override
+    public BookDetailVO getDetail(Integer bookId) {
+        BookDetail stored = bookDetailMapper.selectDocument(bookId);
+        if (stored == null) {
+            // an unknown book is answered without writing anything
+            Book book = bookMapper.selectById(bookId);
+            return book == null ? null : store(book);
+        }
+        long now = System.currentTimeMillis();
+        if (now - stored.getSourceTime() > configurationStore.get(Settings.BOOK_DETAIL_MAX_AGE_MS)) {
+            markStale(bookId, now);
+        }
+        try {
+            return objectMapper.readValue(stored.getDocument(), BookDetailVO.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable detail document of book {}, rebuilding it", bookId, e);
+            return refresh(bookId);
+        }
+    }
+
+    // Queues the books whose page the event changed
+    private void onEvent(DomainEvent event) {
+        long now = System.currentTimeMillis();
+        if (event instanceof ReviewUpserted upserted) {
+            markStale(upserted.bookId(), now);
+        } else if (event instanceof ReviewDeleted deleted) {
+            markStale(deleted.bookId(), now);
+        } else if (event instanceof WishlistItemAdded added) {
+            markStale(added.bookId(), now);
+        } else if (event instanceof WishlistItemRemoved removed) {
+            markStale(removed.bookId(), now);
+        } else if (event instanceof UserRenamed renamed) {
+            for (Review review : reviewService.selectReviewByUserId(renamed.userId(), Review.FIELDS.parse("bookId"))) {
+                markStale(review.getBookId(), now);
+            }
+        }
+    }
+
+    @Override
+    public int rebuild() {
+        long now = System.currentTimeMillis();
+        int queued = 0;
+        int afterId = 0;
+        List<Book> batch;
+        do {
+            batch = bookMapper.selectBookNamesAfterId(afterId, SCAN_BATCH_SIZE);
+            for (Book book : batch) {
+                markStale(book.getBookId(), now);
+                afterId = book.getBookId();
+                queued++;
+            }
+        } while (batch.size() == SCAN_BATCH_SIZE);
+        log.info("Queued {} book detail documents for rebuilding", queued);
+        return queued;
+    }
+
+    @Override
+    public BookDetailLagVO lag() {
+        long now = System.currentTimeMillis();
+        BookDetailLagVO lag = new BookDetailLagVO();
+        lag.setPending(pending.size());
+        lag.setOldestPendingMs(pending.values().stream().mapToLong(since -> now - since).max().orElse(0));
+        lag.setLastLagMs(lastLagMs);
+        lag.setRebuilt(rebuilt.get());
+        lag.setFailed(failed.get());
+        return lag;
+    }
+
+    private void markStale(Integer bookId, long since) {
+        if (bookId != null && pending.putIfAbsent(bookId, since) == null) {
+            queue.add(bookId);
+        }
+    }
+
+    private void retryLater(Integer bookId, long since) {
+        Thread.ofVirtual().name("book-detail-retry").start(() -> {
+            try {
+                Thread.sleep(UNSETTLED_RETRY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            markStale(bookId, since);
+        });
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Integer bookId;
+            try {
+                bookId = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            // removed before reading, so a change committed from now on queues the book again
+            Long since = pending.remove(bookId);
+            if (since == null) {
+                continue;
+            }
+            try {
+                refresh(bookId);
+                lastLagMs = System.currentTimeMillis() - since;
+                rebuilt.incrementAndGet();
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                log.warn("Could not rebuild the detail document of book {}", bookId, e);
+            }
+        }
+    }
+
+    // Rebuilds the book's document, or drops it if the book is gone
+    private BookDetailVO refresh(Integer bookId) {
+        Book book = bookMapper.selectById(bookId);
+        if (book == null) {
+            bookDetailMapper.deleteById(bookId);
+            return null;
+        }
+        return store(book);
+    }
+
+    // Reads everything on the book's page and stores it as the book's document
+    private BookDetailVO store(Book book) {
+        Integer bookId = book.getBookId();
+        long sourceTime = System.currentTimeMillis();
+        BookDetailVO detail = new BookDetailVO();
+        detail.setBookId(bookId);
+        detail.setName(book.getName());
+        detail.setPublishingHouse(book.getPublishingHouse());
+        detail.setDescription(book.getDescription());
+        detail.setBookCover(book.getBookCover());
+        detail.setReviewCount(reviewService.countReviewByBookId(bookId));
+        detail.setLatestReviews(reviewService.selectLatestReviewByBookId(bookId,
+                configurationStore.get(Settings.BOOK_DETAIL_LATEST_REVIEWS)));
+        detail.setWishlistCount(shardRouter.scatter(() -> wishlistMapper.countByBookId(bookId))
+                .stream().mapToLong(Long::longValue).sum());
+        // a review event arrives once the review commits, which is before its rating delta is applied
+        BookRatingVO rating = bookRatingService.getSettledRating(bookId);
+        detail.setRating(rating != null ? rating : bookRatingService.getRating(bookId));
+        detail.setRelated(bookRecommendationService.related(bookId, configurationStore.get(Settings.BOOK_DETAIL_RELATED_BOOKS)));
+        detail.setAsOf(sourceTime);
+        if (rating == null) {
+            // not stored, or the page would show the review without its rating
+            retryLater(bookId, sourceTime);
+            return detail;
+        }
+
+        BookDetail row = new BookDetail().setBookId(bookId).setSourceTime(sourceTime);
+        try {
+            row.setDocument(objectMapper.writeValueAsString(detail));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the detail document of book " + bookId, e);
+        }
+        if (bookDetailMapper.updateIfNewer(row) == 0) {
+            try {
+                bookDetailMapper.insert(row);
+            } catch (DuplicateKeyException e) {
+                // a document built from newer data is already stored
+            }
+        }
+        return detail;
+    }
+}
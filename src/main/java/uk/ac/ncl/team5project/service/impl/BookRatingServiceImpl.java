@@ -0,0 +1,323 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.BookRating;
+import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.mapper.BookRatingMapper;
+import uk.ac.ncl.team5project.mapper.ReviewMapper;
+import uk.ac.ncl.team5project.model.vo.BookRatingVO;
+import uk.ac.ncl.team5project.service.BookRatingService;
+import uk.ac.ncl.team5project.service.NearCacheService;
+import uk.ac.ncl.team5project.util.NearCache;
+import uk.ac.ncl.team5project.util.SingleFlight;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * @file BookRatingServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: Maintains and serves the per-book rating aggregates in BOOK_RATING.
+ * @interface_description: getRating, getRatings, getSettledRating, announceChange, withdrawChange, applyChange,
+ * recount, reconcile
+ * @calling_sequence: BookController → BookRatingServiceImpl → NearCache → BookRatingMapper (on a miss);
+ * ReviewService → announceChange, then applyChange → BookRatingMapper.addDelta; scheduler → reconcile → recount
+ * @arguments_description: Integer bookId, List bookIds, Integer before / after (1-5 or null)
+ * @list_of_subordinate_classes: BookRatingMapper, ReviewMapper, ShardRouter, NearCache,
+ * NearCacheService, SingleFlight
+ * @discussion: A review write changes at most one rating of one book, so it is applied as a delta with a single
+ * UPDATE that adds to the counts in place; concurrent writes to the same book never overwrite each other. A
+ * rating changed from 2 to 5 is -1 on stars2, +1 on stars5 and +3 on the sum, the count unchanged. The
+ * book's row is inserted by its first rating. Summaries are kept in memory for team5.ratings.cache-ttl-ms;
+ * a write drops the book's entry on every instance (the "book-ratings" near cache) once its delta or recount
+ * is stored. Books
+ * without a row are cached too, as empty summaries. Concurrent misses on the same books share one read, and
+ * hot summaries are refreshed shortly before they expire. BOOK_RATING lives on the main database while reviews
+ * live on the shards, so the delta is applied after the review's shard transaction commits; if that fails
+ * the book is recounted from its reviews (an indexed read of that one book on every shard), and if the
+ * recount fails as well the error is logged. Deltas lost that way, or by an instance that died between
+ * the commit and the delta, are corrected by reconcile, which recounts team5.ratings.reconcile-batch-size
+ * books every team5.ratings.reconcile-interval-ms, in book order, wrapping around.
+ * A recount must not overwrite a delta it did not see, nor count a review whose delta lands after it.
+ * Every writer therefore announces itself on the book's row before its shard transaction (pending + 1,
+ * version + 1) and clears the announcement with its delta. A recount reads the row first, gives up while
+ * a write is pending, and stores its counts only if the version is still the one it read; a write that
+ * died leaves an announcement that stops counting after team5.ratings.pending-lease-ms. Each shard is read
+ * in one statement covering REVIEWS and REVIEWS_ARCHIVE, and only the rows of users placed on that shard
+ * are counted, so neither archiving nor a resharding move counts a review twice. getSettledRating reads the
+ * row past the cache and answers null while a write is pending, for readers that follow review events and
+ * must not store a summary that still lacks the event's delta.
+ * @development_history: Created on 2026-10-19 for review ratings.
+ * 2026-10-19 Periodic reconciliation; recounts checked against concurrent writes.
+ * 2026-10-19 getSettledRating for the book detail documents.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Incrementally maintained rating summaries with an in-memory mirror.
+ */
+@Service
+public class BookRatingServiceImpl implements BookRatingService {
+    private static final Logger log = LoggerFactory.getLogger(BookRatingServiceImpl.class);
+    // Recounts retried when a write changes the book between reading and storing the counts
+    private static final int RECOUNT_ATTEMPTS = 3;
+
+    @Autowired
+    private BookRatingMapper bookRatingMapper;
+    @Autowired
+    private ReviewMapper reviewMapper;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private ConfigurationStore configurationStore;
+    @Autowired
+    private NearCacheService nearCacheService;
+
+    private NearCache<Integer, BookRating> ratings;
+    // Reads of the same missing books in flight; the result is shared, not modified
+    private final SingleFlight<List<Integer>, Map<Integer, BookRating>> loads = new SingleFlight<>();
+    // Last book recounted by reconcile; 0 starts again from the first book
+    private volatile int reconcileCursor;
+
+    @PostConstruct
+    public void init() {
+        ratings = nearCacheService.create("book-ratings",
+                () -> configurationStore.get(Settings.RATING_CACHE_SIZE),
+                () -> configurationStore.get(Settings.RATING_CACHE_TTL_MS), Integer::valueOf);
+        configurationStore.subscribe(Settings.RATING_CACHE_SIZE, size -> ratings.trimToCapacity());
+    }
+
+    @Override
+    public BookRatingVO getRating(Integer bookId) {
+        return getRatings(List.of(bookId)).get(0);
+    }
+
+    @Override
+    public List<BookRatingVO> getRatings(List<Integer> bookIds) {
+        Map<Integer, BookRating> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer bookId : bookIds) {
+            BookRating cached = ratings.get(bookId);
+            if (cached != null) {
+                found.put(bookId, cached);
+            } else if (!missing.contains(bookId)) {
+                missing.add(bookId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Integer, Long> stamps = new HashMap<>();
+            for (Integer bookId : missing) {
+                stamps.put(bookId, ratings.stamp(bookId));
+            }
+            long started = System.currentTimeMillis();
+            Map<Integer, BookRating> loaded = loads.run(List.copyOf(missing), () -> {
+                Map<Integer, BookRating> rows = new HashMap<>();
+                for (BookRating row : bookRatingMapper.selectByBookIds(missing)) {
+                    rows.put(row.getBookId(), row);
+                }
+                return rows;
+            });
+            long computeMillis = System.currentTimeMillis() - started;
+            for (Integer bookId : missing) {
+                BookRating row = loaded.getOrDefault(bookId, empty(bookId));
+                ratings.putIfUnchanged(bookId, stamps.get(bookId), row, computeMillis);
+                found.put(bookId, row);
+            }
+        }
+        return bookIds.stream().map(bookId -> toVO(found.get(bookId))).toList();
+    }
+
+    @Override
+    public void announceChange(Integer bookId) {
+        long now = System.currentTimeMillis();
+        if (bookRatingMapper.announce(bookId, now) == 0) {
+            try {
+                bookRatingMapper.insert(empty(bookId).setPending(1).setPendingTime(now));
+            } catch (DuplicateKeyException e) {
+                // another review of the book inserted the row first
+                bookRatingMapper.announce(bookId, now);
+            }
+        }
+    }
+
+    @Override
+    public void withdrawChange(Integer bookId) {
+        try {
+            bookRatingMapper.withdraw(bookId);
+        } catch (DataAccessException e) {
+            log.warn("Could not withdraw a rating change of book {}; it expires after the pending lease", bookId, e);
+        }
+    }
+
+    @Override
+    public void applyChange(Integer bookId, Integer before, Integer after) {
+        // applied even when the rating is unchanged, since it clears the write's announcement
+        BookRating delta = empty(bookId);
+        if (!Objects.equals(before, after)) {
+            if (before != null) {
+                add(delta, before, -1);
+            }
+            if (after != null) {
+                add(delta, after, 1);
+            }
+        }
+        try {
+            if (bookRatingMapper.addDelta(delta) == 0) {
+                try {
+                    bookRatingMapper.insert(delta);
+                } catch (DuplicateKeyException e) {
+                    // another review of the book inserted the row first
+                    bookRatingMapper.addDelta(delta);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not apply a rating change to book {}, recounting it", bookId, e);
+            try {
+                bookRatingMapper.withdraw(bookId);
+                recount(bookId);
+            } catch (RuntimeException recountFailure) {
+                log.error("BOOK_RATING of book {} is out of date until it is reconciled", bookId, recountFailure);
+            }
+        } finally {
+            ratings.evict(bookId);
+        }
+    }
+
+    @Override
+    public BookRatingVO getSettledRating(Integer bookId) {
+        BookRating row = bookRatingMapper.selectForRecount(bookId);
+        if (row == null) {
+            return toVO(empty(bookId));
+        }
+        return writing(row, staleBefore()) ? null : toVO(row);
+    }
+
+    @Override
+    public BookRatingVO recount(Integer bookId) {
+        for (int attempt = 1; ; attempt++) {
+            BookRating current = bookRatingMapper.selectForRecount(bookId);
+            long staleBefore = staleBefore();
+            if (current != null && writing(current, staleBefore)) {
+                throw new IllegalStateException("Book " + bookId + " has review writes in progress, recount it later");
+            }
+            BookRating counted = count(bookId);
+            if (current == null) {
+                try {
+                    bookRatingMapper.insert(counted);
+                    ratings.evict(bookId);
+                    return toVO(counted);
+                } catch (DuplicateKeyException e) {
+                    // a write announced itself in the meantime
+                }
+            } else if (current.getPending() == 0 && sameCounts(current, counted)) {
+                return toVO(counted);
+            } else if (bookRatingMapper.replace(counted, current.getVersion(), staleBefore) > 0) {
+                ratings.evict(bookId);
+                return toVO(counted);
+            }
+            if (attempt == RECOUNT_ATTEMPTS) {
+                throw new IllegalStateException("Book " + bookId + " kept changing during its recount, recount it later");
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${team5.ratings.reconcile-interval-ms:60000}",
+            initialDelayString = "${team5.ratings.reconcile-interval-ms:60000}")
+    public void reconcileOnSchedule() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Rating reconciliation failed, retrying on the next run", e);
+        }
+    }
+
+    @Override
+    public int reconcile() {
+        int batchSize = configurationStore.get(Settings.RATING_RECONCILE_BATCH_SIZE);
+        List<Integer> bookIds = bookRatingMapper.selectBookIdsAfter(reconcileCursor, batchSize);
+        reconcileCursor = bookIds.size() < batchSize ? 0 : bookIds.get(bookIds.size() - 1);
+        int skipped = 0;
+        for (Integer bookId : bookIds) {
+            try {
+                recount(bookId);
+            } catch (IllegalStateException e) {
+                // written to right now, so it is looked at again on the next pass
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    // Only the rows of users placed on the shard read count; a user being moved has rows on two shards
+    private BookRating count(Integer bookId) {
+        BookRating counted = empty(bookId);
+        List<List<Review>> perShard = shardRouter.scatter(() -> reviewMapper.selectRatingsByBookId(bookId));
+        for (int shard = 0; shard < perShard.size(); shard++) {
+            for (Review review : perShard.get(shard)) {
+                if (shardRouter.shardOf(review.getUserId()) == shard) {
+                    add(counted, review.getRating(), 1);
+                }
+            }
+        }
+        return counted;
+    }
+
+    private static boolean sameCounts(BookRating a, BookRating b) {
+        return a.getRatingCount().equals(b.getRatingCount()) && a.getRatingSum().equals(b.getRatingSum())
+                && a.getStars1().equals(b.getStars1()) && a.getStars2().equals(b.getStars2())
+                && a.getStars3().equals(b.getStars3()) && a.getStars4().equals(b.getStars4())
+                && a.getStars5().equals(b.getStars5());
+    }
+
+    // Announcements made before this time belong to writes that died
+    private long staleBefore() {
+        return System.currentTimeMillis() - configurationStore.get(Settings.RATING_PENDING_LEASE_MS);
+    }
+
+    // Whether a write announced on the row has yet to apply its delta
+    private static boolean writing(BookRating row, long staleBefore) {
+        return row.getPending() > 0 && row.getPendingTime() != null && row.getPendingTime() >= staleBefore;
+    }
+
+    private static BookRating empty(Integer bookId) {
+        return new BookRating().setBookId(bookId).setRatingCount(0).setRatingSum(0L)
+                .setStars1(0).setStars2(0).setStars3(0).setStars4(0).setStars5(0);
+    }
+
+    private static void add(BookRating counts, int stars, int sign) {
+        counts.setRatingCount(counts.getRatingCount() + sign);
+        counts.setRatingSum(counts.getRatingSum() + (long) sign * stars);
+        switch (stars) {
+            case 1 -> counts.setStars1(counts.getStars1() + sign);
+            case 2 -> counts.setStars2(counts.getStars2() + sign);
+            case 3 -> counts.setStars3(counts.getStars3() + sign);
+            case 4 -> counts.setStars4(counts.getStars4() + sign);
+            case 5 -> counts.setStars5(counts.getStars5() + sign);
+            default -> throw new IllegalArgumentException("Rating must be between 1 and 5, was " + stars);
+        }
+    }
+
+    private static BookRatingVO toVO(BookRating row) {
+        BookRatingVO vo = new BookRatingVO();
+        vo.setBookId(row.getBookId());
+        vo.setCount(row.getRatingCount());
+        vo.setAverage(row.getRatingCount() > 0
+                ? Math.round(row.getRatingSum() * 100.0 / row.getRatingCount()) / 100.0
+                : null);
+        vo.setHistogram(List.of(row.getStars1(), row.getStars2(), row.getStars3(), row.getStars4(), row.getStars5()));
+        return vo;
+    }
+}
@@ -0,0 +1,224 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.Wishlist;
+import uk.ac.ncl.team5project.mapper.WishlistMapper;
+import uk.ac.ncl.team5project.model.event.WishlistItemAdded;
+import uk.ac.ncl.team5project.model.event.WishlistItemRemoved;
+import uk.ac.ncl.team5project.model.vo.RelatedBookVO;
+import uk.ac.ncl.team5project.service.BookRecommendationService;
+import uk.ac.ncl.team5project.service.DomainEventService;
+import uk.ac.ncl.team5project.util.CooccurrenceMatrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * @file BookRecommendationServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: "Readers also wishlisted" recommendations from wishlist co-occurrence.
+ * @interface_description: related, rebuild, rebuildOnStartup
+ * @calling_sequence: BookController → related(); DomainEventService → WishlistItemAdded/WishlistItemRemoved handler
+ * @arguments_description: Integer bookId, int limit, Integer userId
+ * @list_of_subordinate_classes: CooccurrenceMatrix, WishlistMapper, DomainEventService
+ * @discussion: The matrix is built on a background thread once the application is ready, so startup does
+ * not wait for it; related books are empty until the build completes. It is rebuilt nightly. A build reads
+ * WISHLIST in user-ordered batches so only one batch of baskets is held at a time; pair counting for each batch runs
+ * on the common ForkJoinPool. Between rebuilds every WishlistItemAdded or WishlistItemRemoved event, from
+ * any instance, updates the counts with one indexed query by user_id: an add pairs the book with the rows
+ * the user added before it, so a burst of adds delivered late counts each pair once, and a removal unpairs
+ * it from the rows still present. An event delivered twice is counted twice until the next rebuild. A change made while a rebuild runs is applied to
+ * the current matrix and, if the rebuild has already read that user's basket, replayed onto the new one
+ * before it is swapped in; baskets read later already contain it. A change committed while the batch
+ * holding its user is being read may still be missed or counted twice until the next rebuild.
+ * @development_history: Created on 2026-10-19 for item-to-item recommendations.
+ * 2026-10-19 wishlist changes kept across rebuilds
+ * 2026-10-19 startup build moved off the startup thread
+ * 2026-10-19 wishlist changes received as domain events instead of calls
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Maintains the in-memory co-occurrence matrix and serves related books from it.
+ */
+@Service
+public class BookRecommendationServiceImpl implements BookRecommendationService {
+    private static final Logger log = LoggerFactory.getLogger(BookRecommendationServiceImpl.class);
+    private static final int SCAN_BATCH_SIZE = 50_000;
+    private static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private WishlistMapper wishlistMapper;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private DomainEventService domainEventService;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-related-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+
+    private final Object progressLock = new Object();
+    // Changes to baskets the running rebuild has already read, replayed onto the new matrix; guarded by progressLock
+    private List<Consumer<CooccurrenceMatrix>> pendingDuringRebuild;
+    // How far the running rebuild has read: every shard before scanShard, and users up to scannedUserId on it
+    private int scanShard;
+    private int scannedUserId;
+
+    @Override
+    public List<RelatedBookVO> related(Integer bookId, int limit) {
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return matrix.related(bookId, k).stream().map(related -> {
+            RelatedBookVO vo = new RelatedBookVO();
+            vo.setBookId(related.item());
+            vo.setCoCount(related.count());
+            vo.setScore(related.score());
+            return vo;
+        }).toList();
+    }
+
+    @PostConstruct
+    public void init() {
+        domainEventService.subscribe("book-related", event -> {
+            if (event instanceof WishlistItemAdded added) {
+                int[] others = othersInWishlist(added.userId(), added.bookId(),
+                        () -> wishlistMapper.selectBookIdsByUserIdBefore(added.userId(), added.wishlistId()));
+                apply(added.userId(), target -> target.itemAdded(added.bookId(), others));
+            } else if (event instanceof WishlistItemRemoved removed) {
+                int[] others = othersInWishlist(removed.userId(), removed.bookId(),
+                        () -> wishlistMapper.selectBookIdsByUserId(removed.userId()));
+                apply(removed.userId(), target -> target.itemRemoved(removed.bookId(), others));
+            }
+        });
+    }
+
+    /**
+     * Builds the matrix in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        executor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Co-occurrence matrix build failed, retrying at the next scheduled rebuild", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    @Scheduled(cron = "${team5.related.rebuild-cron:0 30 3 * * *}")
+    public synchronized void rebuild() {
+        synchronized (progressLock) {
+            pendingDuringRebuild = new ArrayList<>();
+            scanShard = 0;
+            scannedUserId = 0;
+        }
+        try {
+            CooccurrenceMatrix fresh = load();
+            synchronized (progressLock) {
+                pendingDuringRebuild.forEach(change -> change.accept(fresh));
+                matrix = fresh;
+            }
+        } finally {
+            synchronized (progressLock) {
+                pendingDuringRebuild = null;
+            }
+        }
+    }
+
+    // Reads every basket into a new matrix, publishing progress for apply(); caller holds the monitor
+    private CooccurrenceMatrix load() {
+        long started = System.currentTimeMillis();
+        CooccurrenceMatrix fresh = new CooccurrenceMatrix();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        long rows = 0;
+        // A user's whole basket is on one shard, so each shard is scanned on its own
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            int afterUserId = 0;
+            List<Wishlist> batch;
+            do {
+                int after = afterUserId;
+                batch = shardRouter.onShard(shard, () -> wishlistMapper.selectBasketRowsAfterUser(after, SCAN_BATCH_SIZE));
+                rows += batch.size();
+                boolean full = batch.size() == SCAN_BATCH_SIZE;
+                List<int[]> baskets = new ArrayList<>();
+                int start = 0;
+                for (int i = 1; i <= batch.size(); i++) {
+                    if (i == batch.size() || !Objects.equals(batch.get(i).getUserId(), batch.get(start).getUserId())) {
+                        // The last user of a full batch may continue in the next one; read it again from there
+                        if (i == batch.size() && full && start > 0) {
+                            break;
+                        }
+                        baskets.add(bookIds(batch, start, i));
+                        afterUserId = batch.get(start).getUserId();
+                        start = i;
+                    }
+                }
+                synchronized (progressLock) {
+                    scanShard = shard;
+                    scannedUserId = afterUserId;
+                }
+                fresh.addBaskets(baskets, pool);
+            } while (batch.size() == SCAN_BATCH_SIZE);
+            synchronized (progressLock) {
+                scanShard = shard + 1;
+                scannedUserId = 0;
+            }
+        }
+        log.info("Wishlist co-occurrence rebuilt from {} rows in {} ms ({} bytes)",
+                rows, System.currentTimeMillis() - started, fresh.sizeInBytes());
+        return fresh;
+    }
+
+    private void apply(Integer userId, Consumer<CooccurrenceMatrix> change) {
+        synchronized (progressLock) {
+            change.accept(matrix);
+            if (pendingDuringRebuild != null && alreadyScanned(userId)) {
+                pendingDuringRebuild.add(change);
+            }
+        }
+    }
+
+    // Whether the running rebuild has read the user's basket; caller holds progressLock
+    private boolean alreadyScanned(Integer userId) {
+        int shard = shardRouter.shardOf(userId);
+        return shard < scanShard || (shard == scanShard && userId <= scannedUserId);
+    }
+
+    private int[] othersInWishlist(Integer userId, Integer bookId, Supplier<List<Integer>> query) {
+        return shardRouter.onUser(userId, query).stream()
+                .filter(id -> !id.equals(bookId))
+                .mapToInt(Integer::intValue)
+                .distinct()
+                .toArray();
+    }
+
+    private static int[] bookIds(List<Wishlist> rows, int from, int to) {
+        return rows.subList(from, to).stream().mapToInt(Wishlist::getBookId).distinct().toArray();
+    }
+}
@@ -0,0 +1,306 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.mapper.ReviewMapper;
+import uk.ac.ncl.team5project.model.vo.SimilarBookVO;
+import uk.ac.ncl.team5project.service.BookSimilarityService;
+import uk.ac.ncl.team5project.util.HnswIndex;
+import uk.ac.ncl.team5project.util.TextAnalyzer;
+import uk.ac.ncl.team5project.util.VectorMath;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @file BookSimilarityServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: Content-based "similar books" from the text of each book's reviews.
+ * @interface_description: similar, rebuildAsync
+ * @calling_sequence: BookController → similar() → HnswIndex.searchById()
+ * @arguments_description: Integer bookId, int limit
+ * @list_of_subordinate_classes: HnswIndex, VectorMath, TextAnalyzer, ReviewMapper
+ * @discussion: Each book's reviews are concatenated into one document and turned into a TF-IDF vector
+ * over the whole vocabulary, which is reduced to DIMENSION floats by a sparse random projection: every
+ * term adds its weight, with a pseudo-random sign, to PROJECTIONS coordinates derived from its hash. The
+ * projection needs no stored matrix or vocabulary, and keeps cosine similarity to within roughly
+ * 1/sqrt(DIMENSION) (about 0.04 at 512) of the full TF-IDF value, against 0.125 for the 64-dimension
+ * single-coordinate hashing it replaces, whose collisions between frequent terms swamped the neighbour
+ * ranking. Spreading each term over several coordinates keeps one heavy term from dominating a single
+ * coordinate. Thousands of dimensions would gain little accuracy on top of that for 4 bytes per book and
+ * dimension, in memory, in the snapshot and in every distance the graph computes. Building reads REVIEWS twice in (book_id,
+ * review_id) order: once for document frequencies, once for the vectors. The build runs on a single
+ * background thread and the finished index is swapped in and written to a snapshot file, which is
+ * loaded on the next start instead of rebuilding, unless it was written with another dimension. The
+ * snapshot is read on that thread too, so a large one does not hold up startup.
+ * @development_history: Created on 2026-10-19 for similar-books search.
+ * 2026-10-19 sparse random projection to 512 dimensions
+ * 2026-10-19 startup snapshot load moved off the startup thread
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Builds, persists and queries the review-text nearest-neighbour index.
+ */
+@Service
+public class BookSimilarityServiceImpl implements BookSimilarityService {
+    private static final Logger log = LoggerFactory.getLogger(BookSimilarityServiceImpl.class);
+    private static final int DIMENSION = 512;
+    // Coordinates each term is projected onto
+    private static final int PROJECTIONS = 4;
+    private static final int M = 16;
+    private static final int EF_CONSTRUCTION = 100;
+    private static final int EF_SEARCH = 100;
+    private static final int SCAN_BATCH_SIZE = 5000;
+    private static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private ReviewMapper reviewMapper;
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${team5.similar.snapshot-path:data/similar-books.hnsw}")
+    private String snapshotPath;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-similarity-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile HnswIndex index = new HnswIndex(DIMENSION, M, EF_CONSTRUCTION);
+
+    @Override
+    public List<SimilarBookVO> similar(Integer bookId, int limit) {
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        HnswIndex current = index;
+        return current.searchById(bookId, k, Math.max(EF_SEARCH, k)).stream().map(neighbor -> {
+            SimilarBookVO vo = new SimilarBookVO();
+            vo.setBookId(current.idOf(neighbor.node()));
+            vo.setSimilarity(1.0 - neighbor.distance());
+            return vo;
+        }).toList();
+    }
+
+    /**
+     * Loads the last snapshot if there is one, otherwise builds the index, in the background either way.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (rebuilding.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    if (!loadSnapshot()) {
+                        rebuild();
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Similar-books index build failed, retrying at the next scheduled rebuild", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${team5.similar.rebuild-cron:0 0 4 * * *}")
+    public void rebuildAsync() {
+        if (rebuilding.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Similar-books index rebuild failed, keeping the previous index", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Swaps in the snapshot written by the last build; false if there is none usable
+    private boolean loadSnapshot() {
+        Path path = Path.of(snapshotPath);
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            HnswIndex loaded = HnswIndex.readFrom(path);
+            if (loaded.dimension() != DIMENSION) {
+                log.info("Similar-books snapshot {} has {} dimensions instead of {}, rebuilding",
+                        path, loaded.dimension(), DIMENSION);
+                return false;
+            }
+            index = loaded;
+            log.info("Similar-books index loaded from {}: {} books in {} ms",
+                    path, index.size(), System.currentTimeMillis() - started);
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not read similar-books snapshot {}, rebuilding", path, e);
+            return false;
+        }
+    }
+
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        Map<String, int[]> documentFrequency = new HashMap<>();
+        int[] books = {0};
+        forEachBook((bookId, terms) -> {
+            books[0]++;
+            for (String term : new HashSet<>(terms)) {
+                documentFrequency.computeIfAbsent(term, t -> new int[1])[0]++;
+            }
+        });
+        HnswIndex fresh = new HnswIndex(DIMENSION, M, EF_CONSTRUCTION);
+        forEachBook((bookId, terms) -> {
+            float[] vector = vectorize(terms, documentFrequency, books[0]);
+            if (vector != null) {
+                fresh.add(bookId, vector);
+            }
+        });
+        index = fresh;
+        log.info("Similar-books index rebuilt: {} books in {} ms", fresh.size(), System.currentTimeMillis() - started);
+        if (fresh.size() > 0) {
+            try {
+                fresh.writeTo(Path.of(snapshotPath));
+            } catch (IOException e) {
+                log.warn("Could not write similar-books snapshot {}", snapshotPath, e);
+            }
+        }
+    }
+
+    // Projected, L2-normalised TF-IDF vector with sublinear term frequency; null if the book has no usable terms
+    private static float[] vectorize(List<String> terms, Map<String, int[]> documentFrequency, int books) {
+        Map<String, Integer> tf = new HashMap<>();
+        for (String term : terms) {
+            tf.merge(term, 1, Integer::sum);
+        }
+        float[] vector = new float[DIMENSION];
+        tf.forEach((term, count) -> {
+            int[] df = documentFrequency.get(term);
+            float idf = (float) (1 + Math.log((books + 1.0) / ((df == null ? 0 : df[0]) + 1.0)));
+            float weight = (float) (1 + Math.log(count)) * idf;
+            long hash = term.hashCode();
+            for (int p = 0; p < PROJECTIONS; p++) {
+                hash = mix(hash + 0x9E3779B97F4A7C15L);
+                vector[(int) (hash >>> 32) & (DIMENSION - 1)] += (hash & 1) == 0 ? weight : -weight;
+            }
+        });
+        return VectorMath.normalize(vector) ? vector : null;
+    }
+
+    // SplitMix64 finaliser: spreads the term hash over all 64 bits for coordinate and sign
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Streams REVIEWS in (book_id, review_id) order and calls the consumer once per book with its review terms.
+    // A book's reviews are spread over the shards, so the shards' ordered scans are merged.
+    private void forEachBook(BookTermsConsumer consumer) {
+        PriorityQueue<ShardCursor> cursors = new PriorityQueue<>(
+                Comparator.comparing((ShardCursor cursor) -> cursor.head().getBookId())
+                        .thenComparing(cursor -> cursor.head().getReviewId()));
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            ShardCursor cursor = new ShardCursor(shard);
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        Integer currentBook = null;
+        List<String> terms = new ArrayList<>();
+        while (!cursors.isEmpty()) {
+            ShardCursor cursor = cursors.poll();
+            Review review = cursor.head();
+            if (currentBook != null && !currentBook.equals(review.getBookId())) {
+                consumer.accept(currentBook, terms);
+                terms = new ArrayList<>();
+            }
+            currentBook = review.getBookId();
+            terms.addAll(TextAnalyzer.tokenize(review.getReviewContent()));
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        if (currentBook != null) {
+            consumer.accept(currentBook, terms);
+        }
+    }
+
+    /**
+     * Keyset-paged scan of one shard's reviews in (book_id, review_id) order.
+     */
+    private final class ShardCursor {
+        private final int shard;
+        private List<Review> batch = List.of();
+        private int position;
+        private int afterBookId;
+        private int afterReviewId;
+        private boolean exhausted;
+
+        private ShardCursor(int shard) {
+            this.shard = shard;
+        }
+
+        private Review head() {
+            return batch.get(position);
+        }
+
+        // Moves to the next row, reading the next batch when needed; false at the end of the shard
+        private boolean advance() {
+            if (position + 1 < batch.size()) {
+                position++;
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            int bookId = afterBookId;
+            int reviewId = afterReviewId;
+            batch = shardRouter.onShard(shard,
+                    () -> reviewMapper.selectReviewContentAfterBook(bookId, reviewId, SCAN_BATCH_SIZE));
+            exhausted = batch.size() < SCAN_BATCH_SIZE;
+            position = 0;
+            if (batch.isEmpty()) {
+                return false;
+            }
+            Review last = batch.get(batch.size() - 1);
+            afterBookId = last.getBookId();
+            afterReviewId = last.getReviewId();
+            return true;
+        }
+    }
+
+    @FunctionalInterface
+    private interface BookTermsConsumer {
+        void accept(int bookId, List<String> terms);
+    }
+}
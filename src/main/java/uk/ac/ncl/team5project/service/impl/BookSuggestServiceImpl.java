@@ -0,0 +1,212 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.Book;
+import uk.ac.ncl.team5project.mapper.BookMapper;
+import uk.ac.ncl.team5project.mapper.WishlistMapper;
+import uk.ac.ncl.team5project.model.event.WishlistItemAdded;
+import uk.ac.ncl.team5project.model.event.WishlistItemRemoved;
+import uk.ac.ncl.team5project.model.vo.BookCount;
+import uk.ac.ncl.team5project.model.vo.BookSuggestionVO;
+import uk.ac.ncl.team5project.service.BookSuggestService;
+import uk.ac.ncl.team5project.service.DomainEventService;
+import uk.ac.ncl.team5project.util.IntIntHashMap;
+import uk.ac.ncl.team5project.util.PrefixIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @file BookSuggestServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: Autocomplete over book titles ranked by wishlist popularity.
+ * @interface_description: suggest, rebuild, rebuildOnStartup, refreshNewBooks
+ * @calling_sequence: BookController → BookSuggestServiceImpl → PrefixIndex; DomainEventService → adjustPopularity
+ * @arguments_description: String prefix, int limit, Integer bookId, int delta
+ * @list_of_subordinate_classes: PrefixIndex, BookMapper, WishlistMapper, DomainEventService
+ * @discussion: The index is built on a background thread once the application is ready, so startup does
+ * not wait for the catalog scan; suggestions are empty until the build completes. It is rebuilt from the
+ * database every team5.suggest.rebuild-interval-ms, which is what drops renamed titles and deleted books:
+ * nothing in the application writes BOOK, so there is no change to listen for. In between, new books are picked up by
+ * polling for book_id values above the highest one indexed and kept in the index overlay; once the overlay
+ * grows past OVERLAY_REBUILD_THRESHOLD the index is rebuilt from memory without touching the database.
+ * Popularity follows the WishlistItemAdded and WishlistItemRemoved events of every instance; an event
+ * delivered twice is counted twice until the next rebuild. Popularity changes made while a rebuild runs are applied to the old index and replayed onto the new
+ * one before it is swapped in; a wishlist write that committed just before the counts were read may be
+ * counted twice until the next rebuild, which is preferred to losing it.
+ * @development_history: Created on 2026-10-19 for book title autocomplete.
+ * 2026-10-19 periodic full rebuild; popularity changes kept across rebuilds
+ * 2026-10-19 startup build moved off the startup thread
+ * 2026-10-19 popularity changes received as domain events instead of calls
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Keeps the in-memory title index current and serves suggestions from it.
+ */
+@Service
+public class BookSuggestServiceImpl implements BookSuggestService {
+    private static final Logger log = LoggerFactory.getLogger(BookSuggestServiceImpl.class);
+    private static final int SCAN_BATCH_SIZE = 10_000;
+    private static final int OVERLAY_REBUILD_THRESHOLD = 10_000;
+    private static final int MAX_LIMIT = 20;
+
+    @Autowired
+    private BookMapper bookMapper;
+    @Autowired
+    private WishlistMapper wishlistMapper;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private DomainEventService domainEventService;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-suggest-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile PrefixIndex index = PrefixIndex.build(List.of());
+    private int maxIndexedBookId;
+
+    private final Object deltaLock = new Object();
+    // Popularity changes made while a rebuild is running, replayed onto the new index; guarded by deltaLock
+    private IntIntHashMap pendingDeltas;
+
+    @Override
+    public List<BookSuggestionVO> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return index.top(prefix, k).stream().map(suggestion -> {
+            BookSuggestionVO vo = new BookSuggestionVO();
+            vo.setBookId(suggestion.bookId());
+            vo.setName(suggestion.title());
+            vo.setPopularity(suggestion.popularity());
+            return vo;
+        }).toList();
+    }
+
+    @PostConstruct
+    public void init() {
+        domainEventService.subscribe("book-suggest", event -> {
+            if (event instanceof WishlistItemAdded added) {
+                adjustPopularity(added.bookId(), 1);
+            } else if (event instanceof WishlistItemRemoved removed) {
+                adjustPopularity(removed.bookId(), -1);
+            }
+        });
+    }
+
+    // Applies a wishlist add (+1) or removal (-1) to a book's ranking
+    private void adjustPopularity(Integer bookId, int delta) {
+        if (bookId == null) {
+            return;
+        }
+        synchronized (deltaLock) {
+            index.adjustPopularity(bookId, delta);
+            if (pendingDeltas != null) {
+                pendingDeltas.addTo(bookId, delta);
+            }
+        }
+    }
+
+    /**
+     * Builds the index in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        executor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Title index build failed, retrying at the next scheduled rebuild", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${team5.suggest.rebuild-interval-ms:600000}",
+            initialDelayString = "${team5.suggest.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        synchronized (deltaLock) {
+            pendingDeltas = new IntIntHashMap(64, 0);
+        }
+        try {
+            PrefixIndex fresh = load();
+            synchronized (deltaLock) {
+                pendingDeltas.forEach(fresh::adjustPopularity);
+                index = fresh;
+            }
+        } finally {
+            synchronized (deltaLock) {
+                pendingDeltas = null;
+            }
+        }
+    }
+
+    // Reads every titled book with its wishlist count; caller holds the monitor
+    private PrefixIndex load() {
+        IntIntHashMap counts = new IntIntHashMap(1024, 0);
+        // Each shard counts its own users' rows; a book's totals are summed over the shards
+        for (BookCount bookCount : shardRouter.gather(wishlistMapper::getBookCounts)) {
+            counts.addTo(bookCount.getBookId(), bookCount.getCount());
+        }
+        List<PrefixIndex.Entry> entries = new ArrayList<>();
+        int afterId = 0;
+        List<Book> batch;
+        do {
+            batch = bookMapper.selectBookNamesAfterId(afterId, SCAN_BATCH_SIZE);
+            for (Book book : batch) {
+                if (book.getName() != null) {
+                    entries.add(new PrefixIndex.Entry(book.getBookId(), book.getName(), counts.get(book.getBookId())));
+                }
+                afterId = book.getBookId();
+            }
+        } while (batch.size() == SCAN_BATCH_SIZE);
+        maxIndexedBookId = afterId;
+        return PrefixIndex.build(entries);
+    }
+
+    /**
+     * Picks up books inserted since the last build or refresh.
+     */
+    @Scheduled(fixedDelayString = "${team5.suggest.refresh-interval-ms:30000}",
+            initialDelayString = "${team5.suggest.refresh-interval-ms:30000}")
+    public synchronized void refreshNewBooks() {
+        PrefixIndex current = index;
+        List<Book> batch;
+        do {
+            batch = bookMapper.selectBookNamesAfterId(maxIndexedBookId, SCAN_BATCH_SIZE);
+            for (Book book : batch) {
+                if (book.getName() != null && !current.contains(book.getBookId())) {
+                    current.add(book.getBookId(), book.getName(), 0);
+                }
+                maxIndexedBookId = book.getBookId();
+            }
+        } while (batch.size() == SCAN_BATCH_SIZE);
+        if (current.overlaySize() > OVERLAY_REBUILD_THRESHOLD) {
+            // Built from memory, so popularity changes are held off for the short build instead of replayed
+            synchronized (deltaLock) {
+                index = PrefixIndex.build(current.entries());
+            }
+        }
+    }
+}
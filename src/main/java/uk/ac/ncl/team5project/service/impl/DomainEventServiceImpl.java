@@ -0,0 +1,334 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.OutboxEvent;
+import uk.ac.ncl.team5project.mapper.OutboxEventMapper;
+import uk.ac.ncl.team5project.model.event.DomainEvent;
+import uk.ac.ncl.team5project.model.vo.EventSubscriberLagVO;
+import uk.ac.ncl.team5project.service.DomainEventService;
+import uk.ac.ncl.team5project.util.IdTail;
+import uk.ac.ncl.team5project.util.RingBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * @file DomainEventServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: Transactional outbox of domain events, tailed into a ring buffer for in-process subscribers.
+ * @interface_description:
+ * - append(event): insert the event into DOMAIN_EVENT inside the caller's transaction
+ * - subscribe(name, handler): start a subscriber thread reading the ring
+ * - prune(): scheduled every team5.events.outbox-prune-interval-ms (default one hour)
+ * - lag(): per-subscriber backlog and counters
+ * @calling_sequence: WishlistServiceImpl, ReviewService, UserServiceImpl → append → OutboxEventMapper;
+ * relay thread → ShardRouter.onShard → OutboxEventMapper.selectAfter → RingBuffer → subscriber threads → handlers
+ * @arguments_description: DomainEvent event, String name, Consumer handler
+ * @list_of_subordinate_classes: OutboxEventMapper, OutboxEvent, RingBuffer, IdTail, ShardRouter, Delivery, Subscriber
+ * @discussion: An event is stored in the same transaction as the change it describes, on the same
+ * database, so it exists if and only if the change committed. One relay thread per instance tails the
+ * outbox of the main database and of every shard, so each instance sees every instance's changes; a commit
+ * on this instance wakes the relay at once, other instances' changes are read within
+ * team5.events.poll-interval-ms. Auto-increment ids are handed out at insert but become visible at commit,
+ * so a lower id can appear after a higher one was read: the relay rereads rows until they have been seen
+ * for team5.events.settle-ms (the longest a write transaction is expected to stay open) and remembers
+ * which ids it delivered in that window (IdTail). A starting instance begins at the newest event, since its caches
+ * start empty. The relay publishes into a RingBuffer of team5.events.ring-size slots read by one virtual
+ * thread per subscriber, so a subscriber never runs on a request thread and a slow one delays the others
+ * only once it is a whole ring behind. A handler that throws is retried with back-off, up to
+ * team5.events.max-attempts times, and the event is then logged and skipped. Together with the rereads
+ * this makes delivery at least once: subscribers must tolerate duplicates and late events.
+ * @development_history: Created on 2026-10-19 for the domain event outbox.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Outbox relay and Disruptor-style in-process event delivery.
+ */
+@Service
+public class DomainEventServiceImpl implements DomainEventService {
+    private static final Logger log = LoggerFactory.getLogger(DomainEventServiceImpl.class);
+    private static final int BATCH_SIZE = 500;
+    private static final int PRUNE_BATCH_SIZE = 500;
+    // Source number of the main database's outbox; shards are numbered from 0
+    private static final int MAIN = -1;
+    // Longest an idle subscriber sleeps before checking the ring, in case a wake-up was missed
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long RETRY_BACKOFF_MS = 100;
+    private static final Map<String, Class<? extends DomainEvent>> TYPES = Arrays.stream(DomainEvent.class.getPermittedSubclasses())
+            .collect(Collectors.toUnmodifiableMap(Class::getSimpleName, type -> type.asSubclass(DomainEvent.class)));
+
+    @Autowired
+    private OutboxEventMapper outboxEventMapper;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private ConfigurationStore configurationStore;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${team5.events.ring-size:4096}")
+    private int ringSize;
+
+    private RingBuffer<Delivery> ring;
+    // Read position of each outbox; used by the relay thread only
+    private final Map<Integer, IdTail> tails = new LinkedHashMap<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private Thread relay;
+
+    @PostConstruct
+    public void init() {
+        ring = new RingBuffer<>(ringSize);
+        tails.put(MAIN, new IdTail(startOf(MAIN)));
+        if (shardRouter.isSharded()) {
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                tails.put(shard, new IdTail(startOf(shard)));
+            }
+        }
+        relay = Thread.ofVirtual().name("event-relay").start(this::relay);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relay.interrupt();
+        subscribers.forEach(subscriber -> subscriber.thread.interrupt());
+    }
+
+    @Override
+    public void append(DomainEvent event) {
+        OutboxEvent row = new OutboxEvent().setEventType(event.getClass().getSimpleName()).setEventTime(System.currentTimeMillis());
+        try {
+            row.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event, e);
+        }
+        outboxEventMapper.insert(row);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    LockSupport.unpark(relay);
+                }
+            });
+        } else {
+            LockSupport.unpark(relay);
+        }
+    }
+
+    @Override
+    public void subscribe(String name, Consumer<DomainEvent> handler) {
+        Subscriber subscriber = new Subscriber(name, handler, ring.addConsumer());
+        subscribers.add(subscriber);
+        subscriber.thread = Thread.ofVirtual().name("events-" + name).start(() -> consume(subscriber));
+    }
+
+    @Scheduled(fixedDelayString = "${team5.events.outbox-prune-interval-ms:3600000}",
+            initialDelayString = "${team5.events.outbox-prune-interval-ms:3600000}")
+    public void pruneOnSchedule() {
+        try {
+            prune();
+        } catch (RuntimeException e) {
+            log.warn("Outbox pruning failed, retrying on the next run", e);
+        }
+    }
+
+    @Override
+    public synchronized int prune() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(configurationStore.get(Settings.EVENTS_RETENTION_HOURS));
+        int pruned = 0;
+        for (Integer source : tails.keySet()) {
+            List<Long> batch;
+            do {
+                batch = onSource(source, () -> outboxEventMapper.selectExpiredIds(cutoff, PRUNE_BATCH_SIZE));
+                if (!batch.isEmpty()) {
+                    List<Long> ids = batch;
+                    pruned += onSource(source, () -> outboxEventMapper.deleteEvents(ids));
+                }
+            } while (batch.size() == PRUNE_BATCH_SIZE);
+        }
+        if (pruned > 0) {
+            log.info("Pruned {} outbox events", pruned);
+        }
+        return pruned;
+    }
+
+    @Override
+    public List<EventSubscriberLagVO> lag() {
+        long cursor = ring.cursor();
+        List<EventSubscriberLagVO> lag = new ArrayList<>();
+        for (Subscriber subscriber : subscribers) {
+            EventSubscriberLagVO vo = new EventSubscriberLagVO();
+            vo.setName(subscriber.name);
+            vo.setPending(cursor - subscriber.sequence.get());
+            vo.setLastLagMs(subscriber.lastLagMs);
+            vo.setDelivered(subscriber.delivered.get());
+            vo.setFailed(subscriber.failed.get());
+            vo.setDropped(subscriber.dropped.get());
+            lag.add(vo);
+        }
+        return lag;
+    }
+
+    private long startOf(int source) {
+        Long max = onSource(source, outboxEventMapper::selectMaxId);
+        return max == null ? 0 : max;
+    }
+
+    private <T> T onSource(int source, Supplier<T> work) {
+        return source == MAIN ? work.get() : shardRouter.onShard(source, work);
+    }
+
+    private void relay() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                for (Map.Entry<Integer, IdTail> tail : tails.entrySet()) {
+                    poll(tail.getKey(), tail.getValue());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not read the outbox, retrying", e);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(configurationStore.get(Settings.EVENTS_POLL_INTERVAL_MS)));
+        }
+    }
+
+    private void poll(int source, IdTail tail) {
+        long now = System.currentTimeMillis();
+        long after = tail.after();
+        List<OutboxEvent> batch;
+        do {
+            long from = after;
+            batch = onSource(source, () -> outboxEventMapper.selectAfter(from, BATCH_SIZE));
+            for (OutboxEvent row : batch) {
+                after = row.getEventId();
+                if (tail.firstSeen(row.getEventId(), now)) {
+                    DomainEvent event = decode(row);
+                    if (event != null && !publish(new Delivery(row.getEventTime(), event))) {
+                        return;
+                    }
+                }
+            }
+        } while (batch.size() == BATCH_SIZE);
+        wakeSubscribers();
+        tail.settle(now - configurationStore.get(Settings.EVENTS_SETTLE_MS));
+    }
+
+    private DomainEvent decode(OutboxEvent row) {
+        Class<? extends DomainEvent> type = TYPES.get(row.getEventType());
+        try {
+            if (type != null) {
+                return objectMapper.readValue(row.getPayload(), type);
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable {} event {}", row.getEventType(), row.getEventId(), e);
+            return null;
+        }
+        log.warn("Skipping event {} of unknown type {}", row.getEventId(), row.getEventType());
+        return null;
+    }
+
+    // Waits while the ring is full; false if the relay was interrupted
+    private boolean publish(Delivery delivery) {
+        while (!ring.tryPublish(delivery)) {
+            wakeSubscribers();
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void wakeSubscribers() {
+        for (Subscriber subscriber : subscribers) {
+            LockSupport.unpark(subscriber.thread);
+        }
+    }
+
+    private void consume(Subscriber subscriber) {
+        while (!Thread.currentThread().isInterrupted()) {
+            long next = subscriber.sequence.get() + 1;
+            if (next > ring.cursor()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            if (!deliver(subscriber, ring.get(next))) {
+                return;
+            }
+            subscriber.sequence.set(next);
+        }
+    }
+
+    // Hands one event to the subscriber, retrying failures; false if the thread was interrupted
+    private boolean deliver(Subscriber subscriber, Delivery delivery) {
+        int maxAttempts = configurationStore.get(Settings.EVENTS_MAX_ATTEMPTS);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                subscriber.handler.accept(delivery.event());
+                subscriber.delivered.incrementAndGet();
+                subscriber.lastLagMs = System.currentTimeMillis() - delivery.eventTime();
+                return true;
+            } catch (RuntimeException e) {
+                subscriber.failed.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    subscriber.dropped.incrementAndGet();
+                    log.error("Subscriber {} skipped {} after {} attempts", subscriber.name, delivery.event(), attempt, e);
+                    return true;
+                }
+                log.warn("Subscriber {} failed on {}, retrying", subscriber.name, delivery.event(), e);
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MS * attempt);
+                } catch (InterruptedException interrupted) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private record Delivery(long eventTime, DomainEvent event) {
+    }
+
+    private static final class Subscriber {
+        private final String name;
+        private final Consumer<DomainEvent> handler;
+        private final RingBuffer.Sequence sequence;
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile long lastLagMs;
+        private volatile Thread thread;
+
+        private Subscriber(String name, Consumer<DomainEvent> handler, RingBuffer.Sequence sequence) {
+            this.name = name;
+            this.handler = handler;
+            this.sequence = sequence;
+        }
+    }
+}
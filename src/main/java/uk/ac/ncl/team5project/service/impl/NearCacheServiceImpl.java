@@ -0,0 +1,261 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.CacheInvalidation;
+import uk.ac.ncl.team5project.mapper.CacheInvalidationMapper;
+import uk.ac.ncl.team5project.model.vo.NearCacheStatsVO;
+import uk.ac.ncl.team5project.model.vo.NearCacheStatusVO;
+import uk.ac.ncl.team5project.service.NearCacheService;
+import uk.ac.ncl.team5project.util.IdTail;
+import uk.ac.ncl.team5project.util.NearCache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * @file NearCacheServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: Keeps every instance's near caches coherent through the CACHE_INVALIDATION log.
+ * @interface_description:
+ * - create(name, capacity, ttlMillis, keyParser): register a NearCache coordinated by this service
+ * - prune(): scheduled every team5.cache.invalidation-prune-interval-ms (default ten minutes)
+ * - status(): staleness of this instance and per-cache counters
+ * @calling_sequence: NearCache.evict → publish → CacheInvalidationMapper.insert (in the caller's transaction);
+ * poller thread → ShardRouter.onShard → CacheInvalidationMapper.selectAfter → NearCache.applyInvalidation
+ * @arguments_description: String name, IntSupplier capacity, LongSupplier ttlMillis, Function keyParser
+ * @list_of_subordinate_classes: NearCache, CacheInvalidationMapper, CacheInvalidation, IdTail, ShardRouter
+ * @discussion: Like the domain event outbox, an eviction inside a transaction is inserted into
+ * CACHE_INVALIDATION in that transaction, on the database it runs on (the main database or the user's
+ * shard), so the record commits or rolls back with the change and is never lost to an instance stopping
+ * after the commit; a failed insert fails the write. No other instance can read the record before the
+ * change is visible, so none can reload the old value after evicting. The writing instance evicts at
+ * once and again after the commit, in case one of its own reads cached the old value in between. An
+ * eviction outside a transaction follows a change that is committed already; its record is written on the
+ * spot, and if that fails the change stays visible elsewhere until its TTL. One poller thread per instance
+ * reads every database's log with a keyset scan from the highest id it has settled. IdTail rereads the
+ * newest team5.cache.settle-ms of records, since a lower id can commit after a higher one, and evicts each
+ * key once. Records carry the writing instance's id, which has evicted already. Staleness is
+ * bounded: if the last read of every log started more than team5.cache.max-staleness-ms ago, every near
+ * cache misses and stores nothing until a read succeeds, and then all are cleared, since records may have
+ * been pruned meanwhile. A starting instance reads from the newest record, its caches being empty.
+ * @development_history: Created on 2026-10-19 for cluster-coherent near caches.
+ * 2026-10-19 Records inserted in the writer's transaction and read from every shard, instead of queued after commit.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Database-polled invalidation log behind the near caches.
+ */
+@Service
+public class NearCacheServiceImpl implements NearCacheService, NearCache.Coordinator {
+    private static final Logger log = LoggerFactory.getLogger(NearCacheServiceImpl.class);
+    private static final int BATCH_SIZE = 500;
+    private static final int PRUNE_BATCH_SIZE = 500;
+    // Source number of the main database's log; shards are numbered from 0
+    private static final int MAIN = -1;
+
+    @Autowired
+    private CacheInvalidationMapper cacheInvalidationMapper;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private ConfigurationStore configurationStore;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, NearCache<?, ?>> caches = new ConcurrentHashMap<>();
+    // Read position of each database's log; used by the poller thread only
+    private final Map<Integer, IdTail> tails = new LinkedHashMap<>();
+    private volatile int unsettled;
+    // Start of the last successful read of the log
+    private volatile long lastPollAt;
+    private volatile long lastApplyLagMs;
+    private Thread poller;
+
+    @PostConstruct
+    public void init() {
+        lastPollAt = System.currentTimeMillis();
+        tails.put(MAIN, new IdTail(startOf(MAIN)));
+        if (shardRouter.isSharded()) {
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                tails.put(shard, new IdTail(startOf(shard)));
+            }
+        }
+        poller = Thread.ofVirtual().name("near-cache-poller").start(this::run);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.interrupt();
+    }
+
+    @Override
+    public <K, V> NearCache<K, V> create(String name, IntSupplier capacity, LongSupplier ttlMillis, Function<String, K> keyParser) {
+        NearCache<K, V> cache = new NearCache<>(name, capacity, ttlMillis, keyParser, this);
+        if (caches.putIfAbsent(name, cache) != null) {
+            throw new IllegalStateException("Near cache " + name + " already exists");
+        }
+        return cache;
+    }
+
+    @Override
+    public boolean isFresh() {
+        return System.currentTimeMillis() - lastPollAt <= configurationStore.get(Settings.CACHE_MAX_STALENESS_MS);
+    }
+
+    @Override
+    public void publish(String cacheName, String key, Runnable evictAgain) {
+        CacheInvalidation record = new CacheInvalidation().setCacheName(cacheName).setCacheKey(key).setOrigin(instanceId)
+                .setCreatedTime(System.currentTimeMillis());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                cacheInvalidationMapper.insert(record);
+            } catch (RuntimeException e) {
+                log.warn("Could not log the invalidation of {} {}; other instances see the change after its TTL",
+                        cacheName, key, e);
+            }
+            return;
+        }
+        // part of the change: if the record cannot be written, neither is the change
+        cacheInvalidationMapper.insert(record);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictAgain.run();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${team5.cache.invalidation-prune-interval-ms:600000}",
+            initialDelayString = "${team5.cache.invalidation-prune-interval-ms:600000}")
+    public void pruneOnSchedule() {
+        try {
+            prune();
+        } catch (RuntimeException e) {
+            log.warn("Invalidation log pruning failed, retrying on the next run", e);
+        }
+    }
+
+    @Override
+    public synchronized int prune() {
+        long cutoff = System.currentTimeMillis()
+                - TimeUnit.MINUTES.toMillis(configurationStore.get(Settings.CACHE_INVALIDATION_RETENTION_MINUTES));
+        int pruned = 0;
+        for (Integer source : tails.keySet()) {
+            List<Long> batch;
+            do {
+                batch = onSource(source, () -> cacheInvalidationMapper.selectExpiredIds(cutoff, PRUNE_BATCH_SIZE));
+                if (!batch.isEmpty()) {
+                    List<Long> ids = batch;
+                    pruned += onSource(source, () -> cacheInvalidationMapper.deleteInvalidations(ids));
+                }
+            } while (batch.size() == PRUNE_BATCH_SIZE);
+        }
+        if (pruned > 0) {
+            log.info("Pruned {} near-cache invalidations", pruned);
+        }
+        return pruned;
+    }
+
+    @Override
+    public NearCacheStatusVO status() {
+        NearCacheStatusVO status = new NearCacheStatusVO();
+        status.setInstanceId(instanceId);
+        status.setFresh(isFresh());
+        status.setLastPollAgeMs(System.currentTimeMillis() - lastPollAt);
+        status.setMaxStalenessMs(configurationStore.get(Settings.CACHE_MAX_STALENESS_MS));
+        status.setLastApplyLagMs(lastApplyLagMs);
+        status.setUnsettled(unsettled);
+        List<NearCacheStatsVO> stats = new ArrayList<>();
+        for (NearCache<?, ?> cache : caches.values()) {
+            NearCacheStatsVO vo = new NearCacheStatsVO();
+            vo.setName(cache.getName());
+            vo.setSize(cache.size());
+            vo.setHits(cache.getHits());
+            vo.setMisses(cache.getMisses());
+            vo.setRemoteEvictions(cache.getRemoteEvictions());
+            stats.add(vo);
+        }
+        status.setCaches(stats);
+        return status;
+    }
+
+    private long startOf(int source) {
+        Long max = onSource(source, cacheInvalidationMapper::selectMaxId);
+        return max == null ? 0 : max;
+    }
+
+    private <T> T onSource(int source, Supplier<T> work) {
+        return source == MAIN ? work.get() : shardRouter.onShard(source, work);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                poll();
+            } catch (RuntimeException e) {
+                log.warn("Could not reach the invalidation log, retrying; near caches are bypassed from {} ms after the last read",
+                        configurationStore.get(Settings.CACHE_MAX_STALENESS_MS), e);
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(configurationStore.get(Settings.CACHE_POLL_INTERVAL_MS)));
+        }
+    }
+
+    // Reads every database's log; the caches count as fresh from the start of a round that read them all
+    private void poll() {
+        long now = System.currentTimeMillis();
+        boolean wasStale = !isFresh();
+        int pending = 0;
+        for (Map.Entry<Integer, IdTail> tail : tails.entrySet()) {
+            poll(tail.getKey(), tail.getValue(), now);
+            pending += tail.getValue().pending();
+        }
+        unsettled = pending;
+        if (wasStale) {
+            // records missed while stale may already be pruned
+            caches.values().forEach(NearCache::invalidateAll);
+            log.info("Invalidation log read again after {} ms; near caches cleared", now - lastPollAt);
+        }
+        lastPollAt = now;
+    }
+
+    private void poll(int source, IdTail tail, long now) {
+        long after = tail.after();
+        List<CacheInvalidation> batch;
+        do {
+            long from = after;
+            batch = onSource(source, () -> cacheInvalidationMapper.selectAfter(from, BATCH_SIZE));
+            for (CacheInvalidation row : batch) {
+                after = row.getInvalidationId();
+                if (tail.firstSeen(row.getInvalidationId(), now) && !instanceId.equals(row.getOrigin())) {
+                    NearCache<?, ?> cache = caches.get(row.getCacheName());
+                    if (cache != null) {
+                        cache.applyInvalidation(row.getCacheKey());
+                        lastApplyLagMs = System.currentTimeMillis() - row.getCreatedTime();
+                    }
+                }
+            }
+        } while (batch.size() == BATCH_SIZE);
+        tail.settle(now - configurationStore.get(Settings.CACHE_SETTLE_MS));
+    }
+}
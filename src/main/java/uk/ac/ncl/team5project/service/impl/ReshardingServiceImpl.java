@@ -0,0 +1,226 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.entity.ShardOverride;
+import uk.ac.ncl.team5project.entity.Wishlist;
+import uk.ac.ncl.team5project.entity.WishlistChange;
+import uk.ac.ncl.team5project.entity.WishlistVersion;
+import uk.ac.ncl.team5project.mapper.ReviewArchiveMapper;
+import uk.ac.ncl.team5project.mapper.ReviewMapper;
+import uk.ac.ncl.team5project.mapper.ShardOverrideMapper;
+import uk.ac.ncl.team5project.mapper.UserMapper;
+import uk.ac.ncl.team5project.mapper.WishlistChangeMapper;
+import uk.ac.ncl.team5project.mapper.WishlistMapper;
+import uk.ac.ncl.team5project.service.ReshardingService;
+import uk.ac.ncl.team5project.util.ConsistentHashRing;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @file ReshardingServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: Moves users' WISHLIST, WISHLIST_CHANGE, REVIEWS and REVIEWS_ARCHIVE rows between shards while the application is serving.
+ * @interface_description: moveUsers, expand, rebalance
+ * @calling_sequence: Operator → ReshardingServiceImpl → ShardRouter.onShard → WishlistMapper / ReviewMapper;
+ * ShardOverrideMapper and ConfigurationStore on the main database
+ * @arguments_description: Collection userIds, int targetShard, int ringSize
+ * @list_of_subordinate_classes: ShardRouter, ShardOverrideMapper, WishlistMapper, WishlistChangeMapper, ReviewMapper, ReviewArchiveMapper, UserMapper, ConfigurationStore
+ * @discussion: A batch of users is moved in four steps: (1) mark them MOVING in SHARD_OVERRIDE and wait until
+ * every live instance acknowledges the new placement in SHARD_PLACEMENT_ACK, which it does only once the
+ * writes it routed under the old one have finished, so their writes pause; (2) copy their rows
+ * to the target shard in one transaction, ids unchanged, replacing whatever an interrupted earlier attempt
+ * left there; (3) point the override at the target (or drop it when the ring already puts them there) and
+ * wait for the acknowledgements again; (4) delete the source rows. Reads keep working
+ * throughout. A move that fails before step 3 leaves the users MOVING on their source shard and can simply
+ * be repeated; so can one whose wait times out, which names the instances that did not answer. Growing the ring first pins every user whose placement would change to their current shard,
+ * then raises team5.sharding.ring-size, then moves the pinned users in batches. Users created while the
+ * pins are being written are placed by the old ring until the new size is published, so expand is best run
+ * when sign-ups are quiet, and rebalance can be re-run at any time to finish the job.
+ * @development_history: Created on 2026-10-19 for sharding WISHLIST and REVIEWS by user.
+ * 2026-10-19 waits for placement acknowledgements instead of sleeping
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Online user moves between shards.
+ */
+@Service
+public class ReshardingServiceImpl implements ReshardingService {
+    private static final Logger log = LoggerFactory.getLogger(ReshardingServiceImpl.class);
+    private static final int MOVE_BATCH_SIZE = 500;
+    private static final int SCAN_BATCH_SIZE = 10_000;
+
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private ShardOverrideMapper shardOverrideMapper;
+    @Autowired
+    private WishlistMapper wishlistMapper;
+    @Autowired
+    private WishlistChangeMapper wishlistChangeMapper;
+    @Autowired
+    private ReviewMapper reviewMapper;
+    @Autowired
+    private ReviewArchiveMapper reviewArchiveMapper;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private ConfigurationStore configurationStore;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${team5.sharding.fence-timeout-ms:60000}")
+    private long fenceTimeoutMs;
+
+    @Override
+    public synchronized int moveUsers(Collection<Integer> userIds, int targetShard) {
+        if (targetShard < 0 || targetShard >= shardRouter.shardCount()) {
+            throw new IllegalArgumentException("No shard " + targetShard);
+        }
+        Map<Integer, Integer> sources = new LinkedHashMap<>();
+        for (Integer userId : userIds) {
+            int source = shardRouter.shardOf(userId);
+            if (source != targetShard) {
+                sources.put(userId, source);
+            }
+        }
+        if (sources.isEmpty()) {
+            return 0;
+        }
+        long started = System.currentTimeMillis();
+        // 1. Pause writes
+        sources.forEach((userId, source) -> saveOverride(userId, source, ShardOverride.MOVING));
+        shardRouter.reloadOverrides();
+        awaitOtherInstances();
+        // 2. Copy
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        sources.forEach((userId, source) -> copyUser(userId, source, targetShard, transaction));
+        // 3. Switch
+        sources.keySet().forEach(userId -> {
+            if (shardRouter.ringShardOf(userId) == targetShard) {
+                shardOverrideMapper.deleteById(userId);
+            } else {
+                saveOverride(userId, targetShard, ShardOverride.ACTIVE);
+            }
+        });
+        shardRouter.reloadOverrides();
+        awaitOtherInstances();
+        // 4. Remove the source copies
+        sources.forEach((userId, source) -> shardRouter.onShard(source, () -> {
+            reviewMapper.deleteReviewByUserId(userId);
+            reviewArchiveMapper.deleteByUserId(userId);
+            wishlistChangeMapper.deleteChangesByUserId(userId);
+            wishlistChangeMapper.deleteVersionByUserId(userId);
+            return wishlistMapper.delete(new QueryWrapper<Wishlist>().eq("user_id", userId));
+        }));
+        log.info("Moved {} users to shard {} in {} ms", sources.size(), targetShard, System.currentTimeMillis() - started);
+        return sources.size();
+    }
+
+    @Override
+    public synchronized int expand(int ringSize) {
+        if (ringSize <= shardRouter.ringSize() || ringSize > shardRouter.shardCount()) {
+            throw new IllegalArgumentException("Ring size must be between " + (shardRouter.ringSize() + 1)
+                    + " and " + shardRouter.shardCount());
+        }
+        ConsistentHashRing next = shardRouter.ringOf(ringSize);
+        int pinned = 0;
+        int afterUserId = 0;
+        List<Integer> batch;
+        do {
+            batch = userMapper.selectUserIdsAfter(afterUserId, SCAN_BATCH_SIZE);
+            for (Integer userId : batch) {
+                int current = shardRouter.shardOf(userId);
+                // Users that already have an override are picked up by rebalance()
+                if (current == shardRouter.ringShardOf(userId) && next.shardFor(userId) != current) {
+                    saveOverride(userId, current, ShardOverride.ACTIVE);
+                    pinned++;
+                }
+                afterUserId = userId;
+            }
+        } while (batch.size() == SCAN_BATCH_SIZE);
+        shardRouter.reloadOverrides();
+        configurationStore.set(Settings.SHARD_RING_SIZE.key(), String.valueOf(ringSize));
+        log.info("Ring grown to {} shards; {} users pinned to their current shard", ringSize, pinned);
+        awaitOtherInstances();
+        return rebalance();
+    }
+
+    @Override
+    public synchronized int rebalance() {
+        Map<Integer, List<Integer>> byTarget = new TreeMap<>();
+        for (ShardOverride row : shardOverrideMapper.selectList(null)) {
+            int target = shardRouter.ringShardOf(row.getUserId());
+            // Already in place, or a move that never reached the switch: the rows are on the ring's shard
+            if (row.getShard() == target) {
+                shardOverrideMapper.deleteById(row.getUserId());
+            } else {
+                byTarget.computeIfAbsent(target, t -> new ArrayList<>()).add(row.getUserId());
+            }
+        }
+        shardRouter.reloadOverrides();
+        int moved = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : byTarget.entrySet()) {
+            List<Integer> users = entry.getValue();
+            for (int from = 0; from < users.size(); from += MOVE_BATCH_SIZE) {
+                moved += moveUsers(users.subList(from, Math.min(users.size(), from + MOVE_BATCH_SIZE)), entry.getKey());
+            }
+        }
+        return moved;
+    }
+
+    private void copyUser(Integer userId, int source, int target, TransactionTemplate transaction) {
+        List<Review> reviews = shardRouter.onShard(source, () -> reviewMapper.selectReviewRowsByUserId(userId));
+        List<Review> archived = shardRouter.onShard(source, () -> reviewArchiveMapper.selectRowsByUserId(userId));
+        List<Wishlist> wishlists = shardRouter.onShard(source,
+                () -> wishlistMapper.selectList(new QueryWrapper<Wishlist>().eq("user_id", userId)));
+        List<WishlistChange> changes = shardRouter.onShard(source, () -> wishlistChangeMapper.selectChangesByUserId(userId));
+        WishlistVersion version = shardRouter.onShard(source, () -> wishlistChangeMapper.selectVersion(userId));
+        // The transaction's connection is taken when it begins, so it must begin on the target shard
+        shardRouter.onShard(target, () -> transaction.execute(status -> {
+            reviewMapper.deleteReviewByUserId(userId);
+            reviewArchiveMapper.deleteByUserId(userId);
+            wishlistMapper.delete(new QueryWrapper<Wishlist>().eq("user_id", userId));
+            wishlistChangeMapper.deleteChangesByUserId(userId);
+            wishlistChangeMapper.deleteVersionByUserId(userId);
+            reviews.forEach(reviewMapper::insertReviewWithId);
+            archived.forEach(reviewArchiveMapper::insertWithId);
+            wishlists.forEach(wishlistMapper::insertWithId);
+            changes.forEach(wishlistChangeMapper::insertChange);
+            if (version != null) {
+                wishlistChangeMapper.insertVersion(version);
+            }
+            return null;
+        }));
+    }
+
+    private void saveOverride(Integer userId, int shard, String state) {
+        ShardOverride row = new ShardOverride().setUserId(userId).setShard(shard).setState(state)
+                .setUpdateTime(LocalDateTime.now());
+        if (shardOverrideMapper.updateById(row) == 0) {
+            shardOverrideMapper.insert(row);
+        }
+    }
+
+    // Called after reloadOverrides or a ring-size change, so this instance already routes by the new placement
+    private void awaitOtherInstances() {
+        shardRouter.awaitPlacement(shardRouter.placementVersion(), fenceTimeoutMs);
+    }
+}
@@ -0,0 +1,328 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import com.github.pagehelper.Page;
+import com.github.pagehelper.PageInfo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.mapper.ReviewArchiveMapper;
+import uk.ac.ncl.team5project.mapper.ReviewMapper;
+import uk.ac.ncl.team5project.model.event.ReviewDeleted;
+import uk.ac.ncl.team5project.model.event.ReviewUpserted;
+import uk.ac.ncl.team5project.model.vo.ReviewSearchVO;
+import uk.ac.ncl.team5project.service.DomainEventService;
+import uk.ac.ncl.team5project.service.ReviewSearchService;
+import uk.ac.ncl.team5project.util.InvertedIndex;
+import uk.ac.ncl.team5project.util.TextAnalyzer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Class: ReviewSearchServiceImpl
+ * File: ReviewSearchServiceImpl.java
+ * Created on: 2026/10/19
+ * Author: agent
+ *
+ * Description:
+ * <pre>
+ *     Function: Full-text search over review_content backed by an in-process inverted index.
+ *     Interface Description:
+ *         - search: Ranked, paginated search with highlighted excerpts.
+ *         - indexReview / removeReview: Incremental updates. Review writes reach the index through the
+ *           ReviewUpserted / ReviewDeleted domain events, on every instance whichever one took the write.
+ *         - rebuildAsync: Reloads the index from REVIEWS and REVIEWS_ARCHIVE on a background thread; runs once
+ *           the application is ready, and searches use the previous (at first empty) index until it finishes.
+ *     Calling Sequence:
+ *         - ReviewController → ReviewSearchService.search → InvertedIndex → ReviewMapper.selectReviewByIds,
+ *           then ReviewArchiveMapper.selectByIds for hits not found there
+ *     Argument Description:
+ *         - query (String): Free-text query; terms are OR-ed and ranked with BM25.
+ *         - pageNum (int), pageSize (int): Pagination of the ranked hits.
+ *     List of Subordinate Classes: InvertedIndex, TextAnalyzer, ShardRouter, DomainEventService.
+ * </pre>
+ * The index keeps only ids and term statistics; the text of the hits on the requested page is read back
+ * by primary key for highlighting. Live archived reviews are searchable like the rest; a review keeps its
+ * id when archived, so the index needs no change then. Rebuild reads REVIEWS and the live rows of
+ * REVIEWS_ARCHIVE in keyset batches and tokenizes the batches in parallel on the common pool; writes that
+ * arrive during a rebuild are applied to both indexes. A review event re-reads the user's rows for the book in
+ * both tiers and indexes the live ones and removes the rest, so a late or repeated event changes nothing.
+ *
+ * Development History:
+ * <pre>
+ *     Designer: agent
+ *     Reviewer:
+ *     Review Date:
+ *     Modification Date: 2026/10/19
+ *     Modification Description: rebuild moved off the startup thread; split into interface and implementation;
+ *                               live archived reviews indexed;
+ *                               review writes applied from the domain event outbox;
+ *                               page offset computed without overflow
+ * </pre>
+ */
+@Service
+public class ReviewSearchServiceImpl implements ReviewSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewSearchServiceImpl.class);
+    private static final int REBUILD_BATCH_SIZE = 5000;
+    private static final int SNIPPET_LEADING_CHARS = 60;
+    private static final int SNIPPET_LENGTH = 200;
+
+    @Resource
+    private ReviewMapper reviewMapper;
+
+    @Resource
+    private ReviewArchiveMapper reviewArchiveMapper;
+
+    @Resource
+    private ConfigurationStore configurationStore;
+
+    @Resource
+    private ShardRouter shardRouter;
+
+    @Resource
+    private DomainEventService domainEventService;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "review-search-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile InvertedIndex index = new InvertedIndex();
+
+    // Writes made while a rebuild is running, replayed onto the new index; guarded by this
+    private List<Consumer<InvertedIndex>> pendingDuringRebuild;
+
+    @PostConstruct
+    public void init() {
+        domainEventService.subscribe("review-search", event -> {
+            if (event instanceof ReviewUpserted upserted) {
+                reindex(upserted.userId(), upserted.bookId());
+            } else if (event instanceof ReviewDeleted deleted) {
+                reindex(deleted.userId(), deleted.bookId());
+            }
+        });
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAsync() {
+        synchronized (this) {
+            if (pendingDuringRebuild != null) {
+                return; // a rebuild is already running
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        executor.execute(this::rebuild);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public synchronized void indexReview(Integer reviewId, String content) {
+        index.add(reviewId, content);
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(fresh -> fresh.add(reviewId, content));
+        }
+    }
+
+    @Override
+    public synchronized void removeReview(Integer reviewId) {
+        index.remove(reviewId);
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(fresh -> fresh.remove(reviewId));
+        }
+    }
+
+    // Indexes the user's live rows for the book and removes the deleted ones, in REVIEWS and the archive
+    private void reindex(Integer userId, Integer bookId) {
+        List<Review> rows = shardRouter.onUser(userId, () -> {
+            List<Review> all = new ArrayList<>(reviewMapper.selectReviewRowsByUserIdAndBookId(userId, bookId));
+            all.addAll(reviewArchiveMapper.selectRowsByUserIdAndBookId(userId, bookId));
+            return all;
+        });
+        for (Review row : rows) {
+            if (Integer.valueOf(0).equals(row.getDeleted())) {
+                indexReview(row.getReviewId(), row.getReviewContent());
+            } else {
+                removeReview(row.getReviewId());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database and swaps it in when complete.
+     * Searches keep using the previous index until then.
+     */
+    private void rebuild() {
+        InvertedIndex fresh = new InvertedIndex();
+        try {
+            long started = System.currentTimeMillis();
+            int parallelism = ForkJoinPool.getCommonPoolParallelism();
+            Deque<CompletableFuture<InvertedIndex.Segment>> inFlight = new ArrayDeque<>();
+            // Review ids are unique across shards and tiers, so each table of each shard is scanned in turn
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                int target = shard;
+                scan(after -> shardRouter.onShard(target, () -> reviewMapper.selectReviewContentAfterId(after, REBUILD_BATCH_SIZE)),
+                        fresh, inFlight, parallelism);
+                scan(after -> shardRouter.onShard(target, () -> reviewArchiveMapper.selectContentAfterId(after, REBUILD_BATCH_SIZE)),
+                        fresh, inFlight, parallelism);
+            }
+            while (!inFlight.isEmpty()) {
+                fresh.merge(inFlight.poll().join());
+            }
+            synchronized (this) {
+                pendingDuringRebuild.forEach(write -> write.accept(fresh));
+                index = fresh;
+            }
+            log.info("Review search index rebuilt: {} reviews in {} ms", fresh.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.warn("Review search index rebuild failed, keeping the previous index", e);
+        } finally {
+            synchronized (this) {
+                pendingDuringRebuild = null;
+            }
+        }
+    }
+
+    // Analyzes one table's rows batch by batch, merging finished batches so that at most parallelism wait
+    private static void scan(Function<Integer, List<Review>> batchAfter, InvertedIndex fresh,
+                             Deque<CompletableFuture<InvertedIndex.Segment>> inFlight, int parallelism) {
+        int afterId = 0;
+        List<Review> batch;
+        do {
+            batch = batchAfter.apply(afterId);
+            if (batch.isEmpty()) {
+                return;
+            }
+            afterId = batch.get(batch.size() - 1).getReviewId();
+            List<Review> rows = batch;
+            inFlight.add(CompletableFuture.supplyAsync(() -> analyze(rows)));
+            if (inFlight.size() > parallelism) {
+                fresh.merge(inFlight.poll().join());
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+    }
+
+    /**
+     * Searches review content.
+     * @param query free-text query
+     * @param pageNum 1-based page number
+     * @param pageSize hits per page, capped at team5.search.max-page-size
+     * @return page of hits, best match first, with total hit count
+     */
+    @Override
+    public PageInfo<ReviewSearchVO> search(String query, int pageNum, int requestedPageSize) {
+        int pageSize = Math.min(requestedPageSize, configurationStore.get(Settings.SEARCH_MAX_PAGE_SIZE));
+        // computed in long so a large page number cannot wrap around to a negative or earlier offset
+        long offset = (long) (pageNum - 1) * pageSize;
+        InvertedIndex.SearchResult result = index.search(query, (int) Math.min(offset, Integer.MAX_VALUE), pageSize);
+        Page<ReviewSearchVO> page = new Page<>(pageNum, pageSize);
+        page.setTotal(result.total());
+        if (!result.hits().isEmpty()) {
+            List<Integer> ids = result.hits().stream().map(InvertedIndex.Hit::docId).toList();
+            Map<Integer, Review> rows = shardRouter.gather(() -> reviewMapper.selectReviewByIds(ids)).stream()
+                    .collect(Collectors.toMap(Review::getReviewId, Function.identity()));
+            List<Integer> archived = ids.stream().filter(id -> !rows.containsKey(id)).toList();
+            if (!archived.isEmpty()) {
+                shardRouter.gather(() -> reviewArchiveMapper.selectByIds(archived))
+                        .forEach(review -> rows.put(review.getReviewId(), review));
+            }
+            Set<String> terms = new HashSet<>(TextAnalyzer.tokenize(query));
+            for (InvertedIndex.Hit hit : result.hits()) {
+                Review review = rows.get(hit.docId());
+                if (review == null) {
+                    continue; // deleted after the index was queried
+                }
+                ReviewSearchVO vo = new ReviewSearchVO();
+                vo.setReviewId(review.getReviewId());
+                vo.setBookId(review.getBookId());
+                vo.setUserId(review.getUserId());
+                vo.setCreatedTime(review.getCreatedTime());
+                vo.setScore(hit.score());
+                vo.setHighlight(highlight(review.getReviewContent(), terms));
+                page.add(vo);
+            }
+        }
+        return new PageInfo<>(page);
+    }
+
+    private static InvertedIndex.Segment analyze(List<Review> rows) {
+        int[] ids = new int[rows.size()];
+        List<String> texts = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ids[i] = rows.get(i).getReviewId();
+            texts.add(rows.get(i).getReviewContent());
+        }
+        return InvertedIndex.analyze(ids, texts);
+    }
+
+    /**
+     * Builds an HTML-escaped excerpt around the first matched term, wrapping every match in &lt;em&gt;.
+     */
+    static String highlight(String content, Set<String> terms) {
+        if (content == null) {
+            return "";
+        }
+        List<int[]> matches = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= content.length(); i++) {
+            boolean wordChar = i < content.length() && Character.isLetterOrDigit(content.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String term = TextAnalyzer.normalize(content.substring(start, i));
+                if (term != null && terms.contains(term)) {
+                    matches.add(new int[]{start, i});
+                }
+                start = -1;
+            }
+        }
+        int from = matches.isEmpty() ? 0 : Math.max(0, matches.get(0)[0] - SNIPPET_LEADING_CHARS);
+        int to = Math.min(content.length(), from + SNIPPET_LENGTH);
+        StringBuilder snippet = new StringBuilder();
+        if (from > 0) {
+            snippet.append("...");
+        }
+        int cursor = from;
+        for (int[] match : matches) {
+            if (match[0] < cursor || match[1] > to) {
+                continue;
+            }
+            snippet.append(HtmlUtils.htmlEscape(content.substring(cursor, match[0])))
+                    .append("<em>").append(HtmlUtils.htmlEscape(content.substring(match[0], match[1]))).append("</em>");
+            cursor = match[1];
+        }
+        snippet.append(HtmlUtils.htmlEscape(content.substring(cursor, to)));
+        if (to < content.length()) {
+            snippet.append("...");
+        }
+        return snippet.toString();
+    }
+}
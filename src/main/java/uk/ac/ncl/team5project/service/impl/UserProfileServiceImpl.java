@@ -0,0 +1,175 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.Book;
+import uk.ac.ncl.team5project.entity.User;
+import uk.ac.ncl.team5project.entity.Wishlist;
+import uk.ac.ncl.team5project.mapper.ReviewArchiveMapper;
+import uk.ac.ncl.team5project.mapper.ReviewMapper;
+import uk.ac.ncl.team5project.mapper.UserMapper;
+import uk.ac.ncl.team5project.mapper.WishlistMapper;
+import uk.ac.ncl.team5project.model.vo.UserInfoVO;
+import uk.ac.ncl.team5project.service.NearCacheService;
+import uk.ac.ncl.team5project.service.UserProfileService;
+import uk.ac.ncl.team5project.util.ExpiringCache;
+import uk.ac.ncl.team5project.util.FanOut;
+import uk.ac.ncl.team5project.util.FieldSet;
+import uk.ac.ncl.team5project.util.NearCache;
+import uk.ac.ncl.team5project.util.SingleFlight;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * @file UserProfileServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: Builds the /v1/users/me profile from parallel sub-queries and caches it per user.
+ * @interface_description:
+ * - getProfile(email, fields): cached profile, or the user row, wishlist and review counts the fields need,
+ *   read concurrently
+ * - invalidate(userId): called by UserServiceImpl, WishlistServiceImpl and ReviewService after a write; drops
+ *   the profile on every instance
+ * @calling_sequence: UserServiceImpl.getInfo → UserProfileServiceImpl → FanOut → UserMapper / ShardRouter →
+ * WishlistMapper, ReviewMapper, ReviewArchiveMapper
+ * @arguments_description: String email, FieldSet fields, Integer userId
+ * @list_of_subordinate_classes: FanOut, ExpiringCache, NearCache, NearCacheService, SingleFlight, UserInfoVO
+ * @discussion: The parts of a profile do not depend on each other once the user id is known, so they are
+ * forked together in a FanOut and the profile takes as long as the slowest one rather than their sum. All
+ * share a deadline of team5.profile.timeout-ms; if one fails or the deadline passes the others are
+ * interrupted and the request fails rather than returning a partial profile. The email → user id step
+ * is cached separately and without expiry, since an account's email never changes. Profiles are cached for
+ * team5.profile.cache-ttl-ms, at most team5.profile.cache-size users. The profile cache is the
+ * "profile" near cache, so a write through any instance drops the profile on all of them. Concurrent misses for the same user (a
+ * client retrying, several devices starting together) share one load, and a profile read often is rebuilt
+ * shortly before it expires. A cached profile serves any ?fields= request; without one, a request
+ * for some fields forks only the sub-queries those fields need, reads only their USER columns, and is not
+ * cached. The user row never reads the password hash, and the wishlist only its book ids.
+ * @development_history: Created on 2026-10-19 for the concurrent /v1/users/me profile.
+ * 2026-10-19 borrowing fields dropped from the profile
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Concurrent profile composition with a per-user cache.
+ */
+@Service
+public class UserProfileServiceImpl implements UserProfileService {
+
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private WishlistMapper wishlistMapper;
+    @Autowired
+    private ReviewMapper reviewMapper;
+    @Autowired
+    private ReviewArchiveMapper reviewArchiveMapper;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private ConfigurationStore configurationStore;
+    @Autowired
+    private NearCacheService nearCacheService;
+
+    private NearCache<Integer, UserInfoVO> profiles;
+    // Full profiles being loaded; the result is shared, not modified
+    private final SingleFlight<Integer, UserInfoVO> loads = new SingleFlight<>();
+    private final ExpiringCache<String, Integer> userIds = new ExpiringCache<>(
+            () -> configurationStore.get(Settings.PROFILE_CACHE_SIZE), () -> 0L);
+
+    @PostConstruct
+    public void init() {
+        profiles = nearCacheService.create("profile",
+                () -> configurationStore.get(Settings.PROFILE_CACHE_SIZE),
+                () -> configurationStore.get(Settings.PROFILE_CACHE_TTL_MS), Integer::valueOf);
+        configurationStore.subscribe(Settings.PROFILE_CACHE_SIZE, size -> {
+            profiles.trimToCapacity();
+            userIds.trimToCapacity();
+        });
+    }
+
+    @Override
+    public UserInfoVO getProfile(String email, FieldSet fields) {
+        Integer userId = userIds.get(email);
+        if (userId == null) {
+            User user = userMapper.selectOne(new QueryWrapper<User>().select("user_id").eq("user_email", email));
+            if (user == null) {
+                return null;
+            }
+            userId = user.getUserId();
+            userIds.putIfUnchanged(email, userIds.stamp(email), userId);
+        }
+        UserInfoVO cached = profiles.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        if (!fields.isAll()) {
+            return load(userId, fields);
+        }
+        long stamp = profiles.stamp(userId);
+        long started = System.currentTimeMillis();
+        Integer id = userId;
+        UserInfoVO profile = loads.run(userId, () -> load(id, fields));
+        if (profile != null) {
+            profiles.putIfUnchanged(userId, stamp, profile, System.currentTimeMillis() - started);
+        }
+        return profile;
+    }
+
+    @Override
+    public void invalidate(Integer userId) {
+        profiles.evict(userId);
+    }
+
+    private UserInfoVO load(Integer userId, FieldSet fields) {
+        try (FanOut scope = new FanOut(configurationStore.get(Settings.PROFILE_TIMEOUT_MS))) {
+            Supplier<User> user = scope.fork(() -> userMapper.selectOne(new QueryWrapper<User>()
+                    .select(fields.getColumnList().toArray(String[]::new)).eq("user_id", userId)));
+            Supplier<List<Wishlist>> wishlist = fields.includes("wishlist")
+                    ? scope.fork(() -> shardRouter.onUser(userId, () -> wishlistMapper.selectList(
+                            new QueryWrapper<Wishlist>().select("book_id").eq("user_id", userId))))
+                    : null;
+            // a user's reviews are split between REVIEWS and REVIEWS_ARCHIVE on their shard
+            Supplier<Long> reviews = null;
+            Supplier<Long> archived = null;
+            if (fields.includes("reviewCount")) {
+                reviews = scope.fork(() -> shardRouter.onUser(userId, () -> reviewMapper.countReviewByUserId(userId)));
+                archived = scope.fork(() -> shardRouter.onUser(userId, () -> reviewArchiveMapper.countByUserId(userId)));
+            }
+            scope.join();
+
+            if (user.get() == null) {
+                return null;
+            }
+            UserInfoVO userInfoVO = new UserInfoVO();
+            userInfoVO.setUserId(userId);
+            userInfoVO.setUserName(user.get().getUserName());
+            userInfoVO.setUserEmail(user.get().getUserEmail());
+            if (wishlist != null) {
+                userInfoVO.setWishlist(wishlist.get().stream().map(row -> {
+                    Book book = new Book();
+                    book.setBookId(row.getBookId());
+                    return book;
+                }).toList());
+            }
+            if (reviews != null) {
+                userInfoVO.setReviewCount(reviews.get() + archived.get());
+            }
+            return userInfoVO;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Profile of user " + userId + " could not be loaded in time", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading a profile", e);
+        }
+    }
+}
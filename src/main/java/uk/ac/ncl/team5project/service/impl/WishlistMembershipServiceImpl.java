@@ -0,0 +1,102 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.mapper.WishlistMapper;
+import uk.ac.ncl.team5project.model.event.WishlistItemAdded;
+import uk.ac.ncl.team5project.model.event.WishlistItemRemoved;
+import uk.ac.ncl.team5project.service.DomainEventService;
+import uk.ac.ncl.team5project.service.WishlistMembershipService;
+import uk.ac.ncl.team5project.util.MembershipCache;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file WishlistMembershipServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: Per-user wishlist membership answered from compressed bitmaps.
+ * @interface_description:
+ * - contains(userId, bookId), containsAll(userId, bookIds)
+ * - onWishlistAdded / onWishlistRemoved: called by WishlistServiceImpl after each committed write
+ * @calling_sequence: WishlistServiceImpl → WishlistMembershipServiceImpl → MembershipCache →
+ * ShardRouter.onUser → WishlistMapper.selectBookIdsByUserId (on a miss)
+ * @arguments_description: Integer userId, Integer bookId, List bookIds
+ * @list_of_subordinate_classes: MembershipCache, WishlistMapper, ShardRouter, DomainEventService
+ * @discussion: A user's book ids are read once, from their shard, into a RoaringBitmap; a page of about 50
+ * heart icons is then 50 bitmap probes instead of a query. Writes made through this instance update the
+ * cached bitmap. Writes made through other instances drop the user's bitmap when their WishlistItemAdded or
+ * WishlistItemRemoved event arrives; events may repeat or arrive out of order with local updates, so they
+ * invalidate rather than apply. The entry still expires after team5.wishlist.membership-ttl-ms, and the
+ * unique key on WISHLIST (user_id, book_id) stays the final duplicate check. The cache holds at most team5.wishlist.membership-cache-size users, least recently
+ * used evicted first.
+ * @development_history: Created on 2026-10-19 for bulk wishlist membership checks.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Bitmap cache in front of the user's wishlist rows.
+ */
+@Service
+public class WishlistMembershipServiceImpl implements WishlistMembershipService {
+
+    @Autowired
+    private WishlistMapper wishlistMapper;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private ConfigurationStore configurationStore;
+    @Autowired
+    private DomainEventService domainEventService;
+
+    private final MembershipCache cache = new MembershipCache(
+            () -> configurationStore.get(Settings.WISHLIST_MEMBERSHIP_CACHE_SIZE),
+            () -> configurationStore.get(Settings.WISHLIST_MEMBERSHIP_TTL_MS),
+            this::loadBookIds);
+
+    @PostConstruct
+    public void init() {
+        configurationStore.subscribe(Settings.WISHLIST_MEMBERSHIP_CACHE_SIZE, size -> cache.trimToCapacity());
+        domainEventService.subscribe("wishlist-membership", event -> {
+            if (event instanceof WishlistItemAdded || event instanceof WishlistItemRemoved) {
+                cache.invalidate(event.userId());
+            }
+        });
+    }
+
+    @Override
+    public boolean contains(Integer userId, Integer bookId) {
+        return cache.contains(userId, bookId);
+    }
+
+    @Override
+    public Map<Integer, Boolean> containsAll(Integer userId, List<Integer> bookIds) {
+        int[] ids = bookIds.stream().mapToInt(Integer::intValue).toArray();
+        boolean[] found = cache.containsAll(userId, ids);
+        Map<Integer, Boolean> result = new LinkedHashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            result.put(ids[i], found[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public void onWishlistAdded(Integer userId, Integer bookId) {
+        cache.add(userId, bookId);
+    }
+
+    @Override
+    public void onWishlistRemoved(Integer userId, Integer bookId) {
+        cache.remove(userId, bookId);
+    }
+
+    private int[] loadBookIds(int userId) {
+        return shardRouter.onUser(userId, () -> wishlistMapper.selectBookIdsByUserId(userId)).stream()
+                .mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -3,19 +3,33 @@ package uk.ac.ncl.team5project.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ncl.team5project.config.ShardRouter;
 import uk.ac.ncl.team5project.entity.User;
 import uk.ac.ncl.team5project.entity.Wishlist;
 import uk.ac.ncl.team5project.mapper.UserMapper;
 import uk.ac.ncl.team5project.mapper.WishlistMapper;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
 import uk.ac.ncl.team5project.model.dto.WishlistAddDTO;
+import uk.ac.ncl.team5project.model.dto.WishlistContainsDTO;
+import uk.ac.ncl.team5project.model.event.WishlistItemAdded;
+import uk.ac.ncl.team5project.model.event.WishlistItemRemoved;
 import uk.ac.ncl.team5project.model.vo.WishlistAddVO;
+import uk.ac.ncl.team5project.service.DomainEventService;
+import uk.ac.ncl.team5project.service.UserProfileService;
+import uk.ac.ncl.team5project.service.WishlistMembershipService;
 import uk.ac.ncl.team5project.service.WishlistService;
+import uk.ac.ncl.team5project.service.WishlistSyncService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.springframework.stereotype.Service;
 import uk.ac.ncl.team5project.util.Result;
+import uk.ac.ncl.team5project.util.FieldSet;
 
 import java.util.List;
 
@@ -26,15 +40,25 @@ import java.util.List;
  * Service implementation for wishlist-related operations including add, query (with pagination), and delete.
  * @interface_description:
  * - addBookToWishlist(WishlistAddDTO wishlist): Add a book to the user's wishlist
- * - getWishlist(Integer page, Integer size): Get wishlist items with pagination
+ * - getWishlist(Integer page, Integer size, FieldSet fields): Get wishlist items with pagination, reading only
+ *   the requested columns
  * - deleteBookFromWishlist(Integer wishlistId): Remove a book from the wishlist
+ * - containsBooks(WishlistContainsDTO books): Check which books are on the wishlist
+ * - getWishlistChanges(Long since): Adds and removes since a change version, for delta sync
  * @calling_sequence: Controller → WishlistServiceImpl → WishlistMapper → Database
  * @arguments_description:
  * - WishlistAddDTO: Data Transfer Object used for adding wishlist entries
  * - page/size: Pagination parameters from controller
  * - wishlistId: The ID of the wishlist record to delete
- * @list_of_subordinate_classes: UserMapper, WishlistMapper, WishlistAddDTO, WishlistAddVO
+ * @list_of_subordinate_classes: UserMapper, WishlistMapper, WishlistAddDTO, WishlistAddVO,
+ * WishlistMembershipService, WishlistSyncService, UserProfileService, DomainEventService, ShardRouter
  * @discussion: All methods require authentication; user is resolved via JWT token (email → user_id).
+ * WISHLIST is sharded by user_id, so every query runs on the current user's shard through ShardRouter.
+ * Membership checks, including the duplicate check on add, are answered by WishlistMembershipService.
+ * Each add and delete records its change version in the same transaction, on the user's shard, drops
+ * the user's cached profile. The same transaction appends a WishlistItemAdded or WishlistItemRemoved domain
+ * event, from which every instance refreshes its membership cache, the book's detail document, its title
+ * suggestion popularity and the related-books counts.
  * @development_history: Created on 2025-04-01 as part of wishlist module
  * @designer: wensi huang
  * @reviewer: wensi huang
@@ -46,6 +70,20 @@ import java.util.List;
 public class WishlistServiceImpl extends ServiceImpl<WishlistMapper, Wishlist> implements WishlistService {
     @Autowired
     private UserMapper userMapper;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private WishlistMembershipService wishlistMembershipService;
+    @Autowired
+    private ConfigurationStore configurationStore;
+    @Autowired
+    private WishlistSyncService wishlistSyncService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserProfileService userProfileService;
+    @Autowired
+    private DomainEventService domainEventService;
 
     /**
      * Adds a book to the current user's wishlist.
@@ -64,17 +102,38 @@ public class WishlistServiceImpl extends ServiceImpl<WishlistMapper, Wishlist> i
         if (user == null) {
             return Result.error(500,"User does not exist");
         }
-        Wishlist existingWishlist = baseMapper.selectOne(new QueryWrapper<Wishlist>().eq("user_id", user.getUserId())
-                .eq("book_id", wishlist.getBook_id()));
-        if (existingWishlist != null) {
+        if (wishlist.getBook_id() == null) {
+            return Result.error(400,"book_id is required");
+        }
+        // Answered from the user's cached membership bitmap rather than a query
+        if (wishlistMembershipService.contains(user.getUserId(), wishlist.getBook_id())) {
             return Result.error(500,"This book is already in the wishlist");
         }
 
         Wishlist newWishlist = new Wishlist();
         newWishlist.setUserId(user.getUserId());
         newWishlist.setBookId(wishlist.getBook_id());
-        boolean save = save(newWishlist);
+        boolean save;
+        try {
+            // All of a user's wishlist rows live on the shard chosen by their user ID; the transaction
+            // must begin there, so it is started inside onUserForWrite
+            save = shardRouter.onUserForWrite(user.getUserId(), () -> new TransactionTemplate(transactionManager).execute(status -> {
+                boolean saved = save(newWishlist);
+                if (saved) {
+                    wishlistSyncService.recordChange(user.getUserId(), newWishlist.getBookId(), newWishlist.getId(), false);
+                    domainEventService.append(new WishlistItemAdded(user.getUserId(), newWishlist.getBookId(), newWishlist.getId()));
+                }
+                return saved;
+            }));
+        } catch (DuplicateKeyException e) {
+            // added concurrently, or through another instance since the bitmap was loaded (unique key on user_id, book_id)
+            wishlistMembershipService.onWishlistAdded(user.getUserId(), wishlist.getBook_id());
+            userProfileService.invalidate(user.getUserId());
+            return Result.error(500,"This book is already in the wishlist");
+        }
         if (save) {
+            wishlistMembershipService.onWishlistAdded(user.getUserId(), newWishlist.getBookId());
+            userProfileService.invalidate(user.getUserId());
             WishlistAddVO wishlistAddVO = new WishlistAddVO();
             wishlistAddVO.setWishlist_id(newWishlist.getId());
             return Result.success(wishlistAddVO);
@@ -89,15 +148,18 @@ public class WishlistServiceImpl extends ServiceImpl<WishlistMapper, Wishlist> i
      * @return List of Wishlist entries for the current page
      */
     @Override
-    public Result<?> getWishlist(Integer page, Integer size) {
+    public Result<?> getWishlist(Integer page, Integer size, FieldSet fields) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = (String) authentication.getPrincipal();
-        User user = userMapper.selectOne(new QueryWrapper<User>().eq("user_email", email));
+        User user = userMapper.selectOne(new QueryWrapper<User>().select("user_id").eq("user_email", email));
         if (user == null) {
             return Result.error(500,"User does not exist");
         }
         Page<Wishlist> wishlistPage = new Page<>(page, size);
-        Page<Wishlist> selectPage = baseMapper.selectPage(wishlistPage, new QueryWrapper<Wishlist>().eq("user_id", user.getUserId()));
+        Page<Wishlist> selectPage = shardRouter.onUser(user.getUserId(), () ->
+                baseMapper.selectPage(wishlistPage, new QueryWrapper<Wishlist>()
+                        .select(fields.getColumnList().toArray(String[]::new))
+                        .eq("user_id", user.getUserId())));
 
         if (selectPage!= null) {
             return Result.success(selectPage.getRecords());
@@ -119,15 +181,63 @@ public class WishlistServiceImpl extends ServiceImpl<WishlistMapper, Wishlist> i
 
             return Result.error(500,"User does not exist");
         }
-        Wishlist wishlist = baseMapper.selectById(wishlistId);
+        Wishlist wishlist = shardRouter.onUser(user.getUserId(), () -> baseMapper.selectById(wishlistId));
 
         if (wishlist == null) {
             return Result.error(500,"Wishlist item does not exist");
         }
-        boolean remove = removeById(wishlist);
+        boolean remove = shardRouter.onUserForWrite(user.getUserId(), () -> new TransactionTemplate(transactionManager).execute(status -> {
+            boolean removed = removeById(wishlist);
+            if (removed) {
+                wishlistSyncService.recordChange(user.getUserId(), wishlist.getBookId(), wishlist.getId(), true);
+                domainEventService.append(new WishlistItemRemoved(user.getUserId(), wishlist.getBookId(), wishlist.getId()));
+            }
+            return removed;
+        }));
         if (remove) {
+            wishlistMembershipService.onWishlistRemoved(wishlist.getUserId(), wishlist.getBookId());
+            userProfileService.invalidate(wishlist.getUserId());
             return Result.success("Deleted successfully",null);
         }
         return Result.error(500,"Failed to delete wishlist item");
     }
+
+    /**
+     * Checks which of the given books are on the current user's wishlist.
+     * @param books DTO containing book_ids (at most team5.wishlist.contains-max-ids)
+     * @return map of book id to true/false, in the order requested
+     */
+    @Override
+    public Result<?> containsBooks(WishlistContainsDTO books) {
+        if (books == null || books.getBook_ids() == null || books.getBook_ids().contains(null)) {
+            return Result.error(400,"book_ids is required");
+        }
+        int max = configurationStore.get(Settings.WISHLIST_CONTAINS_MAX_IDS);
+        if (books.getBook_ids().size() > max) {
+            return Result.error(400,"At most " + max + " book_ids per request");
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = (String) authentication.getPrincipal();
+        User user = userMapper.selectOne(new QueryWrapper<User>().eq("user_email", email));
+        if (user == null) {
+            return Result.error(500,"User does not exist");
+        }
+        return Result.success(wishlistMembershipService.containsAll(user.getUserId(), books.getBook_ids()));
+    }
+
+    /**
+     * Returns the current user's wishlist changes since a version from an earlier call.
+     * @param since version returned by the previous sync; omit (or 0) for a full snapshot
+     * @return WishlistChangesVO with the new version, the reset flag and the changes
+     */
+    @Override
+    public Result<?> getWishlistChanges(Long since) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = (String) authentication.getPrincipal();
+        User user = userMapper.selectOne(new QueryWrapper<User>().eq("user_email", email));
+        if (user == null) {
+            return Result.error(500,"User does not exist");
+        }
+        return Result.success(wishlistSyncService.changesSince(user.getUserId(), since));
+    }
 }
@@ -0,0 +1,149 @@
+package uk.ac.ncl.team5project.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
+import uk.ac.ncl.team5project.config.ShardRouter;
+import uk.ac.ncl.team5project.entity.WishlistChange;
+import uk.ac.ncl.team5project.entity.WishlistVersion;
+import uk.ac.ncl.team5project.mapper.WishlistChangeMapper;
+import uk.ac.ncl.team5project.model.vo.WishlistChangeVO;
+import uk.ac.ncl.team5project.model.vo.WishlistChangesVO;
+import uk.ac.ncl.team5project.service.WishlistSyncService;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file WishlistSyncServiceImpl.java
+ * @date 2026-10-19
+ * @function_description: Per-user wishlist change versions, delta reads and tombstone pruning.
+ * @interface_description:
+ * - recordChange(userId, bookId, wishlistId, removed): bump the user's version and stamp the book's log row
+ * - changesSince(userId, since): changes in (since, current], or a full snapshot with reset = true
+ * - pruneTombstones(): scheduled every team5.wishlist.tombstone-prune-interval-ms (default one hour)
+ * @calling_sequence: WishlistServiceImpl → WishlistSyncServiceImpl → ShardRouter → WishlistChangeMapper
+ * @arguments_description: Integer userId, Integer bookId, Integer wishlistId, boolean removed, Long since
+ * @list_of_subordinate_classes: WishlistChangeMapper, WishlistChange, WishlistVersion, WishlistChangesVO
+ * @discussion: The version bump is an UPDATE of the user's WISHLIST_VERSION row, so a user's changes are
+ * serialised and each commits with a version no other change of theirs has; other users are unaffected.
+ * A delta read takes the committed version first and then only the log rows up to it, so a change
+ * committing in between is left for the next sync rather than skipped. The log keeps one row per book,
+ * which bounds a delta by the size of the wishlist. A client must start again from a snapshot when its
+ * since is 0, newer than the current version, or older than the newest pruned tombstone.
+ * @development_history: Created on 2026-10-19 for wishlist delta sync.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Change-version log behind GET /v1/wishlist/changes.
+ */
+@Service
+public class WishlistSyncServiceImpl implements WishlistSyncService {
+    private static final Logger log = LoggerFactory.getLogger(WishlistSyncServiceImpl.class);
+    private static final int PRUNE_BATCH_SIZE = 500;
+
+    @Autowired
+    private WishlistChangeMapper wishlistChangeMapper;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private ConfigurationStore configurationStore;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public long recordChange(Integer userId, Integer bookId, Integer wishlistId, boolean removed) {
+        if (wishlistChangeMapper.incrementVersion(userId) == 0) {
+            try {
+                wishlistChangeMapper.insertVersion(new WishlistVersion().setUserId(userId).setVersion(1L).setPrunedVersion(0L));
+            } catch (DuplicateKeyException e) {
+                // first change of a user racing with another one
+                wishlistChangeMapper.incrementVersion(userId);
+            }
+        }
+        long version = wishlistChangeMapper.selectVersion(userId).getVersion();
+        WishlistChange change = new WishlistChange().setUserId(userId).setBookId(bookId).setWishlistId(wishlistId)
+                .setVersion(version).setDeleted(removed ? 1 : 0).setChangeTime(LocalDateTime.now());
+        if (wishlistChangeMapper.updateChange(change) == 0) {
+            wishlistChangeMapper.insertChange(change);
+        }
+        return version;
+    }
+
+    @Override
+    public WishlistChangesVO changesSince(Integer userId, Long since) {
+        return shardRouter.onUser(userId, () -> {
+            WishlistVersion current = wishlistChangeMapper.selectVersion(userId);
+            long version = current == null ? 0 : current.getVersion();
+            long pruned = current == null ? 0 : current.getPrunedVersion();
+            boolean reset = since == null || since <= 0 || since < pruned || since > version;
+            List<WishlistChange> rows = reset
+                    ? wishlistChangeMapper.selectLiveChanges(userId, version)
+                    : wishlistChangeMapper.selectChangesSince(userId, since, version);
+            WishlistChangesVO changes = new WishlistChangesVO();
+            changes.setVersion(version);
+            changes.setReset(reset);
+            changes.setChanges(rows.stream().map(row -> {
+                WishlistChangeVO vo = new WishlistChangeVO();
+                vo.setBook_id(row.getBookId());
+                vo.setWishlist_id(row.getWishlistId());
+                vo.setOp(row.getDeleted() == 1 ? WishlistChangeVO.REMOVE : WishlistChangeVO.ADD);
+                vo.setVersion(row.getVersion());
+                return vo;
+            }).toList());
+            return changes;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${team5.wishlist.tombstone-prune-interval-ms:3600000}",
+            initialDelayString = "${team5.wishlist.tombstone-prune-interval-ms:3600000}")
+    public void pruneOnSchedule() {
+        try {
+            pruneTombstones();
+        } catch (RuntimeException e) {
+            log.warn("Wishlist tombstone pruning failed, retrying on the next run", e);
+        }
+    }
+
+    @Override
+    public synchronized int pruneTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(configurationStore.get(Settings.WISHLIST_TOMBSTONE_RETENTION_DAYS));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int pruned = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            List<WishlistChange> batch;
+            do {
+                batch = shardRouter.onShard(shard, () -> wishlistChangeMapper.selectExpiredTombstones(cutoff, PRUNE_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                List<WishlistChange> rows = batch;
+                // Raise each user's pruned_version before their tombstones go, in one short transaction per batch
+                pruned += shardRouter.onShard(shard, () -> transaction.execute(status -> {
+                    Map<Integer, Long> highest = new HashMap<>();
+                    rows.forEach(row -> highest.merge(row.getUserId(), row.getVersion(), Math::max));
+                    highest.forEach(wishlistChangeMapper::raisePrunedVersion);
+                    int deleted = 0;
+                    for (WishlistChange row : rows) {
+                        deleted += wishlistChangeMapper.deleteTombstone(row);
+                    }
+                    return deleted;
+                }));
+            } while (batch.size() == PRUNE_BATCH_SIZE);
+        }
+        if (pruned > 0) {
+            log.info("Pruned {} wishlist tombstones older than {}", pruned, cutoff);
+        }
+        return pruned;
+    }
+}
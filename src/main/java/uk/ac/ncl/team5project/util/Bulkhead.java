@@ -0,0 +1,64 @@
+package uk.ac.ncl.team5project.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @file Bulkhead.java
+ * @date 2026-10-19
+ * @function_description: Caps how many calls of one kind run at once.
+ * @interface_description:
+ * - tryAcquire(limit): true and one more call in flight, or false if limit calls already are
+ * - release(): the call of a successful tryAcquire has finished
+ * - getName(), getInFlight(), getRejected()
+ * @calling_sequence: BulkheadInterceptor, ConcurrencyLimitFilter → Bulkhead
+ * @arguments_description: String name, int limit
+ * @list_of_subordinate_classes: None
+ * @discussion: A full bulkhead rejects at once instead of queueing, since a queue would hold the very
+ * threads the cap is there to save. The limit is passed on each call so it can be changed at runtime; a
+ * lower limit lets the calls in flight finish and rejects new ones until they have.
+ * @development_history: Created on 2026-10-19 for bulkheads around the controllers.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Non-blocking concurrency cap.
+ */
+public final class Bulkhead {
+
+    private final String name;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(String name) {
+        this.name = name;
+    }
+
+    public boolean tryAcquire(int limit) {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
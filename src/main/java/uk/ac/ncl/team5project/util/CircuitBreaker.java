@@ -0,0 +1,107 @@
+package uk.ac.ncl.team5project.util;
+
+/**
+ * @file CircuitBreaker.java
+ * @date 2026-10-19
+ * @function_description: Stops calls to a failing dependency for a while, then lets one call probe it.
+ * @interface_description:
+ * - tryAcquire(now, openMillis): a permit (>= 0) if the call may go ahead, -1 if the breaker is open
+ * - onSuccess(permit) / onFailure(permit, now, threshold): report how the call of a permit went
+ * - remainingOpenMillis(now, openMillis): time until the next probe is allowed
+ * - getName(), getState(), getConsecutiveFailures(), getTimesOpened(), getRejected()
+ * @calling_sequence: CircuitBreakerInterceptor → CircuitBreaker
+ * @arguments_description: String name, long now (epoch millis), long openMillis, int threshold
+ * @list_of_subordinate_classes: State
+ * @discussion: CLOSED lets every call through and opens after threshold failures in a row. OPEN rejects
+ * calls until openMillis have passed since it opened, then lets the next call through as the probe and
+ * rejects the others (HALF_OPEN): the probe closes the breaker if it succeeds and opens it again if it
+ * fails. A permit is the breaker's generation, which moves on at every change of state, so a call admitted
+ * before a change reports into nothing: a slow call finishing after the breaker opened cannot close it,
+ * and only the probe decides a half-open breaker. Thresholds are passed on each call so they can be
+ * changed at runtime. Every operation holds the breaker's monitor briefly.
+ * @development_history: Created on 2026-10-19 for circuit breaking around the mappers.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Three-state circuit breaker with generation-checked permits.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private State state = State.CLOSED;
+    private long generation;
+    private int consecutiveFailures;
+    private long openedAt;
+    private long timesOpened;
+    private long rejected;
+
+    public CircuitBreaker(String name) {
+        this.name = name;
+    }
+
+    public synchronized long tryAcquire(long now, long openMillis) {
+        if (state == State.CLOSED) {
+            return generation;
+        }
+        if (state == State.OPEN && now - openedAt >= openMillis) {
+            transition(State.HALF_OPEN);
+            return generation;
+        }
+        rejected++;
+        return -1;
+    }
+
+    public synchronized void onSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            transition(State.CLOSED);
+        }
+    }
+
+    public synchronized void onFailure(long permit, long now, int threshold) {
+        if (permit != generation) {
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= threshold) {
+            transition(State.OPEN);
+            openedAt = now;
+            timesOpened++;
+        }
+    }
+
+    public synchronized long remainingOpenMillis(long now, long openMillis) {
+        return state == State.OPEN ? Math.max(0, openMillis - (now - openedAt)) : 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized long getTimesOpened() {
+        return timesOpened;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    private void transition(State next) {
+        state = next;
+        generation++;
+    }
+}
@@ -0,0 +1,82 @@
+package uk.ac.ncl.team5project.util;
+
+import java.util.Arrays;
+
+/**
+ * @file ConsistentHashRing.java
+ * @date 2026-10-19
+ * @function_description: Consistent-hash ring mapping integer keys to a fixed number of shards.
+ * @interface_description: shardFor(key), shards()
+ * @calling_sequence: ShardRouter → ConsistentHashRing.shardFor(userId)
+ * @arguments_description: int shards, int virtualNodes, int key
+ * @list_of_subordinate_classes: None
+ * @discussion: Each shard owns virtualNodes points on a 32-bit ring; a key belongs to the first point at or
+ * after its hash, wrapping around. Growing the ring from n to n+1 shards moves only about 1/(n+1) of the
+ * keys, all of them onto the new shard. Point positions depend only on (shard, replica), so every instance
+ * builds the same ring. Immutable and safe to share between threads.
+ * @development_history: Created on 2026-10-19 for sharding WISHLIST and REVIEWS by user.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Sorted array of virtual-node points searched by binary search.
+ */
+public final class ConsistentHashRing {
+
+    private final int shards;
+    private final int[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(int shards, int virtualNodes) {
+        if (shards < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("shards and virtualNodes must be positive");
+        }
+        this.shards = shards;
+        long[] packed = new long[shards * virtualNodes];
+        int n = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            int seed = mix(shard + 0x7F4A7C15);
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                int point = mix(seed + replica * 0x9E3779B9);
+                // Sort by unsigned position, ties broken by shard so the order is deterministic
+                packed[n++] = (Integer.toUnsignedLong(point) << 16) | shard;
+            }
+        }
+        Arrays.sort(packed);
+        points = new int[packed.length];
+        owners = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            points[i] = (int) (packed[i] >>> 16);
+            owners[i] = (int) (packed[i] & 0xFFFF);
+        }
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public int shardFor(int key) {
+        int hash = mix(key);
+        int low = 0;
+        int high = points.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Integer.compareUnsigned(points[mid], hash) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return owners[low == points.length ? 0 : low];
+    }
+
+    // murmur3 finaliser: spreads sequential ids over the whole ring
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,141 @@
+package uk.ac.ncl.team5project.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * @file ExpiringCache.java
+ * @date 2026-10-19
+ * @function_description: Bounded LRU cache whose entries expire after a time to live.
+ * @interface_description:
+ * - get(key): the cached value, or null if absent, expired or chosen for early refresh
+ * - stamp(key) then putIfUnchanged(key, stamp, value[, computeMillis]): cache a value loaded after stamp()
+ *   unless the key was invalidated in between; computeMillis is how long the load took
+ * - invalidate(key), invalidateAll(), size()
+ * - trimToCapacity(): evict down to the current capacity, for when it shrinks
+ * @calling_sequence: UserProfileServiceImpl → ExpiringCache; NearCache extends it
+ * @arguments_description: IntSupplier capacity (max entries kept), LongSupplier ttlMillis (0 = no expiry)
+ * @list_of_subordinate_classes: Entry
+ * @discussion: Loading happens outside the cache, so a write that invalidates a key while its value is being
+ * loaded would otherwise be undone when the stale load is stored. invalidate() bumps a per-stripe counter
+ * and putIfUnchanged() drops the value if the counter moved since stamp(), as MembershipCache does.
+ * Entries stored with the time their load took are refreshed early by probabilistic early
+ * expiration (XFetch): each get() reports a miss with a probability that rises as expiry nears and with
+ * the cost of the load, so one caller usually reloads a hot key shortly before it expires while the others
+ * keep reading the old value, and hot keys stored together do not all expire at once. The entry stays in
+ * place until the reload replaces it. Capacity and TTL are read on each call, so they can be changed at runtime. Every operation holds the
+ * cache's monitor for a map lookup.
+ * @development_history: Created on 2026-10-19 for caching the /v1/users/me profile.
+ * 2026-10-19 trimToCapacity for live capacity changes
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Access-ordered LinkedHashMap with expiry and invalidation stamps.
+ */
+public class ExpiringCache<K, V> {
+
+    private static final int STRIPES = 256;
+    // XFetch beta; above 1 favours refreshing earlier
+    private static final double EARLY_REFRESH_BETA = 1.0;
+
+    private final IntSupplier capacity;
+    private final LongSupplier ttlMillis;
+    // guarded by this
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long[] invalidations = new long[STRIPES];
+
+    public ExpiringCache(IntSupplier capacity, LongSupplier ttlMillis) {
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long ttl = ttlMillis.getAsLong();
+        if (ttl <= 0) {
+            return entry.value;
+        }
+        long now = System.currentTimeMillis();
+        if (now - entry.storedAt > ttl) {
+            entries.remove(key);
+            return null;
+        }
+        if (entry.computeMillis > 0
+                && now - entry.computeMillis * EARLY_REFRESH_BETA * Math.log(ThreadLocalRandom.current().nextDouble()) >= entry.storedAt + ttl) {
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Take before loading a value to store with putIfUnchanged.
+     */
+    public synchronized long stamp(K key) {
+        return invalidations[stripe(key)];
+    }
+
+    /**
+     * @return false if the key was invalidated since stamp was taken, in which case nothing is stored
+     */
+    public boolean putIfUnchanged(K key, long stamp, V value) {
+        return putIfUnchanged(key, stamp, value, 0);
+    }
+
+    /**
+     * As putIfUnchanged(key, stamp, value), and lets get() refresh the entry early in proportion to computeMillis.
+     */
+    public synchronized boolean putIfUnchanged(K key, long stamp, V value, long computeMillis) {
+        if (invalidations[stripe(key)] != stamp) {
+            return false;
+        }
+        entries.put(key, new Entry<>(value, System.currentTimeMillis(), computeMillis));
+        evict();
+        return true;
+    }
+
+    public synchronized void trimToCapacity() {
+        evict();
+    }
+
+    public synchronized void invalidate(K key) {
+        invalidations[stripe(key)]++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            invalidations[i]++;
+        }
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Caller holds the monitor
+    private void evict() {
+        int max = Math.max(1, capacity.getAsInt());
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > max && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private static int stripe(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private record Entry<V>(V value, long storedAt, long computeMillis) {
+    }
+}
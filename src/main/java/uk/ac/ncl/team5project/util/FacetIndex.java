@@ -0,0 +1,294 @@
+package uk.ac.ncl.team5project.util;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @file FacetIndex.java
+ * @date 2026-10-19
+ * @function_description: In-memory faceted filter over book ids using compressed bitmaps.
+ * @interface_description:
+ * - addBook / removeBook: membership of the whole catalog
+ * - setValues(dimension, bookId, values): replaces a book's values in one dimension (e.g. its categories)
+ * - query(selected, offset, limit, facetLimit): filtered page of ids plus facet counts for every dimension
+ * - optimize(): run-length compresses the bitmaps after a bulk load
+ * @calling_sequence: BookBrowseServiceImpl → FacetIndex → RoaringBitmap
+ * @arguments_description: String dimension, int value (facet value id), int bookId,
+ * Map selected (dimension → value ids; OR within a dimension, AND across dimensions)
+ * @list_of_subordinate_classes: QueryResult, FacetCount
+ * @discussion: Every facet value owns a RoaringBitmap of book ids, and every dimension also keeps the
+ * values of each book (indexed by book id) so updates and small result sets never scan all values.
+ * Facet counts are disjunctive: the counts of a dimension ignore that dimension's own selection, so
+ * the user can see what widening the selection would give. For each dimension the counts come either
+ * from one bitmap intersection per value or, when the filtered set is small, from walking the set and
+ * tallying each book's values, whichever touches less data. Readers share a read lock, writers take
+ * the write lock.
+ * @development_history: Created on 2026-10-19 for faceted catalog browsing.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Bitmap facet index; filtered counts are intersections, not GROUP BY queries.
+ */
+public class FacetIndex {
+
+    private static final int[] NO_VALUES = new int[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<String, Dimension> dimensions = new LinkedHashMap<>();
+
+    public FacetIndex(String... dimensionNames) {
+        for (String name : dimensionNames) {
+            dimensions.put(name, new Dimension());
+        }
+    }
+
+    public void addBook(int bookId) {
+        lock.writeLock().lock();
+        try {
+            all.add(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeBook(int bookId) {
+        lock.writeLock().lock();
+        try {
+            all.remove(bookId);
+            for (Dimension dimension : dimensions.values()) {
+                dimension.set(bookId, NO_VALUES);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the values of bookId in one dimension.
+     */
+    public void setValues(String dimension, int bookId, int[] values) {
+        lock.writeLock().lock();
+        try {
+            dimension(dimension).set(bookId, values == null ? NO_VALUES : values);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return all.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void optimize() {
+        lock.writeLock().lock();
+        try {
+            all.runOptimize();
+            for (Dimension dimension : dimensions.values()) {
+                dimension.postings.values().forEach(RoaringBitmap::runOptimize);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap footprint in bytes.
+     */
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = all.getSizeInBytes();
+            for (Dimension dimension : dimensions.values()) {
+                bytes += 8L * dimension.valuesByBook.length;
+                for (RoaringBitmap bitmap : dimension.postings.values()) {
+                    bytes += 48 + bitmap.getSizeInBytes();
+                }
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filters the catalog and counts facet values.
+     * @param selected value ids per dimension; absent or empty dimensions are unfiltered
+     * @param offset number of matching ids to skip (ids ascend)
+     * @param limit maximum ids to return
+     * @param facetLimit maximum values per dimension, highest count first
+     * @return total matches, the requested ids and the facet counts of every dimension
+     */
+    public QueryResult query(Map<String, int[]> selected, int offset, int limit, int facetLimit) {
+        lock.readLock().lock();
+        try {
+            Map<String, RoaringBitmap> selections = new HashMap<>();
+            for (Map.Entry<String, int[]> entry : selected.entrySet()) {
+                if (entry.getValue() != null && entry.getValue().length > 0) {
+                    selections.put(entry.getKey(), dimension(entry.getKey()).union(entry.getValue()));
+                }
+            }
+            RoaringBitmap matches = intersect(selections, null);
+            Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+            for (Map.Entry<String, Dimension> entry : dimensions.entrySet()) {
+                boolean unfiltered = selections.isEmpty()
+                        || selections.size() == 1 && selections.containsKey(entry.getKey());
+                RoaringBitmap base = selections.containsKey(entry.getKey())
+                        ? intersect(selections, entry.getKey()) : matches;
+                facets.put(entry.getKey(), entry.getValue().counts(base, unfiltered, facetLimit));
+            }
+            return new QueryResult(matches.getLongCardinality(), page(matches, offset, limit), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // AND of all selections except the excluded dimension; the catalog itself when nothing applies
+    private RoaringBitmap intersect(Map<String, RoaringBitmap> selections, String excluded) {
+        List<RoaringBitmap> parts = new ArrayList<>();
+        parts.add(all);
+        selections.forEach((name, bitmap) -> {
+            if (!name.equals(excluded)) {
+                parts.add(bitmap);
+            }
+        });
+        return parts.size() == 1 ? all : FastAggregation.and(parts.iterator());
+    }
+
+    private static int[] page(RoaringBitmap matches, int offset, int limit) {
+        if (limit <= 0 || offset >= matches.getCardinality()) {
+            return NO_VALUES;
+        }
+        int[] ids = new int[Math.min(limit, matches.getCardinality() - offset)];
+        PeekableIntIterator iterator = matches.getIntIterator();
+        if (offset > 0) {
+            iterator.advanceIfNeeded(matches.select(offset));
+        }
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = iterator.next();
+        }
+        return ids;
+    }
+
+    private Dimension dimension(String name) {
+        Dimension dimension = dimensions.get(name);
+        if (dimension == null) {
+            throw new IllegalArgumentException("unknown facet dimension: " + name);
+        }
+        return dimension;
+    }
+
+    public record FacetCount(int value, int count) {
+    }
+
+    public record QueryResult(long total, int[] bookIds, Map<String, List<FacetCount>> facets) {
+    }
+
+    private static final class Dimension {
+        private final Map<Integer, RoaringBitmap> postings = new HashMap<>();
+        private int[][] valuesByBook = new int[1024][];
+
+        private void set(int bookId, int[] values) {
+            if (bookId >= valuesByBook.length) {
+                if (values.length == 0) {
+                    return;
+                }
+                valuesByBook = Arrays.copyOf(valuesByBook, Math.max(bookId + 1, valuesByBook.length * 2));
+            }
+            int[] previous = valuesByBook[bookId];
+            if (previous != null) {
+                for (int value : previous) {
+                    RoaringBitmap bitmap = postings.get(value);
+                    if (bitmap != null) {
+                        bitmap.remove(bookId);
+                        if (bitmap.isEmpty()) {
+                            postings.remove(value);
+                        }
+                    }
+                }
+            }
+            int[] distinct = Arrays.stream(values).distinct().toArray();
+            for (int value : distinct) {
+                postings.computeIfAbsent(value, v -> new RoaringBitmap()).add(bookId);
+            }
+            valuesByBook[bookId] = distinct.length == 0 ? null : distinct;
+        }
+
+        private RoaringBitmap union(int[] values) {
+            List<RoaringBitmap> bitmaps = new ArrayList<>(values.length);
+            for (int value : values) {
+                RoaringBitmap bitmap = postings.get(value);
+                if (bitmap != null) {
+                    bitmaps.add(bitmap);
+                }
+            }
+            return bitmaps.isEmpty() ? new RoaringBitmap() : FastAggregation.or(bitmaps.iterator());
+        }
+
+        private List<FacetCount> counts(RoaringBitmap base, boolean unfiltered, int facetLimit) {
+            if (facetLimit <= 0 || postings.isEmpty()) {
+                return List.of();
+            }
+            PriorityQueue<FacetCount> heap = new PriorityQueue<>(facetLimit + 1, FacetIndex::compareCounts);
+            if (unfiltered) {
+                postings.forEach((value, bitmap) -> offer(heap, value, bitmap.getCardinality(), facetLimit));
+            } else if (base.getCardinality() < postings.size()) {
+                // Few matching books: tally their values instead of intersecting every value's bitmap
+                IntIntHashMap tally = new IntIntHashMap(64, 0);
+                IntIterator iterator = base.getIntIterator();
+                while (iterator.hasNext()) {
+                    int bookId = iterator.next();
+                    int[] values = bookId < valuesByBook.length ? valuesByBook[bookId] : null;
+                    if (values != null) {
+                        for (int value : values) {
+                            tally.addTo(value, 1);
+                        }
+                    }
+                }
+                tally.forEach((value, count) -> offer(heap, value, count, facetLimit));
+            } else {
+                postings.forEach((value, bitmap) ->
+                        offer(heap, value, RoaringBitmap.andCardinality(base, bitmap), facetLimit));
+            }
+            List<FacetCount> result = new ArrayList<>(heap);
+            result.sort((a, b) -> compareCounts(b, a));
+            return result;
+        }
+
+        private static void offer(PriorityQueue<FacetCount> heap, int value, int count, int facetLimit) {
+            if (count == 0) {
+                return;
+            }
+            FacetCount candidate = new FacetCount(value, count);
+            if (heap.size() < facetLimit) {
+                heap.add(candidate);
+            } else if (compareCounts(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+    }
+
+    // Higher count first, then lower value id
+    private static int compareCounts(FacetCount a, FacetCount b) {
+        int byCount = Integer.compare(a.count(), b.count());
+        return byCount != 0 ? byCount : Integer.compare(b.value(), a.value());
+    }
+}
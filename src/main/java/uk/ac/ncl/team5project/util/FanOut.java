@@ -0,0 +1,114 @@
+package uk.ac.ncl.team5project.util;
+
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import uk.ac.ncl.team5project.config.CircuitBreakerInterceptor;
+import uk.ac.ncl.team5project.config.ReadYourWrites;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * @file FanOut.java
+ * @date 2026-10-19
+ * @function_description: Scope that runs independent sub-queries in parallel under one deadline.
+ * @interface_description:
+ * - fork(task): start task on a virtual thread; the returned Supplier gives its result after join()
+ * - join(): wait for every forked task, the first failure or the deadline, whichever comes first
+ * - close(): interrupt anything still running
+ * @calling_sequence: UserProfileServiceImpl → FanOut.fork(...) → join() → Supplier.get()
+ * @arguments_description: long timeoutMillis, Callable task
+ * @list_of_subordinate_classes: Subtask
+ * @discussion: Follows StructuredTaskScope.ShutdownOnFailure, which is still a preview API in Java 21 and is
+ * not enabled in this build: used in try-with-resources, any task still running when the block exits is
+ * interrupted and its result dropped, the first task to fail interrupts its siblings, and join() rethrows
+ * that failure. When the deadline passes first, the remaining tasks are interrupted and join() throws
+ * TimeoutException. Each task runs with the security context and read-your-writes session of the thread
+ * that forked it, so per-request routing still applies, and its slow statements count towards the circuit
+ * breakers as the request's would. A scope is meant to be used by the thread that created it.
+ * @development_history: Created on 2026-10-19 for the concurrent /v1/users/me profile.
+ * 2026-10-19 Tasks carry the request mark of CircuitBreakerInterceptor.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Shutdown-on-failure fan-out over virtual threads.
+ */
+public final class FanOut implements AutoCloseable {
+
+    private static final int WAKE_ALL = 1 << 20;
+
+    private final long deadline;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<?>> forks = new ArrayList<>();
+    // one permit per finished task; the first failure releases enough to wake join() at once
+    private final Semaphore finished = new Semaphore(0);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public FanOut(long timeoutMillis) {
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    public <T> Supplier<T> fork(Callable<T> task) {
+        Callable<T> secured = CircuitBreakerInterceptor.propagate(ReadYourWrites.propagate(new DelegatingSecurityContextCallable<>(task)));
+        Subtask<T> subtask = new Subtask<>();
+        forks.add(executor.submit(() -> {
+            try {
+                subtask.value = secured.call();
+                subtask.done = true;
+            } catch (Throwable e) {
+                if (failure.compareAndSet(null, e)) {
+                    finished.release(WAKE_ALL);
+                }
+            } finally {
+                finished.release();
+            }
+        }));
+        return subtask;
+    }
+
+    /**
+     * @throws ExecutionException wrapping the first failure of a forked task
+     * @throws TimeoutException if the deadline passed before every task finished
+     */
+    public void join() throws InterruptedException, ExecutionException, TimeoutException {
+        long remaining = Math.max(0, deadline - System.nanoTime());
+        boolean done = finished.tryAcquire(forks.size(), remaining, TimeUnit.NANOSECONDS);
+        if (failure.get() != null) {
+            executor.shutdownNow();
+            throw new ExecutionException(failure.get());
+        }
+        if (!done) {
+            executor.shutdownNow();
+            throw new TimeoutException("Sub-queries did not finish in time");
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // Written by the forked task before it releases its permit, read by the owner after join()
+    private static final class Subtask<T> implements Supplier<T> {
+        private volatile T value;
+        private volatile boolean done;
+
+        @Override
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("Task has not completed successfully");
+            }
+            return value;
+        }
+    }
+}
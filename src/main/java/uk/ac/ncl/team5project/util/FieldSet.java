@@ -0,0 +1,146 @@
+package uk.ac.ncl.team5project.util;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * @file FieldSet.java
+ * @date 2026-10-19
+ * @function_description: The fields a client asked for with ?fields=, pushed down into SQL and applied to the JSON.
+ * @interface_description:
+ * - Schema: the selectable fields of one response type, their columns and the fields always read
+ * - Schema.parse(fields): FieldSet for a comma-separated ?fields= value; null or blank selects every field
+ * - includes(property): whether the client asked for the field, for skipping work it would need
+ * - getColumns() / getColumnList(): the columns to read, for annotated mappers (${fields.columns}) and
+ *   QueryWrapper.select
+ * - filter(body): the response body wrapped so that Jackson writes only the requested fields
+ * @calling_sequence: Controller → Schema.parse → Service → Mapper (COLUMNS) → Controller → filter
+ * @arguments_description: String fields, Object body
+ * @list_of_subordinate_classes: Schema
+ * @discussion: Only names declared in a Schema are accepted and only their declared column names reach the
+ * SQL, so ${} substitution is safe; an unknown name is an IllegalArgumentException, reported as 400.
+ * Key fields (ids used for merging, ordering or name lookups) are always read but only written when
+ * requested. Fields that are not columns (derived) are filled by the service, which can skip the lookup
+ * when they are not requested. The JSON filter applies to classes annotated @JsonFilter with the schema's
+ * filter id; JacksonConfig makes those classes serialize in full everywhere else. Two FieldSets of the same
+ * schema with the same requested fields are equal, so a FieldSet can be part of a key.
+ * @development_history: Created on 2026-10-19 for sparse fieldsets on list endpoints.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Sparse fieldset projection shared by SQL and JSON.
+ */
+public final class FieldSet {
+
+    // Select list for annotated mappers with a FieldSet parameter named fields; null reads every column
+    public static final String COLUMNS =
+            "<choose><when test='fields != null'>${fields.columns}</when><otherwise>*</otherwise></choose>";
+
+    private final Schema schema;
+    // null when every field is selected
+    private final Set<String> requested;
+
+    private FieldSet(Schema schema, Set<String> requested) {
+        this.schema = schema;
+        this.requested = requested;
+    }
+
+    public boolean isAll() {
+        return requested == null;
+    }
+
+    public boolean includes(String property) {
+        return requested == null || requested.contains(property);
+    }
+
+    public List<String> getColumnList() {
+        List<String> columns = new ArrayList<>();
+        schema.columns.forEach((property, column) -> {
+            if (includes(property) || schema.keys.contains(property)) {
+                columns.add(column);
+            }
+        });
+        return columns;
+    }
+
+    public String getColumns() {
+        return String.join(", ", getColumnList());
+    }
+
+    public MappingJacksonValue filter(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (requested != null) {
+            value.setFilters(new SimpleFilterProvider().setFailOnUnknownId(false)
+                    .addFilter(schema.filterId, SimpleBeanPropertyFilter.filterOutAllExcept(requested)));
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FieldSet other && schema == other.schema && Objects.equals(requested, other.requested);
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(schema) * 31 + Objects.hashCode(requested);
+    }
+
+    /**
+     * Selectable fields of one response type. Declaration order is the column order in SQL.
+     */
+    public static final class Schema {
+        private final String filterId;
+        private final Map<String, String> columns = new LinkedHashMap<>();
+        private final Set<String> derived = new LinkedHashSet<>();
+        private final Set<String> keys;
+
+        public Schema(String filterId, String... keys) {
+            this.filterId = filterId;
+            this.keys = Set.of(keys);
+        }
+
+        public Schema column(String property, String column) {
+            columns.put(property, column);
+            return this;
+        }
+
+        public Schema derived(String property) {
+            derived.add(property);
+            return this;
+        }
+
+        public FieldSet all() {
+            return new FieldSet(this, null);
+        }
+
+        public FieldSet parse(String fields) {
+            if (fields == null || fields.isBlank()) {
+                return all();
+            }
+            Set<String> requested = new LinkedHashSet<>();
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (!columns.containsKey(name) && !derived.contains(name)) {
+                    throw new IllegalArgumentException("Unknown field " + name);
+                }
+                requested.add(name);
+            }
+            return requested.isEmpty() ? all() : new FieldSet(this, Collections.unmodifiableSet(requested));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package uk.ac.ncl.team5project.util;
+
+/**
+ * @file GradientLimit.java
+ * @date 2026-10-19
+ * @function_description: Concurrency limit that follows measured latency, in the style of the Gradient2 limiter.
+ * @interface_description:
+ * - getLimit(): the current limit
+ * - onSample(rttNanos, inFlight, nowNanos, minLimit, maxLimit): report one finished call
+ * - getRttNanos(), getNoLoadRttNanos(): latest window average and long-term baseline
+ * @calling_sequence: ConcurrencyLimitFilter → GradientLimit
+ * @arguments_description: int initialLimit; long rttNanos (how long the call took), int inFlight (calls in
+ * progress when it started), long nowNanos (System.nanoTime()), int minLimit / maxLimit
+ * @list_of_subordinate_classes: None
+ * @discussion: Samples are averaged over windows of at least WINDOW_NANOS and MIN_WINDOW_SAMPLES calls.
+ * Each window's average is compared with a baseline, a slow exponential average of past windows that
+ * stands for the latency without queueing. The gradient baseline * TOLERANCE / latest, kept within
+ * [0.5, 1], scales the limit down as latency climbs past the tolerated multiple of the baseline; the
+ * square root of the limit is added as headroom so the limit probes upwards while latency holds. The
+ * change is smoothed, so one slow window moves the limit a little. A window whose calls never used half
+ * the limit says nothing about it and leaves it alone, so a quiet period cannot inflate the limit. The
+ * baseline drifts up under lasting load, and is pulled down quickly once latency falls well below it.
+ * Bounds are passed on each call so they can be changed at runtime. Every operation holds the monitor
+ * for a few arithmetic steps.
+ * @development_history: Created on 2026-10-19 for adaptive concurrency limiting at the controller edge.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Latency-gradient adaptive concurrency limit.
+ */
+public final class GradientLimit {
+    private static final long WINDOW_NANOS = 100_000_000L;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    // Windows the baseline averages over
+    private static final int BASELINE_WINDOWS = 600;
+    // Multiple of the baseline latency tolerated before the limit shrinks
+    private static final double TOLERANCE = 2.0;
+    // Share of each computed change applied to the limit
+    private static final double SMOOTHING = 0.2;
+
+    private double limit;
+    private double noLoadRtt;
+    private double lastRtt;
+    private long windowStart;
+    private boolean windowOpen;
+    private long windowSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    public GradientLimit(int initialLimit) {
+        this.limit = initialLimit;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized long getRttNanos() {
+        return (long) lastRtt;
+    }
+
+    public synchronized long getNoLoadRttNanos() {
+        return (long) noLoadRtt;
+    }
+
+    public synchronized void onSample(long rttNanos, int inFlight, long nowNanos, int minLimit, int maxLimit) {
+        if (!windowOpen) {
+            windowOpen = true;
+            windowStart = nowNanos;
+        }
+        windowSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        if (nowNanos - windowStart < WINDOW_NANOS || windowSamples < MIN_WINDOW_SAMPLES) {
+            return;
+        }
+        double rtt = (double) windowSum / windowSamples;
+        boolean used = windowMaxInFlight >= limit / 2;
+        windowOpen = false;
+        windowSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+
+        lastRtt = rtt;
+        if (noLoadRtt == 0) {
+            noLoadRtt = rtt;
+        } else {
+            noLoadRtt += (rtt - noLoadRtt) / BASELINE_WINDOWS;
+            if (noLoadRtt > 2 * rtt) {
+                // latency has recovered: let the baseline follow it down quickly
+                noLoadRtt *= 0.95;
+            }
+        }
+        if (!used) {
+            limit = Math.max(minLimit, Math.min(maxLimit, limit));
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * noLoadRtt / rtt));
+        double next = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + next * SMOOTHING));
+    }
+}
@@ -0,0 +1,368 @@
+package uk.ac.ncl.team5project.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * @file HnswIndex.java
+ * @date 2026-10-19
+ * @function_description: Approximate nearest-neighbour index (HNSW) over unit-length float vectors.
+ * @interface_description:
+ * - add(id, vector): inserts a vector (build phase, single writer)
+ * - search(vector, k) / searchById(id, k): k nearest neighbours by cosine similarity
+ * - writeTo(path) / readFrom(path): binary snapshot for fast restarts
+ * @calling_sequence: BookSimilarityServiceImpl → HnswIndex → VectorMath
+ * @arguments_description: int id (caller's key), float[] vector (normalised), int k
+ * @list_of_subordinate_classes: Neighbor
+ * @discussion: Hierarchical navigable small-world graph (Malkov and Yashunin) with the neighbour-selection
+ * heuristic. The index is built by one thread and then published; searches never lock, so build a new
+ * index and swap it in rather than adding to one that is being queried.
+ * @development_history: Created on 2026-10-19 for similar-books search.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Pure-Java HNSW graph with snapshot support.
+ */
+public class HnswIndex {
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int FORMAT_VERSION = 1;
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private int size;
+    private int[] ids = new int[1024];
+    private float[][] vectors = new float[1024][];
+    // links[node][level] = {count, neighbour...}
+    private int[][][] links = new int[1024][][];
+    private final IntIntHashMap nodeById = new IntIntHashMap(1024, -1);
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private final ThreadLocal<int[]> visitedMarks = new ThreadLocal<>();
+    private final ThreadLocal<int[]> visitedGeneration = ThreadLocal.withInitial(() -> new int[1]);
+
+    public HnswIndex(int dimension, int m, int efConstruction) {
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Inserts a normalised vector under the given id.
+     */
+    public void add(int id, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("expected dimension " + dimension + " but got " + vector.length);
+        }
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        int node = allocate(id, vector, level);
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Neighbor> candidates = searchLayer(vector, current, efConstruction, l);
+            int limit = l == 0 ? maxM0 : m;
+            List<Neighbor> selected = selectNeighbors(candidates, m);
+            for (Neighbor neighbor : selected) {
+                connect(node, neighbor.node(), l, limit);
+                connect(neighbor.node(), node, l, limit);
+            }
+            current = candidates.get(0).node();
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * Returns up to k nearest neighbours of the vector, closest first.
+     * @param ef search breadth; values at or above k trade speed for recall
+     */
+    public List<Neighbor> search(float[] vector, int k, int ef) {
+        if (entryPoint < 0) {
+            return List.of();
+        }
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+        List<Neighbor> found = searchLayer(vector, current, Math.max(ef, k), 0);
+        return found.size() > k ? found.subList(0, k) : found;
+    }
+
+    /**
+     * Nearest neighbours of an indexed item, excluding the item itself.
+     */
+    public List<Neighbor> searchById(int id, int k, int ef) {
+        int node = nodeById.get(id);
+        if (node < 0) {
+            return List.of();
+        }
+        List<Neighbor> found = new ArrayList<>(search(vectors[node], k + 1, ef));
+        found.removeIf(neighbor -> neighbor.node() == node);
+        return found.size() > k ? found.subList(0, k) : found;
+    }
+
+    public int idOf(int node) {
+        return ids[node];
+    }
+
+    /**
+     * Writes the index to path atomically (via a temporary file and rename).
+     */
+    public void writeTo(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(dimension);
+            out.writeInt(m);
+            out.writeInt(efConstruction);
+            out.writeInt(size);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            for (int node = 0; node < size; node++) {
+                out.writeInt(ids[node]);
+                for (float value : vectors[node]) {
+                    out.writeFloat(value);
+                }
+                out.writeInt(links[node].length);
+                for (int[] level : links[node]) {
+                    out.writeInt(level[0]);
+                    for (int i = 1; i <= level[0]; i++) {
+                        out.writeInt(level[i]);
+                    }
+                }
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads an index written by writeTo().
+     */
+    public static HnswIndex readFrom(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("not an HNSW snapshot: " + path);
+            }
+            HnswIndex index = new HnswIndex(in.readInt(), in.readInt(), in.readInt());
+            int size = in.readInt();
+            index.entryPoint = in.readInt();
+            index.maxLevel = in.readInt();
+            index.ensureCapacity(size);
+            for (int node = 0; node < size; node++) {
+                index.ids[node] = in.readInt();
+                index.nodeById.put(index.ids[node], node);
+                float[] vector = new float[index.dimension];
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = in.readFloat();
+                }
+                index.vectors[node] = vector;
+                int[][] levels = new int[in.readInt()][];
+                for (int l = 0; l < levels.length; l++) {
+                    int count = in.readInt();
+                    levels[l] = new int[(l == 0 ? index.maxM0 : index.m) + 1];
+                    levels[l][0] = count;
+                    for (int i = 1; i <= count; i++) {
+                        levels[l][i] = in.readInt();
+                    }
+                }
+                index.links[node] = levels;
+            }
+            index.size = size;
+            return index;
+        }
+    }
+
+    private int allocate(int id, float[] vector, int level) {
+        ensureCapacity(size + 1);
+        int node = size++;
+        ids[node] = id;
+        vectors[node] = vector;
+        int[][] levels = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            levels[l] = new int[(l == 0 ? maxM0 : m) + 1];
+        }
+        links[node] = levels;
+        nodeById.put(id, node);
+        return node;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int length = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, length);
+            vectors = Arrays.copyOf(vectors, length);
+            links = Arrays.copyOf(links, length);
+        }
+    }
+
+    private float distance(float[] a, int node) {
+        return 1f - VectorMath.dot(a, vectors[node]);
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float best = distance(query, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbors = links[current][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                float d = distance(query, neighbors[i]);
+                if (d < best) {
+                    best = d;
+                    current = neighbors[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Beam search on one layer; returns up to ef nodes sorted by distance
+    private List<Neighbor> searchLayer(float[] query, int entry, int ef, int level) {
+        int[] marks = visitedMarks.get();
+        if (marks == null || marks.length < size) {
+            marks = new int[Math.max(size, 1024)];
+            visitedMarks.set(marks);
+        }
+        int[] generationHolder = visitedGeneration.get();
+        int generation = ++generationHolder[0];
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            generationHolder[0] = generation = 1;
+        }
+        PriorityQueue<Neighbor> candidates = new PriorityQueue<>((a, b) -> Float.compare(a.distance(), b.distance()));
+        PriorityQueue<Neighbor> results = new PriorityQueue<>((a, b) -> Float.compare(b.distance(), a.distance()));
+        Neighbor first = new Neighbor(entry, distance(query, entry));
+        candidates.add(first);
+        results.add(first);
+        marks[entry] = generation;
+        while (!candidates.isEmpty()) {
+            Neighbor closest = candidates.poll();
+            if (closest.distance() > results.peek().distance() && results.size() >= ef) {
+                break;
+            }
+            int[][] nodeLinks = links[closest.node()];
+            if (level >= nodeLinks.length) {
+                continue;
+            }
+            int[] neighbors = nodeLinks[level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                int next = neighbors[i];
+                if (marks[next] == generation) {
+                    continue;
+                }
+                marks[next] = generation;
+                float d = distance(query, next);
+                if (results.size() < ef || d < results.peek().distance()) {
+                    Neighbor neighbor = new Neighbor(next, d);
+                    candidates.add(neighbor);
+                    results.add(neighbor);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        List<Neighbor> sorted = new ArrayList<>(results);
+        sorted.sort((a, b) -> Float.compare(a.distance(), b.distance()));
+        return sorted;
+    }
+
+    // Heuristic selection: keep a candidate only if it is closer to the query than to any kept neighbour
+    private List<Neighbor> selectNeighbors(List<Neighbor> candidates, int limit) {
+        List<Neighbor> selected = new ArrayList<>(limit);
+        for (Neighbor candidate : candidates) {
+            if (selected.size() >= limit) {
+                break;
+            }
+            boolean diverse = true;
+            for (Neighbor kept : selected) {
+                if (distance(vectors[candidate.node()], kept.node()) < candidate.distance()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            }
+        }
+        return selected;
+    }
+
+    private void connect(int from, int to, int level, int limit) {
+        int[] neighbors = links[from][level];
+        int count = neighbors[0];
+        for (int i = 1; i <= count; i++) {
+            if (neighbors[i] == to) {
+                return;
+            }
+        }
+        if (count < limit) {
+            neighbors[count + 1] = to;
+            neighbors[0] = count + 1;
+            return;
+        }
+        // Full: re-select from the existing neighbours plus the new one
+        float[] base = vectors[from];
+        List<Neighbor> candidates = new ArrayList<>(count + 1);
+        for (int i = 1; i <= count; i++) {
+            candidates.add(new Neighbor(neighbors[i], distance(base, neighbors[i])));
+        }
+        candidates.add(new Neighbor(to, distance(base, to)));
+        candidates.sort((a, b) -> Float.compare(a.distance(), b.distance()));
+        List<Neighbor> kept = selectNeighbors(candidates, limit);
+        neighbors[0] = kept.size();
+        for (int i = 0; i < kept.size(); i++) {
+            neighbors[i + 1] = kept.get(i).node();
+        }
+    }
+
+    /**
+     * A search hit: internal node and cosine distance (1 - similarity).
+     */
+    public record Neighbor(int node, float distance) {
+    }
+}
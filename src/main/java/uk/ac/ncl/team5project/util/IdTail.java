@@ -0,0 +1,63 @@
+package uk.ac.ncl.team5project.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @file IdTail.java
+ * @date 2026-10-19
+ * @function_description: Read position of a poller tailing an append-only table by auto-increment id.
+ * @interface_description:
+ * - after(): the id to read from (exclusive); every id up to it has been handled
+ * - firstSeen(id, now): true the first time an id is read, false for the rereads
+ * - settle(settledBefore): move after() past the ids first read before settledBefore
+ * - pending(): ids read but not yet settled
+ * @calling_sequence: DomainEventServiceImpl, NearCacheServiceImpl (poller thread) → IdTail
+ * @arguments_description: long start (the id to read after), long id, long now / settledBefore (epoch millis)
+ * @list_of_subordinate_classes: None
+ * @discussion: Auto-increment ids are handed out at insert but become visible at commit, so a lower id can
+ * appear after a higher one was read. The poller therefore keeps reading from the highest id it knows every
+ * lower id of has committed, and remembers which newer ids it already handled and when it first read them.
+ * Once the oldest of those was read longer ago than any transaction stays open, every id below it has
+ * committed or never will, and the position moves past it. Not thread-safe; one poller owns a tail.
+ * @development_history: Created on 2026-10-19, taken out of DomainEventServiceImpl for the near cache.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Gap-tolerant keyset position over an auto-increment id.
+ */
+public final class IdTail {
+
+    private long after;
+    // Handled ids above after, with the time each was first read, in id order
+    private final TreeMap<Long, Long> seen = new TreeMap<>();
+
+    public IdTail(long start) {
+        this.after = start;
+    }
+
+    public long after() {
+        return after;
+    }
+
+    public boolean firstSeen(long id, long now) {
+        return seen.putIfAbsent(id, now) == null;
+    }
+
+    public void settle(long settledBefore) {
+        for (Iterator<Map.Entry<Long, Long>> it = seen.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, Long> entry = it.next();
+            if (entry.getValue() > settledBefore) {
+                break;
+            }
+            after = entry.getKey();
+            it.remove();
+        }
+    }
+
+    public int pending() {
+        return seen.size();
+    }
+}
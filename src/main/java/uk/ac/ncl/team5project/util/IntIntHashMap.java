@@ -0,0 +1,222 @@
+package uk.ac.ncl.team5project.util;
+
+import java.util.Arrays;
+
+/**
+ * @file IntIntHashMap.java
+ * @date 2026-10-19
+ * @function_description: Open-addressing hash map from int keys to int values without boxing.
+ * @interface_description: get, put, addTo, remove, size, forEach
+ * @calling_sequence: In-memory indexes → IntIntHashMap
+ * @arguments_description: int key, int value
+ * @list_of_subordinate_classes: IntIntConsumer
+ * @discussion: A HashMap&lt;Integer, Integer&gt; costs roughly 50 bytes per entry; this map costs 8-16.
+ * Linear probing with backward-shift deletion, so no tombstones accumulate. Not thread-safe.
+ * @development_history: Created on 2026-10-19 for the in-memory search and recommendation indexes.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Primitive int→int map used by the in-memory indexes.
+ */
+public class IntIntHashMap {
+
+    private static final int FREE = 0;
+
+    // Key 0 is stored out of line so 0 can mark free slots
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private boolean hasZeroKey;
+    private int zeroValue;
+    private final int missingValue;
+
+    public IntIntHashMap() {
+        this(16, -1);
+    }
+
+    /**
+     * @param expectedSize number of entries to size the table for
+     * @param missingValue value returned by get() for absent keys
+     */
+    public IntIntHashMap(int expectedSize, int missingValue) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        this.missingValue = missingValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == FREE) {
+            return hasZeroKey;
+        }
+        return keys[slot(key)] == key;
+    }
+
+    public int get(int key) {
+        if (key == FREE) {
+            return hasZeroKey ? zeroValue : missingValue;
+        }
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : missingValue;
+    }
+
+    public void put(int key, int value) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) * 3 / 4) {
+            resize();
+        }
+    }
+
+    /**
+     * Adds delta to the value of key (treating absent as 0) and removes the entry when it reaches 0.
+     * @return the new value
+     */
+    public int addTo(int key, int delta) {
+        int current = containsKey(key) ? get(key) : 0;
+        int updated = current + delta;
+        if (updated == 0) {
+            remove(key);
+        } else {
+            put(key, updated);
+        }
+        return updated;
+    }
+
+    public int remove(int key) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                return missingValue;
+            }
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int slot = slot(key);
+        if (keys[slot] != key) {
+            return missingValue;
+        }
+        int removed = values[slot];
+        shiftBack(slot);
+        size--;
+        return removed;
+    }
+
+    public void forEach(IntIntConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(FREE, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys as a new array in table order.
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        if (hasZeroKey) {
+            result[n++] = FREE;
+        }
+        for (int key : keys) {
+            if (key != FREE) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * Approximate heap footprint in bytes, for index size reporting.
+     */
+    public long sizeInBytes() {
+        return 16L + 8L * keys.length;
+    }
+
+    // Slot holding key, or the free slot where it would go
+    private int slot(int key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void shiftBack(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != FREE) {
+            int ideal = mix(keys[next]) & mask;
+            // Move the entry back if the gap lies between its ideal slot and its current slot
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length << 1];
+        values = new int[oldKeys.length << 1];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Callback for forEach().
+     */
+    @FunctionalInterface
+    public interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+}
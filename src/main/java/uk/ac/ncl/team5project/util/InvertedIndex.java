@@ -0,0 +1,388 @@
+package uk.ac.ncl.team5project.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @file InvertedIndex.java
+ * @date 2026-10-19
+ * @function_description: In-memory inverted index with BM25 ranking over short text documents.
+ * @interface_description:
+ * - analyze(docs): tokenizes a batch into a Segment (thread-safe, no shared state; run batches in parallel)
+ * - merge(segment) / add(docId, text): make documents searchable, replacing earlier versions of the same id
+ * - remove(docId): hide a document
+ * - search(query, offset, limit): ranked, paginated hits
+ * @calling_sequence: ReviewSearchService → InvertedIndex → TextAnalyzer
+ * @arguments_description: int docId (caller's primary key), String text, String query, int offset, int limit
+ * @list_of_subordinate_classes: Segment, Hit, SearchResult
+ * @discussion: Documents get dense internal ordinals so postings are plain int arrays. Updates append a new
+ * ordinal and mark the old one deleted; compact() renumbers once deleted ordinals outnumber live ones.
+ * Document frequencies count live postings only, so replaced and removed documents do not skew idf: each
+ * term keeps its live count, and each live document the postings lists it appears in, one reference per
+ * distinct term, so deleting a document decrements its terms' counts without scanning any postings list.
+ * Readers share a read lock, writers take the write lock.
+ * @development_history: Created on 2026-10-19 for review full-text search.
+ * 2026-10-19 live document frequency kept per term instead of counted per query
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Purpose-built full-text index; stores ids and term statistics only, never the text itself.
+ */
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_DELETED_FOR_COMPACTION = 10_000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final IntIntHashMap ordinals = new IntIntHashMap(1024, -1);
+    private final BitSet deleted = new BitSet();
+    private int[] docIds = new int[1024];
+    private int[] lengths = new int[1024];
+    // Postings lists each live ordinal appears in; null once the ordinal is deleted
+    private Postings[][] docTerms = new Postings[1024][];
+    private int nextOrdinal;
+    private int deletedCount;
+    private long totalLength;
+
+    /**
+     * Tokenizes a batch of documents without touching the index.
+     * @param ids document ids
+     * @param texts document texts, parallel to ids
+     * @return segment ready for merge()
+     */
+    public static Segment analyze(int[] ids, List<String> texts) {
+        Segment segment = new Segment(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            List<String> terms = TextAnalyzer.tokenize(texts.get(i));
+            segment.docIds[i] = ids[i];
+            segment.lengths[i] = terms.size();
+            Map<String, Integer> tf = new HashMap<>();
+            for (String term : terms) {
+                tf.merge(term, 1, Integer::sum);
+            }
+            segment.termCounts[i] = tf.size();
+            int ordinal = i;
+            tf.forEach((term, count) -> segment.postings.computeIfAbsent(term, t -> new Postings()).add(ordinal, count));
+        }
+        return segment;
+    }
+
+    public void add(int docId, String text) {
+        merge(analyze(new int[]{docId}, List.of(text == null ? "" : text)));
+    }
+
+    /**
+     * Appends an analyzed segment; documents already present are replaced.
+     */
+    public void merge(Segment segment) {
+        lock.writeLock().lock();
+        try {
+            int base = nextOrdinal;
+            int count = segment.docIds.length;
+            ensureCapacity(base + count);
+            for (int i = 0; i < count; i++) {
+                docIds[base + i] = segment.docIds[i];
+                lengths[base + i] = segment.lengths[i];
+                docTerms[base + i] = new Postings[segment.termCounts[i]];
+            }
+            int[] filled = new int[count];
+            segment.postings.forEach((term, local) -> {
+                Postings global = postings.computeIfAbsent(term, t -> new Postings());
+                global.append(local, base);
+                for (int i = 0; i < local.size; i++) {
+                    int ordinal = local.ordinals[i];
+                    docTerms[base + ordinal][filled[ordinal]++] = global;
+                }
+            });
+            nextOrdinal = base + count;
+            // Only now, so a document repeated within the segment finds its earlier copy's terms
+            for (int i = 0; i < count; i++) {
+                markDeleted(segment.docIds[i]);
+                ordinals.put(segment.docIds[i], base + i);
+                totalLength += segment.lengths[i];
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int docId) {
+        lock.writeLock().lock();
+        try {
+            markDeleted(docId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a disjunctive BM25 query.
+     * @param query free text, analyzed with TextAnalyzer
+     * @param offset number of top hits to skip
+     * @param limit maximum hits to return
+     * @return total matching documents and the requested slice of hits, best first
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.tokenize(query)));
+        lock.readLock().lock();
+        try {
+            int liveDocs = ordinals.size();
+            if (terms.isEmpty() || liveDocs == 0) {
+                return new SearchResult(0, List.of());
+            }
+            float avgLength = Math.max(1f, (float) totalLength / liveDocs);
+            ScoreTable scores = new ScoreTable();
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                int df = list.live;
+                if (df == 0) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int ordinal = list.ordinals[i];
+                    if (deleted.get(ordinal)) {
+                        continue;
+                    }
+                    int tf = list.frequencies[i];
+                    float norm = K1 * (1 - B + B * lengths[ordinal] / avgLength);
+                    scores.add(ordinal, idf * tf * (K1 + 1) / (tf + norm));
+                }
+            }
+            return new SearchResult(scores.size(), topHits(scores, offset, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap footprint of the index in bytes.
+     */
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = ordinals.sizeInBytes() + 16L * docIds.length + deleted.size() / 8;
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                // postings arrays, plus the reference to the list from each live document
+                bytes += 64 + 2L * entry.getKey().length() + 8L * entry.getValue().ordinals.length
+                        + 4L * entry.getValue().live;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Hit> topHits(ScoreTable scores, int offset, int limit) {
+        if (offset < 0 || limit <= 0 || offset >= scores.size()) {
+            return List.of();
+        }
+        // at most every hit, so a deep offset neither overflows nor sizes the heap beyond the matches
+        int wanted = (int) Math.min((long) offset + limit, scores.size());
+        PriorityQueue<Hit> heap = new PriorityQueue<>(wanted + 1, (a, b) -> Float.compare(a.score(), b.score()));
+        scores.forEach((ordinal, score) -> {
+            if (heap.size() < wanted) {
+                heap.add(new Hit(docIds[ordinal], score));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new Hit(docIds[ordinal], score));
+            }
+        });
+        List<Hit> ranked = new ArrayList<>(heap);
+        ranked.sort((a, b) -> Float.compare(b.score(), a.score()));
+        return offset >= ranked.size() ? List.of() : ranked.subList(offset, ranked.size());
+    }
+
+    private void markDeleted(int docId) {
+        int previous = ordinals.remove(docId);
+        if (previous >= 0) {
+            for (Postings list : docTerms[previous]) {
+                list.live--;
+            }
+            docTerms[previous] = null;
+            deleted.set(previous);
+            deletedCount++;
+            totalLength -= lengths[previous];
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > docIds.length) {
+            int newLength = Math.max(capacity, docIds.length * 2);
+            docIds = Arrays.copyOf(docIds, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+            docTerms = Arrays.copyOf(docTerms, newLength);
+        }
+    }
+
+    // Drops deleted ordinals and renumbers the live ones; caller holds the write lock
+    private void compactIfNeeded() {
+        if (deletedCount < MIN_DELETED_FOR_COMPACTION || deletedCount < ordinals.size()) {
+            return;
+        }
+        int[] remap = new int[nextOrdinal];
+        int live = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (deleted.get(ordinal)) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = live;
+                docIds[live] = docIds[ordinal];
+                lengths[live] = lengths[ordinal];
+                docTerms[live] = docTerms[ordinal];
+                ordinals.put(docIds[live], live);
+                live++;
+            }
+        }
+        postings.values().removeIf(list -> list.retain(remap) == 0);
+        Arrays.fill(docTerms, live, nextOrdinal, null);
+        deleted.clear();
+        deletedCount = 0;
+        nextOrdinal = live;
+    }
+
+    /**
+     * Documents analyzed off-lock, with ordinals local to the segment.
+     */
+    public static final class Segment {
+        private final int[] docIds;
+        private final int[] lengths;
+        // Distinct terms of each document
+        private final int[] termCounts;
+        private final Map<String, Postings> postings = new HashMap<>();
+
+        private Segment(int size) {
+            docIds = new int[size];
+            lengths = new int[size];
+            termCounts = new int[size];
+        }
+    }
+
+    public record Hit(int docId, float score) {
+    }
+
+    public record SearchResult(long total, List<Hit> hits) {
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+        // Postings of documents not yet deleted: the term's document frequency
+        private int live;
+
+        private void add(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+            live++;
+        }
+
+        private void append(Postings local, int base) {
+            for (int i = 0; i < local.size; i++) {
+                add(local.ordinals[i] + base, local.frequencies[i]);
+            }
+        }
+
+        private int retain(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int mapped = remap[ordinals[i]];
+                if (mapped >= 0) {
+                    ordinals[kept] = mapped;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+
+    // Open-addressing ordinal→score accumulator for a single query
+    private static final class ScoreTable {
+        private int[] keys = new int[1024];
+        private float[] values = new float[1024];
+        private int size;
+
+        ScoreTable() {
+            Arrays.fill(keys, -1);
+        }
+
+        void add(int ordinal, float score) {
+            int mask = keys.length - 1;
+            int slot = (ordinal * 0x9E3779B9 >>> 7) & mask;
+            while (keys[slot] != -1 && keys[slot] != ordinal) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == -1) {
+                keys[slot] = ordinal;
+                if (++size > keys.length / 2) {
+                    values[slot] = score;
+                    grow();
+                    return;
+                }
+            }
+            values[slot] += score;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void forEach(OrdinalScoreConsumer consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != -1) {
+                    consumer.accept(keys[i], values[i]);
+                }
+            }
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            float[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new float[oldKeys.length * 2];
+            Arrays.fill(keys, -1);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1) {
+                    add(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface OrdinalScoreConsumer {
+        void accept(int ordinal, float score);
+    }
+}
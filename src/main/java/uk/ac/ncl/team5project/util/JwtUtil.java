@@ -3,8 +3,11 @@ package uk.ac.ncl.team5project.util;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.config.Settings;
 
 import java.util.Date;
 
@@ -17,6 +20,8 @@ import java.util.Date;
  * @arguments_description: String username, String role, String token
  * @list_of_subordinate_classes: None
  * @discussion: Central utility for handling authentication via JWT in a stateless security system.
+ * The token lifetime is read from ConfigurationStore on every issue, so a change to jwt.expiration in
+ * CONFIGURATION applies to the next login without a restart.
  * @development_history: Created on 2025-04-01 as part of security module.
  * @designer: wensi huang
  * @reviewer: wensi huang
@@ -28,8 +33,8 @@ import java.util.Date;
 public class JwtUtil {
     @Value("${jwt.secret}")
     private String jwtSecret;
-    @Value("${jwt.expiration}")
-    private long jwtExpirationMs;
+    @Autowired
+    private ConfigurationStore configurationStore;
 
     /**
      * Generate a JWT token containing username and role.
@@ -38,6 +43,7 @@ public class JwtUtil {
      * @return signed JWT token string
      */
     public String generateJwtToken(String username, String role){
+        long jwtExpirationMs = configurationStore.get(Settings.JWT_EXPIRATION_MS);
         return Jwts.builder()
                 .setSubject(username)
                 .claim("role", role)
@@ -0,0 +1,172 @@
+package uk.ac.ncl.team5project.util;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * @file MembershipCache.java
+ * @date 2026-10-19
+ * @function_description: Bounded, lazily loaded cache of one compressed set of ints per owner key.
+ * @interface_description:
+ * - contains(key, member) / containsAll(key, members): membership tests, loading the owner's set on a miss
+ * - add(key, member) / remove(key, member): keep a cached set in step with a write that has been committed
+ * - invalidate(key), size(), sizeInBytes()
+ * - trimToCapacity(): evict down to the current capacity, for when it shrinks
+ * @calling_sequence: WishlistMembershipServiceImpl → MembershipCache → loader (on a miss) → RoaringBitmap
+ * @arguments_description: IntSupplier capacity (max owners kept), LongSupplier ttlMillis (0 = no expiry),
+ * IntFunction loader (owner key → all members)
+ * @list_of_subordinate_classes: Entry
+ * @discussion: Sets are RoaringBitmaps kept in an access-ordered LinkedHashMap; the least recently used
+ * owner is evicted once capacity is exceeded, and an entry older than the TTL is reloaded on its next use.
+ * Loading runs outside the lock. A write that lands while a load is in flight bumps a per-stripe counter,
+ * and the load then answers its caller but is not cached, so a set that predates the write is never kept.
+ * Every other operation holds the cache's monitor for a few bitmap probes. Capacity and TTL are read on
+ * each call, so they can be changed at runtime.
+ * @development_history: Created on 2026-10-19 for bulk wishlist membership checks.
+ * 2026-10-19 trimToCapacity for live capacity changes
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: LRU map of owner → RoaringBitmap with write-through updates.
+ */
+public class MembershipCache {
+
+    private static final int STRIPES = 256;
+
+    private final IntSupplier capacity;
+    private final LongSupplier ttlMillis;
+    private final IntFunction<int[]> loader;
+    // guarded by this
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long[] writeStamps = new long[STRIPES];
+
+    public MembershipCache(IntSupplier capacity, LongSupplier ttlMillis, IntFunction<int[]> loader) {
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+        this.loader = loader;
+    }
+
+    public boolean contains(int key, int member) {
+        return containsAll(key, new int[]{member})[0];
+    }
+
+    /**
+     * @return one flag per member, in the order given
+     */
+    public boolean[] containsAll(int key, int[] members) {
+        boolean[] found = new boolean[members.length];
+        synchronized (this) {
+            Entry entry = fresh(key);
+            if (entry != null) {
+                probe(entry.members, members, found);
+                return found;
+            }
+        }
+        RoaringBitmap loaded = load(key);
+        // once cached, add/remove may change the set, so it is probed under the monitor
+        synchronized (this) {
+            probe(loaded, members, found);
+        }
+        return found;
+    }
+
+    public synchronized void add(int key, int member) {
+        writeStamps[stripe(key)]++;
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.members.add(member);
+        }
+    }
+
+    public synchronized void remove(int key, int member) {
+        writeStamps[stripe(key)]++;
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.members.remove(member);
+        }
+    }
+
+    public synchronized void invalidate(int key) {
+        writeStamps[stripe(key)]++;
+        entries.remove(key);
+    }
+
+    public synchronized void trimToCapacity() {
+        evict();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Approximate heap footprint of the cached sets in bytes.
+     */
+    public synchronized long sizeInBytes() {
+        long bytes = 0;
+        for (Entry entry : entries.values()) {
+            bytes += 64 + entry.members.getSizeInBytes();
+        }
+        return bytes;
+    }
+
+    private RoaringBitmap load(int key) {
+        long stamp;
+        synchronized (this) {
+            stamp = writeStamps[stripe(key)];
+        }
+        RoaringBitmap members = RoaringBitmap.bitmapOf(loader.apply(key));
+        members.runOptimize();
+        synchronized (this) {
+            if (writeStamps[stripe(key)] == stamp) {
+                entries.put(key, new Entry(members, System.currentTimeMillis()));
+                evict();
+            }
+        }
+        return members;
+    }
+
+    // Caller holds the monitor
+    private Entry fresh(int key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long ttl = ttlMillis.getAsLong();
+        if (ttl > 0 && System.currentTimeMillis() - entry.loadedAt > ttl) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    // Caller holds the monitor
+    private void evict() {
+        int max = Math.max(1, capacity.getAsInt());
+        Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > max && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private static void probe(RoaringBitmap set, int[] members, boolean[] found) {
+        for (int i = 0; i < members.length; i++) {
+            found[i] = set.contains(members[i]);
+        }
+    }
+
+    private static int stripe(int key) {
+        return key & (STRIPES - 1);
+    }
+
+    private record Entry(RoaringBitmap members, long loadedAt) {
+    }
+}
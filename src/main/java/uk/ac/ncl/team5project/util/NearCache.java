@@ -0,0 +1,100 @@
+package uk.ac.ncl.team5project.util;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * @file NearCache.java
+ * @date 2026-10-19
+ * @function_description: ExpiringCache whose evictions reach the copies of the cache on every other instance.
+ * @interface_description:
+ * - get / stamp / putIfUnchanged: as ExpiringCache, but a miss while this instance may be stale
+ * - evict(key): drop the key here and, once the caller's transaction commits, on every instance (and here again)
+ * - invalidate(key): drop the key here only
+ * - applyInvalidation(key): called by the coordinator for a record written by another instance
+ * - getName(), getHits(), getMisses(), getRemoteEvictions()
+ * @calling_sequence: Services → NearCache → Coordinator.publish; Coordinator → applyInvalidation
+ * @arguments_description: String name, IntSupplier capacity, LongSupplier ttlMillis, Function keyParser (the
+ * inverse of the key's toString()), Coordinator coordinator
+ * @list_of_subordinate_classes: Coordinator
+ * @discussion: Each instance keeps its own copy, so a write through one instance must evict the key from the
+ * others. evict() hands the key to the Coordinator, which logs it where every instance reads it. The
+ * Coordinator also tells the cache whether this instance has read that log recently enough; if not, reads
+ * miss and loads are not stored, so a cached value is never older than the staleness bound even when
+ * invalidations cannot be read. The TTL still applies and bounds anything an evict() failed to log.
+ * @development_history: Created on 2026-10-19 for cluster-coherent near caches.
+ * 2026-10-19 The eviction is repeated here after the transaction commits.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Local cache kept coherent across instances by an invalidation log.
+ */
+public class NearCache<K, V> extends ExpiringCache<K, V> {
+
+    private final String name;
+    private final Function<String, K> keyParser;
+    private final Coordinator coordinator;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder remoteEvictions = new LongAdder();
+
+    public NearCache(String name, IntSupplier capacity, LongSupplier ttlMillis, Function<String, K> keyParser,
+                     Coordinator coordinator) {
+        super(capacity, ttlMillis);
+        this.name = name;
+        this.keyParser = keyParser;
+        this.coordinator = coordinator;
+    }
+
+    @Override
+    public V get(K key) {
+        V value = coordinator.isFresh() ? super.get(key) : null;
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    @Override
+    public boolean putIfUnchanged(K key, long stamp, V value, long computeMillis) {
+        return coordinator.isFresh() && super.putIfUnchanged(key, stamp, value, computeMillis);
+    }
+
+    public void evict(K key) {
+        invalidate(key);
+        coordinator.publish(name, key.toString(), () -> invalidate(key));
+    }
+
+    public void applyInvalidation(String key) {
+        invalidate(keyParser.apply(key));
+        remoteEvictions.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getRemoteEvictions() {
+        return remoteEvictions.sum();
+    }
+
+    /**
+     * Carries evictions between instances; implemented by NearCacheServiceImpl.
+     */
+    public interface Coordinator {
+        // Whether this instance has read every invalidation older than the staleness bound
+        boolean isFresh();
+
+        // Log an eviction for the other instances in the current transaction, if any; evictAgain runs once it commits
+        void publish(String cacheName, String key, Runnable evictAgain);
+    }
+}
@@ -0,0 +1,354 @@
+package uk.ac.ncl.team5project.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * @file PrefixIndex.java
+ * @date 2026-10-19
+ * @function_description: Compact prefix index over titles returning the most popular matches first.
+ * @interface_description:
+ * - build(entries): sorts the titles case-insensitively and front-codes them
+ * - top(prefix, k): the k most popular titles starting with prefix
+ * - add(bookId, title, popularity): incremental additions kept in a small overlay until the next build
+ * - adjustPopularity(bookId, delta): re-ranks a title in O(log n)
+ * @calling_sequence: BookSuggestServiceImpl → PrefixIndex
+ * @arguments_description: int bookId, String title, int popularity, String prefix, int k
+ * @list_of_subordinate_classes: Entry, Suggestion
+ * @discussion: Titles are stored as UTF-8 in blocks of 16; the first title of a block is stored whole and the
+ * rest as (shared prefix length, suffix), so sorted catalog titles typically take well under half their raw
+ * size. A prefix query is two binary searches over block heads giving a contiguous range, and a max-popularity
+ * segment tree over the sorted order yields the top k of that range in O(k log n) regardless of range size.
+ * Popularity updates are single int writes plus a tree path fix-up under a lock; queries do not lock and may
+ * observe a ranking one update behind.
+ * @development_history: Created on 2026-10-19 for book title autocomplete.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Front-coded sorted title dictionary with popularity-ranked prefix lookup.
+ */
+public class PrefixIndex {
+
+    private static final int BLOCK_SIZE = 16;
+
+    private final int size;
+    private final byte[] data;
+    private final int[] blockOffsets;
+    // Parallel arrays in title order
+    private final int[] bookIds;
+    private final int[] popularity;
+    // bookId → position, as two arrays sorted by bookId
+    private final int[] idsSorted;
+    private final int[] positionsById;
+    // Max-popularity segment tree of positions; leaves start at treeBase
+    private final int[] tree;
+    private final int treeBase;
+    // Titles added since the build, scanned linearly
+    private final List<Entry> overlay = new ArrayList<>();
+
+    private PrefixIndex(int size, byte[] data, int[] blockOffsets, int[] bookIds, int[] popularity) {
+        this.size = size;
+        this.data = data;
+        this.blockOffsets = blockOffsets;
+        this.bookIds = bookIds;
+        this.popularity = popularity;
+
+        // (bookId, position) packed into one long and sorted as primitives: no boxing per entry
+        long[] byId = new long[size];
+        for (int i = 0; i < size; i++) {
+            byId[i] = (long) bookIds[i] << 32 | i;
+        }
+        Arrays.sort(byId);
+        idsSorted = new int[size];
+        positionsById = new int[size];
+        for (int i = 0; i < size; i++) {
+            idsSorted[i] = (int) (byId[i] >> 32);
+            positionsById[i] = (int) byId[i];
+        }
+
+        treeBase = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        tree = new int[treeBase * 2];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < size; i++) {
+            tree[treeBase + i] = i;
+        }
+        for (int node = treeBase - 1; node >= 1; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Builds an index from the given entries.
+     */
+    public static PrefixIndex build(List<Entry> entries) {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(Entry::key));
+        int size = sorted.size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size * 16);
+        int[] blockOffsets = new int[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        int[] bookIds = new int[size];
+        int[] popularity = new int[size];
+        byte[] previous = new byte[0];
+        for (int i = 0; i < size; i++) {
+            Entry entry = sorted.get(i);
+            byte[] title = entry.title().getBytes(StandardCharsets.UTF_8);
+            if (i % BLOCK_SIZE == 0) {
+                blockOffsets[i / BLOCK_SIZE] = out.size();
+                writeVInt(out, title.length);
+                out.write(title, 0, title.length);
+            } else {
+                int shared = Arrays.mismatch(previous, title);
+                shared = shared < 0 ? title.length : shared;
+                writeVInt(out, shared);
+                writeVInt(out, title.length - shared);
+                out.write(title, shared, title.length - shared);
+            }
+            bookIds[i] = entry.bookId();
+            popularity[i] = entry.popularity();
+            previous = title;
+        }
+        return new PrefixIndex(size, out.toByteArray(), blockOffsets, bookIds, popularity);
+    }
+
+    public int size() {
+        synchronized (overlay) {
+            return size + overlay.size();
+        }
+    }
+
+    public int overlaySize() {
+        synchronized (overlay) {
+            return overlay.size();
+        }
+    }
+
+    /**
+     * Approximate heap footprint in bytes (excluding the overlay).
+     */
+    public long sizeInBytes() {
+        return data.length + 4L * (blockOffsets.length + bookIds.length * 4L + tree.length);
+    }
+
+    /**
+     * Returns every entry, including the overlay, for rebuilding.
+     */
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(size() + 16);
+        byte[][] holder = new byte[1][];
+        for (int block = 0; block < blockOffsets.length; block++) {
+            int position = block * BLOCK_SIZE;
+            int offset = blockOffsets[block];
+            holder[0] = null;
+            for (int i = 0; i < BLOCK_SIZE && position + i < size; i++) {
+                offset = decodeNext(offset, i == 0, holder);
+                entries.add(new Entry(bookIds[position + i], new String(holder[0], StandardCharsets.UTF_8),
+                        popularity[position + i]));
+            }
+        }
+        synchronized (overlay) {
+            entries.addAll(overlay);
+        }
+        return entries;
+    }
+
+    public boolean contains(int bookId) {
+        if (Arrays.binarySearch(idsSorted, bookId) >= 0) {
+            return true;
+        }
+        synchronized (overlay) {
+            return overlay.stream().anyMatch(e -> e.bookId() == bookId);
+        }
+    }
+
+    public void add(int bookId, String title, int initialPopularity) {
+        synchronized (overlay) {
+            overlay.add(new Entry(bookId, title, initialPopularity));
+        }
+    }
+
+    public void adjustPopularity(int bookId, int delta) {
+        int found = Arrays.binarySearch(idsSorted, bookId);
+        if (found >= 0) {
+            synchronized (tree) {
+                int position = positionsById[found];
+                popularity[position] = Math.max(0, popularity[position] + delta);
+                for (int node = (treeBase + position) >> 1; node >= 1; node >>= 1) {
+                    tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+                }
+            }
+            return;
+        }
+        synchronized (overlay) {
+            for (int i = 0; i < overlay.size(); i++) {
+                Entry entry = overlay.get(i);
+                if (entry.bookId() == bookId) {
+                    overlay.set(i, new Entry(bookId, entry.title(), Math.max(0, entry.popularity() + delta)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns up to k titles starting with prefix (case-insensitive), most popular first.
+     */
+    public List<Suggestion> top(String prefix, int k) {
+        String key = normalize(prefix);
+        int lo = lowerBound(key);
+        int hi = lowerBound(key + Character.MAX_VALUE);
+        List<Suggestion> result = new ArrayList<>(k);
+        // Best-first walk over the canonical tree nodes covering [lo, hi)
+        PriorityQueue<Integer> nodes = new PriorityQueue<>((a, b) -> compare(tree[b], tree[a]));
+        for (int l = lo + treeBase, r = hi + treeBase; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                nodes.add(l++);
+            }
+            if ((r & 1) == 1) {
+                nodes.add(--r);
+            }
+        }
+        while (!nodes.isEmpty() && result.size() < k) {
+            int node = nodes.poll();
+            if (tree[node] < 0) {
+                continue;
+            }
+            if (node >= treeBase) {
+                int position = node - treeBase;
+                result.add(new Suggestion(bookIds[position], title(position), popularity[position]));
+            } else {
+                nodes.add(2 * node);
+                nodes.add(2 * node + 1);
+            }
+        }
+        mergeOverlay(key, k, result);
+        return result;
+    }
+
+    private void mergeOverlay(String key, int k, List<Suggestion> result) {
+        synchronized (overlay) {
+            if (overlay.isEmpty()) {
+                return;
+            }
+            for (Entry entry : overlay) {
+                if (entry.key().startsWith(key)) {
+                    result.add(new Suggestion(entry.bookId(), entry.title(), entry.popularity()));
+                }
+            }
+        }
+        result.sort(Comparator.comparingInt(Suggestion::popularity).reversed());
+        if (result.size() > k) {
+            result.subList(k, result.size()).clear();
+        }
+    }
+
+    // First position whose normalized title is >= key
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = blockOffsets.length - 1;
+        int block = 0;
+        // Last block whose head is < key
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (normalize(headTitle(mid)).compareTo(key) < 0) {
+                block = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        int position = block * BLOCK_SIZE;
+        int offset = blockOffsets.length == 0 ? 0 : blockOffsets[block];
+        byte[][] holder = new byte[1][];
+        for (int i = 0; i < BLOCK_SIZE && position < size; i++, position++) {
+            offset = decodeNext(offset, i == 0, holder);
+            if (normalize(new String(holder[0], StandardCharsets.UTF_8)).compareTo(key) >= 0) {
+                return position;
+            }
+        }
+        return position;
+    }
+
+    private String headTitle(int block) {
+        byte[][] holder = new byte[1][];
+        decodeNext(blockOffsets[block], true, holder);
+        return new String(holder[0], StandardCharsets.UTF_8);
+    }
+
+    private String title(int position) {
+        int block = position / BLOCK_SIZE;
+        int offset = blockOffsets[block];
+        byte[][] holder = new byte[1][];
+        for (int i = 0; i <= position % BLOCK_SIZE; i++) {
+            offset = decodeNext(offset, i == 0, holder);
+        }
+        return new String(holder[0], StandardCharsets.UTF_8);
+    }
+
+    // Decodes the title at offset into holder[0] (using the previous title for shared bytes); returns next offset
+    private int decodeNext(int offset, boolean head, byte[][] holder) {
+        int[] cursor = {offset};
+        if (head) {
+            int length = readVInt(cursor);
+            holder[0] = Arrays.copyOfRange(data, cursor[0], cursor[0] + length);
+            return cursor[0] + length;
+        }
+        int shared = readVInt(cursor);
+        int suffix = readVInt(cursor);
+        byte[] title = Arrays.copyOf(holder[0], shared + suffix);
+        System.arraycopy(data, cursor[0], title, shared, suffix);
+        holder[0] = title;
+        return cursor[0] + suffix;
+    }
+
+    private int readVInt(int[] cursor) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[cursor[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static void writeVInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private int better(int a, int b) {
+        return compare(a, b) >= 0 ? a : b;
+    }
+
+    // Orders positions by popularity, then by title order; -1 (padding) sorts last
+    private int compare(int a, int b) {
+        if (a < 0 || b < 0) {
+            return a < 0 ? (b < 0 ? 0 : -1) : 1;
+        }
+        int byPopularity = Integer.compare(popularity[a], popularity[b]);
+        return byPopularity != 0 ? byPopularity : Integer.compare(b, a);
+    }
+
+    static String normalize(String title) {
+        return title.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public record Entry(int bookId, String title, int popularity) {
+        String key() {
+            return normalize(title);
+        }
+    }
+
+    public record Suggestion(int bookId, String title, int popularity) {
+    }
+}
@@ -0,0 +1,102 @@
+package uk.ac.ncl.team5project.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @file RingBuffer.java
+ * @date 2026-10-19
+ * @function_description: Fixed-size, lock-free ring of slots written by one producer and read by several consumers.
+ * @interface_description:
+ * - addConsumer() / removeConsumer(sequence): a consumer's position, starting after the newest published slot
+ * - tryPublish(value): producer only; false while the slowest consumer is a whole ring behind
+ * - cursor(): sequence of the newest published slot (-1 before the first)
+ * - get(sequence): the value in a published slot the calling consumer has not yet passed
+ * @calling_sequence: DomainEventServiceImpl (relay thread) → tryPublish; subscriber threads → cursor/get → Sequence.set
+ * @arguments_description: int capacity (a power of two), T value, long sequence
+ * @list_of_subordinate_classes: Sequence
+ * @discussion: Follows the LMAX Disruptor's single-producer ring. Sequences only grow; sequence s lives in
+ * slot s & (capacity - 1). The producer writes the slot and then advances the volatile cursor, so a
+ * consumer that reads the cursor sees the slot's contents. Each consumer advances its own Sequence once it
+ * has handled a slot, and the producer does not reuse a slot until every consumer is past it, so a slow
+ * consumer holds the producer back instead of losing values. Nothing is locked or allocated per value.
+ * Waiting for space or for new values is left to the caller.
+ * @development_history: Created on 2026-10-19 for in-process delivery of domain events.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Single-producer, multi-consumer ring buffer.
+ */
+public final class RingBuffer<T> {
+
+    private final Object[] slots;
+    private final int mask;
+    // Newest published sequence; written by the producer after the slot
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<Sequence> consumers = new CopyOnWriteArrayList<>();
+
+    public RingBuffer(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, was " + capacity);
+        }
+        this.slots = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public Sequence addConsumer() {
+        Sequence sequence = new Sequence(cursor.get());
+        consumers.add(sequence);
+        return sequence;
+    }
+
+    public void removeConsumer(Sequence sequence) {
+        consumers.remove(sequence);
+    }
+
+    public boolean tryPublish(T value) {
+        long next = cursor.get() + 1;
+        // the consumer list is reread on every call, so a consumer added meanwhile holds back the next slot
+        for (Sequence consumer : consumers) {
+            if (next - slots.length > consumer.get()) {
+                return false;
+            }
+        }
+        slots[(int) (next & mask)] = value;
+        cursor.set(next);
+        return true;
+    }
+
+    public long cursor() {
+        return cursor.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(long sequence) {
+        return (T) slots[(int) (sequence & mask)];
+    }
+
+    /**
+     * Last sequence a consumer has handled. Only its consumer writes it.
+     */
+    public static final class Sequence {
+        private final AtomicLong value;
+
+        private Sequence(long initial) {
+            this.value = new AtomicLong(initial);
+        }
+
+        public long get() {
+            return value.get();
+        }
+
+        public void set(long sequence) {
+            value.set(sequence);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package uk.ac.ncl.team5project.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * @file SingleFlight.java
+ * @date 2026-10-19
+ * @function_description: Coalesces concurrent identical reads into one computation.
+ * @interface_description:
+ * - run(key, work): the result of work, computed once for all callers that ask for an equal key while it runs
+ * @calling_sequence: ReviewService, UserProfileServiceImpl → SingleFlight.run → work (first caller only)
+ * @arguments_description: K key (equals/hashCode must cover every argument the result depends on), Supplier work
+ * @list_of_subordinate_classes: None
+ * @discussion: The first caller for a key runs the work on its own thread, so thread-bound state (the shard
+ * route, the security context) is the caller's own; callers arriving while it runs wait for it and receive
+ * the same object, or the same exception. Nothing is kept once the work finishes: a call after that runs
+ * the work again, so this removes stampedes, not repeated reads, and pairs with a cache for those. The
+ * shared result must not be modified by the callers. A waiting caller that is interrupted stops waiting
+ * and fails with IllegalStateException; the work itself carries on for the others.
+ * @development_history: Created on 2026-10-19 for request coalescing on hot reads.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Per-key in-flight computation shared between concurrent callers.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V run(K key, Supplier<V> work) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            V value = work.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an identical read", e);
+        } catch (ExecutionException e) {
+            // rethrow the leader's own exception, so every caller sees the same failure
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
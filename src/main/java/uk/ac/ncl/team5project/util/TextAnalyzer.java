@@ -0,0 +1,78 @@
+package uk.ac.ncl.team5project.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * @file TextAnalyzer.java
+ * @date 2026-10-19
+ * @function_description: Splits free text into normalised search terms.
+ * @interface_description: tokenize(text) returns lower-cased letter/digit runs with stop words removed.
+ * @calling_sequence: InvertedIndex / ReviewSearchService → TextAnalyzer.tokenize()
+ * @arguments_description: String text
+ * @list_of_subordinate_classes: None
+ * @discussion: The same analyzer must be used at index and query time so terms line up.
+ * @development_history: Created on 2026-10-19 for review full-text search.
+ * @designer: agent
+ * @reviewer:
+ * @review_date:
+ * @modification_date: 2026-10-19
+ * @description: Minimal tokenizer shared by the in-memory text indexes.
+ */
+public class TextAnalyzer {
+
+    private static final int MAX_TERM_LENGTH = 40;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "so", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "will", "with", "i", "my", "me", "we", "you", "he", "she");
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Tokenizes text into search terms, keeping duplicates so callers can count term frequency.
+     * @param text raw text, may be null
+     * @return terms in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addTerm(terms, text.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Normalises a single word the same way tokenize() does.
+     * @param word raw word
+     * @return normalised term, or null if the word is not indexable
+     */
+    public static String normalize(String word) {
+        String term = word.toLowerCase(Locale.ROOT);
+        if (term.length() < 2 || term.length() > MAX_TERM_LENGTH || STOP_WORDS.contains(term)) {
+            return null;
+        }
+        return term;
+    }
+
+    private static void addTerm(List<String> terms, String word) {
+        String term = normalize(word);
+        if (term != null) {
+            terms.add(term);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+-- Removes duplicate (user_id, book_id) rows from REVIEWS and WISHLIST so that V3__query_indexes.sql can add
+-- its unique constraints. Not run by Flyway: review the duplicates first, then run this by hand on the main
+-- database and on every shard, and migrate again.
+--
+-- The earliest row of each (user_id, book_id) is kept. Every other row is copied to
+-- REVIEWS_DUPLICATE_BACKUP / WISHLIST_DUPLICATE_BACKUP before it is deleted, so a review whose later copy
+-- should have won can be restored by hand. Drop the backup tables once nothing more is needed from them.
+-- Safe to run again: rows already backed up are not copied twice.
+--
+-- To see what would be removed:
+--   SELECT user_id, book_id, COUNT(*) FROM REVIEWS GROUP BY user_id, book_id HAVING COUNT(*) > 1;
+--   SELECT user_id, book_id, COUNT(*) FROM WISHLIST GROUP BY user_id, book_id HAVING COUNT(*) > 1;
+
+CREATE TABLE IF NOT EXISTS REVIEWS_DUPLICATE_BACKUP AS SELECT * FROM REVIEWS WHERE 1 = 0;
+INSERT INTO REVIEWS_DUPLICATE_BACKUP
+SELECT * FROM REVIEWS
+WHERE review_id NOT IN (SELECT review_id FROM (SELECT MIN(review_id) AS review_id FROM REVIEWS GROUP BY user_id, book_id) k)
+  AND review_id NOT IN (SELECT review_id FROM REVIEWS_DUPLICATE_BACKUP);
+DELETE FROM REVIEWS
+WHERE review_id NOT IN (SELECT review_id FROM (SELECT MIN(review_id) AS review_id FROM REVIEWS GROUP BY user_id, book_id) k);
+
+CREATE TABLE IF NOT EXISTS WISHLIST_DUPLICATE_BACKUP AS SELECT * FROM WISHLIST WHERE 1 = 0;
+INSERT INTO WISHLIST_DUPLICATE_BACKUP
+SELECT * FROM WISHLIST
+WHERE id NOT IN (SELECT id FROM (SELECT MIN(id) AS id FROM WISHLIST GROUP BY user_id, book_id) k)
+  AND id NOT IN (SELECT id FROM WISHLIST_DUPLICATE_BACKUP);
+DELETE FROM WISHLIST
+WHERE id NOT IN (SELECT id FROM (SELECT MIN(id) AS id FROM WISHLIST GROUP BY user_id, book_id) k);
@@ -0,0 +1,13 @@
+-- The shard placement each running instance has loaded, for the resharding fence. Every sharded instance
+-- rewrites its row on each override refresh: placement is the override stamp and ring size it routes by
+-- ("stamp@ringSize"), acknowledged only once the writes it let through under older placements have
+-- finished; heartbeat_time is when the row was written (epoch millis). ReshardingService waits until every
+-- instance heard from recently reports the placement it has just written. Lives on the main database only.
+CREATE TABLE IF NOT EXISTS SHARD_PLACEMENT_ACK (
+    instance_id    VARCHAR(36) PRIMARY KEY,
+    placement      VARCHAR(128) NOT NULL,
+    heartbeat_time BIGINT NOT NULL
+);
+
+-- Live instances, for the fence
+CREATE INDEX idx_shard_placement_ack_heartbeat ON SHARD_PLACEMENT_ACK (heartbeat_time);
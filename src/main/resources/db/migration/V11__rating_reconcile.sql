@@ -0,0 +1,9 @@
+-- Lets a recount of BOOK_RATING from the reviews run alongside review writes. A review write announces
+-- itself before its shard transaction commits (pending + 1, pending_time in epoch millis) and clears the
+-- announcement when it applies its delta after the commit (pending - 1). Every change bumps version, and a
+-- recount only stores its counts if the version it read first is unchanged and no write was pending, so
+-- a delta can never be counted twice or lost. An announcement older than team5.ratings.pending-lease-ms
+-- (runtime setting) belongs to a write that died before its delta, and no longer holds recounts back.
+ALTER TABLE BOOK_RATING ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE BOOK_RATING ADD COLUMN pending INT NOT NULL DEFAULT 0;
+ALTER TABLE BOOK_RATING ADD COLUMN pending_time BIGINT NULL;
@@ -0,0 +1,10 @@
+-- Hands out CONFIGURATION versions. ConfigurationStore.set bumps the single row in the transaction that
+-- writes the setting, so writers on different instances queue on its row lock and each gets a version of
+-- its own, committed in version order. A bump never lands below MAX(CONFIGURATION.version), so rows written
+-- by hand with a higher version are still overtaken by the next write.
+CREATE TABLE IF NOT EXISTS CONFIGURATION_VERSION (
+    id      INT PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO CONFIGURATION_VERSION (id, version) SELECT 1, COALESCE(MAX(version), 0) FROM CONFIGURATION;
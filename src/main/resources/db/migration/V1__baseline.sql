@@ -0,0 +1,42 @@
+-- Tables of the original team05 schema. Existing databases are baselined at this version
+-- (spring.flyway.baseline-on-migrate), so this script only runs on new, empty databases.
+CREATE TABLE IF NOT EXISTS USER (
+    user_id           INT AUTO_INCREMENT PRIMARY KEY,
+    user_name         VARCHAR(100) NOT NULL,
+    user_email        VARCHAR(255) NOT NULL,
+    password          VARCHAR(255) NOT NULL,
+    registration_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time       TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS ADMIN (
+    admin_id          INT AUTO_INCREMENT PRIMARY KEY,
+    admin_name        VARCHAR(100) NOT NULL,
+    admin_email       VARCHAR(255) NOT NULL,
+    password          VARCHAR(255) NOT NULL,
+    admin_level       INT DEFAULT 1,
+    registration_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time       TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS BOOK (
+    book_id          INT AUTO_INCREMENT PRIMARY KEY,
+    name             VARCHAR(255) NOT NULL,
+    publishing_house VARCHAR(255),
+    description      TEXT,
+    book_cover       VARCHAR(512)
+);
+
+CREATE TABLE IF NOT EXISTS WISHLIST (
+    id      INT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    book_id INT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS REVIEWS (
+    review_id      INT AUTO_INCREMENT PRIMARY KEY,
+    book_id        INT NOT NULL,
+    user_id        INT NOT NULL,
+    review_content TEXT,
+    created_time   TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
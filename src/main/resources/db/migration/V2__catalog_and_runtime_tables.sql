@@ -0,0 +1,36 @@
+-- Tables added for faceted browsing, runtime configuration and shard placement.
+CREATE TABLE IF NOT EXISTS CATEGORY (
+    category_id   INT AUTO_INCREMENT PRIMARY KEY,
+    category_name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS AUTHOR (
+    author_id   INT AUTO_INCREMENT PRIMARY KEY,
+    author_name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS BOOK_CATEGORY (
+    book_id     INT NOT NULL,
+    category_id INT NOT NULL,
+    PRIMARY KEY (book_id, category_id)
+);
+
+CREATE TABLE IF NOT EXISTS BOOK_AUTHOR (
+    book_id   INT NOT NULL,
+    author_id INT NOT NULL,
+    PRIMARY KEY (book_id, author_id)
+);
+
+CREATE TABLE IF NOT EXISTS CONFIGURATION (
+    config_key   VARCHAR(128) PRIMARY KEY,
+    config_value VARCHAR(1024),
+    version      BIGINT NOT NULL,
+    update_time  TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS SHARD_OVERRIDE (
+    user_id     INT PRIMARY KEY,
+    shard       INT NOT NULL,
+    state       VARCHAR(16) NOT NULL,
+    update_time TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3)
+);
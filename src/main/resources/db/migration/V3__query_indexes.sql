@@ -0,0 +1,40 @@
+-- Indexes behind every mapper query; checked by QueryPlanTests.
+
+-- One review and one wishlist entry per (user, book), and one account per email. Duplicates are not
+-- removed here: if there are any, the migration stops at the preconditions below, before changing
+-- anything, with a check constraint violation that names what to do:
+-- - duplicate_user_book_rows_run_db_cleanup: review db/cleanup/dedupe_user_book.sql and run it on the
+--   main database and on every shard;
+-- - duplicate_account_emails_merge_by_hand: two USER or two ADMIN rows share an email; decide which
+--   account to keep, since nothing can be merged automatically.
+-- Then run flyway repair to clear the failed attempt and migrate again. Each precondition inserts the
+-- number of duplicate groups it found into a table whose check constraint only accepts 0, which fails the
+-- same way on MySQL and H2 whatever the SQL mode.
+CREATE TABLE IF NOT EXISTS V3_PRECONDITION (
+    duplicate_user_book_rows INT NOT NULL,
+    duplicate_account_emails INT NOT NULL,
+    CONSTRAINT duplicate_user_book_rows_run_db_cleanup CHECK (duplicate_user_book_rows = 0),
+    CONSTRAINT duplicate_account_emails_merge_by_hand CHECK (duplicate_account_emails = 0)
+);
+INSERT INTO V3_PRECONDITION (duplicate_user_book_rows, duplicate_account_emails)
+SELECT (SELECT COUNT(*) FROM (SELECT user_id FROM REVIEWS GROUP BY user_id, book_id HAVING COUNT(*) > 1) r)
+     + (SELECT COUNT(*) FROM (SELECT user_id FROM WISHLIST GROUP BY user_id, book_id HAVING COUNT(*) > 1) w),
+       (SELECT COUNT(*) FROM (SELECT user_email FROM USER GROUP BY user_email HAVING COUNT(*) > 1) u)
+     + (SELECT COUNT(*) FROM (SELECT admin_email FROM ADMIN GROUP BY admin_email HAVING COUNT(*) > 1) a);
+DROP TABLE V3_PRECONDITION;
+
+ALTER TABLE REVIEWS ADD CONSTRAINT uk_reviews_user_book UNIQUE (user_id, book_id);
+ALTER TABLE WISHLIST ADD CONSTRAINT uk_wishlist_user_book UNIQUE (user_id, book_id);
+
+-- Reviews of a book in id order; also the (book_id, review_id) keyset scan
+CREATE INDEX idx_reviews_book ON REVIEWS (book_id, review_id);
+-- Wishlist counts per book
+CREATE INDEX idx_wishlist_book ON WISHLIST (book_id);
+
+-- Login and registration look accounts up by email, which identifies the account
+CREATE UNIQUE INDEX idx_user_email ON USER (user_email);
+CREATE UNIQUE INDEX idx_admin_email ON ADMIN (admin_email);
+
+-- MAX(version) / MAX(update_time) for the change polls
+CREATE INDEX idx_configuration_version ON CONFIGURATION (version);
+CREATE INDEX idx_shard_override_update_time ON SHARD_OVERRIDE (update_time);
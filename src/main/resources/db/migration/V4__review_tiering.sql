@@ -0,0 +1,19 @@
+-- Hot/cold tiering of reviews. Deleting a review only flags it (deleted = 1, the mybatis-plus
+-- logic-delete value); ReviewArchiveService later moves flagged reviews, and reviews older than
+-- team5.reviews.archive-after-days, into REVIEWS_ARCHIVE on the same database.
+ALTER TABLE REVIEWS ADD COLUMN deleted TINYINT NOT NULL DEFAULT 0;
+
+-- Rows keep their review_id; created_time is copied, not reset
+CREATE TABLE IF NOT EXISTS REVIEWS_ARCHIVE (
+    review_id      INT PRIMARY KEY,
+    book_id        INT NOT NULL,
+    user_id        INT NOT NULL,
+    review_content TEXT,
+    created_time   TIMESTAMP NULL,
+    deleted        TINYINT NOT NULL DEFAULT 0,
+    archived_time  TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Archived reviews of a book or a user, live rows first in each
+CREATE INDEX idx_reviews_archive_book ON REVIEWS_ARCHIVE (book_id, deleted, review_id);
+CREATE INDEX idx_reviews_archive_user ON REVIEWS_ARCHIVE (user_id, deleted, book_id);
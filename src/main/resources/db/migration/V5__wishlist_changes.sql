@@ -0,0 +1,31 @@
+-- Change versions for wishlist delta sync. Every add or remove bumps the user's WISHLIST_VERSION and
+-- stamps the (user, book) row of WISHLIST_CHANGE with the new version, so the log holds one row per
+-- book the user ever touched: live adds, and removes kept as tombstones until
+-- team5.wishlist.tombstone-retention-days. pruned_version is the highest version of a pruned tombstone;
+-- clients that last synced before it must start again from a full snapshot.
+CREATE TABLE IF NOT EXISTS WISHLIST_VERSION (
+    user_id        INT PRIMARY KEY,
+    version        BIGINT NOT NULL,
+    pruned_version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS WISHLIST_CHANGE (
+    user_id     INT NOT NULL,
+    book_id     INT NOT NULL,
+    wishlist_id INT NOT NULL,
+    version     BIGINT NOT NULL,
+    deleted     TINYINT NOT NULL DEFAULT 0,
+    change_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, book_id)
+);
+
+-- Changes of a user since a version
+CREATE INDEX idx_wishlist_change_version ON WISHLIST_CHANGE (user_id, version);
+-- Tombstones due for pruning
+CREATE INDEX idx_wishlist_change_tombstone ON WISHLIST_CHANGE (deleted, change_time);
+
+-- Existing wishlist rows are the first change of each user
+INSERT INTO WISHLIST_CHANGE (user_id, book_id, wishlist_id, version, deleted)
+SELECT user_id, book_id, id, 1, 0 FROM WISHLIST;
+INSERT INTO WISHLIST_VERSION (user_id, version, pruned_version)
+SELECT DISTINCT user_id, 1, 0 FROM WISHLIST;
@@ -0,0 +1,20 @@
+-- Optional 1-5 star rating on each review, kept when the review is archived
+ALTER TABLE REVIEWS ADD COLUMN rating TINYINT NULL;
+ALTER TABLE REVIEWS ADD CONSTRAINT ck_reviews_rating CHECK (rating BETWEEN 1 AND 5);
+ALTER TABLE REVIEWS_ARCHIVE ADD COLUMN rating TINYINT NULL;
+
+-- Per-book rating aggregate on the main database, next to BOOK. ReviewService applies the change of
+-- every review write to it (count, sum and the histogram stars1..stars5), so averages are served
+-- without reading REVIEWS; reviews without a rating are not counted. Deleted reviews, archived or
+-- not, are subtracted when they are deleted.
+CREATE TABLE IF NOT EXISTS BOOK_RATING (
+    book_id      INT PRIMARY KEY,
+    rating_count INT NOT NULL DEFAULT 0,
+    rating_sum   BIGINT NOT NULL DEFAULT 0,
+    stars1      INT NOT NULL DEFAULT 0,
+    stars2      INT NOT NULL DEFAULT 0,
+    stars3      INT NOT NULL DEFAULT 0,
+    stars4      INT NOT NULL DEFAULT 0,
+    stars5      INT NOT NULL DEFAULT 0,
+    updated_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,10 @@
+-- Denormalized read model behind GET /v1/books/{id}/detail: one JSON document per book, holding the
+-- book, its review and wishlist counts, latest reviews, rating and related books. BookDetailService
+-- rebuilds a book's document after review and wishlist writes; source_time is when the data in the
+-- document was read (epoch millis), so an older rebuild never replaces a newer one.
+CREATE TABLE IF NOT EXISTS BOOK_DETAIL (
+    book_id      INT PRIMARY KEY,
+    document     TEXT NOT NULL,
+    source_time  BIGINT NOT NULL,
+    updated_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
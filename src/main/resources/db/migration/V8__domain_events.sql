@@ -0,0 +1,14 @@
+-- Transactional outbox of domain events (wishlist, review and user changes). A write inserts its event
+-- here in its own transaction, on the database it changed: the user's shard for WISHLIST and REVIEWS,
+-- the main database for USER. Every instance tails the table on every database and hands new rows to
+-- its in-process subscribers. event_type is the event's class name, payload the event as JSON and
+-- event_time when it was written (epoch millis). Rows are pruned after team5.events.retention-hours.
+CREATE TABLE IF NOT EXISTS DOMAIN_EVENT (
+    event_id   BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(64) NOT NULL,
+    payload    VARCHAR(2000) NOT NULL,
+    event_time BIGINT NOT NULL
+);
+
+-- Expired rows, for pruning
+CREATE INDEX idx_domain_event_time ON DOMAIN_EVENT (event_time);
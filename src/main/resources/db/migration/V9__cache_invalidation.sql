@@ -0,0 +1,17 @@
+-- Invalidation log of the near caches. A write appends one row per cached key it changes, in its own
+-- transaction, on the database that transaction runs on: the main database, or the writer's shard for
+-- WISHLIST and REVIEWS writes. Every instance tails the table on the main database and on each shard by id
+-- and evicts the key from its own copy of the cache, so this migration must be applied to every shard as well
+-- as the main database. cache_name is the near cache's name, cache_key the key as text, origin the writing
+-- instance (which evicts on its own) and created_time when the row was written (epoch millis). Rows are
+-- pruned after team5.cache.invalidation-retention-minutes.
+CREATE TABLE IF NOT EXISTS CACHE_INVALIDATION (
+    invalidation_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cache_name      VARCHAR(64) NOT NULL,
+    cache_key       VARCHAR(255) NOT NULL,
+    origin          VARCHAR(36) NOT NULL,
+    created_time    BIGINT NOT NULL
+);
+
+-- Expired rows, for pruning
+CREATE INDEX idx_cache_invalidation_time ON CACHE_INVALIDATION (created_time);
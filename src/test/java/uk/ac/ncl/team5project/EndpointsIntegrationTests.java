@@ -0,0 +1,228 @@
+package uk.ac.ncl.team5project;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import uk.ac.ncl.team5project.service.BookBrowseService;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exercises the main user, wishlist and review endpoints against the embedded database.
+ * Also runs as a native test with ./mvnw -PnativeTest test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointsIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookBrowseService bookBrowseService;
+
+    @Test
+    void registerLoginAndUseProtectedEndpoints() throws Exception {
+        mockMvc.perform(post("/v1/users/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"alice\",\"password\":\"pw\",\"email\":\"alice@example.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(200));
+
+        String login = mockMvc.perform(post("/v1/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"alice@example.com\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode body = objectMapper.readTree(login);
+        String bearer = "Bearer " + body.path("data").path("token").asText();
+
+        mockMvc.perform(post("/v1/wishlist")
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"book_id\":7}"))
+                .andExpect(jsonPath("$.code").value(200));
+        mockMvc.perform(post("/v1/wishlist")
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"book_id\":7}"))
+                .andExpect(jsonPath("$.message").value("This book is already in the wishlist"));
+        mockMvc.perform(post("/v1/wishlist/contains")
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"book_ids\":[7,8]}"))
+                .andExpect(jsonPath("$.data.7").value(true))
+                .andExpect(jsonPath("$.data.8").value(false));
+        mockMvc.perform(get("/v1/wishlist/changes").header("Authorization", bearer))
+                .andExpect(jsonPath("$.data.version").value(1))
+                .andExpect(jsonPath("$.data.reset").value(true))
+                .andExpect(jsonPath("$.data.changes[0].book_id").value(7));
+        mockMvc.perform(get("/v1/wishlist").header("Authorization", bearer).param("fields", "bookId"))
+                .andExpect(jsonPath("$.data[0].bookId").value(7))
+                .andExpect(jsonPath("$.data[0].id").doesNotExist());
+        mockMvc.perform(get("/v1/wishlist").header("Authorization", bearer).param("fields", "password"))
+                .andExpect(jsonPath("$.code").value(400));
+
+        String me = mockMvc.perform(get("/v1/users/me").header("Authorization", bearer))
+                .andExpect(jsonPath("$.data.userEmail").value("alice@example.com"))
+                .andExpect(jsonPath("$.data.wishlist[0].bookId").value(7))
+                .andReturn().getResponse().getContentAsString();
+        String userId = objectMapper.readTree(me).path("data").path("userId").asText();
+
+        mockMvc.perform(post("/v1/reviews/updateReviewByBookIdUserId")
+                        .header("Authorization", bearer)
+                        .param("bookId", "7")
+                        .param("userId", userId)
+                        .param("rating", "4")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("A great read"))
+                .andExpect(jsonPath("$.code").value(200));
+        mockMvc.perform(post("/v1/reviews/updateReviewByBookIdUserId")
+                        .header("Authorization", bearer)
+                        .param("bookId", "7")
+                        .param("userId", userId)
+                        .param("rating", "6")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("Off the scale"))
+                .andExpect(jsonPath("$.code").value(400));
+        mockMvc.perform(get("/v1/books/7/rating"))
+                .andExpect(jsonPath("$.data.count").value(1))
+                .andExpect(jsonPath("$.data.histogram[3]").value(1));
+        mockMvc.perform(get("/v1/books/ratings").param("ids", "8").param("ids", "7"))
+                .andExpect(jsonPath("$.data[0].count").value(0))
+                .andExpect(jsonPath("$.data[1].average").value(4.0));
+        mockMvc.perform(get("/v1/users/me").header("Authorization", bearer).param("fields", "reviewCount"))
+                .andExpect(jsonPath("$.data.reviewCount").value(1))
+                .andExpect(jsonPath("$.data.userEmail").doesNotExist());
+
+        jdbcTemplate.update("INSERT INTO BOOK (book_id, name) VALUES (7, 'Seven')");
+        mockMvc.perform(get("/v1/reviews/selectReviewByBookId")
+                        .header("Authorization", bearer)
+                        .param("id", "7"))
+                .andExpect(jsonPath("$.data.list[0].reviewContent").value("A great read"))
+                .andExpect(jsonPath("$.data.list[0].userName").value("alice"))
+                .andExpect(jsonPath("$.data.list[0].name").value("Seven"));
+        mockMvc.perform(get("/v1/reviews/selectReviewByBookId")
+                        .header("Authorization", bearer)
+                        .param("id", "7")
+                        .param("fields", "reviewId,deleted"))
+                .andExpect(jsonPath("$.code").value(400));
+        mockMvc.perform(get("/v1/reviews/by-books")
+                        .header("Authorization", bearer)
+                        .param("ids", "7", "8")
+                        .param("perBook", "2")
+                        .param("fields", "reviewContent"))
+                .andExpect(jsonPath("$.data.7[0].reviewContent").value("A great read"))
+                .andExpect(jsonPath("$.data.7[0].userName").doesNotExist())
+                .andExpect(jsonPath("$.data.8.length()").value(0));
+
+        mockMvc.perform(get("/v1/reviews/search")
+                        .header("Authorization", bearer)
+                        .param("q", "great"))
+                .andExpect(jsonPath("$.data.total").value(1))
+                .andExpect(jsonPath("$.data.list[0].highlight").value("A <em>great</em> read"));
+        mockMvc.perform(get("/v1/reviews/search")
+                        .header("Authorization", bearer)
+                        .param("q", "great")
+                        .param("pageNum", "101"))
+                .andExpect(jsonPath("$.code").value(400));
+
+        mockMvc.perform(get("/v1/books/7/detail"))
+                .andExpect(jsonPath("$.data.name").value("Seven"))
+                .andExpect(jsonPath("$.data.wishlistCount").value(1));
+        mockMvc.perform(get("/v1/books/404404/detail"))
+                .andExpect(jsonPath("$.code").value(404));
+    }
+
+    @Test
+    void browseCatalogWithFacetCounts() throws Exception {
+        jdbcTemplate.update("INSERT INTO CATEGORY (category_id, category_name) VALUES (1, 'Fiction'), (2, 'History')");
+        jdbcTemplate.update("INSERT INTO AUTHOR (author_id, author_name) VALUES (1, 'Ann'), (2, 'Ben')");
+        jdbcTemplate.update("INSERT INTO BOOK (book_id, name, publishing_house) VALUES "
+                + "(101, 'One', 'North'), (102, 'Two', 'North'), (103, 'Three', 'South')");
+        jdbcTemplate.update("INSERT INTO BOOK_CATEGORY (book_id, category_id) VALUES (101, 1), (102, 1), (102, 2), (103, 2)");
+        jdbcTemplate.update("INSERT INTO BOOK_AUTHOR (book_id, author_id) VALUES (101, 1), (102, 2), (103, 2)");
+        bookBrowseService.rebuild();
+
+        mockMvc.perform(get("/v1/books/browse").param("categoryId", "1").param("publisher", "North"))
+                .andExpect(jsonPath("$.data.total").value(2))
+                .andExpect(jsonPath("$.data.books[0].bookId").value(101))
+                .andExpect(jsonPath("$.data.facets.category[0].name").value("Fiction"))
+                .andExpect(jsonPath("$.data.facets.category[0].count").value(2))
+                .andExpect(jsonPath("$.data.facets.category[1].count").value(1))
+                .andExpect(jsonPath("$.data.facets.publisher[0].name").value("North"))
+                .andExpect(jsonPath("$.data.facets.publisher[0].count").value(2));
+
+        // Catalog edits made outside the application show after the next periodic rebuild
+        jdbcTemplate.update("DELETE FROM BOOK_AUTHOR WHERE book_id = 101");
+        jdbcTemplate.update("DELETE FROM BOOK_CATEGORY WHERE book_id = 103");
+        jdbcTemplate.update("DELETE FROM BOOK WHERE book_id = 103");
+        bookBrowseService.rebuild();
+        mockMvc.perform(get("/v1/books/browse").param("authorId", "1"))
+                .andExpect(jsonPath("$.data.total").value(0));
+        mockMvc.perform(get("/v1/books/browse").param("publisher", "South"))
+                .andExpect(jsonPath("$.data.total").value(0));
+    }
+
+    @Test
+    void protectedEndpointsRejectAnonymousCalls() throws Exception {
+        mockMvc.perform(get("/v1/wishlist")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void operationalEndpointsAreForAdminsOnly() throws Exception {
+        mockMvc.perform(post("/v1/users/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"carol\",\"password\":\"pw\",\"email\":\"carol@example.com\"}"))
+                .andExpect(jsonPath("$.code").value(200));
+        String user = bearer(post("/v1/users/login"), "carol@example.com");
+        jdbcTemplate.update("INSERT INTO ADMIN (admin_name, admin_email, password) VALUES ('root', 'root@example.com', 'pw')");
+        String admin = bearer(post("/v1/users/admin/login"), "root@example.com");
+
+        for (String path : new String[]{"/v1/caches", "/v1/resilience", "/v1/events/lag", "/v1/books/detail/lag"}) {
+            mockMvc.perform(get(path)).andExpect(status().isUnauthorized());
+            mockMvc.perform(get(path).header("Authorization", user)).andExpect(status().isForbidden());
+            mockMvc.perform(get(path).header("Authorization", admin)).andExpect(jsonPath("$.code").value(200));
+        }
+        mockMvc.perform(post("/v1/books/detail/rebuild")).andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/v1/books/detail/rebuild").header("Authorization", user)).andExpect(status().isForbidden());
+        mockMvc.perform(post("/v1/books/detail/rebuild").header("Authorization", admin))
+                .andExpect(jsonPath("$.code").value(200))
+                .andExpect(jsonPath("$.data").isNumber());
+        // Batched calls are held to the same rules
+        mockMvc.perform(post("/v1/batch")
+                        .header("Authorization", user)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requests\":[{\"method\":\"GET\",\"path\":\"/v1/caches\"},"
+                                + "{\"method\":\"GET\",\"path\":\"/v1/users/me\"}]}"))
+                .andExpect(jsonPath("$.data[0].status").value(403))
+                .andExpect(jsonPath("$.data[1].status").value(200));
+        jdbcTemplate.update("DELETE FROM ADMIN WHERE admin_email = 'root@example.com'");
+    }
+
+    private String bearer(MockHttpServletRequestBuilder login, String email) throws Exception {
+        String response = mockMvc.perform(login
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"pw\"}"))
+                .andReturn().getResponse().getContentAsString();
+        return "Bearer " + objectMapper.readTree(response).path("data").path("token").asText();
+    }
+}
@@ -2,8 +2,10 @@ package uk.ac.ncl.team5project;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class Team5ProjectApplicationTests {
 
     @Test
@@ -0,0 +1,129 @@
+package uk.ac.ncl.team5project.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ncl.team5project.mapper.ConfigurationMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies layering, reloads, change notification and version allocation of the runtime configuration.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ConfigurationStoreTests {
+
+    @Autowired
+    private ConfigurationStore configurationStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConfigurationMapper configurationMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void storedValuesOverridePropertiesAndNotifyListeners() {
+        // application.yml value until CONFIGURATION has a row
+        assertThat(configurationStore.get(Settings.JWT_EXPIRATION_MS)).isEqualTo(86_400_000L);
+
+        List<Long> seen = new ArrayList<>();
+        configurationStore.subscribe(Settings.JWT_EXPIRATION_MS, seen::add);
+        configurationStore.set("jwt.expiration", "60000");
+        assertThat(configurationStore.get(Settings.JWT_EXPIRATION_MS)).isEqualTo(60_000L);
+        assertThat(seen).containsExactly(60_000L);
+
+        // Values the setting would ignore are refused, and the current value stays
+        assertThatThrownBy(() -> configurationStore.set("jwt.expiration", "soon"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(configurationStore.get(Settings.JWT_EXPIRATION_MS)).isEqualTo(60_000L);
+
+        // Unparseable values written behind the store's back fall back instead of breaking the setting
+        jdbcTemplate.update("UPDATE CONFIGURATION SET config_value = 'soon', version = 98 WHERE config_key = 'jwt.expiration'");
+        configurationStore.poll();
+        assertThat(configurationStore.get(Settings.JWT_EXPIRATION_MS)).isEqualTo(86_400_000L);
+        assertThat(configurationStore.current().problem("jwt.expiration")).contains("soon");
+
+        // Rows written by other instances are picked up by the next poll
+        jdbcTemplate.update("DELETE FROM CONFIGURATION WHERE config_key = 'jwt.expiration'");
+        jdbcTemplate.update("INSERT INTO CONFIGURATION (config_key, config_value, version) VALUES ('team5.browse.max-page-size', '7', 99)");
+        configurationStore.poll();
+        assertThat(configurationStore.get(Settings.BROWSE_MAX_PAGE_SIZE)).isEqualTo(7);
+        assertThat(configurationStore.current().raw("jwt.expiration")).isNull();
+        jdbcTemplate.update("DELETE FROM CONFIGURATION");
+        configurationStore.poll();
+    }
+
+    @Test
+    void everyWriteGetsAVersionOfItsOwn() throws InterruptedException {
+        // A row written by hand is overtaken by the next write
+        jdbcTemplate.update("INSERT INTO CONFIGURATION (config_key, config_value, version) VALUES ('team5.browse.max-page-size', '7', 100000)");
+        configurationStore.set("jwt.expiration", "60000");
+        assertThat(versionOf("jwt.expiration")).isEqualTo(100001);
+
+        // Another instance writing at the same time: this write waits for its commit and takes the next version
+        CountDownLatch bumped = new CountDownLatch(1);
+        Thread other = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            configurationMapper.bumpVersion();
+            bumped.countDown();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            configurationMapper.updateValue("team5.browse.max-page-size", "8", configurationMapper.selectBumpedVersion());
+        }));
+        other.start();
+        bumped.await();
+        configurationStore.set("jwt.expiration", "70000");
+        other.join();
+        assertThat(versionOf("team5.browse.max-page-size")).isEqualTo(100002);
+        assertThat(versionOf("jwt.expiration")).isEqualTo(100003);
+        assertThat(configurationStore.get(Settings.JWT_EXPIRATION_MS)).isEqualTo(70_000L);
+
+        jdbcTemplate.update("DELETE FROM CONFIGURATION");
+        configurationStore.poll();
+    }
+
+    @Test
+    void outOfRangeAndMisorderedValuesAreRefused() {
+        assertThatThrownBy(() -> configurationStore.set("team5.batch.max-requests", "0"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("team5.batch.max-requests must be between 1 and");
+        assertThatThrownBy(() -> configurationStore.set("team5.reviews.archive-batch-size", "0"))
+                .isInstanceOf(IllegalArgumentException.class);
+        int max = configurationStore.get(Settings.LIMITER_MAX_LIMIT);
+        assertThatThrownBy(() -> configurationStore.set("team5.resilience.limiter-min-limit", String.valueOf(max + 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("may not exceed");
+        assertThat(configurationStore.current().stored()).isEmpty();
+
+        // A misordered pair written directly falls back as a pair
+        jdbcTemplate.update("INSERT INTO CONFIGURATION (config_key, config_value, version) VALUES ('team5.resilience.limiter-min-limit', '50', 100)");
+        jdbcTemplate.update("INSERT INTO CONFIGURATION (config_key, config_value, version) VALUES ('team5.resilience.limiter-max-limit', '40', 101)");
+        jdbcTemplate.update("INSERT INTO CONFIGURATION (config_key, config_value, version) VALUES ('team5.batch.max-requests', '-3', 102)");
+        configurationStore.poll();
+        assertThat(configurationStore.get(Settings.LIMITER_MAX_LIMIT)).isEqualTo(max);
+        assertThat(configurationStore.get(Settings.LIMITER_MIN_LIMIT)).isLessThanOrEqualTo(max);
+        assertThat(configurationStore.get(Settings.BATCH_MAX_REQUESTS)).isPositive();
+        jdbcTemplate.update("DELETE FROM CONFIGURATION");
+        configurationStore.poll();
+    }
+
+    private long versionOf(String key) {
+        return jdbcTemplate.queryForObject("SELECT version FROM CONFIGURATION WHERE config_key = ?", Long.class, key);
+    }
+}
@@ -0,0 +1,57 @@
+package uk.ac.ncl.team5project.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data source wrapper that delays or fails connection requests on demand, standing in for a database that
+ * stalls or goes away. Connections already handed out are left alone.
+ */
+class FaultInjectingDataSource extends DelegatingDataSource {
+
+    private volatile boolean failing;
+    private volatile long latencyMillis;
+
+    FaultInjectingDataSource(DataSource target) {
+        super(target);
+    }
+
+    void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        inject();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        inject();
+        return super.getConnection(username, password);
+    }
+
+    private void inject() throws SQLException {
+        long latency = latencyMillis;
+        if (latency > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failing) {
+            throw new SQLTransientConnectionException("Injected connection failure");
+        }
+    }
+}
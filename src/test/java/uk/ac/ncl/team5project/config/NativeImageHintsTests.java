@@ -0,0 +1,57 @@
+package uk.ac.ncl.team5project.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import uk.ac.ncl.team5project.entity.Admin;
+import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.entity.User;
+import uk.ac.ncl.team5project.entity.Wishlist;
+import uk.ac.ncl.team5project.mapper.ReviewMapper;
+import uk.ac.ncl.team5project.mapper.UserMapper;
+import uk.ac.ncl.team5project.mapper.WishlistMapper;
+import uk.ac.ncl.team5project.model.vo.BookCount;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the reflection metadata registered for the native image.
+ */
+class NativeImageHintsTests {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void registerHints() {
+        new NativeImageHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void entitiesAreReflectivelyConstructible() {
+        for (Class<?> entity : new Class<?>[]{User.class, Wishlist.class, Review.class, Admin.class, BookCount.class}) {
+            assertThat(RuntimeHintsPredicates.reflection()
+                    .onType(entity)
+                    .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS))
+                    .as(entity.getSimpleName())
+                    .accepts(hints);
+        }
+    }
+
+    @Test
+    void mapperInterfacesHaveJdkProxies() {
+        for (Class<?> mapper : new Class<?>[]{UserMapper.class, WishlistMapper.class, ReviewMapper.class}) {
+            assertThat(RuntimeHintsPredicates.proxies().forInterfaces(mapper))
+                    .as(mapper.getSimpleName())
+                    .accepts(hints);
+        }
+    }
+
+    @Test
+    void mapperXmlAndJwtStackAreRegistered() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("mapper/UserMapper.xml")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(io.jsonwebtoken.impl.DefaultJwtBuilder.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(javax.xml.bind.DatatypeConverter.class)).accepts(hints);
+    }
+}
@@ -0,0 +1,122 @@
+package uk.ac.ncl.team5project.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.entity.Wishlist;
+import uk.ac.ncl.team5project.mapper.ReviewMapper;
+import uk.ac.ncl.team5project.mapper.WishlistMapper;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes reads between two embedded databases standing in for the primary and one replica.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "team5.datasource.replicas[0].url=" + ReplicaRoutingTests.REPLICA_URL
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    @Autowired
+    private ReviewMapper reviewMapper;
+
+    @Autowired
+    private WishlistMapper wishlistMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void seedBothDatabases() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        primary.update("INSERT INTO REVIEWS (book_id, user_id, review_content) VALUES (500, 50, 'on primary')");
+        replica.update("INSERT INTO REVIEWS (book_id, user_id, review_content) VALUES (500, 50, 'on replica')");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        primary.update("DELETE FROM REVIEWS WHERE book_id = 500");
+        primary.update("DELETE FROM WISHLIST WHERE user_id = 50");
+        replica.update("DELETE FROM REVIEWS WHERE book_id = 500");
+    }
+
+    @Test
+    void readOnlyMapperMethodsAndTransactionsUseTheReplica() {
+        assertThat(contentOf(reviewMapper.selectReviewByBookId(500, null))).isEqualTo("on replica");
+        // Not annotated: primary
+        assertThat(contentOf(reviewMapper.selectReviewByUserId(50, null))).isEqualTo("on primary");
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        String inReadOnly = readOnly.execute(status -> contentOf(reviewMapper.selectReviewByUserId(50, null)));
+        assertThat(inReadOnly).isEqualTo("on replica");
+
+        // Annotated, but inside a read-write transaction: primary
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        String inReadWrite = readWrite.execute(status -> contentOf(reviewMapper.selectReviewByBookId(500, null)));
+        assertThat(inReadWrite).isEqualTo("on primary");
+    }
+
+    @Test
+    void callersReadTheirOwnWritesFromThePrimary() throws Exception {
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        readYourWrites.doFilter(new MockHttpServletRequest("POST", "/v1/wishlist"), writeResponse, (request, response) -> {
+            assertThat(contentOf(reviewMapper.selectReviewByBookId(500, null))).isEqualTo("on replica");
+            wishlistMapper.insert(new Wishlist().setUserId(50).setBookId(500));
+            assertThat(contentOf(reviewMapper.selectReviewByBookId(500, null))).isEqualTo("on primary");
+        });
+        Cookie lastWrite = writeResponse.getCookie(ReadYourWrites.COOKIE);
+        assertThat(lastWrite).isNotNull();
+        assertThat(lastWrite.isHttpOnly()).isTrue();
+        assertThat(lastWrite.getMaxAge()).isPositive();
+
+        // The window travels with the caller, not with the instance that took the write
+        assertThat(readThrough(lastWrite.getValue())).isEqualTo("on primary");
+        assertThat(readThrough(null)).isEqualTo("on replica");
+        assertThat(readThrough(String.valueOf(System.currentTimeMillis() - 60_000))).isEqualTo("on replica");
+        assertThat(readThrough("garbage")).isEqualTo("on replica");
+    }
+
+    private String readThrough(String lastWrite) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/reviews");
+        if (lastWrite != null) {
+            request.setCookies(new Cookie(ReadYourWrites.COOKIE, lastWrite));
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String[] content = new String[1];
+        readYourWrites.doFilter(request, response,
+                (req, res) -> content[0] = contentOf(reviewMapper.selectReviewByBookId(500, null)));
+        assertThat(response.getCookie(ReadYourWrites.COOKIE)).isNull();
+        return content[0];
+    }
+
+    private static String contentOf(List<Review> reviews) {
+        assertThat(reviews).hasSize(1);
+        return reviews.get(0).getReviewContent();
+    }
+}
@@ -0,0 +1,260 @@
+package uk.ac.ncl.team5project.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import uk.ac.ncl.team5project.entity.Book;
+import uk.ac.ncl.team5project.mapper.BookMapper;
+import uk.ac.ncl.team5project.util.CircuitBreaker;
+import uk.ac.ncl.team5project.util.JwtUtil;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Public reads against an embedded database whose connections can be made to fail or stall: last-known-good
+ * responses are served stale, other requests get 503, the mapper's circuit breaker opens and recovers, and
+ * the edge limit sheds anonymous reads before logins and classes tokens and batches by what they carry.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:resilience;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "team5.similar.snapshot-path=target/test-data/resilience.hnsw",
+        "team5.resilience.breaker-failure-threshold=2",
+        "team5.resilience.breaker-open-ms=500"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ResilienceTests {
+
+    @TestConfiguration
+    static class FaultInjection {
+        @Bean
+        static BeanPostProcessor faultInjectingDataSourceWrapper() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return "dataSource".equals(beanName) && bean instanceof DataSource target
+                            ? new FaultInjectingDataSource(target) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CircuitBreakerInterceptor circuitBreakerInterceptor;
+
+    @Autowired
+    private ConfigurationStore configurationStore;
+
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private BookMapper bookMapper;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void seedBooks() {
+        jdbc.update("MERGE INTO BOOK (book_id, name) KEY (book_id) VALUES (7, 'Seven'), (8, 'Eight')");
+    }
+
+    @AfterEach
+    void restoreDatabase() {
+        faults().setFailing(false);
+        faults().setLatencyMillis(0);
+        jdbc.update("DELETE FROM CONFIGURATION WHERE config_key LIKE 'team5.resilience.%'");
+        configurationStore.poll();
+    }
+
+    @Test
+    void servesStaleReadsWhileTheDatabaseFailsAndRecovers() throws Exception {
+        String fresh = mockMvc.perform(get("/v1/books/7/detail"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(200))
+                .andReturn().getResponse().getContentAsString();
+
+        faults().setFailing(true);
+
+        MvcResult stale = mockMvc.perform(get("/v1/books/7/detail"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Warning", "110 - \"Response is Stale\""))
+                .andExpect(header().exists("Age"))
+                .andReturn();
+        assertThat(stale.getResponse().getContentAsString()).isEqualTo(fresh);
+        // never read successfully, so nothing to fall back on
+        mockMvc.perform(get("/v1/books/8/detail"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.code").value(503));
+
+        CircuitBreaker breaker = breaker("BookDetailMapper");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        long rejected = breaker.getRejected();
+        mockMvc.perform(get("/v1/books/8/detail")).andExpect(status().isServiceUnavailable());
+        assertThat(breaker.getRejected()).isEqualTo(rejected + 1);
+
+        faults().setFailing(false);
+        Thread.sleep(600);
+
+        mockMvc.perform(get("/v1/books/8/detail"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Warning"))
+                .andExpect(jsonPath("$.code").value(200));
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void fullBulkheadServesStaleOrRejects() throws Exception {
+        mockMvc.perform(get("/v1/books/7/rating")).andExpect(status().isOk());
+
+        configurationStore.set("team5.resilience.bulkhead-max-concurrent", "0");
+
+        mockMvc.perform(get("/v1/books/7/rating"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Warning"));
+        mockMvc.perform(get("/v1/books/7/related"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void edgeLimitShedsAnonymousReadsBeforeLogins() throws Exception {
+        configurationStore.set("team5.resilience.limiter-min-limit", "2");
+        configurationStore.set("team5.resilience.limiter-max-limit", "2");
+        faults().setLatencyMillis(300);
+        Thread slow = Thread.ofVirtual().start(() -> {
+            try {
+                mockMvc.perform(get("/v1/books/8/detail"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        for (int attempt = 0; attempt < 100 && concurrencyLimitFilter.getInFlight() == 0; attempt++) {
+            Thread.sleep(10);
+        }
+        assertThat(concurrencyLimitFilter.getInFlight()).isEqualTo(1);
+
+        // anonymous reads may fill 70% of the limit of 2, so one slot, which the slow read holds
+        mockMvc.perform(get("/v1/books/7/related"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.code").value(503));
+        mockMvc.perform(post("/v1/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"nobody@example.com\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk());
+        assertThat(concurrencyLimitFilter.getShed().get(ConcurrencyLimitFilter.Priority.LOW)).isPositive();
+        assertThat(concurrencyLimitFilter.getShed().get(ConcurrencyLimitFilter.Priority.CRITICAL)).isZero();
+        slow.join();
+    }
+
+    @Test
+    void edgeLimitVerifiesTokensAndAdmitsBatchedCallsOneByOne() throws Exception {
+        configurationStore.set("team5.resilience.limiter-min-limit", "4");
+        configurationStore.set("team5.resilience.limiter-max-limit", "4");
+        String bearer = "Bearer " + jwtUtil.generateJwtToken("reader@example.com", "user");
+        List<ConcurrencyLimitFilter.Permit> held = new ArrayList<>();
+        try {
+            // of a limit of 4, anonymous reads may fill 2 slots and authenticated reads 3
+            held.add(concurrencyLimitFilter.tryAcquire(ConcurrencyLimitFilter.Priority.CRITICAL));
+            held.add(concurrencyLimitFilter.tryAcquire(ConcurrencyLimitFilter.Priority.CRITICAL));
+            mockMvc.perform(get("/v1/books/7/related")).andExpect(status().isServiceUnavailable());
+            mockMvc.perform(get("/v1/books/7/related").header("Authorization", "Bearer forged"))
+                    .andExpect(status().isServiceUnavailable());
+            mockMvc.perform(get("/v1/books/7/related").header("Authorization", bearer)).andExpect(status().isOk());
+
+            held.add(concurrencyLimitFilter.tryAcquire(ConcurrencyLimitFilter.Priority.CRITICAL));
+            mockMvc.perform(get("/v1/books/7/related").header("Authorization", bearer))
+                    .andExpect(status().isServiceUnavailable());
+            // the batch holds no slot; each call in it is admitted on its own
+            mockMvc.perform(post("/v1/batch")
+                            .header("Authorization", bearer)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"requests\":["
+                                    + "{\"method\":\"GET\",\"path\":\"/v1/books/7/related\"},"
+                                    + "{\"method\":\"POST\",\"path\":\"/v1/users/login\","
+                                    + "\"body\":{\"email\":\"nobody@example.com\",\"password\":\"pw\"}}]}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data[0].status").value(503))
+                    .andExpect(jsonPath("$.data[1].status").value(200));
+            assertThat(concurrencyLimitFilter.getInFlight()).isEqualTo(3);
+        } finally {
+            held.forEach(ConcurrencyLimitFilter.Permit::close);
+        }
+        assertThat(concurrencyLimitFilter.getShed().get(ConcurrencyLimitFilter.Priority.NORMAL)).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void onlyRequestsCountSlowStatements() throws Exception {
+        // closes the breaker if an earlier test left it open
+        Thread.sleep(600);
+        bookMapper.selectById(7);
+        configurationStore.set("team5.resilience.breaker-slow-call-ms", "50");
+        faults().setLatencyMillis(100);
+        // the test thread stands for a request (a mock request is bound to it); a new thread is background work
+        Callable<Book> background = () -> bookMapper.selectById(7);
+        Callable<Book> forked = CircuitBreakerInterceptor.propagate(background);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 3; i++) {
+                executor.submit(background).get();
+            }
+            CircuitBreaker breaker = breaker("BookMapper");
+            assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+            executor.submit(forked).get();
+            executor.submit(forked).get();
+            assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+            assertThatThrownBy(() -> bookMapper.selectById(7)).hasRootCauseInstanceOf(CircuitOpenException.class);
+        }
+
+        faults().setLatencyMillis(0);
+        Thread.sleep(600);
+        bookMapper.selectById(7);
+        assertThat(breaker("BookMapper").getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private FaultInjectingDataSource faults() {
+        return (FaultInjectingDataSource) dataSource;
+    }
+
+    private CircuitBreaker breaker(String name) {
+        return circuitBreakerInterceptor.breakers().stream()
+                .filter(breaker -> breaker.getName().equals(name))
+                .findFirst().orElseThrow();
+    }
+}
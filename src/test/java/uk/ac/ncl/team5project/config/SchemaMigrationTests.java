@@ -0,0 +1,80 @@
+package uk.ac.ncl.team5project.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.ncl.team5project.service.ReviewService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots with two shards and a replica that nobody migrated by hand: startup brings every one of them to the
+ * main database's schema version.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + SchemaMigrationTests.URL + "main;" + SchemaMigrationTests.OPTIONS,
+        "team5.sharding.shards[0].url=" + SchemaMigrationTests.URL + "shard-0;" + SchemaMigrationTests.OPTIONS,
+        "team5.sharding.shards[1].url=" + SchemaMigrationTests.URL + "shard-1;" + SchemaMigrationTests.OPTIONS,
+        "team5.datasource.replicas[0].url=" + SchemaMigrationTests.URL + "replica;" + SchemaMigrationTests.OPTIONS
+})
+@ActiveProfiles("test")
+class SchemaMigrationTests {
+
+    static final String URL = "jdbc:h2:mem:migration-";
+    static final String OPTIONS = "MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1";
+    private static final List<String> COPIES = List.of("shard-0", "shard-1", "replica");
+    private static final int BOOK_ID = 750;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @AfterEach
+    void cleanUp() {
+        for (int shard = 0; shard < 2; shard++) {
+            database("shard-" + shard).update("DELETE FROM REVIEWS WHERE book_id = ?", BOOK_ID);
+        }
+    }
+
+    @Test
+    void everyShardAndReplicaIsMigratedAtStartup() {
+        MigrationInfoService main = info("main");
+        assertThat(main.pending()).isEmpty();
+        for (String copy : COPIES) {
+            MigrationInfoService info = info(copy);
+            assertThat(info.pending()).as(copy).isEmpty();
+            assertThat(info.current().getVersion()).as(copy).isEqualTo(main.current().getVersion());
+        }
+
+        // both shards take writes
+        for (int userId = 1; userId <= 20; userId++) {
+            reviewService.updateReviewByBookIdUserId(userId, BOOK_ID, "review by " + userId);
+        }
+        for (int shard = 0; shard < 2; shard++) {
+            int expected = 0;
+            for (int userId = 1; userId <= 20; userId++) {
+                expected += shardRouter.shardOf(userId) == shard ? 1 : 0;
+            }
+            assertThat(database("shard-" + shard).queryForObject("SELECT COUNT(*) FROM REVIEWS WHERE book_id = ?",
+                    Integer.class, BOOK_ID)).isEqualTo(expected);
+        }
+    }
+
+    private static MigrationInfoService info(String name) {
+        return Flyway.configure().dataSource(URL + name + ";" + OPTIONS, "sa", "").load().info();
+    }
+
+    private static JdbcTemplate database(String name) {
+        return new JdbcTemplate(new DriverManagerDataSource(URL + name + ";" + OPTIONS, "sa", ""));
+    }
+}
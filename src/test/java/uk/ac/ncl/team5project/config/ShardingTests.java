@@ -0,0 +1,244 @@
+package uk.ac.ncl.team5project.config;
+
+import com.github.pagehelper.PageInfo;
+import com.github.pagehelper.page.PageMethod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.ncl.team5project.controller.WishlistController;
+import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.mapper.ReviewMapper;
+import uk.ac.ncl.team5project.model.vo.BookCount;
+import uk.ac.ncl.team5project.model.vo.WishlistStatVO;
+import uk.ac.ncl.team5project.service.ReshardingService;
+import uk.ac.ncl.team5project.service.ReviewService;
+import uk.ac.ncl.team5project.util.ConsistentHashRing;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Splits WISHLIST and REVIEWS over three embedded databases, with users placed on the first two until
+ * the last test grows the ring.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding-main;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "team5.sharding.shards[0].url=" + ShardingTests.SHARD_URL + "0;" + ShardingTests.SHARD_OPTIONS,
+        "team5.sharding.shards[1].url=" + ShardingTests.SHARD_URL + "1;" + ShardingTests.SHARD_OPTIONS,
+        "team5.sharding.shards[2].url=" + ShardingTests.SHARD_URL + "2;" + ShardingTests.SHARD_OPTIONS,
+        "team5.sharding.ring-size=2",
+        "team5.sharding.override-refresh-ms=50",
+        "team5.sharding.fence-timeout-ms=300"
+})
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShardingTests {
+
+    static final String SHARD_URL = "jdbc:h2:mem:shard-";
+    static final String SHARD_OPTIONS = "MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1";
+    private static final int BOOK_ID = 700;
+
+    private static final JdbcTemplate[] SHARDS = new JdbcTemplate[3];
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ReviewMapper reviewMapper;
+
+    @Autowired
+    private ReshardingService reshardingService;
+
+    @Autowired
+    private WishlistController wishlistController;
+
+    @Autowired
+    private JdbcTemplate main;
+
+    // The shards were migrated when the context started. Each shard hands out ids from its own range, as
+    // auto_increment_offset would in MySQL.
+    @BeforeAll
+    void assignIdRanges() {
+        for (int i = 0; i < SHARDS.length; i++) {
+            SHARDS[i] = new JdbcTemplate(new DriverManagerDataSource(SHARD_URL + i + ";" + SHARD_OPTIONS, "sa", ""));
+            SHARDS[i].execute("ALTER TABLE REVIEWS ALTER COLUMN review_id RESTART WITH " + (i * 1_000_000 + 1));
+            SHARDS[i].execute("ALTER TABLE WISHLIST ALTER COLUMN id RESTART WITH " + (i * 1_000_000 + 1));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (JdbcTemplate shard : SHARDS) {
+            shard.update("DELETE FROM REVIEWS");
+            shard.update("DELETE FROM WISHLIST");
+        }
+        main.update("DELETE FROM SHARD_OVERRIDE");
+        shardRouter.reloadOverrides();
+    }
+
+    @Test
+    @Order(1)
+    void reviewsOfABookArePagedAcrossShards() {
+        for (int userId = 1; userId <= 30; userId++) {
+            reviewService.updateReviewByBookIdUserId(userId, BOOK_ID, "review by " + userId);
+        }
+        for (int userId = 1; userId <= 30; userId++) {
+            assertThat(reviewsOn(shardRouter.shardOf(userId), userId)).isEqualTo(1);
+        }
+        assertThat(countOn(0) + countOn(1)).isEqualTo(30);
+        assertThat(countOn(0)).isPositive();
+        assertThat(countOn(1)).isPositive();
+        assertThat(countOn(2)).isZero();
+
+        List<Integer> allIds = reviewService.selectReviewByBookId(BOOK_ID).stream().map(Review::getReviewId).toList();
+        assertThat(allIds).hasSize(30).isSorted();
+
+        PageMethod.startPage(2, 7);
+        PageInfo<Review> second = new PageInfo<>(reviewService.selectReviewByBookId(BOOK_ID));
+        assertThat(second.getTotal()).isEqualTo(30);
+        assertThat(second.getPages()).isEqualTo(5);
+        assertThat(second.getList().stream().map(Review::getReviewId)).containsExactlyElementsOf(allIds.subList(7, 14));
+
+        PageMethod.startPage(5, 7);
+        PageInfo<Review> last = new PageInfo<>(reviewService.selectReviewByBookId(BOOK_ID));
+        assertThat(last.getList().stream().map(Review::getReviewId)).containsExactlyElementsOf(allIds.subList(28, 30));
+    }
+
+    @Test
+    @Order(2)
+    void wishlistStatisticsAreSummedOverShards() {
+        int onShard0 = userOn(0);
+        int onShard1 = userOn(1);
+        SHARDS[0].update("INSERT INTO WISHLIST (user_id, book_id) VALUES (?, 5), (?, 6)", onShard0, onShard0);
+        SHARDS[1].update("INSERT INTO WISHLIST (user_id, book_id) VALUES (?, 5)", onShard1);
+
+        WishlistStatVO stat = (WishlistStatVO) wishlistController.getWishlistStat().getData();
+
+        assertThat(stat.getWishlistCount()).isEqualTo(3);
+        Map<Integer, Integer> counts = stat.getBookCounts().stream()
+                .collect(Collectors.toMap(BookCount::getBookId, BookCount::getCount));
+        assertThat(counts).containsEntry(5, 2).containsEntry(6, 1);
+    }
+
+    @Test
+    @Order(3)
+    void mapperCallsOutsideTheRouterAreRejected() {
+        assertThatThrownBy(() -> reviewMapper.selectReviewByUserId(1, null))
+                .hasStackTraceContaining("must run through ShardRouter");
+    }
+
+    @Test
+    @Order(4)
+    void movedUserKeepsRowIdsAndIsReadFromTheTarget() {
+        int userId = userOn(0);
+        reviewService.updateReviewByBookIdUserId(userId, BOOK_ID, "before the move");
+        SHARDS[0].update("INSERT INTO WISHLIST (user_id, book_id) VALUES (?, 9)", userId);
+        Integer reviewId = SHARDS[0].queryForObject("SELECT review_id FROM REVIEWS WHERE user_id = ?", Integer.class, userId);
+
+        assertThat(reshardingService.moveUsers(List.of(userId), 2)).isEqualTo(1);
+
+        assertThat(shardRouter.shardOf(userId)).isEqualTo(2);
+        assertThat(reviewsOn(0, userId)).isZero();
+        assertThat(SHARDS[2].queryForObject("SELECT review_id FROM REVIEWS WHERE user_id = ?", Integer.class, userId))
+                .isEqualTo(reviewId);
+        assertThat(SHARDS[2].queryForObject("SELECT COUNT(*) FROM WISHLIST WHERE user_id = ?", Integer.class, userId))
+                .isEqualTo(1);
+        assertThat(reviewService.selectReviewByUserId(userId)).extracting(Review::getReviewContent)
+                .containsExactly("before the move");
+
+        // Writes after the move go to the new shard
+        reviewService.updateReviewByBookIdUserId(userId, BOOK_ID, "after the move");
+        assertThat(SHARDS[2].queryForObject("SELECT review_content FROM REVIEWS WHERE user_id = ?", String.class, userId))
+                .isEqualTo("after the move");
+        assertThat(main.queryForObject("SELECT state FROM SHARD_OVERRIDE WHERE user_id = ?", String.class, userId))
+                .isEqualTo("ACTIVE");
+
+        // Moving back to the ring's shard drops the override
+        reshardingService.moveUsers(List.of(userId), 0);
+        assertThat(main.queryForObject("SELECT COUNT(*) FROM SHARD_OVERRIDE", Integer.class)).isZero();
+        assertThat(reviewsOn(0, userId)).isEqualTo(1);
+        assertThat(reviewsOn(2, userId)).isZero();
+    }
+
+    @Test
+    @Order(5)
+    void movesWaitForEveryLiveInstanceToAcknowledge() {
+        int userId = userOn(0);
+        reviewService.updateReviewByBookIdUserId(userId, BOOK_ID, "before the move");
+        // Another instance that keeps heartbeating but never loads the move
+        main.update("INSERT INTO SHARD_PLACEMENT_ACK (instance_id, placement, heartbeat_time) VALUES ('lagging', 'old', ?)",
+                System.currentTimeMillis() + 60_000);
+
+        assertThatThrownBy(() -> reshardingService.moveUsers(List.of(userId), 2))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("lagging");
+        // Nothing was copied, and the user's writes stay paused until the move is repeated
+        assertThat(reviewsOn(2, userId)).isZero();
+        assertThat(shardRouter.isMoving(userId)).isTrue();
+
+        // Once it stops heartbeating it is no longer waited for
+        main.update("UPDATE SHARD_PLACEMENT_ACK SET heartbeat_time = 0 WHERE instance_id = 'lagging'");
+        assertThat(reshardingService.moveUsers(List.of(userId), 2)).isEqualTo(1);
+        assertThat(reviewsOn(2, userId)).isEqualTo(1);
+        main.update("DELETE FROM SHARD_PLACEMENT_ACK WHERE instance_id = 'lagging'");
+    }
+
+    @Test
+    @Order(6)
+    void growingTheRingMovesOnlyUsersWhosePlacementChanges() {
+        List<Integer> users = IntStream.rangeClosed(1, 40).boxed().toList();
+        for (Integer userId : users) {
+            main.update("INSERT INTO USER (user_id, user_name, user_email, password) VALUES (?, 'u', ?, 'pw')",
+                    userId, "u" + userId + "@example.com");
+            reviewService.updateReviewByBookIdUserId(userId, BOOK_ID, "review by " + userId);
+        }
+        Map<Integer, Integer> before = users.stream().collect(Collectors.toMap(u -> u, shardRouter::shardOf));
+        ConsistentHashRing grown = shardRouter.ringOf(3);
+
+        int moved = reshardingService.expand(3);
+
+        assertThat(shardRouter.ringSize()).isEqualTo(3);
+        assertThat(moved).isPositive();
+        for (Integer userId : users) {
+            int now = grown.shardFor(userId);
+            assertThat(shardRouter.shardOf(userId)).isEqualTo(now);
+            assertThat(reviewsOn(now, userId)).isEqualTo(1);
+            // Consistent hashing: a user either stays put or moves to the new shard
+            assertThat(now == before.get(userId) || now == 2).isTrue();
+        }
+        assertThat(countOn(2)).isEqualTo(moved);
+        assertThat(main.queryForObject("SELECT COUNT(*) FROM SHARD_OVERRIDE", Integer.class)).isZero();
+        PageMethod.startPage(1, 100);
+        assertThat(new PageInfo<>(reviewService.selectReviewByBookId(BOOK_ID)).getTotal()).isEqualTo(40);
+    }
+
+    private int userOn(int shard) {
+        return IntStream.rangeClosed(1, 1000).filter(u -> shardRouter.shardOf(u) == shard).findFirst().orElseThrow();
+    }
+
+    private static int countOn(int shard) {
+        return SHARDS[shard].queryForObject("SELECT COUNT(*) FROM REVIEWS WHERE book_id = ?", Integer.class, BOOK_ID);
+    }
+
+    private static int reviewsOn(int shard, int userId) {
+        return SHARDS[shard].queryForObject("SELECT COUNT(*) FROM REVIEWS WHERE user_id = ?", Integer.class, userId);
+    }
+}
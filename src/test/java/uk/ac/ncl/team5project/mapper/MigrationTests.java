@@ -0,0 +1,71 @@
+package uk.ac.ncl.team5project.mapper;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the unique-constraint migration over a database holding duplicate rows or accounts, before and after
+ * they are resolved.
+ */
+class MigrationTests {
+
+    @Test
+    void duplicatesStopTheMigrationUntilTheCleanUpScriptHasRun() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migration-duplicates;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Flyway.configure().dataSource(dataSource).target("2").load().migrate();
+        jdbc.update("INSERT INTO REVIEWS (review_id, book_id, user_id, review_content) VALUES (1, 10, 5, 'first'), "
+                + "(2, 10, 5, 'second'), (3, 11, 5, 'other book')");
+        jdbc.update("INSERT INTO WISHLIST (id, user_id, book_id) VALUES (1, 5, 10), (2, 5, 10)");
+
+        Flyway flyway = Flyway.configure().dataSource(dataSource).load();
+        assertThatThrownBy(flyway::migrate)
+                .isInstanceOf(FlywayException.class)
+                .hasMessageContaining("DUPLICATE_USER_BOOK_ROWS_RUN_DB_CLEANUP");
+        // nothing was deleted by the failed attempt
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM REVIEWS", Integer.class)).isEqualTo(3);
+
+        new ResourceDatabasePopulator(new ClassPathResource("db/cleanup/dedupe_user_book.sql")).execute(dataSource);
+        assertThat(jdbc.queryForList("SELECT review_id FROM REVIEWS ORDER BY review_id", Integer.class)).containsExactly(1, 3);
+        assertThat(jdbc.queryForList("SELECT review_content FROM REVIEWS_DUPLICATE_BACKUP", String.class)).containsExactly("second");
+        assertThat(jdbc.queryForList("SELECT id FROM WISHLIST_DUPLICATE_BACKUP", Integer.class)).containsExactly(2);
+
+        // as on MySQL, the failed attempt is recorded and has to be repaired first
+        flyway.repair();
+        flyway.migrate();
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo(
+                flyway.info().all()[flyway.info().all().length - 1].getVersion().getVersion());
+    }
+
+    @Test
+    void duplicateEmailsStopTheMigrationUntilResolved() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migration-emails;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Flyway.configure().dataSource(dataSource).target("2").load().migrate();
+        jdbc.update("INSERT INTO USER (user_id, user_name, user_email, password) VALUES (1, 'ann', 'ann@example.com', 'pw'), "
+                + "(2, 'ann again', 'ann@example.com', 'pw')");
+
+        Flyway flyway = Flyway.configure().dataSource(dataSource).load();
+        assertThatThrownBy(flyway::migrate)
+                .isInstanceOf(FlywayException.class)
+                .hasMessageContaining("DUPLICATE_ACCOUNT_EMAILS_MERGE_BY_HAND");
+
+        jdbc.update("DELETE FROM USER WHERE user_id = 2");
+        flyway.repair();
+        flyway.migrate();
+        assertThatThrownBy(() -> jdbc.update(
+                "INSERT INTO USER (user_name, user_email, password) VALUES ('ann', 'ann@example.com', 'pw')"))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+}
@@ -0,0 +1,144 @@
+package uk.ac.ncl.team5project.mapper;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.ncl.team5project.entity.Admin;
+import uk.ac.ncl.team5project.entity.User;
+import uk.ac.ncl.team5project.entity.Wishlist;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on every statement declared by a mapper, and on the wrapper queries the services build,
+ * against the schema created by the Flyway migrations. A statement fails if H2 plans a full table scan,
+ * or sorts rows for ORDER BY / GROUP BY instead of reading them in index order. Inserts are skipped.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryPlanTests {
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void everyMapperStatementUsesAnIndex() throws SQLException {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        List<String> problems = new ArrayList<>();
+        int checked = 0;
+        for (Class<?> mapper : configuration.getMapperRegistry().getMappers()) {
+            for (Method method : mapper.getDeclaredMethods()) {
+                String id = mapper.getName() + "." + method.getName();
+                if (!configuration.hasStatement(id, false)) {
+                    continue; // default methods and BaseMapper's own statements
+                }
+                MappedStatement statement = configuration.getMappedStatement(id);
+                if (statement.getSqlCommandType() == SqlCommandType.INSERT) {
+                    continue;
+                }
+                Object parameter = new ParamNameResolver(configuration, method).getNamedParams(sampleArguments(method));
+                problems.addAll(check(id, statement, parameter));
+                checked++;
+            }
+        }
+        assertThat(checked).isGreaterThan(20);
+        assertThat(problems).isEmpty();
+    }
+
+    // Lookups the services make through MyBatis-Plus query wrappers
+    @Test
+    void serviceWrapperQueriesUseAnIndex() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        problems.addAll(checkWrapper(UserMapper.class, "selectList", new QueryWrapper<User>().eq("user_email", "x")));
+        problems.addAll(checkWrapper(AdminMapper.class, "selectList", new QueryWrapper<Admin>().eq("admin_email", "x")));
+        problems.addAll(checkWrapper(WishlistMapper.class, "selectList", new QueryWrapper<Wishlist>().eq("user_id", 1)));
+        problems.addAll(checkWrapper(WishlistMapper.class, "selectList",
+                new QueryWrapper<Wishlist>().eq("user_id", 1).eq("book_id", 1)));
+        problems.addAll(checkWrapper(WishlistMapper.class, "delete", new QueryWrapper<Wishlist>().eq("user_id", 1)));
+        problems.addAll(checkWrapper(WishlistMapper.class, "selectCount", null));
+        assertThat(problems).isEmpty();
+    }
+
+    private List<String> checkWrapper(Class<?> mapper, String method, Wrapper<?> wrapper) throws SQLException {
+        MappedStatement statement = sqlSessionFactory.getConfiguration().getMappedStatement(mapper.getName() + "." + method);
+        MapperMethod.ParamMap<Object> parameter = new MapperMethod.ParamMap<>();
+        parameter.put("ew", wrapper);
+        parameter.put("param1", wrapper);
+        return check(statement.getId() + "(" + (wrapper == null ? "all" : wrapper.getSqlSegment()) + ")", statement, parameter);
+    }
+
+    private List<String> check(String id, MappedStatement statement, Object parameter) throws SQLException {
+        BoundSql boundSql = statement.getBoundSql(parameter);
+        String sql = boundSql.getSql().replaceAll("\\s+", " ").toUpperCase(Locale.ROOT);
+        String plan;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            new DefaultParameterHandler(statement, parameter, boundSql).setParameters(explain);
+            try (ResultSet rows = explain.executeQuery()) {
+                rows.next();
+                plan = rows.getString(1).replaceAll("\\s+", " ");
+            }
+        }
+        List<String> problems = new ArrayList<>();
+        if (plan.contains(".tableScan")) {
+            problems.add(id + " scans the whole table: " + plan);
+        }
+        if (sql.contains(" ORDER BY ") && !plan.contains("index sorted")) {
+            problems.add(id + " sorts rows instead of reading an index in order: " + plan);
+        }
+        if (sql.contains(" GROUP BY ") && !plan.contains("group sorted")) {
+            problems.add(id + " groups rows without an index in group order: " + plan);
+        }
+        return problems;
+    }
+
+    private static Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            arguments[i] = sample(types[i]);
+        }
+        return arguments;
+    }
+
+    private static Object sample(Class<?> type) {
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == String.class) {
+            return "x";
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of(1, 2);
+        }
+        return null;
+    }
+}
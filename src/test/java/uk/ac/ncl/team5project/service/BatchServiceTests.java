@@ -0,0 +1,107 @@
+package uk.ac.ncl.team5project.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Collections;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /v1/batch: sub-requests dispatched under the batch's login, answered in the order given with their
+ * own status, and rejected one by one when they are malformed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchServiceTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String bearer;
+
+    @BeforeEach
+    void logIn() throws Exception {
+        mockMvc.perform(post("/v1/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"bob\",\"password\":\"pw\",\"email\":\"bob@example.com\"}"));
+        String login = mockMvc.perform(post("/v1/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"bob@example.com\",\"password\":\"pw\"}"))
+                .andReturn().getResponse().getContentAsString();
+        bearer = "Bearer " + objectMapper.readTree(login).path("data").path("token").asText();
+    }
+
+    @Test
+    void batchRunsSeveralCallsUnderOneLogin() throws Exception {
+        batch("{\"requests\":["
+                + "{\"id\":\"add\",\"method\":\"POST\",\"path\":\"/v1/wishlist\",\"body\":{\"book_id\":42}},"
+                + "{\"id\":\"me\",\"method\":\"GET\",\"path\":\"/v1/users/me\"},"
+                + "{\"id\":\"reviews\",\"method\":\"GET\",\"path\":\"/v1/reviews/selectReviewByBookId?id=42&pageSize=5\"},"
+                + "{\"id\":\"missing\",\"method\":\"GET\",\"path\":\"/v1/nothing-here\"},"
+                + "{\"method\":\"POST\",\"path\":\"/v1/batch\"}]}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(5))
+                .andExpect(jsonPath("$.data[0].id").value("add"))
+                .andExpect(jsonPath("$.data[0].status").value(200))
+                .andExpect(jsonPath("$.data[0].body.data.wishlist_id").isNumber())
+                .andExpect(jsonPath("$.data[1].body.data.userEmail").value("bob@example.com"))
+                .andExpect(jsonPath("$.data[2].body.data.pageSize").value(5))
+                .andExpect(jsonPath("$.data[3].status").value(404))
+                .andExpect(jsonPath("$.data[4].id").value("4"))
+                .andExpect(jsonPath("$.data[4].status").value(400));
+    }
+
+    @Test
+    void malformedSubRequestsAreAnsweredInTheirOwnSlot() throws Exception {
+        batch("{\"requests\":["
+                + "{\"method\":\"PATCH\",\"path\":\"/v1/users/me\"},"
+                + "{\"method\":\"GET\",\"path\":\"/actuator/health\"},"
+                + "{\"method\":\"GET\",\"path\":\"/v1/../actuator\"},"
+                + "{\"path\":\"/v1/users/me\"},"
+                + "{\"method\":\"GET\",\"path\":\"/v1/wishlist?fields=password\"},"
+                + "{\"method\":\"GET\",\"path\":\"/v1/users/me?fields=userId\"}]}")
+                .andExpect(jsonPath("$.data[0].status").value(400))
+                .andExpect(jsonPath("$.data[1].status").value(400))
+                .andExpect(jsonPath("$.data[2].status").value(400))
+                .andExpect(jsonPath("$.data[3].status").value(400))
+                // resolved by the same exception handler as a direct call
+                .andExpect(jsonPath("$.data[4].body.code").value(400))
+                .andExpect(jsonPath("$.data[5].status").value(200))
+                .andExpect(jsonPath("$.data[5].body.data.userId").isNumber())
+                .andExpect(jsonPath("$.data[5].body.data.userEmail").doesNotExist());
+    }
+
+    @Test
+    void batchesAreBoundedAndNeedALogin() throws Exception {
+        batch("{\"requests\":[" + String.join(",",
+                Collections.nCopies(21, "{\"method\":\"GET\",\"path\":\"/v1/users/me\"}")) + "]}")
+                .andExpect(jsonPath("$.code").value(400));
+        batch("{\"requests\":[]}").andExpect(jsonPath("$.code").value(400));
+        mockMvc.perform(post("/v1/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requests\":[{\"method\":\"GET\",\"path\":\"/v1/users/me\"}]}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions batch(String body) throws Exception {
+        return mockMvc.perform(post("/v1/batch")
+                .header("Authorization", bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+}
@@ -0,0 +1,138 @@
+package uk.ac.ncl.team5project.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.ncl.team5project.model.vo.BookDetailVO;
+
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Book detail documents kept up to date from the domain event outbox: review and wishlist events rebuild
+ * their book's document, and a rename rebuilds every book the user reviewed, wherever the event was written.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookDetailTests {
+
+    private static final int BOOK_ID = 880;
+    private static final int OTHER_BOOK_ID = 881;
+
+    @Autowired
+    private BookDetailService bookDetailService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private DomainEventService domainEventService;
+
+    @Autowired
+    private BookRatingService bookRatingService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private int userId;
+
+    @BeforeEach
+    void seedBooks() {
+        jdbc.update("INSERT INTO BOOK (book_id, name) VALUES (?, 'Eighty'), (?, 'Eighty-One')", BOOK_ID, OTHER_BOOK_ID);
+        jdbc.update("INSERT INTO USER (user_name, user_email, password) VALUES ('dana', 'dana@example.com', 'pw')");
+        userId = jdbc.queryForObject("SELECT user_id FROM USER WHERE user_email = 'dana@example.com'", Integer.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM REVIEWS WHERE user_id = ?", userId);
+        jdbc.update("DELETE FROM WISHLIST WHERE user_id = ?", userId);
+        jdbc.update("DELETE FROM USER WHERE user_id = ?", userId);
+        jdbc.update("DELETE FROM BOOK WHERE book_id IN (?, ?)", BOOK_ID, OTHER_BOOK_ID);
+        jdbc.update("DELETE FROM BOOK_DETAIL WHERE book_id IN (?, ?)", BOOK_ID, OTHER_BOOK_ID);
+        jdbc.update("DELETE FROM BOOK_RATING WHERE book_id IN (?, ?)", BOOK_ID, OTHER_BOOK_ID);
+        bookRatingService.recount(BOOK_ID);
+        bookRatingService.recount(OTHER_BOOK_ID);
+    }
+
+    @Test
+    void reviewAndWishlistEventsRebuildTheDocument() throws InterruptedException {
+        assertThat(bookDetailService.getDetail(BOOK_ID).getReviewCount()).isZero();
+
+        reviewService.updateReviewByBookIdUserId(userId, BOOK_ID, "fine", 3);
+        BookDetailVO reviewed = awaitDetail(BOOK_ID, detail -> detail.getReviewCount() == 1);
+        // the document is stored only once the review's rating delta has landed
+        assertThat(reviewed.getRating().getCount()).isEqualTo(1);
+        assertThat(reviewed.getLatestReviews().get(0).getUserName()).isEqualTo("dana");
+
+        // a wishlist row written by another instance, which appended its event to the outbox
+        jdbc.update("INSERT INTO WISHLIST (user_id, book_id) VALUES (?, ?)", userId, BOOK_ID);
+        appendEvent("WishlistItemAdded", "{\"userId\":" + userId + ",\"bookId\":" + BOOK_ID + ",\"wishlistId\":0}");
+        assertThat(awaitDetail(BOOK_ID, detail -> detail.getWishlistCount() == 1).getReviewCount()).isEqualTo(1);
+
+        reviewService.deleteReviewByBookIdUserId(userId, BOOK_ID);
+        BookDetailVO deleted = awaitDetail(BOOK_ID, detail -> detail.getReviewCount() == 0);
+        assertThat(deleted.getRating().getCount()).isZero();
+        assertThat(deleted.getLatestReviews()).isEmpty();
+        assertThat(bookDetailService.lag().getRebuilt()).isPositive();
+    }
+
+    @Test
+    void renameRebuildsEveryBookTheUserReviewed() throws InterruptedException {
+        reviewService.updateReviewByBookIdUserId(userId, BOOK_ID, "first");
+        reviewService.updateReviewByBookIdUserId(userId, OTHER_BOOK_ID, "second");
+        awaitDetail(BOOK_ID, detail -> detail.getReviewCount() == 1);
+        awaitDetail(OTHER_BOOK_ID, detail -> detail.getReviewCount() == 1);
+        awaitIdle();
+
+        // the stored document keeps the old name until an event queues the book
+        jdbc.update("UPDATE USER SET user_name = 'dee' WHERE user_id = ?", userId);
+        assertThat(bookDetailService.getDetail(BOOK_ID).getLatestReviews().get(0).getUserName()).isEqualTo("dana");
+
+        appendEvent("UserRenamed", "{\"userId\":" + userId + ",\"userName\":\"dee\"}");
+        for (int bookId : new int[]{BOOK_ID, OTHER_BOOK_ID}) {
+            awaitDetail(bookId, detail -> "dee".equals(detail.getLatestReviews().get(0).getUserName()));
+        }
+    }
+
+    @Test
+    void unknownBookIsAnsweredWithoutADocument() {
+        assertThat(bookDetailService.getDetail(404404)).isNull();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM BOOK_DETAIL WHERE book_id = 404404", Integer.class)).isZero();
+    }
+
+    // Until the review events are delivered and the books they queued rebuilt
+    private void awaitIdle() throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && !idle(); attempt++) {
+            Thread.sleep(100);
+        }
+        Thread.sleep(100);
+        assertThat(idle()).isTrue();
+    }
+
+    private boolean idle() {
+        return bookDetailService.lag().getPending() == 0 && domainEventService.lag().stream()
+                .filter(subscriber -> subscriber.getName().equals("book-detail"))
+                .allMatch(subscriber -> subscriber.getPending() == 0);
+    }
+
+    private void appendEvent(String type, String payload) {
+        jdbc.update("INSERT INTO DOMAIN_EVENT (event_type, payload, event_time) VALUES (?, ?, ?)",
+                type, payload, System.currentTimeMillis());
+    }
+
+    private BookDetailVO awaitDetail(int bookId, Predicate<BookDetailVO> condition) throws InterruptedException {
+        BookDetailVO detail = bookDetailService.getDetail(bookId);
+        for (int attempt = 0; attempt < 100 && !condition.test(detail); attempt++) {
+            Thread.sleep(100);
+            detail = bookDetailService.getDetail(bookId);
+        }
+        assertThat(detail).matches(condition);
+        return detail;
+    }
+}
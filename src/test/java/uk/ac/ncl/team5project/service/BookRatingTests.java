@@ -0,0 +1,164 @@
+package uk.ac.ncl.team5project.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.ncl.team5project.entity.BookRating;
+import uk.ac.ncl.team5project.mapper.BookRatingMapper;
+import uk.ac.ncl.team5project.model.vo.BookRatingVO;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Per-book rating aggregates: the delta each review write applies, archived reviews, reads of several books
+ * at once, and recounts of BOOK_RATING from the reviews, with the periodic reconciliation and the
+ * announcements and version check that keep a recount from overwriting or double counting a concurrent write.
+ */
+@SpringBootTest(properties = {
+        "team5.ratings.reconcile-batch-size=10000",
+        "team5.reviews.archive-pause-ms=0"
+})
+@ActiveProfiles("test")
+class BookRatingTests {
+
+    private static final int BOOK_ID = 860;
+    private static final int UNRATED_BOOK_ID = 861;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private BookRatingService bookRatingService;
+
+    @Autowired
+    private ReviewArchiveService reviewArchiveService;
+
+    @Autowired
+    private BookRatingMapper bookRatingMapper;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM REVIEWS WHERE book_id = ?", BOOK_ID);
+        jdbc.update("DELETE FROM REVIEWS_ARCHIVE WHERE book_id = ?", BOOK_ID);
+        jdbc.update("DELETE FROM BOOK_RATING WHERE book_id = ?", BOOK_ID);
+        bookRatingService.recount(BOOK_ID);
+    }
+
+    @Test
+    void ratingAggregateFollowsEveryReviewWrite() {
+        reviewService.updateReviewByBookIdUserId(86, BOOK_ID, "fine", 2);
+        reviewService.updateReviewByBookIdUserId(87, BOOK_ID, "good", 4);
+        reviewService.updateReviewByBookIdUserId(88, BOOK_ID, "no stars");
+        assertRating(2, 3.0, List.of(0, 1, 0, 1, 0));
+
+        // A changed rating moves between stars; saving without a rating keeps it
+        reviewService.updateReviewByBookIdUserId(86, BOOK_ID, "better", 5);
+        reviewService.updateReviewByBookIdUserId(86, BOOK_ID, "edited");
+        assertRating(2, 4.5, List.of(0, 0, 0, 1, 1));
+
+        reviewService.deleteReviewByBookIdUserId(87, BOOK_ID);
+        assertRating(1, 5.0, List.of(0, 0, 0, 0, 1));
+        // Restoring a deleted review counts its rating again
+        reviewService.updateReviewByBookIdUserId(87, BOOK_ID, "back");
+        assertRating(2, 4.5, List.of(0, 0, 0, 1, 1));
+
+        // Archived reviews still count, and a new review of the book takes over the archived rating
+        jdbc.update("UPDATE REVIEWS SET created_time = TIMESTAMP '2000-01-01 00:00:00' WHERE book_id = ? AND user_id = 86",
+                BOOK_ID);
+        reviewArchiveService.archive();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM REVIEWS_ARCHIVE WHERE book_id = ? AND user_id = 86",
+                Integer.class, BOOK_ID)).isEqualTo(1);
+        assertRating(2, 4.5, List.of(0, 0, 0, 1, 1));
+        reviewService.updateReviewByBookIdUserId(86, BOOK_ID, "again");
+        assertRating(2, 4.5, List.of(0, 0, 0, 1, 1));
+        reviewService.updateReviewByBookIdUserId(86, BOOK_ID, "again", 1);
+        assertRating(2, 2.5, List.of(1, 0, 0, 1, 0));
+
+        assertThat(bookRatingService.recount(BOOK_ID)).isEqualTo(bookRatingService.getRating(BOOK_ID));
+    }
+
+    @Test
+    void ratingsOfSeveralBooksComeBackInTheOrderAsked() {
+        reviewService.updateReviewByBookIdUserId(86, BOOK_ID, "good", 4);
+
+        List<BookRatingVO> ratings = bookRatingService.getRatings(List.of(UNRATED_BOOK_ID, BOOK_ID, UNRATED_BOOK_ID));
+        assertThat(ratings).extracting(BookRatingVO::getBookId).containsExactly(UNRATED_BOOK_ID, BOOK_ID, UNRATED_BOOK_ID);
+        assertThat(ratings).extracting(BookRatingVO::getCount).containsExactly(0, 1, 0);
+        assertThat(ratings.get(0).getAverage()).isNull();
+        assertThat(ratings.get(1).getAverage()).isEqualTo(4.0);
+
+        // a settled rating is read past the cache, and withheld while a write is pending
+        assertThat(bookRatingService.getSettledRating(BOOK_ID)).isEqualTo(ratings.get(1));
+        bookRatingService.announceChange(BOOK_ID);
+        assertThat(bookRatingService.getSettledRating(BOOK_ID)).isNull();
+        bookRatingService.withdrawChange(BOOK_ID);
+        assertThat(bookRatingService.getSettledRating(BOOK_ID).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reconciliationRestoresADeltaThatWasLost() {
+        reviewService.updateReviewByBookIdUserId(86, BOOK_ID, "fine", 2);
+        reviewService.updateReviewByBookIdUserId(87, BOOK_ID, "good", 4);
+        assertThat(pending()).isZero();
+
+        // as if an instance died between a review's commit and its delta
+        jdbc.update("UPDATE BOOK_RATING SET rating_count = 1, rating_sum = 2, stars4 = 0 WHERE book_id = ?", BOOK_ID);
+        assertThat(bookRatingService.getRating(BOOK_ID).getCount()).isEqualTo(1);
+        assertThat(bookRatingService.reconcile()).isZero();
+        assertThat(bookRatingService.getRating(BOOK_ID).getHistogram()).isEqualTo(List.of(0, 1, 0, 1, 0));
+        assertThat(bookRatingService.getRating(BOOK_ID).getAverage()).isEqualTo(3.0);
+    }
+
+    @Test
+    void recountsWaitForAnnouncedWrites() {
+        reviewService.updateReviewByBookIdUserId(86, BOOK_ID, "fine", 2);
+
+        bookRatingService.announceChange(BOOK_ID);
+        assertThatThrownBy(() -> bookRatingService.recount(BOOK_ID)).isInstanceOf(IllegalStateException.class);
+        assertThat(bookRatingService.reconcile()).isEqualTo(1);
+        bookRatingService.applyChange(BOOK_ID, null, 5);
+        assertThat(pending()).isZero();
+        assertThat(bookRatingService.recount(BOOK_ID).getCount()).isEqualTo(1);
+
+        // A failed write withdraws its announcement; one that never came back expires after the lease
+        bookRatingService.announceChange(BOOK_ID);
+        bookRatingService.withdrawChange(BOOK_ID);
+        assertThat(pending()).isZero();
+        bookRatingService.announceChange(BOOK_ID);
+        jdbc.update("UPDATE BOOK_RATING SET pending_time = 0 WHERE book_id = ?", BOOK_ID);
+        assertThat(bookRatingService.recount(BOOK_ID).getCount()).isEqualTo(1);
+        assertThat(pending()).isZero();
+    }
+
+    @Test
+    void recountsDoNotOverwriteADeltaTheyDidNotSee() {
+        reviewService.updateReviewByBookIdUserId(86, BOOK_ID, "fine", 2);
+        BookRating read = bookRatingMapper.selectForRecount(BOOK_ID);
+
+        reviewService.updateReviewByBookIdUserId(87, BOOK_ID, "good", 4);
+        BookRating stale = new BookRating().setBookId(BOOK_ID).setRatingCount(1).setRatingSum(2L)
+                .setStars1(0).setStars2(1).setStars3(0).setStars4(0).setStars5(0);
+        assertThat(bookRatingMapper.replace(stale, read.getVersion(), 0L)).isZero();
+        assertThat(bookRatingService.getRating(BOOK_ID).getCount()).isEqualTo(2);
+    }
+
+    private void assertRating(int count, Double average, List<Integer> histogram) {
+        BookRatingVO rating = bookRatingService.getRating(BOOK_ID);
+        assertThat(rating.getCount()).isEqualTo(count);
+        assertThat(rating.getAverage()).isEqualTo(average);
+        assertThat(rating.getHistogram()).isEqualTo(histogram);
+    }
+
+    private int pending() {
+        return jdbc.queryForObject("SELECT pending FROM BOOK_RATING WHERE book_id = ?", Integer.class, BOOK_ID);
+    }
+}
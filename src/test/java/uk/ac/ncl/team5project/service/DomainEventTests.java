@@ -0,0 +1,112 @@
+package uk.ac.ncl.team5project.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.ncl.team5project.model.event.DomainEvent;
+import uk.ac.ncl.team5project.model.event.ReviewDeleted;
+import uk.ac.ncl.team5project.model.event.ReviewUpserted;
+import uk.ac.ncl.team5project.model.event.UserRenamed;
+import uk.ac.ncl.team5project.model.vo.EventSubscriberLagVO;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox appends in the writing transaction, relay of rows written by other instances, and retries of a
+ * failing subscriber.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DomainEventTests {
+
+    private static final int BOOK_ID = 900;
+
+    @Autowired
+    private DomainEventService domainEventService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private BookRatingService bookRatingService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM REVIEWS WHERE book_id = ?", BOOK_ID);
+        jdbc.update("DELETE FROM REVIEWS_ARCHIVE WHERE book_id = ?", BOOK_ID);
+        jdbc.update("DELETE FROM BOOK_RATING WHERE book_id = ?", BOOK_ID);
+        bookRatingService.recount(BOOK_ID);
+    }
+
+    @Test
+    void reviewWritesAreDeliveredToSubscribers() throws InterruptedException {
+        List<DomainEvent> received = new CopyOnWriteArrayList<>();
+        domainEventService.subscribe("test-reviews", received::add);
+
+        reviewService.updateReviewByBookIdUserId(91, BOOK_ID, "good", 4);
+        reviewService.deleteReviewByBookIdUserId(91, BOOK_ID);
+
+        awaitTrue(() -> received.stream().anyMatch(ReviewDeleted.class::isInstance));
+        ReviewUpserted upserted = received.stream().filter(ReviewUpserted.class::isInstance)
+                .map(ReviewUpserted.class::cast).filter(event -> event.bookId() == BOOK_ID).findFirst().orElseThrow();
+        assertThat(upserted.userId()).isEqualTo(91);
+        assertThat(upserted.rating()).isEqualTo(4);
+        assertThat(received).contains(new ReviewDeleted(91, BOOK_ID));
+        // the delete was appended after the update, and one outbox is read in id order
+        assertThat(received.indexOf(upserted)).isLessThan(received.indexOf(new ReviewDeleted(91, BOOK_ID)));
+    }
+
+    @Test
+    void rowsWrittenByAnotherInstanceAreRelayed() throws InterruptedException {
+        List<DomainEvent> received = new CopyOnWriteArrayList<>();
+        domainEventService.subscribe("test-relay", received::add);
+
+        jdbc.update("INSERT INTO DOMAIN_EVENT (event_type, payload, event_time) VALUES (?, ?, ?)",
+                "UserRenamed", "{\"userId\":92,\"userName\":\"renamed\"}", System.currentTimeMillis());
+        jdbc.update("INSERT INTO DOMAIN_EVENT (event_type, payload, event_time) VALUES (?, ?, ?)",
+                "NoSuchEvent", "{}", System.currentTimeMillis());
+
+        awaitTrue(() -> received.contains(new UserRenamed(92, "renamed")));
+        assertThat(received).filteredOn(new UserRenamed(92, "renamed")::equals).hasSize(1);
+    }
+
+    @Test
+    void failingSubscriberIsRetried() throws InterruptedException {
+        List<DomainEvent> received = new CopyOnWriteArrayList<>();
+        AtomicBoolean failed = new AtomicBoolean();
+        domainEventService.subscribe("test-flaky", event -> {
+            if (event.userId() == 93 && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("first attempt fails");
+            }
+            received.add(event);
+        });
+
+        jdbc.update("INSERT INTO DOMAIN_EVENT (event_type, payload, event_time) VALUES (?, ?, ?)",
+                "UserRenamed", "{\"userId\":93,\"userName\":\"flaky\"}", System.currentTimeMillis());
+
+        awaitTrue(() -> received.contains(new UserRenamed(93, "flaky")));
+        EventSubscriberLagVO lag = domainEventService.lag().stream()
+                .filter(subscriber -> subscriber.getName().equals("test-flaky")).findFirst().orElseThrow();
+        assertThat(lag.getFailed()).isEqualTo(1);
+        assertThat(lag.getDropped()).isZero();
+        assertThat(lag.getDelivered()).isGreaterThanOrEqualTo(1);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && !condition.getAsBoolean(); attempt++) {
+            Thread.sleep(100);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,144 @@
+package uk.ac.ncl.team5project.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ncl.team5project.Team5ProjectApplication;
+import uk.ac.ncl.team5project.config.ConfigurationStore;
+import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.model.vo.NearCacheStatsVO;
+import uk.ac.ncl.team5project.model.vo.NearCacheStatusVO;
+import uk.ac.ncl.team5project.util.NearCache;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two instances of the application against one embedded database: a write through one evicts the other's
+ * near caches, and an instance that cannot vouch for its invalidations stops serving from them.
+ */
+@SpringBootTest(properties = "spring.datasource.url=" + NearCacheTests.URL)
+@ActiveProfiles("test")
+class NearCacheTests {
+
+    static final String URL = "jdbc:h2:mem:near-cache;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1";
+    private static final int BOOK_ID = 950;
+
+    // The second instance; the test context is the first
+    private static ConfigurableApplicationContext other;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private BookRatingService bookRatingService;
+
+    @Autowired
+    private NearCacheService nearCacheService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void startOtherInstance() {
+        other = new SpringApplicationBuilder(Team5ProjectApplication.class)
+                .profiles("test")
+                .run("--server.port=0", "--spring.datasource.url=" + URL,
+                        "--team5.similar.snapshot-path=target/test-data/near-cache-other.hnsw");
+    }
+
+    @AfterAll
+    static void stopOtherInstance() {
+        other.close();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM CONFIGURATION WHERE config_key = 'team5.cache.max-staleness-ms'");
+        other.getBean(ConfigurationStore.class).poll();
+        jdbc.update("DELETE FROM REVIEWS WHERE book_id = ?", BOOK_ID);
+        jdbc.update("DELETE FROM REVIEWS_ARCHIVE WHERE book_id = ?", BOOK_ID);
+        jdbc.update("DELETE FROM BOOK_RATING WHERE book_id = ?", BOOK_ID);
+        bookRatingService.recount(BOOK_ID);
+    }
+
+    @Test
+    void writeThroughOneInstanceEvictsTheOther() throws InterruptedException {
+        ReviewService otherReviews = other.getBean(ReviewService.class);
+        BookRatingService otherRatings = other.getBean(BookRatingService.class);
+        // cached on the other instance before the write
+        assertThat(otherReviews.selectLatestReviewByBookIds(List.of(BOOK_ID), 3).get(BOOK_ID)).isEmpty();
+        assertThat(otherRatings.getRating(BOOK_ID).getCount()).isZero();
+
+        reviewService.updateReviewByBookIdUserId(95, BOOK_ID, "seen everywhere", 5);
+
+        awaitTrue(() -> otherRatings.getRating(BOOK_ID).getCount() == 1);
+        awaitTrue(() -> !otherReviews.selectLatestReviewByBookIds(List.of(BOOK_ID), 3).get(BOOK_ID).isEmpty());
+        assertThat(otherReviews.selectLatestReviewByBookIds(List.of(BOOK_ID), 3).get(BOOK_ID))
+                .extracting(Review::getReviewContent).containsExactly("seen everywhere");
+
+        NearCacheStatusVO status = other.getBean(NearCacheService.class).status();
+        assertThat(status.getFresh()).isTrue();
+        assertThat(status.getInstanceId()).isNotEqualTo(nearCacheService.status().getInstanceId());
+        assertThat(status.getCaches()).filteredOn(cache -> cache.getName().equals("book-ratings"))
+                .extracting(NearCacheStatsVO::getRemoteEvictions).allMatch(evictions -> evictions >= 1);
+    }
+
+    @Test
+    void staleInstanceStopsServingFromItsCaches() {
+        BookRatingService otherRatings = other.getBean(BookRatingService.class);
+        assertThat(otherRatings.getRating(BOOK_ID).getCount()).isZero();
+        // a change that logs no invalidation stays hidden behind the cache
+        jdbc.update("DELETE FROM BOOK_RATING WHERE book_id = ?", BOOK_ID);
+        jdbc.update("INSERT INTO BOOK_RATING (book_id, rating_count, rating_sum, stars3) VALUES (?, 1, 3, 1)", BOOK_ID);
+        assertThat(otherRatings.getRating(BOOK_ID).getCount()).isZero();
+
+        other.getBean(ConfigurationStore.class).set("team5.cache.max-staleness-ms", "-1");
+
+        assertThat(other.getBean(NearCacheService.class).status().getFresh()).isFalse();
+        assertThat(otherRatings.getRating(BOOK_ID).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidationsCommitAndRollBackWithTheWrite() throws InterruptedException {
+        NearCache<Integer, String> cache = nearCacheService.create("transactional", () -> 10, () -> 60_000L, Integer::valueOf);
+        NearCache<Integer, String> otherCache = other.getBean(NearCacheService.class)
+                .create("transactional", () -> 10, () -> 60_000L, Integer::valueOf);
+        otherCache.putIfUnchanged(1, otherCache.stamp(1), "kept");
+        otherCache.putIfUnchanged(2, otherCache.stamp(2), "evicted");
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status -> {
+            cache.evict(1);
+            throw new IllegalStateException("rolled back");
+        })).isInstanceOf(IllegalStateException.class);
+        transaction.executeWithoutResult(status -> cache.evict(2));
+
+        assertThat(jdbc.queryForList("SELECT cache_key FROM CACHE_INVALIDATION WHERE cache_name = 'transactional'", String.class))
+                .containsExactly("2");
+        awaitTrue(() -> otherCache.get(2) == null);
+        assertThat(otherCache.get(1)).isEqualTo("kept");
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && !condition.getAsBoolean(); attempt++) {
+            Thread.sleep(100);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,146 @@
+package uk.ac.ncl.team5project.service;
+
+import com.github.pagehelper.PageInfo;
+import com.github.pagehelper.page.PageMethod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.ncl.team5project.entity.Review;
+import uk.ac.ncl.team5project.model.vo.ReviewSearchVO;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Soft deletes, the background move to REVIEWS_ARCHIVE and reads that continue into the archive.
+ */
+@SpringBootTest(properties = {
+        "team5.reviews.archive-batch-size=2",
+        "team5.reviews.archive-pause-ms=0"
+})
+@ActiveProfiles("test")
+class ReviewArchiveTests {
+
+    private static final int BOOK_ID = 800;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ReviewArchiveService reviewArchiveService;
+
+    @Autowired
+    private BookRatingService bookRatingService;
+
+    @Autowired
+    private ReviewSearchService reviewSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM REVIEWS WHERE book_id = ?", BOOK_ID);
+        jdbc.update("DELETE FROM REVIEWS_ARCHIVE WHERE book_id = ?", BOOK_ID);
+        jdbc.update("DELETE FROM BOOK_RATING WHERE book_id = ?", BOOK_ID);
+        bookRatingService.recount(BOOK_ID);
+    }
+
+    @Test
+    void deletedReviewIsHiddenAndRestoredBySavingAgain() {
+        reviewService.updateReviewByBookIdUserId(81, BOOK_ID, "first");
+        Integer reviewId = reviewIdOf(81);
+
+        reviewService.deleteReviewByBookIdUserId(81, BOOK_ID);
+        assertThat(reviewService.selectReviewByBookId(BOOK_ID)).isEmpty();
+        assertThat(jdbc.queryForObject("SELECT deleted FROM REVIEWS WHERE review_id = ?", Integer.class, reviewId))
+                .isEqualTo(1);
+
+        reviewService.updateReviewByBookIdUserId(81, BOOK_ID, "second");
+        assertThat(reviewService.selectReviewByBookId(BOOK_ID)).extracting(Review::getReviewId, Review::getReviewContent)
+                .containsExactly(tuple(reviewId, "second"));
+    }
+
+    @Test
+    void oldAndDeletedReviewsMoveToTheArchiveAndPagesContinueIntoIt() {
+        for (int userId = 81; userId <= 85; userId++) {
+            reviewService.updateReviewByBookIdUserId(userId, BOOK_ID, "review by " + userId);
+        }
+        jdbc.update("UPDATE REVIEWS SET created_time = TIMESTAMP '2000-01-01 00:00:00' WHERE book_id = ? AND user_id IN (81, 82)",
+                BOOK_ID);
+        reviewService.deleteReviewByBookIdUserId(85, BOOK_ID);
+
+        assertThat(reviewArchiveService.archive()).isEqualTo(3);
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM REVIEWS WHERE book_id = ?", Integer.class, BOOK_ID)).isEqualTo(2);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM REVIEWS_ARCHIVE WHERE book_id = ?", Integer.class, BOOK_ID))
+                .isEqualTo(3);
+        // Recent reviews first, then the archived ones; the deleted review is not listed
+        assertThat(reviewService.selectReviewByBookId(BOOK_ID)).extracting(Review::getUserId).containsExactly(83, 84, 81, 82);
+
+        PageMethod.startPage(1, 2);
+        PageInfo<Review> first = new PageInfo<>(reviewService.selectReviewByBookId(BOOK_ID));
+        assertThat(first.getTotal()).isEqualTo(4);
+        assertThat(first.getList()).extracting(Review::getUserId).containsExactly(83, 84);
+
+        PageMethod.startPage(2, 2);
+        PageInfo<Review> second = new PageInfo<>(reviewService.selectReviewByBookId(BOOK_ID));
+        assertThat(second.getList()).extracting(Review::getUserId).containsExactly(81, 82);
+
+        PageMethod.startPage(1, 3);
+        assertThat(reviewService.selectReviewByBookId(BOOK_ID)).extracting(Review::getUserId).containsExactly(83, 84, 81);
+        assertThat(reviewService.selectReviewByUserId(82)).extracting(Review::getReviewContent).containsExactly("review by 82");
+
+        // Reviewing an archived book again replaces the archived review
+        reviewService.updateReviewByBookIdUserId(81, BOOK_ID, "again");
+        assertThat(reviewService.selectReviewByUserId(81)).extracting(Review::getReviewContent).containsExactly("again");
+        assertThat(reviewService.selectReviewByBookId(BOOK_ID)).hasSize(4);
+
+        assertThat(reviewArchiveService.archive()).isZero();
+    }
+
+    @Test
+    void archivedReviewsStaySearchableUntilDeleted() throws InterruptedException {
+        reviewService.updateReviewByBookIdUserId(81, BOOK_ID, "quetzal lagoon");
+        reviewService.updateReviewByBookIdUserId(82, BOOK_ID, "quetzal marsh");
+        Integer kept = reviewIdOf(81);
+        Integer deleted = reviewIdOf(82);
+        // writes reach the index through their domain events
+        awaitSearch("quetzal", 2);
+        jdbc.update("UPDATE REVIEWS SET created_time = TIMESTAMP '2000-01-01 00:00:00' WHERE book_id = ?", BOOK_ID);
+        assertThat(reviewArchiveService.archive()).isEqualTo(2);
+        assertThat(searchIds("quetzal")).containsExactlyInAnyOrder(kept, deleted);
+
+        reviewService.deleteReviewByBookIdUserId(82, BOOK_ID);
+        awaitSearch("quetzal", 1);
+        assertThat(searchIds("quetzal")).containsExactly(kept);
+
+        // A rebuild reads the archive's live rows too
+        reviewSearchService.removeReview(kept);
+        reviewSearchService.rebuildAsync();
+        awaitSearch("quetzal", 1);
+        assertThat(searchIds("quetzal")).containsExactly(kept);
+        assertThat(reviewSearchService.search("quetzal", 1, 10).getList()).extracting(ReviewSearchVO::getUserId)
+                .containsExactly(81);
+    }
+
+    private void awaitSearch(String query, int hits) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && searchIds(query).size() != hits; attempt++) {
+            Thread.sleep(50);
+        }
+    }
+
+    private List<Integer> searchIds(String query) {
+        return reviewSearchService.search(query, 1, 10).getList().stream().map(ReviewSearchVO::getReviewId).toList();
+    }
+
+    private Integer reviewIdOf(int userId) {
+        return jdbc.queryForObject("SELECT review_id FROM REVIEWS WHERE book_id = ? AND user_id = ?", Integer.class,
+                BOOK_ID, userId);
+    }
+}
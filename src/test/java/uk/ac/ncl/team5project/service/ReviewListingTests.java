@@ -0,0 +1,126 @@
+package uk.ac.ncl.team5project.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.ncl.team5project.entity.Review;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Review listings: reviewer and book names on every page, ?fields= narrowing what is read, and the newest
+ * reviews of many books at once.
+ */
+@SpringBootTest(properties = {
+        "team5.reviews.archive-batch-size=2",
+        "team5.reviews.archive-pause-ms=0"
+})
+@ActiveProfiles("test")
+class ReviewListingTests {
+
+    private static final int BOOK_ID = 810;
+    private static final int OTHER_BOOK_ID = 811;
+    // no USER row
+    private static final int NAMELESS_USER_ID = 987654;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ReviewArchiveService reviewArchiveService;
+
+    @Autowired
+    private BookRatingService bookRatingService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private int userId;
+
+    @BeforeEach
+    void seedNames() {
+        jdbc.update("INSERT INTO USER (user_name, user_email, password) VALUES ('frank', 'frank@example.com', 'pw')");
+        userId = jdbc.queryForObject("SELECT user_id FROM USER WHERE user_email = 'frank@example.com'", Integer.class);
+        jdbc.update("INSERT INTO BOOK (book_id, name) VALUES (?, 'Eight Ten')", BOOK_ID);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM REVIEWS WHERE book_id IN (?, ?)", BOOK_ID, OTHER_BOOK_ID);
+        jdbc.update("DELETE FROM REVIEWS_ARCHIVE WHERE book_id IN (?, ?)", BOOK_ID, OTHER_BOOK_ID);
+        jdbc.update("DELETE FROM USER WHERE user_id = ?", userId);
+        jdbc.update("DELETE FROM BOOK WHERE book_id = ?", BOOK_ID);
+        jdbc.update("DELETE FROM BOOK_RATING WHERE book_id = ?", BOOK_ID);
+        bookRatingService.recount(BOOK_ID);
+    }
+
+    @Test
+    void pagesCarryFreshReviewerAndBookNames() {
+        reviewService.updateReviewByBookIdUserId(userId, BOOK_ID, "named");
+        // a reviewer without a USER row is listed without a name
+        reviewService.updateReviewByBookIdUserId(NAMELESS_USER_ID, BOOK_ID, "nameless");
+
+        assertThat(reviewService.selectReviewByBookId(BOOK_ID)).extracting(Review::getUserName, Review::getName)
+                .containsExactly(tuple("frank", "Eight Ten"), tuple(null, "Eight Ten"));
+
+        jdbc.update("UPDATE USER SET user_name = 'frankie' WHERE user_id = ?", userId);
+        assertThat(reviewService.selectReviewByUserId(userId)).extracting(Review::getUserName).containsExactly("frankie");
+        assertThat(reviewService.selectLatestReviewByBookId(BOOK_ID, 2)).extracting(Review::getUserName)
+                .containsExactly(null, "frankie");
+    }
+
+    @Test
+    void fieldsNarrowTheColumnsReadAndTheNamesLookedUp() {
+        reviewService.updateReviewByBookIdUserId(userId, BOOK_ID, "three stars", 3);
+
+        Review rated = reviewService.selectReviewByBookId(BOOK_ID, Review.FIELDS.parse("rating")).get(0);
+        assertThat(rated.getRating()).isEqualTo(3);
+        // the keys are always read
+        assertThat(rated.getReviewId()).isNotNull();
+        assertThat(rated.getReviewContent()).isNull();
+        assertThat(rated.getUserName()).isNull();
+        assertThat(rated.getName()).isNull();
+
+        Review titled = reviewService.selectReviewByUserId(userId, Review.FIELDS.parse(" name ")).get(0);
+        assertThat(titled.getName()).isEqualTo("Eight Ten");
+        assertThat(titled.getUserName()).isNull();
+        assertThat(titled.getCreatedTime()).isNull();
+
+        assertThat(Review.FIELDS.parse("").isAll()).isTrue();
+        assertThatThrownBy(() -> Review.FIELDS.parse("reviewId,deleted"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown field deleted");
+    }
+
+    @Test
+    void newestReviewsOfSeveralBooksContinueIntoTheArchive() {
+        for (int userId = 81; userId <= 84; userId++) {
+            reviewService.updateReviewByBookIdUserId(userId, BOOK_ID, "review by " + userId);
+        }
+        reviewService.updateReviewByBookIdUserId(81, OTHER_BOOK_ID, "other book");
+        jdbc.update("UPDATE REVIEWS SET created_time = TIMESTAMP '2000-01-01 00:00:00' WHERE book_id = ? AND user_id IN (81, 82)",
+                BOOK_ID);
+        reviewArchiveService.archive();
+
+        // Newest first: the two left in REVIEWS, then the newest archived one
+        Map<Integer, List<Review>> latest = reviewService.selectLatestReviewByBookIds(List.of(OTHER_BOOK_ID, BOOK_ID, 812), 3);
+        assertThat(latest.keySet()).containsExactly(OTHER_BOOK_ID, BOOK_ID, 812);
+        assertThat(latest.get(BOOK_ID)).extracting(Review::getUserId).containsExactly(84, 83, 82);
+        assertThat(latest.get(OTHER_BOOK_ID)).extracting(Review::getReviewContent).containsExactly("other book");
+        assertThat(latest.get(812)).isEmpty();
+
+        // A write drops the book's cached reviews
+        reviewService.deleteReviewByBookIdUserId(84, BOOK_ID);
+        assertThat(reviewService.selectLatestReviewByBookIds(List.of(BOOK_ID), 2).get(BOOK_ID))
+                .extracting(Review::getUserId).containsExactly(83, 82);
+    }
+}
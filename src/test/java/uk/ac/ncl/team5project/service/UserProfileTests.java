@@ -0,0 +1,84 @@
+package uk.ac.ncl.team5project.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.ncl.team5project.entity.Book;
+import uk.ac.ncl.team5project.model.vo.UserInfoVO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The /v1/users/me profile: its sub-queries, the cached full profile and what drops it, and partial
+ * profiles that run only the reads their fields need.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserProfileTests {
+
+    @Autowired
+    private UserProfileService userProfileService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    // new for each test, since this instance remembers which user an email belongs to
+    private String email;
+    private int userId;
+
+    @BeforeEach
+    void seedUser() {
+        email = "erin" + System.nanoTime() + "@example.com";
+        jdbc.update("INSERT INTO USER (user_name, user_email, password) VALUES ('erin', ?, 'pw')", email);
+        userId = jdbc.queryForObject("SELECT user_id FROM USER WHERE user_email = ?", Integer.class, email);
+        jdbc.update("INSERT INTO WISHLIST (user_id, book_id) VALUES (?, 11), (?, 12)", userId, userId);
+        jdbc.update("INSERT INTO REVIEWS (book_id, user_id, review_content) VALUES (11, ?, 'live')", userId);
+        jdbc.update("INSERT INTO REVIEWS_ARCHIVE (review_id, book_id, user_id, review_content) VALUES (873000, 12, ?, 'archived')",
+                userId);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM USER WHERE user_id = ?", userId);
+        jdbc.update("DELETE FROM WISHLIST WHERE user_id = ?", userId);
+        jdbc.update("DELETE FROM REVIEWS WHERE user_id = ?", userId);
+        jdbc.update("DELETE FROM REVIEWS_ARCHIVE WHERE user_id = ?", userId);
+        userProfileService.invalidate(userId);
+    }
+
+    @Test
+    void fullProfileIsCachedUntilInvalidated() {
+        UserInfoVO profile = userProfileService.getProfile(email, UserInfoVO.FIELDS.all());
+        assertThat(profile.getUserId()).isEqualTo(userId);
+        assertThat(profile.getUserName()).isEqualTo("erin");
+        assertThat(profile.getWishlist()).extracting(Book::getBookId).containsExactlyInAnyOrder(11, 12);
+        // archived reviews count too
+        assertThat(profile.getReviewCount()).isEqualTo(2);
+
+        jdbc.update("UPDATE USER SET user_name = 'erin b' WHERE user_id = ?", userId);
+        assertThat(userProfileService.getProfile(email, UserInfoVO.FIELDS.all())).isSameAs(profile);
+        userProfileService.invalidate(userId);
+        assertThat(userProfileService.getProfile(email, UserInfoVO.FIELDS.all()).getUserName()).isEqualTo("erin b");
+    }
+
+    @Test
+    void partialProfileReadsOnlyWhatWasAskedFor() {
+        UserInfoVO counts = userProfileService.getProfile(email, UserInfoVO.FIELDS.parse("userId,reviewCount"));
+        assertThat(counts.getUserId()).isEqualTo(userId);
+        assertThat(counts.getReviewCount()).isEqualTo(2);
+        assertThat(counts.getUserEmail()).isNull();
+        assertThat(counts.getWishlist()).isNull();
+
+        UserInfoVO wishlist = userProfileService.getProfile(email, UserInfoVO.FIELDS.parse("wishlist"));
+        assertThat(wishlist.getWishlist()).hasSize(2);
+        assertThat(wishlist.getReviewCount()).isNull();
+        // partial profiles are not cached
+        assertThat(userProfileService.getProfile(email, UserInfoVO.FIELDS.parse("wishlist"))).isNotSameAs(wishlist);
+
+        assertThat(userProfileService.getProfile("nobody@example.com", UserInfoVO.FIELDS.all())).isNull();
+    }
+}
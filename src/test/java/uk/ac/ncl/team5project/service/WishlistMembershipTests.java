@@ -0,0 +1,70 @@
+package uk.ac.ncl.team5project.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Wishlist membership answered from per-user bitmaps: loaded once, patched by this instance's writes and
+ * dropped by the wishlist events of other instances.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class WishlistMembershipTests {
+
+    private static final int USER_ID = 870;
+    private static final int OTHER_USER_ID = 871;
+
+    @Autowired
+    private WishlistMembershipService wishlistMembershipService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM WISHLIST WHERE user_id IN (?, ?)", USER_ID, OTHER_USER_ID);
+    }
+
+    @Test
+    void bitmapIsLoadedOnceAndPatchedByWrites() {
+        jdbc.update("INSERT INTO WISHLIST (user_id, book_id) VALUES (?, 1), (?, 70)", USER_ID, USER_ID);
+
+        Map<Integer, Boolean> found = wishlistMembershipService.containsAll(USER_ID, List.of(70, 1, 2));
+        assertThat(found.keySet()).containsExactly(70, 1, 2);
+        assertThat(found.values()).containsExactly(true, true, false);
+
+        // answered from memory: a row written behind the cache's back is not seen
+        jdbc.update("INSERT INTO WISHLIST (user_id, book_id) VALUES (?, 3)", USER_ID);
+        assertThat(wishlistMembershipService.contains(USER_ID, 3)).isFalse();
+        wishlistMembershipService.onWishlistAdded(USER_ID, 3);
+        assertThat(wishlistMembershipService.contains(USER_ID, 3)).isTrue();
+        wishlistMembershipService.onWishlistRemoved(USER_ID, 1);
+        assertThat(wishlistMembershipService.contains(USER_ID, 1)).isFalse();
+        assertThat(wishlistMembershipService.contains(USER_ID, 70)).isTrue();
+    }
+
+    @Test
+    void anotherInstancesWriteDropsTheBitmap() throws InterruptedException {
+        jdbc.update("INSERT INTO WISHLIST (user_id, book_id) VALUES (?, 5)", OTHER_USER_ID);
+        assertThat(wishlistMembershipService.contains(OTHER_USER_ID, 5)).isTrue();
+
+        jdbc.update("INSERT INTO WISHLIST (user_id, book_id) VALUES (?, 6)", OTHER_USER_ID);
+        assertThat(wishlistMembershipService.contains(OTHER_USER_ID, 6)).isFalse();
+        jdbc.update("INSERT INTO DOMAIN_EVENT (event_type, payload, event_time) VALUES (?, ?, ?)", "WishlistItemAdded",
+                "{\"userId\":" + OTHER_USER_ID + ",\"bookId\":6,\"wishlistId\":0}", System.currentTimeMillis());
+
+        for (int attempt = 0; attempt < 100 && !wishlistMembershipService.contains(OTHER_USER_ID, 6); attempt++) {
+            Thread.sleep(100);
+        }
+        assertThat(wishlistMembershipService.containsAll(OTHER_USER_ID, List.of(5, 6)).values()).containsExactly(true, true);
+    }
+}
@@ -0,0 +1,106 @@
+package uk.ac.ncl.team5project.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.ncl.team5project.model.vo.BookSuggestionVO;
+import uk.ac.ncl.team5project.model.vo.RelatedBookVO;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Title suggestion popularity and related-book counts follow the wishlist events of every instance.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class WishlistRankingTests {
+
+    private static final int USER_ID = 890;
+    private static final int BOOK_ID = 891;
+    private static final int OTHER_BOOK_ID = 892;
+
+    @Autowired
+    private BookSuggestService bookSuggestService;
+
+    @Autowired
+    private BookRecommendationService bookRecommendationService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void seedBooks() {
+        jdbc.update("INSERT INTO BOOK (book_id, name) VALUES (?, 'Quokka Tales'), (?, 'Quokka Returns')",
+                BOOK_ID, OTHER_BOOK_ID);
+        bookSuggestService.rebuild();
+        bookRecommendationService.rebuild();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM WISHLIST WHERE user_id = ?", USER_ID);
+        jdbc.update("DELETE FROM BOOK WHERE book_id IN (?, ?)", BOOK_ID, OTHER_BOOK_ID);
+        bookSuggestService.rebuild();
+        bookRecommendationService.rebuild();
+    }
+
+    @Test
+    void anotherInstancesWishlistWritesReachPopularityAndRelatedBooks() throws InterruptedException {
+        assertThat(bookSuggestService.suggest("quokka t", 5)).extracting(BookSuggestionVO::getPopularity)
+                .containsExactly(0);
+
+        // rows written by another instance, which appended their events to the outbox; both rows exist
+        // by the time either event is handled, and the pair is still counted once
+        appendEvent("WishlistItemAdded", OTHER_BOOK_ID, insertRow(OTHER_BOOK_ID));
+        appendEvent("WishlistItemAdded", BOOK_ID, insertRow(BOOK_ID));
+
+        await(() -> bookSuggestService.suggest("quokka t", 5),
+                suggestions -> suggestions.size() == 1 && suggestions.get(0).getPopularity() == 1);
+        List<RelatedBookVO> related = await(() -> bookRecommendationService.related(BOOK_ID, 5),
+                books -> !books.isEmpty());
+        assertThat(related).extracting(RelatedBookVO::getBookId, RelatedBookVO::getCoCount)
+                .containsExactly(tuple(OTHER_BOOK_ID, 1));
+
+        int removed = rowOf(BOOK_ID);
+        jdbc.update("DELETE FROM WISHLIST WHERE id = ?", removed);
+        appendEvent("WishlistItemRemoved", BOOK_ID, removed);
+        await(() -> bookSuggestService.suggest("quokka t", 5),
+                suggestions -> suggestions.get(0).getPopularity() == 0);
+        await(() -> bookRecommendationService.related(BOOK_ID, 5), List::isEmpty);
+    }
+
+    private int insertRow(int bookId) {
+        jdbc.update("INSERT INTO WISHLIST (user_id, book_id) VALUES (?, ?)", USER_ID, bookId);
+        return rowOf(bookId);
+    }
+
+    private int rowOf(int bookId) {
+        return jdbc.queryForObject("SELECT id FROM WISHLIST WHERE user_id = ? AND book_id = ?", Integer.class,
+                USER_ID, bookId);
+    }
+
+    private void appendEvent(String type, int bookId, int wishlistId) {
+        jdbc.update("INSERT INTO DOMAIN_EVENT (event_type, payload, event_time) VALUES (?, ?, ?)", type,
+                "{\"userId\":" + USER_ID + ",\"bookId\":" + bookId + ",\"wishlistId\":" + wishlistId + "}",
+                System.currentTimeMillis());
+    }
+
+    private static <T> T await(Supplier<T> read, Predicate<T> condition) throws InterruptedException {
+        T value = read.get();
+        for (int attempt = 0; attempt < 100 && !condition.test(value); attempt++) {
+            Thread.sleep(100);
+            value = read.get();
+        }
+        assertThat(value).matches(condition);
+        return value;
+    }
+}
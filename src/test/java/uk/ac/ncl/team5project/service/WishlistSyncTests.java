@@ -0,0 +1,96 @@
+package uk.ac.ncl.team5project.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.ac.ncl.team5project.model.vo.WishlistChangeVO;
+import uk.ac.ncl.team5project.model.vo.WishlistChangesVO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Per-user change versions for wishlist delta sync, and the reset a client gets once the tombstones it
+ * would need are pruned.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class WishlistSyncTests {
+
+    private static final int USER_ID = 872;
+
+    @Autowired
+    private WishlistSyncService wishlistSyncService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM WISHLIST_CHANGE WHERE user_id = ?", USER_ID);
+        jdbc.update("DELETE FROM WISHLIST_VERSION WHERE user_id = ?", USER_ID);
+    }
+
+    @Test
+    void changesSinceAVersionAreTheLatestChangeOfEachBook() {
+        WishlistChangesVO empty = wishlistSyncService.changesSince(USER_ID, null);
+        assertThat(empty.getVersion()).isZero();
+        assertThat(empty.getReset()).isTrue();
+        assertThat(empty.getChanges()).isEmpty();
+
+        assertThat(record(7, 1, false)).isEqualTo(1);
+        assertThat(record(8, 2, false)).isEqualTo(2);
+        assertThat(record(8, 2, true)).isEqualTo(3);
+
+        // a full snapshot lists only what is on the wishlist
+        WishlistChangesVO full = wishlistSyncService.changesSince(USER_ID, 0L);
+        assertThat(full.getVersion()).isEqualTo(3);
+        assertThat(full.getReset()).isTrue();
+        assertThat(full.getChanges()).extracting(WishlistChangeVO::getBook_id, WishlistChangeVO::getOp)
+                .containsExactly(tuple(7, WishlistChangeVO.ADD));
+
+        WishlistChangesVO delta = wishlistSyncService.changesSince(USER_ID, 1L);
+        assertThat(delta.getReset()).isFalse();
+        assertThat(delta.getChanges()).extracting(WishlistChangeVO::getBook_id, WishlistChangeVO::getOp,
+                WishlistChangeVO::getVersion).containsExactly(tuple(8, WishlistChangeVO.REMOVE, 3L));
+        assertThat(wishlistSyncService.changesSince(USER_ID, 3L).getChanges()).isEmpty();
+        // a version the server never issued, as after a restore, starts the client again
+        assertThat(wishlistSyncService.changesSince(USER_ID, 4L).getReset()).isTrue();
+
+        assertThat(record(8, 3, false)).isEqualTo(4);
+        assertThat(wishlistSyncService.changesSince(USER_ID, 3L).getChanges())
+                .extracting(WishlistChangeVO::getBook_id, WishlistChangeVO::getWishlist_id, WishlistChangeVO::getOp)
+                .containsExactly(tuple(8, 3, WishlistChangeVO.ADD));
+    }
+
+    @Test
+    void clientsThatSyncedBeforeAPrunedTombstoneStartAgain() {
+        record(7, 1, false);
+        record(8, 2, false);
+        record(8, 2, true);
+        jdbc.update("UPDATE WISHLIST_CHANGE SET change_time = TIMESTAMP '2000-01-01 00:00:00' WHERE user_id = ? AND deleted = 1",
+                USER_ID);
+
+        assertThat(wishlistSyncService.pruneTombstones()).isPositive();
+
+        WishlistChangesVO stale = wishlistSyncService.changesSince(USER_ID, 1L);
+        assertThat(stale.getReset()).isTrue();
+        assertThat(stale.getChanges()).extracting(WishlistChangeVO::getBook_id).containsExactly(7);
+        WishlistChangesVO current = wishlistSyncService.changesSince(USER_ID, 3L);
+        assertThat(current.getReset()).isFalse();
+        assertThat(current.getChanges()).isEmpty();
+    }
+
+    private long record(int bookId, int wishlistId, boolean removed) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> wishlistSyncService.recordChange(USER_ID, bookId, wishlistId, removed));
+    }
+}
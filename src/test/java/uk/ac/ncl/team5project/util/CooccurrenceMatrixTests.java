@@ -0,0 +1,79 @@
+package uk.ac.ncl.team5project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Checks bulk-loaded counts and scores, and that incremental updates land where a bulk load would.
+ */
+class CooccurrenceMatrixTests {
+
+    private static final List<int[]> BASKETS = List.of(
+            new int[]{1, 2, 3},
+            new int[]{1, 2},
+            new int[]{1, 4},
+            new int[]{2, 3});
+
+    @Test
+    void countsPairsAndRanksByCosine() {
+        CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+        matrix.addBaskets(BASKETS, new ForkJoinPool(3));
+
+        assertThat(matrix.popularity(1)).isEqualTo(3);
+        assertThat(matrix.popularity(4)).isEqualTo(1);
+        assertThat(matrix.popularity(99)).isZero();
+
+        List<CooccurrenceMatrix.Related> related = matrix.related(1, 10);
+        assertThat(related).extracting(CooccurrenceMatrix.Related::item).containsExactly(2, 4, 3);
+        CooccurrenceMatrix.Related two = related.get(0);
+        assertThat(two.count()).isEqualTo(2);
+        assertThat(two.score()).isCloseTo(2 / Math.sqrt(3 * 3), within(1e-9));
+        assertThat(matrix.related(1, 1)).hasSize(1);
+        assertThat(matrix.related(99, 5)).isEmpty();
+    }
+
+    @Test
+    void incrementalUpdatesMatchABulkLoad() {
+        CooccurrenceMatrix incremental = new CooccurrenceMatrix();
+        // the same baskets, filled one item at a time, plus an item added and removed again
+        incremental.itemAdded(1, new int[0]);
+        incremental.itemAdded(2, new int[]{1});
+        incremental.itemAdded(3, new int[]{1, 2});
+        incremental.itemAdded(1, new int[0]);
+        incremental.itemAdded(2, new int[]{1});
+        incremental.itemAdded(1, new int[0]);
+        incremental.itemAdded(4, new int[]{1});
+        incremental.itemAdded(2, new int[0]);
+        incremental.itemAdded(3, new int[]{2});
+        incremental.itemAdded(5000, new int[]{2, 3});
+        incremental.itemRemoved(5000, new int[]{2, 3});
+
+        CooccurrenceMatrix bulk = new CooccurrenceMatrix();
+        bulk.addBaskets(BASKETS, ForkJoinPool.commonPool());
+
+        for (int item = 1; item <= 4; item++) {
+            assertThat(incremental.popularity(item)).isEqualTo(bulk.popularity(item));
+            assertThat(incremental.related(item, 10)).isEqualTo(bulk.related(item, 10));
+        }
+        assertThat(incremental.popularity(5000)).isZero();
+        assertThat(incremental.related(5000, 10)).allMatch(related -> related.count() == 0);
+    }
+
+    @Test
+    void ignoresChangesToOversizedBaskets() {
+        int[] large = new int[CooccurrenceMatrix.MAX_BASKET];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = i + 10;
+        }
+        CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+        matrix.itemAdded(1, large);
+
+        assertThat(matrix.popularity(1)).isZero();
+        assertThat(matrix.related(10, 5)).isEmpty();
+    }
+}
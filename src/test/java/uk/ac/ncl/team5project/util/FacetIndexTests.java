@@ -0,0 +1,163 @@
+package uk.ac.ncl.team5project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks filtered pages and disjunctive facet counts against a brute-force scan, for an index built in
+ * bulk and optimized as the periodic rebuild does, and for books polled in afterwards.
+ */
+class FacetIndexTests {
+
+    private static final String CATEGORY = "category";
+    private static final String AUTHOR = "author";
+
+    @Test
+    void selectionsAreOredWithinADimensionAndAndedAcross() {
+        FacetIndex index = new FacetIndex(CATEGORY, AUTHOR);
+        add(index, 1, new int[]{10}, new int[]{100});
+        add(index, 2, new int[]{10, 11}, new int[]{101});
+        add(index, 3, new int[]{11}, new int[]{100});
+        add(index, 4, new int[]{12}, new int[]{100});
+        add(index, 5, new int[]{}, new int[]{});
+
+        FacetIndex.QueryResult either = index.query(Map.of(CATEGORY, new int[]{10, 11}), 0, 10, 10);
+        assertThat(either.total()).isEqualTo(3);
+        assertThat(either.bookIds()).containsExactly(1, 2, 3);
+
+        FacetIndex.QueryResult both = index.query(Map.of(CATEGORY, new int[]{10, 11}, AUTHOR, new int[]{100}), 0, 10, 10);
+        assertThat(both.bookIds()).containsExactly(1, 3);
+        // a dimension's counts ignore its own selection but not the others'
+        assertThat(both.facets().get(CATEGORY)).containsExactly(
+                new FacetIndex.FacetCount(10, 1), new FacetIndex.FacetCount(11, 1), new FacetIndex.FacetCount(12, 1));
+        assertThat(both.facets().get(AUTHOR)).containsExactly(
+                new FacetIndex.FacetCount(100, 2), new FacetIndex.FacetCount(101, 1));
+
+        // nothing selected: the whole catalog, paged in id order
+        FacetIndex.QueryResult page = index.query(Map.of(), 2, 2, 10);
+        assertThat(page.total()).isEqualTo(5);
+        assertThat(page.bookIds()).containsExactly(3, 4);
+        assertThat(index.query(Map.of(), 5, 2, 10).bookIds()).isEmpty();
+        assertThat(index.query(Map.of(CATEGORY, new int[]{99}), 0, 10, 10).total()).isZero();
+
+        assertThatThrownBy(() -> index.query(Map.of("publisher", new int[]{1}), 0, 10, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rebuiltIndexCountsLikeABruteForceScan() {
+        Random random = new Random(31);
+        Map<Integer, int[]> categories = new TreeMap<>();
+        Map<Integer, int[]> authors = new TreeMap<>();
+        for (int bookId = 1; bookId <= 5_000; bookId++) {
+            categories.put(bookId, randomValues(random, 30, 3));
+            authors.put(bookId, randomValues(random, 400, 2));
+        }
+        FacetIndex rebuilt = build(categories, authors);
+        rebuilt.optimize();
+
+        for (int query = 0; query < 50; query++) {
+            Map<String, int[]> selected = new HashMap<>();
+            selected.put(CATEGORY, randomValues(random, 30, 2));
+            if (query % 2 == 0) {
+                selected.put(AUTHOR, randomValues(random, 400, 20));
+            }
+            assertMatchesScan(rebuilt, categories, authors, selected);
+        }
+    }
+
+    @Test
+    void booksPolledAfterTheRebuildAreFoundAndCounted() {
+        Random random = new Random(7);
+        Map<Integer, int[]> categories = new TreeMap<>();
+        Map<Integer, int[]> authors = new TreeMap<>();
+        for (int bookId = 1; bookId <= 2_000; bookId++) {
+            categories.put(bookId, randomValues(random, 10, 2));
+            authors.put(bookId, randomValues(random, 50, 1));
+        }
+        FacetIndex index = build(categories, authors);
+        index.optimize();
+
+        // new book ids past the highest indexed one, as refreshNewBooks adds them, into run-compressed bitmaps
+        for (int bookId = 2_001; bookId <= 2_100; bookId++) {
+            int[] newCategories = bookId % 2 == 0 ? new int[]{3, 42} : new int[]{42};
+            int[] newAuthors = new int[]{bookId % 3 == 0 ? 7 : 77};
+            add(index, bookId, newCategories, newAuthors);
+            categories.put(bookId, newCategories);
+            authors.put(bookId, newAuthors);
+        }
+
+        FacetIndex.QueryResult onlyNew = index.query(Map.of(CATEGORY, new int[]{42}), 0, 200, 100);
+        assertThat(onlyNew.total()).isEqualTo(100);
+        assertThat(onlyNew.bookIds()[0]).isEqualTo(2_001);
+        assertThat(index.size()).isEqualTo(2_100);
+        assertMatchesScan(index, categories, authors, Map.of(CATEGORY, new int[]{3, 42}));
+        assertMatchesScan(index, categories, authors, Map.of(CATEGORY, new int[]{3}, AUTHOR, new int[]{7, 77}));
+    }
+
+    private static FacetIndex build(Map<Integer, int[]> categories, Map<Integer, int[]> authors) {
+        FacetIndex index = new FacetIndex(CATEGORY, AUTHOR);
+        categories.forEach((bookId, values) -> add(index, bookId, values, authors.get(bookId)));
+        return index;
+    }
+
+    private static void add(FacetIndex index, int bookId, int[] categories, int[] authors) {
+        index.addBook(bookId);
+        index.setValues(CATEGORY, bookId, categories);
+        index.setValues(AUTHOR, bookId, authors);
+    }
+
+    private static void assertMatchesScan(FacetIndex index, Map<Integer, int[]> categories,
+                                          Map<Integer, int[]> authors, Map<String, int[]> selected) {
+        int facetLimit = 1_000;
+        FacetIndex.QueryResult result = index.query(selected, 0, Integer.MAX_VALUE, facetLimit);
+
+        List<Integer> expectedIds = new ArrayList<>();
+        Map<Integer, Integer> categoryCounts = new HashMap<>();
+        Map<Integer, Integer> authorCounts = new HashMap<>();
+        for (int bookId : categories.keySet()) {
+            boolean inCategory = matches(categories.get(bookId), selected.get(CATEGORY));
+            boolean byAuthor = matches(authors.get(bookId), selected.get(AUTHOR));
+            if (inCategory && byAuthor) {
+                expectedIds.add(bookId);
+            }
+            if (byAuthor) {
+                Arrays.stream(categories.get(bookId)).forEach(value -> categoryCounts.merge(value, 1, Integer::sum));
+            }
+            if (inCategory) {
+                Arrays.stream(authors.get(bookId)).forEach(value -> authorCounts.merge(value, 1, Integer::sum));
+            }
+        }
+        assertThat(result.total()).isEqualTo(expectedIds.size());
+        assertThat(result.bookIds()).containsExactly(expectedIds.stream().mapToInt(Integer::intValue).toArray());
+        assertThat(toMap(result.facets().get(CATEGORY))).isEqualTo(categoryCounts);
+        assertThat(toMap(result.facets().get(AUTHOR))).isEqualTo(authorCounts);
+    }
+
+    private static boolean matches(int[] values, int[] selected) {
+        if (selected == null || selected.length == 0) {
+            return true;
+        }
+        return Arrays.stream(values).anyMatch(value -> Arrays.stream(selected).anyMatch(s -> s == value));
+    }
+
+    private static Map<Integer, Integer> toMap(List<FacetIndex.FacetCount> counts) {
+        Map<Integer, Integer> map = new HashMap<>();
+        counts.forEach(count -> map.put(count.value(), count.count()));
+        return map;
+    }
+
+    private static int[] randomValues(Random random, int bound, int max) {
+        return random.ints(random.nextInt(max + 1), 0, bound).distinct().toArray();
+    }
+}
@@ -0,0 +1,47 @@
+package uk.ac.ncl.team5project.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Feeds windows of synthetic response times to the limit.
+ */
+class GradientLimitTests {
+
+    private static final long MS = 1_000_000L;
+
+    private long now;
+
+    @Test
+    void growsWhileLatencyHoldsAndShrinksWhenItClimbs() {
+        GradientLimit limit = new GradientLimit(20);
+        window(limit, 10 * MS, 20);
+        window(limit, 10 * MS, 20);
+        int grown = limit.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        for (int i = 0; i < 10; i++) {
+            window(limit, 100 * MS, grown);
+        }
+        assertThat(limit.getLimit()).isLessThan(grown);
+        assertThat(limit.getRttNanos()).isEqualTo(100 * MS);
+    }
+
+    @Test
+    void idleWindowsLeaveTheLimitAlone() {
+        GradientLimit limit = new GradientLimit(20);
+        for (int i = 0; i < 10; i++) {
+            window(limit, 10 * MS, 2);
+        }
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    // One full window: ten samples spread over more than 100 ms, each started with inFlight calls in progress
+    private void window(GradientLimit limit, long rtt, int inFlight) {
+        for (int i = 0; i < 10; i++) {
+            now += 12 * MS;
+            limit.onSample(rtt, inFlight, now, 1, 1000);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package uk.ac.ncl.team5project.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Measures recall against exact search over random unit vectors, and checks the snapshot round trip.
+ */
+class HnswIndexTests {
+
+    private static final int DIMENSION = 32;
+    private static final int COUNT = 2000;
+    private static final int K = 10;
+
+    @Test
+    void findsMostOfTheExactNearestNeighbours() {
+        float[][] vectors = randomVectors(new Random(7), COUNT);
+        HnswIndex index = build(vectors);
+        Random queries = new Random(11);
+
+        int found = 0;
+        int queryCount = 100;
+        for (int q = 0; q < queryCount; q++) {
+            float[] query = randomVectors(queries, 1)[0];
+            Set<Integer> exact = new HashSet<>(exactNearest(vectors, query, K));
+            for (HnswIndex.Neighbor neighbor : index.search(query, K, 100)) {
+                if (exact.contains(index.idOf(neighbor.node()))) {
+                    found++;
+                }
+            }
+        }
+        assertThat((double) found / (queryCount * K)).isGreaterThanOrEqualTo(0.95);
+    }
+
+    @Test
+    void searchByIdLeavesOutTheItemItself() {
+        float[][] vectors = randomVectors(new Random(3), 200);
+        HnswIndex index = build(vectors);
+
+        List<HnswIndex.Neighbor> neighbours = index.searchById(1005, 5, 50);
+        assertThat(neighbours).hasSize(5)
+                .noneMatch(neighbor -> index.idOf(neighbor.node()) == 1005)
+                .isSortedAccordingTo(Comparator.comparingDouble(HnswIndex.Neighbor::distance));
+        assertThat(index.searchById(-1, 5, 50)).isEmpty();
+        assertThat(new HnswIndex(DIMENSION, 16, 100).search(vectors[0], 5, 50)).isEmpty();
+    }
+
+    @Test
+    void snapshotRoundTripAnswersQueriesIdentically(@TempDir Path dir) throws IOException {
+        float[][] vectors = randomVectors(new Random(5), 500);
+        HnswIndex index = build(vectors);
+        Path path = dir.resolve("nested/index.hnsw");
+        index.writeTo(path);
+
+        HnswIndex loaded = HnswIndex.readFrom(path);
+        assertThat(loaded.size()).isEqualTo(index.size());
+        assertThat(loaded.dimension()).isEqualTo(DIMENSION);
+        Random queries = new Random(9);
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomVectors(queries, 1)[0];
+            assertThat(loaded.search(query, K, 50)).isEqualTo(index.search(query, K, 50));
+        }
+        assertThat(loaded.searchById(1042, K, 50)).isEqualTo(index.searchById(1042, K, 50));
+
+        Path garbage = dir.resolve("garbage.hnsw");
+        Files.write(garbage, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThatThrownBy(() -> HnswIndex.readFrom(garbage)).isInstanceOf(IOException.class);
+    }
+
+    // Ids are offset from node numbers so a mix-up between the two shows
+    private static HnswIndex build(float[][] vectors) {
+        HnswIndex index = new HnswIndex(DIMENSION, 16, 100);
+        for (int i = 0; i < vectors.length; i++) {
+            index.add(1000 + i, vectors[i]);
+        }
+        return index;
+    }
+
+    private static List<Integer> exactNearest(float[][] vectors, float[] query, int k) {
+        return IntStream.range(0, vectors.length).boxed()
+                .sorted(Comparator.comparingDouble(i -> -VectorMath.dot(vectors[i], query)))
+                .limit(k)
+                .map(i -> 1000 + i)
+                .toList();
+    }
+
+    private static float[][] randomVectors(Random random, int count) {
+        float[][] vectors = new float[count][DIMENSION];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < DIMENSION; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+            VectorMath.normalize(vector);
+        }
+        return vectors;
+    }
+}
@@ -0,0 +1,153 @@
+package uk.ac.ncl.team5project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ranks small hand-made corpora and checks the index after adds, replacements and removals.
+ */
+class InvertedIndexTests {
+
+    @Test
+    void ranksByTermFrequencyRarityAndLength() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, "dragon dragon castle");
+        index.add(2, "dragon castle");
+        index.add(3, "dragon castle moat bridge tower keep wall");
+        index.add(4, "castle garden");
+
+        // more occurrences beat fewer, and a short document beats a long one with the same count
+        assertThat(ids(index.search("dragon", 0, 10))).containsExactly(1, 2, 3);
+        // the rarer term weighs more: "garden" lifts 4 above the documents matching only "castle"
+        assertThat(ids(index.search("castle garden", 0, 10)).get(0)).isEqualTo(4);
+        // stop words and unknown terms match nothing
+        assertThat(index.search("the", 0, 10).total()).isZero();
+        assertThat(index.search("unicorn", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void paginatesTheRankedHits() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, "dragon dragon dragon");
+        index.add(2, "dragon dragon");
+        index.add(3, "dragon");
+
+        InvertedIndex.SearchResult page = index.search("dragon", 1, 1);
+        assertThat(page.total()).isEqualTo(3);
+        assertThat(ids(page)).containsExactly(2);
+        assertThat(index.search("dragon", 3, 1).hits()).isEmpty();
+    }
+
+    @Test
+    void replacesAndRemovesDocuments() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, "dragon castle");
+        index.add(2, "castle moat");
+
+        index.add(1, "garden path");
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("dragon", 0, 10).total()).isZero();
+        assertThat(ids(index.search("garden", 0, 10))).containsExactly(1);
+        assertThat(ids(index.search("castle", 0, 10))).containsExactly(2);
+
+        index.remove(2);
+        index.remove(99);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("castle moat", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void deletedDocumentsDoNotCountTowardsDocumentFrequency() {
+        InvertedIndex updated = new InvertedIndex();
+        updated.add(1, "dragon castle");
+        updated.add(2, "castle moat");
+        updated.add(3, "dragon tower");
+        updated.add(3, "garden tower");
+        updated.add(4, "dragon wall");
+        updated.remove(4);
+
+        InvertedIndex fresh = new InvertedIndex();
+        fresh.add(1, "dragon castle");
+        fresh.add(2, "castle moat");
+        fresh.add(3, "garden tower");
+
+        assertThat(updated.search("dragon", 0, 10)).isEqualTo(fresh.search("dragon", 0, 10));
+        assertThat(updated.search("castle garden", 0, 10)).isEqualTo(fresh.search("castle garden", 0, 10));
+    }
+
+    @Test
+    void documentRepeatedWithinASegmentCountsOnce() {
+        InvertedIndex merged = new InvertedIndex();
+        merged.add(1, "dragon castle");
+        merged.merge(InvertedIndex.analyze(new int[]{2, 2, 3}, List.of("dragon moat", "garden moat", "dragon tower")));
+
+        InvertedIndex fresh = new InvertedIndex();
+        fresh.add(1, "dragon castle");
+        fresh.add(2, "garden moat");
+        fresh.add(3, "dragon tower");
+
+        for (String query : List.of("dragon", "moat", "garden tower")) {
+            assertThat(merged.search(query, 0, 10)).isEqualTo(fresh.search(query, 0, 10));
+        }
+        merged.remove(2);
+        fresh.remove(2);
+        assertThat(merged.search("dragon moat", 0, 10)).isEqualTo(fresh.search("dragon moat", 0, 10));
+    }
+
+    @Test
+    void documentFrequencyHoldsAcrossCompaction() {
+        InvertedIndex compacted = new InvertedIndex();
+        InvertedIndex fresh = new InvertedIndex();
+        for (int id = 0; id < 12_000; id++) {
+            compacted.add(id, "dragon " + id);
+            compacted.add(id, id % 2 == 0 ? "castle garden" : "castle");
+            fresh.add(id, id % 2 == 0 ? "castle garden" : "castle");
+        }
+        compacted.remove(0);
+        fresh.remove(0);
+        compacted.add(1, "garden");
+        fresh.add(1, "garden");
+
+        assertThat(compacted.search("dragon", 0, 10).total()).isZero();
+        // equal scores rank in ordinal order, which compaction renumbers, so only the scores are compared
+        assertThat(compacted.search("castle garden", 0, 5).total()).isEqualTo(fresh.search("castle garden", 0, 5).total());
+        assertThat(compacted.search("castle garden", 0, 5).hits()).extracting(InvertedIndex.Hit::score)
+                .isEqualTo(fresh.search("castle garden", 0, 5).hits().stream().map(InvertedIndex.Hit::score).toList());
+    }
+
+    @Test
+    void deepOffsetReturnsNoHits() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, "dragon castle");
+        index.add(2, "dragon tower");
+
+        InvertedIndex.SearchResult result = index.search("dragon", Integer.MAX_VALUE, 50);
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.hits()).isEmpty();
+        assertThat(ids(index.search("dragon", 1, Integer.MAX_VALUE))).hasSize(1);
+    }
+
+    @Test
+    void mergedSegmentsSearchLikeSingleAdds() {
+        InvertedIndex merged = new InvertedIndex();
+        merged.merge(InvertedIndex.analyze(new int[]{1, 2}, List.of("dragon castle", "castle moat")));
+        merged.merge(InvertedIndex.analyze(new int[]{3, 1}, List.of("dragon tower", "garden path")));
+
+        InvertedIndex added = new InvertedIndex();
+        added.add(2, "castle moat");
+        added.add(3, "dragon tower");
+        added.add(1, "garden path");
+
+        assertThat(merged.size()).isEqualTo(3);
+        for (String query : List.of("dragon", "castle", "garden tower")) {
+            assertThat(merged.search(query, 0, 10)).isEqualTo(added.search(query, 0, 10));
+        }
+    }
+
+    private static List<Integer> ids(InvertedIndex.SearchResult result) {
+        return result.hits().stream().map(InvertedIndex.Hit::docId).toList();
+    }
+}
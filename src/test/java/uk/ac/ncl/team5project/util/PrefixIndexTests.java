@@ -0,0 +1,99 @@
+package uk.ac.ncl.team5project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks prefix lookups against a brute-force scan, across block boundaries and after re-ranking.
+ */
+class PrefixIndexTests {
+
+    @Test
+    void returnsTheMostPopularTitlesForAPrefix() {
+        PrefixIndex index = PrefixIndex.build(List.of(
+                new PrefixIndex.Entry(1, "Dune", 5),
+                new PrefixIndex.Entry(2, "Dune Messiah", 9),
+                new PrefixIndex.Entry(3, "Dracula", 7),
+                new PrefixIndex.Entry(4, "Children of Dune", 20),
+                new PrefixIndex.Entry(5, "dungeon Crawl", 1)));
+
+        assertThat(ids(index.top("dun", 10))).containsExactly(2, 1, 5);
+        assertThat(ids(index.top("  DUNE", 1))).containsExactly(2);
+        assertThat(ids(index.top("d", 2))).containsExactly(2, 3);
+        assertThat(index.top("x", 5)).isEmpty();
+        assertThat(index.top("dune messiah", 5).get(0).title()).isEqualTo("Dune Messiah");
+    }
+
+    @Test
+    void matchesABruteForceScanAcrossBlocks() {
+        Random random = new Random(42);
+        List<PrefixIndex.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int c = 0; c < 3 + random.nextInt(6); c++) {
+                title.append((char) ('a' + random.nextInt(4)));
+            }
+            entries.add(new PrefixIndex.Entry(1000 - i, title.toString(), random.nextInt(50)));
+        }
+        PrefixIndex index = PrefixIndex.build(entries);
+
+        for (String prefix : List.of("a", "ab", "bca", "dd", "cab", "aaaa")) {
+            assertThat(popularities(index.top(prefix, 7))).isEqualTo(expected(entries, prefix, 7));
+        }
+        assertThat(index.entries()).containsExactlyInAnyOrderElementsOf(entries);
+    }
+
+    @Test
+    void reranksAfterPopularityChanges() {
+        List<PrefixIndex.Entry> entries = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            entries.add(new PrefixIndex.Entry(i, "Title " + i, i));
+        }
+        PrefixIndex index = PrefixIndex.build(entries);
+        assertThat(ids(index.top("title", 2))).containsExactly(40, 39);
+
+        index.adjustPopularity(3, 100);
+        index.adjustPopularity(40, -100);
+        assertThat(ids(index.top("title", 2))).containsExactly(3, 39);
+        assertThat(index.top("title 40", 1).get(0).popularity()).isZero();
+    }
+
+    @Test
+    void mergesAddedTitlesUntilTheNextBuild() {
+        PrefixIndex index = PrefixIndex.build(List.of(new PrefixIndex.Entry(1, "Emma", 3)));
+        index.add(2, "Emma's Secret", 1);
+        index.adjustPopularity(2, 5);
+
+        assertThat(index.contains(2)).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(ids(index.top("emma", 5))).containsExactly(2, 1);
+
+        PrefixIndex rebuilt = PrefixIndex.build(index.entries());
+        assertThat(rebuilt.overlaySize()).isZero();
+        assertThat(ids(rebuilt.top("emma", 5))).containsExactly(2, 1);
+    }
+
+    private static List<Integer> ids(List<PrefixIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(PrefixIndex.Suggestion::bookId).toList();
+    }
+
+    // Ties between equal popularities may come out in either order, so only the ranked popularities are compared
+    private static List<Integer> popularities(List<PrefixIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(PrefixIndex.Suggestion::popularity).toList();
+    }
+
+    private static List<Integer> expected(List<PrefixIndex.Entry> entries, String prefix, int k) {
+        return entries.stream()
+                .filter(e -> e.title().startsWith(prefix))
+                .map(PrefixIndex.Entry::popularity)
+                .sorted(Comparator.reverseOrder())
+                .limit(k)
+                .toList();
+    }
+}
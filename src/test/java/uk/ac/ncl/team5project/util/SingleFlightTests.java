@@ -0,0 +1,105 @@
+package uk.ac.ncl.team5project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Concurrent identical reads share one computation and its outcome; cached entries with a known load
+ * cost are refreshed early near expiry.
+ */
+class SingleFlightTests {
+
+    private final SingleFlight<String, List<Integer>> flight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallersShareOneResult() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<List<Integer>> leader = pool.submit(() -> flight.run("book-7-page-1", () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                await(release);
+                return List.of(1, 2, 3);
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Future<List<Integer>>> followers = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                followers.add(pool.submit(() -> flight.run("book-7-page-1", () -> {
+                    runs.incrementAndGet();
+                    return List.of();
+                })));
+            }
+            // a different key is not held back
+            assertThat(flight.run("book-8-page-1", () -> List.of(8))).containsExactly(8);
+            Thread.sleep(100);
+            release.countDown();
+            List<Integer> result = leader.get(5, TimeUnit.SECONDS);
+            for (Future<List<Integer>> follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(result);
+            }
+        }
+        assertThat(runs).hasValue(1);
+        // nothing is kept once the read finished
+        assertThat(flight.run("book-7-page-1", () -> List.of(4))).containsExactly(4);
+    }
+
+    @Test
+    void waitersReceiveTheSameFailure() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("shard unavailable");
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<List<Integer>> leader = pool.submit(() -> flight.run("key", () -> {
+                started.countDown();
+                await(release);
+                throw failure;
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<List<Integer>> follower = pool.submit(() -> flight.run("key", List::of));
+            Thread.sleep(100);
+            release.countDown();
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCause(failure);
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        }
+    }
+
+    @Test
+    void entriesWithALoadCostAreRefreshedBeforeTheyExpire() throws InterruptedException {
+        ExpiringCache<Integer, String> cache = new ExpiringCache<>(() -> 10, () -> 200L);
+        cache.putIfUnchanged(1, cache.stamp(1), "costly", 1_000);
+        cache.putIfUnchanged(2, cache.stamp(2), "no cost recorded");
+        Thread.sleep(150);
+        int early = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cache.get(1) == null) {
+                early++;
+            }
+        }
+        // with a load as slow as the whole TTL, nearly every read this close to expiry refreshes
+        assertThat(early).isGreaterThan(50);
+        assertThat(cache.get(2)).isEqualTo("no cost recorded");
+        // an early refresh leaves the entry for the other readers
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}